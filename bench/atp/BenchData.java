@@ -0,0 +1,207 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * Generators for the inputs of the benchmarks.  Everything is drawn
+ * from a Random with a fixed seed, so that two runs, and two
+ * implementations, see the same terms and clauses.
+ *
+ * Terms have a given depth and width (the arity of every function
+ * symbol).  Leaves are constants or variables.  sharing is the
+ * percentage of variable leaves that reuse a variable already in the
+ * term, so 0 gives a linear term and 100 a term with one variable.
+ */
+public class BenchData {
+
+    public Random random = null;
+    public int depth = 3;
+    public int width = 2;
+    public int sharing = 50;
+
+    private static String[] constants = {"a", "b", "c", "d"};
+
+    /** ***************************************************************
+     */
+    public BenchData(long seed, int depth, int width, int sharing) {
+
+        random = new Random(seed);
+        this.depth = depth;
+        this.width = width;
+        this.sharing = sharing;
+    }
+
+    /** ***************************************************************
+     * Build the shape of a term: a string with "#n" in place of the
+     * n-th variable.  The number of variables is added to vars.
+     */
+    private void shape(StringBuffer sb, int level, int[] vars) {
+
+        if (level == 0) {
+            if (random.nextInt(2) == 0)
+                sb.append(constants[random.nextInt(constants.length)]);
+            else if (vars[0] > 0 && random.nextInt(100) < sharing)
+                sb.append("#" + random.nextInt(vars[0]) + "#");
+            else
+                sb.append("#" + (vars[0]++) + "#");
+            return;
+        }
+        sb.append("f" + level + "(");
+        for (int i = 0; i < width; i++) {
+            if (i > 0)
+                sb.append(",");
+            shape(sb, level - 1, vars);
+        }
+        sb.append(")");
+    }
+
+    /** ***************************************************************
+     * Fill in the variables of a shape, with the n-th value of fill.
+     */
+    private static String fill(String shape, String[] fill) {
+
+        StringBuffer sb = new StringBuffer();
+        int i = 0;
+        while (i < shape.length()) {
+            char c = shape.charAt(i);
+            if (c == '#') {
+                int end = shape.indexOf('#', i + 1);
+                sb.append(fill[Integer.parseInt(shape.substring(i + 1, end))]);
+                i = end + 1;
+            }
+            else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     * @return a ground term of the given depth.
+     */
+    public String groundTerm(int level) {
+
+        StringBuffer sb = new StringBuffer();
+        int[] vars = new int[1];
+        shape(sb, level, vars);
+        String[] consts = new String[vars[0]];
+        for (int i = 0; i < consts.length; i++)
+            consts[i] = constants[random.nextInt(constants.length)];
+        return fill(sb.toString(), consts);
+    }
+
+    /** ***************************************************************
+     * @return a pair of terms.  The first has variables X0, X1, ...
+     * The second is an instance of the first, with ground subterms for
+     * the variables if instance is true, or else with ground subterms
+     * for half of the variables and new variables Y0, Y1, ... for the
+     * others.  In both cases the first term matches or unifies with
+     * the second.
+     */
+    public Term[] termPair(boolean instance) {
+
+        StringBuffer sb = new StringBuffer();
+        int[] vars = new int[1];
+        shape(sb, depth, vars);
+        String[] xs = new String[vars[0]];
+        String[] ys = new String[vars[0]];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = "X" + i;
+            if (instance || random.nextInt(2) == 0)
+                ys[i] = groundTerm(Math.max(0, depth / 2));
+            else
+                ys[i] = "Y" + i;
+        }
+        Term[] result = new Term[2];
+        result[0] = Term.string2Term(fill(sb.toString(), xs));
+        result[1] = Term.string2Term(fill(sb.toString(), ys));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return a pair of terms that don't unify, because the last
+     * constant of the second one is different.  Unification only
+     * fails when it gets to that constant.
+     */
+    public Term[] clashPair() {
+
+        StringBuffer sb = new StringBuffer();
+        int[] vars = new int[1];
+        shape(sb, depth, vars);
+        String shape = sb.toString();
+        int pos = shape.length() - 1;
+        while (pos >= 0 && "abcd".indexOf(shape.charAt(pos)) < 0)
+            pos--;
+        String shape2 = null;
+        if (pos >= 0)
+            shape2 = shape.substring(0, pos) + "e" + shape.substring(pos + 1);
+        else
+            shape2 = shape.replaceFirst("f", "g");  // no constants, change the top symbol
+        String[] xs = new String[vars[0]];
+        String[] ys = new String[vars[0]];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = "X" + i;
+            ys[i] = groundTerm(Math.max(0, depth / 2));
+        }
+        Term[] result = new Term[2];
+        result[0] = Term.string2Term(fill(shape, xs));
+        result[1] = Term.string2Term(fill(shape2, ys));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return a TPTP-style clause set: count clauses of 1 to maxLits
+     * literals over preds predicates of arity width, with arguments of
+     * up to the given depth.  This is a stand-in for problems sampled
+     * from TPTP, which can be used instead with ClauseSet.parseFromFile().
+     */
+    public ClauseSet corpus(int count, int maxLits, int preds) {
+
+        StringBuffer sb = new StringBuffer();
+        for (int c = 0; c < count; c++) {
+            int lits = 1 + random.nextInt(maxLits);
+            StringBuffer cl = new StringBuffer();
+            int[] vars = new int[1];
+            for (int l = 0; l < lits; l++) {
+                if (l > 0)
+                    cl.append("|");
+                if (random.nextInt(2) == 0)
+                    cl.append("~");
+                cl.append("p" + random.nextInt(preds) + "(");
+                for (int i = 0; i < width; i++) {
+                    if (i > 0)
+                        cl.append(",");
+                    shape(cl, random.nextInt(depth + 1), vars);
+                }
+                cl.append(")");
+            }
+            String[] xs = new String[vars[0]];
+            for (int i = 0; i < xs.length; i++)
+                xs[i] = "X" + i;
+            sb.append("cnf(c" + c + ",axiom," + fill(cl.toString(), xs) + ").\n");
+        }
+        ClauseSet result = new ClauseSet();
+        result.parse(new Lexer(sb.toString()));
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+/** ***************************************************************
+ * Run the benchmarks with the GC profiler, which adds the allocation
+ * rate (gc.alloc.rate.norm is bytes per operation) next to the
+ * operations per second of each benchmark, and write all results to
+ * build/bench/results.csv.  Any JMH command line options can be given,
+ * e.g. a benchmark name pattern or -p depth=4 to fix a parameter.
+ */
+public class BenchMain {
+
+    /** ***************************************************************
+     */
+    public static void main(String[] args) throws Exception {
+
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result("build/bench/results.csv");
+        if (cmd.getIncludes().isEmpty())
+            builder.include("atp\\..*Bench\\.");
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** ***************************************************************
+ * Benchmarks for the operations on pairs of clauses: subsumption and
+ * resolution.  The clauses come from a generated TPTP-style clause set,
+ * or from a TPTP CNF problem given with the corpus parameter, e.g.
+ * -p corpus=$TPTP/Problems/PUZ/PUZ001-1.p
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClauseBench {
+
+    @Param({""})
+    public String corpus;  // a TPTP CNF file, or empty for a generated clause set
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"3", "6"})
+    public int maxLits;
+
+    private static final int PAIRS = 1024;  // a power of 2
+
+    private Clause[][] randomPairs = new Clause[PAIRS][];    // mostly no subsumption
+    private Clause[][] instancePairs = new Clause[PAIRS][];  // the first subsumes the second
+    private Clause[][] resPairs = new Clause[PAIRS][];       // resolvable literals are at 0
+    private int next = 0;
+
+    /** ***************************************************************
+     * Return a ground instance of the clause, with one more literal
+     * taken from other.
+     */
+    private static Clause instance(Clause c, Clause other, BenchData data) {
+
+        Substitutions subst = new Substitutions();
+        for (Term var : c.collectVars())
+            subst.addSubst(var, Term.string2Term(data.groundTerm(1)));
+        Clause result = c.instantiate(subst);
+        result.literals.add(other.literals.get(0).deepCopy());
+        return result;
+    }
+
+    /** ***************************************************************
+     * Return a copy of c with the literal at index i moved to the front.
+     */
+    private static Clause front(Clause c, int i) {
+
+        Clause result = c.deepCopy();
+        Literal l = result.literals.remove(i);
+        result.literals.add(0, l);
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+
+        BenchData data = new BenchData(42, depth, 2, 50);
+        ClauseSet cs = null;
+        if (Term.emptyString(corpus))
+            cs = data.corpus(500, maxLits, 8);
+        else
+            cs = ClauseSet.parseFromFile(corpus);
+        ArrayList<Clause> clauses = cs.clauses;
+        Random random = data.random;
+        for (int i = 0; i < PAIRS; i++) {
+            Clause c1 = clauses.get(random.nextInt(clauses.size()));
+            Clause c2 = clauses.get(random.nextInt(clauses.size()));
+            randomPairs[i] = new Clause[] {c1, c2};
+            instancePairs[i] = new Clause[] {c1, instance(c1, c2, data)};
+        }
+        // Pairs of literals with the same predicate and opposite signs.
+        // Unification can still fail on the arguments.
+        ArrayList<Clause[]> found = new ArrayList<>();
+        for (int tries = 0; tries < 100 * PAIRS && found.size() < PAIRS; tries++) {
+            Clause c1 = clauses.get(random.nextInt(clauses.size()));
+            Clause c2 = clauses.get(random.nextInt(clauses.size()));
+            int i = random.nextInt(c1.literals.size());
+            int j = random.nextInt(c2.literals.size());
+            Literal l1 = c1.literals.get(i);
+            Literal l2 = c2.literals.get(j);
+            if (l1.isNegative() != l2.isNegative() && l1.atom.getFunc().equals(l2.atom.getFunc()))
+                found.add(new Clause[] {front(c1, i), front(c2, j)});
+        }
+        if (found.size() == 0)
+            throw new IllegalStateException("ClauseBench: no resolvable literals in the corpus");
+        for (int i = 0; i < PAIRS; i++)
+            resPairs[i] = found.get(i % found.size());
+    }
+
+    /** ***************************************************************
+     */
+    private int index() {
+
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean subsumesRandom() {
+
+        Clause[] pair = randomPairs[index()];
+        return Subsumption.subsumes(pair[0], pair[1]);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean subsumesInstance() {
+
+        Clause[] pair = instancePairs[index()];
+        return Subsumption.subsumes(pair[0], pair[1]);
+    }
+
+    /** ***************************************************************
+     * Resolution.resolution() without recordResolvent(), which adds
+     * the resolvent to the parents and so would grow them with every
+     * invocation.
+     */
+    @Benchmark
+    public Clause resolution() {
+
+        Clause[] pair = resPairs[index()];
+        return Resolution.resolvent(pair[0], 0, pair[1], 0);
+    }
+}
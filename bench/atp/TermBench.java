@@ -0,0 +1,131 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** ***************************************************************
+ * Benchmarks for the operations on single terms: unification,
+ * matching, equality and hashing.  Each invocation works on the next
+ * of PAIRS pre-built pairs of terms, so that the result doesn't depend
+ * on one lucky term.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermBench {
+
+    @Param({"2", "4", "6"})
+    public int depth;
+
+    @Param({"2", "3"})
+    public int width;
+
+    @Param({"0", "50", "100"})
+    public int sharing;
+
+    private static final int PAIRS = 256;  // a power of 2
+
+    private Term[][] unifiable = new Term[PAIRS][];  // unify, with variables on both sides
+    private Term[][] clashing = new Term[PAIRS][];   // fail to unify at the last constant
+    private Term[][] instances = new Term[PAIRS][];  // the first matches the second
+    private Term[][] copies = new Term[PAIRS][];     // equal, but different objects
+    private int next = 0;
+
+    /** ***************************************************************
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+
+        BenchData data = new BenchData(42, depth, width, sharing);
+        for (int i = 0; i < PAIRS; i++) {
+            unifiable[i] = data.termPair(false);
+            clashing[i] = data.clashPair();
+            instances[i] = data.termPair(true);
+            Term t = instances[i][1];
+            copies[i] = new Term[] {t, t.deepCopy()};
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private int index() {
+
+        next = (next + 1) & (PAIRS - 1);
+        return next;
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public Substitutions mgu() {
+
+        Term[] pair = unifiable[index()];
+        return Unification.mgu(pair[0], pair[1]);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public Substitutions mguClash() {
+
+        Term[] pair = clashing[index()];
+        return Unification.mgu(pair[0], pair[1]);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean match() {
+
+        Term[] pair = instances[index()];
+        return new BacktrackSubstitution().match(pair[0], pair[1]);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean matchNorec() {
+
+        Term[] pair = instances[index()];
+        return new BacktrackSubstitution().match_norec(pair[0], pair[1]);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public boolean termEquals() {
+
+        Term[] pair = copies[index()];
+        return pair[0].equals(pair[1]);
+    }
+
+    /** ***************************************************************
+     */
+    @Benchmark
+    public int termHashCode() {
+
+        return copies[index()][1].hashCode();
+    }
+}
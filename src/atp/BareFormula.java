@@ -504,13 +504,13 @@ public class BareFormula {
         //System.out.println("BareFormula.toLiteral(): " + this.toStructuredString());
         if (!isEqLiteral())
             return null;
-        String thisString = this.toString();
-        if (thisString.charAt(0) == '(' && thisString.charAt(thisString.length()-1) == ')')
-            thisString = thisString.substring(1,thisString.length()-1);
-        if (thisString.startsWith("~~"))
-            thisString = thisString.substring(2);
-        Lexer lex = new Lexer(thisString);
-        return Literal.parseLiteral(lex);
+        // built from the parts rather than parsed from toString(), which
+        // would lose the marked names of ProofContext.newName()
+        if (Term.emptyString(op))
+            return new Literal(lit1.atom.deepCopy(),lit1.negated);
+        if (op.equals("~"))
+            return new Literal(lit1.atom.deepCopy(),!lit1.negated);
+        return new Literal(new Term("=",lit1.atom.deepCopy(),lit2.atom.deepCopy()),false);
     }
 
     /** ***************************************************************
@@ -1263,7 +1263,7 @@ public class BareFormula {
     public static BareFormula parse(Lexer lex) throws IOException, ParseException {
 
         if (level > 25) { // trap pathological cases of nested formulas
-            System.out.println("Error in BareFormula.parse(): too much nesting at line: " + lex.pos + " in " + lex.line);
+            System.out.println("Error in BareFormula.parse(): too much nesting at line: " + lex.pos + " in " + lex.currentLine());
             return null;
         }
         level++;
@@ -41,7 +41,6 @@ import java.util.*;
 */
 public class Clause extends Derivable implements Comparable {
 
-    public static int clauseIDcounter = 0;
     public ArrayList<Literal> literals = new ArrayList<Literal>(); 
     public String type = "plain";
     public ArrayList<String> support = new ArrayList<String>();  // Clauses or Formulas from which this clause is derived.
@@ -51,6 +50,8 @@ public class Clause extends Derivable implements Comparable {
     public ArrayList<Integer> evaluation = null;                 // Must be the same order as clause evaluation 
                                                                  // function list in EvalStructure.
     public Substitutions subst = new Substitutions();            // The substitutions that support any derived clause.
+    public Substitutions[] supportSubst = null;                  // If not null, where the variables of each clause
+                                                                 // in support went in this clause.
     public ArrayList<PredAbstractionPair> predicateAbstraction = null;
 
     /** ***************************************************************
@@ -148,7 +149,7 @@ public class Clause extends Derivable implements Comparable {
     /** ***************************************************************
      */
     public static void resetCounter() {
-        clauseIDcounter = 0;
+        ProofContext.current().clauseIDcounter = 0;
     }
 
     /** ***************************************************************
@@ -213,8 +214,9 @@ public class Clause extends Derivable implements Comparable {
      */
     public void createName() {
             
-        name = "c" + Integer.toString(clauseIDcounter);
-        clauseIDcounter++;
+        ProofContext context = ProofContext.current();
+        name = "c" + Integer.toString(context.clauseIDcounter);
+        context.clauseIDcounter++;
     }
     
     /** ***************************************************************
@@ -249,12 +251,27 @@ public class Clause extends Derivable implements Comparable {
             result.literals.add(literals.get(i).deepCopy());
         if (subst != null)
             result.subst = subst.deepCopy();
+        if (supportSubst != null) {
+            result.supportSubst = new Substitutions[supportSubst.length];
+            for (int i = 0; i < supportSubst.length; i++)
+                result.supportSubst[i] = supportSubst[i].deepCopy();
+        }
         if (derivation != null)
             result.derivation = this.derivation.deepCopy();
         result.refCount = this.refCount;
         return result;
     }
     
+    /** ***************************************************************
+     * @return true if the clause comes from the conjecture, as its
+     * type says.
+     */
+    public boolean isConjecture() {
+
+        return type.startsWith("negated_conjecture") || type.startsWith("negatedConjecture") ||
+                type.startsWith("conjecture");
+    }
+
     /** ***************************************************************
      * Check to see if the contents of two clauses are equal.  Ignore
      * all meta-information such as clause name, type and information
@@ -617,17 +634,6 @@ public class Clause extends Derivable implements Comparable {
         return newC;
     }
     
-    /** ***************************************************************
-     * Return a copy of self with fresh variables.
-     */
-    public Clause freshVarCopy() {
-
-        LinkedHashSet<Term> vars = collectVars();
-        Substitutions s = Substitutions.freshVarSubst(vars);
-        subst.addAll(s);
-        return substitute(s);
-    }
-
     /** ***************************************************************
      * Return a copy of self with variables that are renumbered from 0,
      * which will make clauses that are equal except for their variable
@@ -0,0 +1,678 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+/** ***************************************************************
+ * An on-disk cache of clausified TPTP files, so that the large axiom
+ * files that many problems include are parsed and clausified once.
+ *
+ * A file is cached with all the files it includes, also those that come
+ * with the cached entry of an included file.  The entry is kept in
+ * directory, under a hash of the canonical path of the file and the
+ * clausifier settings.  It holds the size, modification time and
+ * SHA-256 hash of every file in it, taken before the file is read, so
+ * a file that changes while it is read is never cached as unchanged.
+ * The entry is used while every file has the same size and either the
+ * same modification time or, only then computed, the same hash.  As
+ * with make, a change that keeps both the size and the modification
+ * time is not noticed.  A stale entry is overwritten by the next run.
+ *
+ * The entry holds one record per fof or cnf statement, as
+ * ParallelClausifier emits it before renaming: the clauses with their
+ * derivations, the formula that was parsed, and how much of each
+ * ProofContext counter the statement used.  Read back, the statements
+ * go through ParallelClausifier again, so the clauses get the names
+ * and symbols that clausifying the file would give them.
+ *
+ * Strings are written once and then referred to by number, terms as
+ * their symbol followed by their arguments.  Entries are read through
+ * a memory mapping.
+ */
+public class ClauseCache {
+
+    public static String directory = null;  // null for no cache
+
+    public static final int MAGIC = 0x4a524343;
+    public static final int VERSION = 2;
+
+    // record kinds of the derivation graph of a statement
+    private static final byte END = 0;
+    private static final byte FORMULA = 1;
+    private static final byte DERIVATION = 2;
+    private static final byte CLAUSE = 3;
+    private static final byte DERIVABLE = 4;
+
+    /** ***************************************************************
+     * A statement of a cached file.
+     */
+    public static class Statement {
+
+        public ArrayList<Clause> clauses = new ArrayList<>();
+        public ProofContext context = new ProofContext();  // only the counters are used
+        public Formula input = null;
+    }
+
+    /** ***************************************************************
+     * A cached file: the flags and SZS status of its ClauseSet, without
+     * clauses, its statements, and the stamps of the file and of all
+     * the files it includes, directly or not.
+     */
+    public static class Entry {
+
+        public ClauseSet header = new ClauseSet();
+        public ArrayList<Stamp> files = new ArrayList<>();
+        public ArrayList<Statement> statements = new ArrayList<>();
+    }
+
+    /** ***************************************************************
+     * @return true if files are cached.  Only SmallCNFization is,
+     * since the clauses of Clausifier change with the numbering, see
+     * ParallelClausifier.
+     */
+    public static boolean enabled() {
+
+        return directory != null && Formula.smallCNF;
+    }
+
+    /** ***************************************************************
+     * @return the settings that the clauses of a file depend on.
+     */
+    private static String settings() {
+
+        return "smallCNF=" + Formula.smallCNF + " definitionalCNF=" + Formula.definitionalCNF +
+                " definitionLimit=" + Formula.definitionLimit + " maxFormulaCharLen=" + Formula.maxFormulaCharLen +
+                " includePath=" + Formula.includePath + " defaultPath=" + Formula.defaultPath;
+    }
+
+    /** ***************************************************************
+     */
+    private static String hex(byte[] bytes) {
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes)
+            sb.append(String.format("%02x",b));
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     */
+    private static MessageDigest sha256() {
+
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** ***************************************************************
+     * @return the SHA-256 hash of the contents of the file.
+     */
+    public static String contentHash(File f) throws IOException {
+
+        MessageDigest md = sha256();
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long pos = 0; pos < size; pos += Integer.MAX_VALUE) {
+                long len = Math.min(Integer.MAX_VALUE, size - pos);
+                md.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, len));
+            }
+        }
+        return hex(md.digest());
+    }
+
+    /** ***************************************************************
+     * The canonical path, size, modification time and content hash of
+     * a file.
+     */
+    public static class Stamp {
+
+        public File file = null;
+        public String path = null;
+        public long size = 0;
+        public long modified = 0;
+        public String hash = null;
+    }
+
+    /** ***************************************************************
+     * @return the stamp of the file as it is now.
+     */
+    private static Stamp stamp(File f) throws IOException {
+
+        Stamp s = new Stamp();
+        s.file = f;
+        s.path = f.getCanonicalPath();
+        s.size = f.length();
+        s.modified = f.lastModified();
+        s.hash = contentHash(f);
+        return s;
+    }
+
+    /** ***************************************************************
+     * @return the file that holds the entry for f.
+     */
+    private static File cacheFile(File f) throws IOException {
+
+        MessageDigest md = sha256();
+        md.update((f.getCanonicalPath() + "\n" + settings()).getBytes(StandardCharsets.UTF_8));
+        return new File(directory, hex(md.digest()) + ".ccache");
+    }
+
+    /** ***************************************************************
+     * Records the statements of a file while it is read, and writes
+     * them to the cache at the end.  Each file is stamped when it is
+     * added, before it is read.
+     */
+    public static class Recorder {
+
+        private File file = null;
+        private ArrayList<Stamp> files = new ArrayList<>();  // of the file and the files it includes
+        private boolean failed = false;  // a file could not be stamped
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private DataOutputStream out = new DataOutputStream(bytes);
+        private HashMap<String,Integer> strings = new HashMap<>();
+        private IdentityHashMap<Object,Integer> nodes = null;
+        private int statements = 0;
+
+        /** ***************************************************************
+         */
+        public Recorder(File f) {
+
+            file = f;
+            addFile(f);
+        }
+
+        /** ***************************************************************
+         * Add a file that the recorded file includes, before it is read.
+         */
+        public void addFile(File f) {
+
+            try {
+                addStamp(stamp(f));
+            }
+            catch (IOException e) {
+                System.out.println("# Error in ClauseCache.Recorder.addFile(): " + f + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+
+        /** ***************************************************************
+         * Add a file that the recorded file includes with its stamp, such
+         * as one of the files of a cached entry.  A file is added once.
+         */
+        public void addStamp(Stamp s) {
+
+            for (Stamp old : files)
+                if (old.path.equals(s.path))
+                    return;
+            files.add(s);
+        }
+
+        /** ***************************************************************
+         */
+        private void writeString(String s) throws IOException {
+
+            if (s == null) {
+                out.writeInt(-2);
+                return;
+            }
+            Integer id = strings.get(s);
+            if (id != null) {
+                out.writeInt(id);
+                return;
+            }
+            strings.put(s,strings.size());
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(-1);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+
+        /** ***************************************************************
+         */
+        private void writeStrings(ArrayList<String> list) throws IOException {
+
+            out.writeInt(list.size());
+            for (String s : list)
+                writeString(s);
+        }
+
+        /** ***************************************************************
+         */
+        private void writeTerm(Term t) throws IOException {
+
+            writeString(t.t);
+            out.writeInt(t.subterms.size());
+            for (Term sub : t.subterms)
+                writeTerm(sub);
+        }
+
+        /** ***************************************************************
+         */
+        private void writeLiteral(Literal l) throws IOException {
+
+            out.writeBoolean(l != null);
+            if (l == null)
+                return;
+            out.writeBoolean(l.negated);
+            out.writeBoolean(l.inferenceLit);
+            writeTerm(l.atom);
+        }
+
+        /** ***************************************************************
+         */
+        private void writeFormula(BareFormula f) throws IOException {
+
+            out.writeBoolean(f != null);
+            if (f == null)
+                return;
+            writeString(f.op);
+            writeFormula(f.child1);
+            writeLiteral(f.lit1);
+            writeFormula(f.child2);
+            writeLiteral(f.lit2);
+        }
+
+        /** ***************************************************************
+         * Write the record of d, after those of the nodes it refers to.
+         * @return the number of the record, or -1 for null.
+         */
+        private int writeNode(Derivable d) throws IOException {
+
+            if (d == null)
+                return -1;
+            Integer id = nodes.get(d);
+            if (id != null)
+                return id;
+            ArrayList<Integer> parents = new ArrayList<>();
+            if (d instanceof Derivation) {
+                for (Derivable p : ((Derivation) d).parents)
+                    parents.add(writeNode(p));
+            }
+            int derivation = writeNode(d.derivation);
+            if (d instanceof Formula) {
+                Formula f = (Formula) d;
+                out.writeByte(FORMULA);
+                writeString(f.name);
+                writeString(f.type);
+                writeString(f.rationale);
+                writeString(f.status);
+                writeStrings(f.support);
+                writeFormula(f.form);
+            }
+            else if (d instanceof Derivation) {
+                Derivation dn = (Derivation) d;
+                out.writeByte(DERIVATION);
+                writeString(dn.name);
+                writeString(dn.operator);
+                writeString(dn.status);
+                out.writeInt(parents.size());
+                for (int p : parents)
+                    out.writeInt(p);
+            }
+            else if (d instanceof Clause) {
+                Clause c = (Clause) d;
+                out.writeByte(CLAUSE);
+                writeString(c.name);
+                writeString(c.type);
+                writeString(c.rationale);
+                out.writeInt(c.depth);
+                writeStrings(c.support);
+                out.writeInt(c.literals.size());
+                for (Literal l : c.literals)
+                    writeLiteral(l);
+            }
+            else {
+                out.writeByte(DERIVABLE);
+                writeString(d.name);
+            }
+            out.writeInt(derivation);
+            id = nodes.size();
+            nodes.put(d,id);
+            return id;
+        }
+
+        /** ***************************************************************
+         * Record a statement, before its names are shifted.
+         */
+        public void write(ArrayList<Clause> clauses, ProofContext context, Formula input) {
+
+            try {
+                out.writeInt(context.varCounter);
+                out.writeInt(context.skolemCount);
+                out.writeInt(context.definitionCounter);
+                out.writeInt(context.axiomCounter);
+                out.writeInt(context.formulaIdCounter);
+                out.writeInt(context.derivedIdCounter);
+                out.writeInt(context.clauseIDcounter);
+                out.writeInt(context.eqAxiomCounter);
+                nodes = new IdentityHashMap<>();
+                int in = writeNode(input);
+                ArrayList<Integer> ids = new ArrayList<>();
+                for (Clause c : clauses)
+                    ids.add(writeNode(c));
+                out.writeByte(END);
+                out.writeInt(in);
+                out.writeInt(ids.size());
+                for (int id : ids)
+                    out.writeInt(id);
+                nodes = null;
+                statements++;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);  // not thrown by a ByteArrayOutputStream
+            }
+        }
+
+        /** ***************************************************************
+         * Write the entry, with the flags and SZS status of header.  The
+         * entry is written to a temporary file that then replaces the
+         * old one, so a reader never sees half an entry.
+         */
+        public void store(ClauseSet header) {
+
+            if (failed)
+                return;
+            for (Stamp s : files) {
+                if (s.file.length() != s.size || s.file.lastModified() != s.modified) {
+                    System.out.println("# INFO in ClauseCache.store(): " + s.file +
+                            " changed while it was read, " + file + " is not stored");
+                    return;
+                }
+            }
+            File tmp = null;
+            try {
+                Files.createDirectories(Paths.get(directory));
+                File target = cacheFile(file);
+                tmp = File.createTempFile("ccache", ".tmp", new File(directory));
+                try (DataOutputStream dos = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                    dos.writeInt(MAGIC);
+                    dos.writeInt(VERSION);
+                    writeUTF8(dos,settings());
+                    dos.writeInt(files.size());
+                    for (Stamp s : files) {
+                        writeUTF8(dos,s.path);
+                        dos.writeLong(s.size);
+                        dos.writeLong(s.modified);
+                        writeUTF8(dos,s.hash);
+                    }
+                    writeUTF8(dos,header.SZSexpected);
+                    dos.writeBoolean(header.hasConjecture);
+                    dos.writeBoolean(header.isFOF);
+                    dos.writeInt(statements);
+                    bytes.writeTo(dos);
+                }
+                try {
+                    Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                System.out.println("# INFO in ClauseCache.store(): stored " + file + " in " + target);
+            }
+            catch (IOException e) {
+                System.out.println("# Error in ClauseCache.store(): " + file + ": " + e.getMessage());
+                if (tmp != null)
+                    tmp.delete();
+            }
+        }
+    }
+
+    /** ***************************************************************
+     */
+    private static void writeUTF8(DataOutputStream out, String s) throws IOException {
+
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /** ***************************************************************
+     */
+    private static String readUTF8(ByteBuffer buf) {
+
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** ***************************************************************
+     * Reads the records of an entry.
+     */
+    private static class Reader {
+
+        ByteBuffer buf = null;
+        ArrayList<String> strings = new ArrayList<>();
+        ArrayList<Derivable> nodes = null;
+
+        Reader(ByteBuffer b) { buf = b; }
+
+        /** ***************************************************************
+         */
+        String readString() {
+
+            int id = buf.getInt();
+            if (id == -2)
+                return null;
+            if (id >= 0)
+                return strings.get(id);
+            String s = readUTF8(buf);
+            strings.add(s);
+            return s;
+        }
+
+        /** ***************************************************************
+         */
+        ArrayList<String> readStrings() {
+
+            int n = buf.getInt();
+            ArrayList<String> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++)
+                result.add(readString());
+            return result;
+        }
+
+        /** ***************************************************************
+         */
+        Term readTerm() {
+
+            Term t = new Term(readString());
+            int n = buf.getInt();
+            for (int i = 0; i < n; i++)
+                t.subterms.add(readTerm());
+            return t;
+        }
+
+        /** ***************************************************************
+         */
+        Literal readLiteral() {
+
+            if (buf.get() == 0)
+                return null;
+            Literal l = new Literal();
+            l.negated = buf.get() != 0;
+            l.inferenceLit = buf.get() != 0;
+            l.atom = readTerm();
+            return l;
+        }
+
+        /** ***************************************************************
+         */
+        BareFormula readFormula() {
+
+            if (buf.get() == 0)
+                return null;
+            BareFormula f = new BareFormula();
+            f.op = readString();
+            f.child1 = readFormula();
+            f.lit1 = readLiteral();
+            f.child2 = readFormula();
+            f.lit2 = readLiteral();
+            return f;
+        }
+
+        /** ***************************************************************
+         */
+        Derivation node(int id) {
+
+            return id < 0 ? null : (Derivation) nodes.get(id);
+        }
+
+        /** ***************************************************************
+         * Read the derivation graph of a statement up to its END.
+         */
+        void readNodes() {
+
+            nodes = new ArrayList<>();
+            byte kind = 0;
+            while ((kind = buf.get()) != END) {
+                Derivable d = null;
+                if (kind == FORMULA) {
+                    Formula f = new Formula(null,"plain",readString());
+                    f.type = readString();
+                    f.rationale = readString();
+                    f.status = readString();
+                    f.support = readStrings();
+                    f.form = readFormula();
+                    d = f;
+                }
+                else if (kind == DERIVATION) {
+                    Derivation dn = new Derivation();
+                    dn.name = readString();
+                    dn.operator = readString();
+                    dn.status = readString();
+                    int n = buf.getInt();
+                    for (int i = 0; i < n; i++)
+                        dn.parents.add(nodes.get(buf.getInt()));
+                    d = dn;
+                }
+                else if (kind == CLAUSE) {
+                    Clause c = new Clause();
+                    c.name = readString();
+                    c.type = readString();
+                    c.rationale = readString();
+                    c.depth = buf.getInt();
+                    c.support = readStrings();
+                    int n = buf.getInt();
+                    for (int i = 0; i < n; i++)
+                        c.literals.add(readLiteral());
+                    d = c;
+                }
+                else if (kind == DERIVABLE) {
+                    d = new Derivable(readString(),null);
+                }
+                else
+                    throw new BufferUnderflowException();
+                d.derivation = node(buf.getInt());
+                nodes.add(d);
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * @return the cached entry of the file, or null if there is none or
+     * any of its files has changed.  The content of a file is only
+     * hashed if its modification time has changed.
+     * @throws DeadlineException if the deadline of the ProofContext
+     * passes while the entry is read.
+     */
+    public static Entry load(File f) {
+
+        if (!enabled())
+            return null;
+        ProofContext context = ProofContext.current();
+        File cf = null;
+        try {
+            cf = cacheFile(f);
+            if (!cf.exists())
+                return null;
+            ByteBuffer buf = null;
+            try (FileChannel channel = FileChannel.open(cf.toPath(), StandardOpenOption.READ)) {
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION || !readUTF8(buf).equals(settings()))
+                return null;
+            Entry entry = new Entry();
+            int nfiles = buf.getInt();
+            for (int i = 0; i < nfiles; i++) {
+                Stamp s = new Stamp();
+                s.path = readUTF8(buf);
+                s.file = new File(s.path);
+                s.size = buf.getLong();
+                s.modified = buf.getLong();
+                s.hash = readUTF8(buf);
+                context.checkDeadline();
+                if (!s.file.exists() || s.file.length() != s.size)
+                    return null;
+                if (s.file.lastModified() != s.modified) {
+                    if (!contentHash(s.file).equals(s.hash))
+                        return null;
+                    s.modified = s.file.lastModified();  // touched only
+                }
+                entry.files.add(s);
+            }
+            entry.header.SZSexpected = readUTF8(buf);
+            entry.header.hasConjecture = buf.get() != 0;
+            entry.header.isFOF = buf.get() != 0;
+            int n = buf.getInt();
+            Reader reader = new Reader(buf);
+            for (int i = 0; i < n; i++) {
+                context.checkDeadline();
+                Statement s = new Statement();
+                s.context.varCounter = buf.getInt();
+                s.context.skolemCount = buf.getInt();
+                s.context.definitionCounter = buf.getInt();
+                s.context.axiomCounter = buf.getInt();
+                s.context.formulaIdCounter = buf.getInt();
+                s.context.derivedIdCounter = buf.getInt();
+                s.context.clauseIDcounter = buf.getInt();
+                s.context.eqAxiomCounter = buf.getInt();
+                reader.readNodes();
+                int in = buf.getInt();
+                if (in >= 0)
+                    s.input = (Formula) reader.nodes.get(in);
+                int nclauses = buf.getInt();
+                for (int j = 0; j < nclauses; j++)
+                    s.clauses.add((Clause) reader.nodes.get(buf.getInt()));
+                entry.statements.add(s);
+            }
+            System.out.println("# INFO in ClauseCache.load(): loaded " + f + " from " + cf);
+            return entry;
+        }
+        catch (DeadlineException de) {
+            throw de;
+        }
+        catch (IOException | RuntimeException e) {
+            System.out.println("# Error in ClauseCache.load(): " + cf + ": " + e);
+            return null;
+        }
+    }
+}
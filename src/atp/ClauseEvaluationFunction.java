@@ -60,6 +60,16 @@ public abstract class ClauseEvaluationFunction {
         assert false : "Virtual base class is not callable";
         return 0;
     }       
+
+    /** ***************************************************************
+     * Return a function to use in another proof state.  Functions
+     * that keep information from previous calls must return a new
+     * instance, the others can return themselves.
+     */
+    public ClauseEvaluationFunction copy() {
+
+        return this;
+    }
         
     /** ***************************************************************
      * ************ Define Strategies *****************
@@ -229,12 +229,26 @@ public class ClauseSet {
     public Clause getConjecture() {
 
         for (int i = 0; i < clauses.size(); i++) {
-            if (clauses.get(i).type.startsWith("negatedConjecture") || clauses.get(i).type.startsWith("conjecture"))
+            if (clauses.get(i).isConjecture())
                 return clauses.get(i);
         }
         return null;
     }
 
+    /**
+     * **************************************************************
+     * Return all the clauses of the (negated) conjecture.
+     */
+    public ArrayList<Clause> getConjectures() {
+
+        ArrayList<Clause> result = new ArrayList<>();
+        for (Clause c : clauses) {
+            if (c.isConjecture())
+                result.add(c);
+        }
+        return result;
+    }
+
     /**
      * **************************************************************
      * Return the negatedConjecture, if it exists.
@@ -243,7 +257,7 @@ public class ClauseSet {
 
         HashSet<String> result = new HashSet<String>();
         for (int i = 0; i < clauses.size(); i++) {
-            if (clauses.get(i).type.startsWith("negatedConjecture") || clauses.get(i).type.startsWith("conjecture")) {
+            if (clauses.get(i).isConjecture()) {
                 Signature sig = new Signature();
                 clauses.get(i).collectSig(sig);
                 result.addAll(sig.funs);
@@ -25,18 +25,15 @@ import java.util.*;
 
 public class Clausifier {
 
-    public static int varCounter = 0;
-    public static int skolemCounter = 0;
-    public static int axiomCounter = 0;
     public static String typePrefix = "axiom";
     public static long startTime = 0;
 
     /** ***************************************************************
      */
     public static void counterReset() {
-        varCounter = 0;
-        skolemCounter = 0;
-        axiomCounter = 0;
+        ProofContext context = ProofContext.current();
+        context.varCounter = 0;
+        context.axiomCounter = 0;
     }
 
     /** ***************************************************************
@@ -251,7 +248,8 @@ public class Clausifier {
      */
     private static Term generateNewVar() {
         
-        return Term.string2Term("VAR" + Integer.toString(varCounter++));
+        ProofContext context = ProofContext.current();
+        return new Term(context.newName("VAR",Integer.toString(context.varCounter++)));
     }
     
     /** ***************************************************************
@@ -384,30 +382,31 @@ public class Clausifier {
             result.child1 = moveQuantifiersLeftIterate(form.child1);
         if (result.child2 != null && BareFormula.isQuantifier(result.child2.op) &&
             result.child1 != null && BareFormula.isQuantifier(result.child1.op)) {
-            changed = true;
+            ProofContext.current().changed = true;
             return moveQuantBothChildren(result);        
         }
         if (result.child2 != null && BareFormula.isQuantifier(result.child2.op)) {
-            changed = true;
+            ProofContext.current().changed = true;
             return moveQuantRightChild(result);      
         }
         if (result.child1 != null && BareFormula.isQuantifier(result.child1.op)) {
-            changed = true;
+            ProofContext.current().changed = true;
             return moveQuantLeftChild(result);             
         }
         return result;
     }    
 
-    private static boolean changed = true;
     
     /** ***************************************************************
      */
     public static BareFormula moveQuantifiersLeft(BareFormula form) {
 
-        changed = true;
+        ProofContext context = ProofContext.current();
+        context.changed = true;
         BareFormula result = form.deepCopy();
-        while (changed) {
-            changed = false;
+        while (context.changed) {
+            context.checkDeadline();
+            context.changed = false;
             result = moveQuantifiersLeftIterate(result);
         }
         return result;
@@ -416,24 +415,18 @@ public class Clausifier {
     /** ***************************************************************
      */
     public static String generateSkolemSymbol() {
-        return "skf" + Integer.toString(varCounter++);
+        ProofContext context = ProofContext.current();
+        return context.newName("skf",Integer.toString(context.varCounter++));
     }
 
     /** ***************************************************************
      */
     private static Term generateNewSkolem(HashSet<Term> args) {
         
-        StringBuffer argList = new StringBuffer();
-        for (Term t : args) {
-            argList.append(t.toString());
-            argList.append(",");
-        }
-        if (argList.length() > 0)
-            argList.deleteCharAt(argList.length()-1);
-        if (argList.length() > 0)
-            return Term.string2Term("skf" + Integer.toString(varCounter++) + "(" + argList + ")");
-        else
-            return Term.string2Term("skf" + Integer.toString(varCounter++));
+        Term result = new Term(generateSkolemSymbol());
+        for (Term t : args)
+            result.subterms.add(new Term(t));
+        return result;
     }
     
     /** ***************************************************************
@@ -542,7 +535,7 @@ public class Clausifier {
                     newChild2.lit2 = result.lit2;
                 newParent.child1 = newChild1;
                 newParent.child2 = newChild2;
-                changed = true;
+                ProofContext.current().changed = true;
                 //System.out.println("INFO in Clausifier.distributeAndOverOrRecurse(): result: " + KIF.format(newParent.toKIFString()));
                 return newParent;
             }
@@ -572,7 +565,7 @@ public class Clausifier {
                     newChild2.lit2 = result.lit1;
                 newParent.child1 = newChild1;
                 newParent.child2 = newChild2;
-                changed = true;
+                ProofContext.current().changed = true;
                 //System.out.println("INFO in Clausifier.distributeAndOverOrRecurse(): result: " + KIF.format(newParent.toKIFString()));
                 return newParent;
             }   
@@ -585,9 +578,11 @@ public class Clausifier {
     public static BareFormula distributeAndOverOr(BareFormula form) {
         
         BareFormula result = form.deepCopy();
-        changed = true;
-        while (changed) {
-            changed = false;
+        ProofContext context = ProofContext.current();
+        context.changed = true;
+        while (context.changed) {
+            context.checkDeadline();
+            context.changed = false;
             result = distributeAndOverOrRecurse(result);
         }
         return result;
@@ -638,7 +633,8 @@ public class Clausifier {
         for (int i = 0; i < forms.size(); i++) {
             BareFormula form = forms.get(i);
             Clause c = flatten(form);
-            c.name = "cnf" + Integer.toString(axiomCounter++);
+            ProofContext context = ProofContext.current();
+            c.name = context.newName("cnf",Integer.toString(context.axiomCounter++));
             c.type = typePrefix;
             result.add(c);
         }
@@ -0,0 +1,41 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+/** ***************************************************************
+ * Thrown by ProofContext.checkDeadline() from inside the inference
+ * loops when the deadline of the context has passed or the work has
+ * been cancelled.  It is caught where the work was started, e.g. in
+ * ProofState.saturate().
+ */
+public class DeadlineException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public boolean cancelled = false;  // cancelled rather than out of time
+
+    /** ***************************************************************
+     */
+    public DeadlineException(boolean cancelled) {
+
+        super(cancelled ? "cancelled" : "deadline passed");
+        this.cancelled = cancelled;
+    }
+}
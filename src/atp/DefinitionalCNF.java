@@ -0,0 +1,271 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+
+This module implements definitional (Tseitin-style) clausification,
+after Nonnengart and Weidenbach, "Computing Small Clause Normal Forms".
+
+Distributing | over & in SmallCNFization.formulaDistributeDisjunctions()
+can make the clause form exponential in the size of a formula, in
+particular with nested equivalences.  Before clausification, every
+subformula whose clauses would exceed Formula.definitionLimit is
+replaced by an atom def<n>(X1,...,Xk) over its free variables, and a
+definition of the new predicate is added as a formula of its own.
+
+The definition only needs to go in the direction in which the
+subformula is used.  For a subformula G that occurs
+
+ positively (only under an even number of negations):  def => G
+ negatively:                                           G => def
+ under an equivalence, with both polarities:          def <=> G
+
+universally closed over the free variables of G.  The result is
+satisfiable iff the input is.
+*/
+
+package atp;
+
+import java.util.*;
+
+public class DefinitionalCNF {
+
+    // counts are saturated at this value
+    private static final long MAX = 1L << 40;
+
+    private ArrayList<BareFormula> definitions = new ArrayList<>();
+    private int limit = 0;
+
+    /** ***************************************************************
+     */
+    private DefinitionalCNF(int limit) {
+
+        this.limit = limit;
+    }
+
+    /** ***************************************************************
+     */
+    private static long add(long a, long b) {
+
+        return Math.min(MAX, a + b);
+    }
+
+    /** ***************************************************************
+     */
+    private static long mul(long a, long b) {
+
+        if (a != 0 && b > MAX / a)
+            return MAX;
+        return a * b;
+    }
+
+    /** ***************************************************************
+     * @return the number of clauses of the first (side 1) or second
+     * operand of f, which are literals if the child is null.
+     */
+    private static long count(BareFormula child, boolean positive) {
+
+        if (child == null)
+            return 1;
+        return clauseCount(child,positive);
+    }
+
+    /** ***************************************************************
+     * @return the number of clauses that the CNF of f has if f occurs
+     * positively, or of ~f if not, when no definitions are introduced.
+     * The operators must be the ones left by
+     * SmallCNFization.formulaOpSimplify().
+     */
+    public static long clauseCount(BareFormula f, boolean positive) {
+
+        if (f.isLiteral())
+            return 1;
+        if (Term.emptyString(f.op) || f.op.equals("~")) {
+            if (f.child1 == null)
+                return 1;
+            return clauseCount(f.child1,f.op.equals("~") ? !positive : positive);
+        }
+        if (f.isQuantified())
+            return count(f.child2,positive);
+        if (f.op.equals("&")) {
+            if (positive)
+                return add(count(f.child1,true),count(f.child2,true));
+            return mul(count(f.child1,false),count(f.child2,false));
+        }
+        if (f.op.equals("|")) {
+            if (positive)
+                return mul(count(f.child1,true),count(f.child2,true));
+            return add(count(f.child1,false),count(f.child2,false));
+        }
+        if (f.op.equals("=>")) {
+            if (positive)
+                return mul(count(f.child1,false),count(f.child2,true));
+            return add(count(f.child1,true),count(f.child2,false));
+        }
+        if (f.op.equals("<=>")) {
+            long p1 = count(f.child1,true);
+            long n1 = count(f.child1,false);
+            long p2 = count(f.child2,true);
+            long n2 = count(f.child2,false);
+            if (positive)
+                return add(mul(n1,p2),mul(p1,n2));
+            return add(mul(p1,p2),mul(n1,n2));
+        }
+        return 1;
+    }
+
+    /** ***************************************************************
+     * @return the number of clauses for f at the given polarity: 1 for
+     * positive, -1 for negative and 0 for both.
+     */
+    private static long cost(BareFormula f, int polarity) {
+
+        if (f == null)
+            return 1;
+        if (polarity > 0)
+            return clauseCount(f,true);
+        if (polarity < 0)
+            return clauseCount(f,false);
+        return add(clauseCount(f,true),clauseCount(f,false));
+    }
+
+    /** ***************************************************************
+     * @return true if f is worth a definition, which a literal, or a
+     * negated literal, is not.
+     */
+    private static boolean definable(BareFormula f) {
+
+        if (f == null || f.isLiteral())
+            return false;
+        if (f.op.equals("~") || Term.emptyString(f.op))
+            return f.child1 != null && definable(f.child1);
+        return true;
+    }
+
+    /** ***************************************************************
+     * Add the definition of g, which occurs with the given polarity.
+     * @return the atom that replaces g.
+     */
+    private Literal define(BareFormula g, int polarity) {
+
+        ProofContext context = ProofContext.current();
+        Term atom = new Term(context.newName("def",Integer.toString(context.definitionCounter++)));
+        LinkedHashSet<Term> vars = g.collectFreeVars();
+        for (Term v : vars)
+            atom.subterms.add(new Term(v));
+        Literal lit = new Literal(atom);
+        BareFormula def = null;
+        if (polarity > 0)
+            def = new BareFormula("=>", null, g, lit, null);
+        else if (polarity < 0)
+            def = new BareFormula("=>", g, null, null, lit);
+        else
+            def = new BareFormula("<=>", null, g, lit, null);
+        ArrayList<Term> varlist = new ArrayList<>(vars);
+        for (int i = varlist.size() - 1; i >= 0; i--)
+            def = new BareFormula("!", new Literal(varlist.get(i)), def);
+        definitions.add(def);
+        return lit;
+    }
+
+    /** ***************************************************************
+     * @return a copy of f in which subformulas are replaced by
+     * definitions until no subformula, and f itself, has more than
+     * limit clauses at its polarity, unless its operands are literals.
+     */
+    private BareFormula name(BareFormula f, int polarity) {
+
+        if (f.isLiteral())
+            return f;
+        if (Term.emptyString(f.op) && f.child1 != null)
+            return name(f.child1,polarity);
+        if (f.op.equals("~")) {
+            if (f.child1 == null)
+                return f;
+            return new BareFormula("~", name(f.child1,-polarity));
+        }
+        if (f.isQuantified()) {
+            if (f.child2 == null)
+                return f;
+            return new BareFormula(f.op, f.lit1, name(f.child2,polarity));
+        }
+        int p1 = polarity;
+        int p2 = polarity;
+        if (f.op.equals("=>"))
+            p1 = -polarity;
+        else if (f.op.equals("<=>")) {
+            p1 = 0;
+            p2 = 0;
+        }
+        else if (!f.op.equals("&") && !f.op.equals("|"))
+            return f;
+        BareFormula g = new BareFormula(f.op,
+                f.child1 == null ? null : name(f.child1,p1),
+                f.child2 == null ? null : name(f.child2,p2), f.lit1, f.lit2);
+        while (cost(g,polarity) > limit && (definable(g.child1) || definable(g.child2))) {
+            ProofContext.current().checkDeadline();
+            long c1 = definable(g.child1) ? cost(g.child1,p1) : 0;
+            long c2 = definable(g.child2) ? cost(g.child2,p2) : 0;
+            if (c1 >= c2) {
+                g.lit1 = define(g.child1,p1);
+                g.child1 = null;
+            }
+            else {
+                g.lit2 = define(g.child2,p2);
+                g.child2 = null;
+            }
+        }
+        return g;
+    }
+
+    /** ***************************************************************
+     * Introduce definitions for the subformulas of wf that would make
+     * its clause form larger than limit clauses.
+     * @return wf if no definition is needed, or else the formula with
+     * the definitions applied, followed by the definitions.  They have
+     * the type of wf, and are to be clausified as usual.
+     */
+    public static ArrayList<Formula> wFormulaDefinitions(Formula wf, int limit) {
+
+        ArrayList<Formula> result = new ArrayList<>();
+        BareFormula f = SmallCNFization.formulaOpSimplify(wf.form);
+        if (f == null)
+            f = wf.form;
+        if (cost(f,1) <= limit) {
+            result.add(wf);
+            return result;
+        }
+        DefinitionalCNF dcnf = new DefinitionalCNF(limit);
+        BareFormula named = dcnf.name(f,1);
+        ArrayList<Derivable> supports = new ArrayList<>();
+        supports.add(wf);
+        ArrayList<Formula> defs = new ArrayList<>();
+        for (BareFormula d : dcnf.definitions) {
+            Formula def = new Formula(d, wf.type);
+            def.rationale = "definition";
+            def.setDerivation(new Derivation("definition",null,""));
+            supports.add(def);
+            defs.add(def);
+        }
+        Formula main = new Formula(named, wf.type);
+        main.rationale = "apply_def";
+        main.support.add(wf.name);
+        main.setDerivation(Derivation.flatDerivation("apply_def",supports,"status(esa)"));
+        result.add(main);
+        result.addAll(defs);
+        return result;
+    }
+}
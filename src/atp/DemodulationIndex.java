@@ -0,0 +1,277 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * An index of the positive unit equations of a clause set, used to
+ * rewrite clauses with them (demodulation).  Each equation l=r is
+ * stored under the top symbol of the side it rewrites.  If l > r in
+ * the term ordering, it only rewrites instances of l to instances of
+ * r.  If the two sides are incomparable, it is stored both ways, and
+ * an instance is only rewritten if it gets smaller.  Rewriting with a
+ * side that has variables that don't occur in the other is not
+ * possible, so such sides are not stored.
+ *
+ * A side s of a positive equation s=t is only rewritten at its top
+ * with l=r if that makes the clause smaller than the equation (the
+ * encompassment condition): s is a strict instance of l, or t is
+ * greater than the instance of r.  Otherwise a unit equation could be
+ * rewritten away by a variant of itself.
+ *
+ * rewritable() finds the clauses of a set that a new equation rewrites
+ * (backward demodulation), which ProofState uses to replace processed
+ * clauses with their rewritten forms.
+ */
+public class DemodulationIndex {
+
+    /** ***************************************************************
+     */
+    private static class Demodulator {
+
+        Clause clause = null;
+        Term lhs = null;
+        Term rhs = null;
+        boolean oriented = false;  // lhs > rhs for all instances
+
+        Demodulator(Clause c, Term l, Term r, boolean o) {
+            clause = c; lhs = l; rhs = r; oriented = o;
+        }
+    }
+
+    public TermOrdering ordering = null;
+    private HashMap<String,ArrayList<Demodulator>> index = new HashMap<>();
+    private int size = 0;
+
+    /** ***************************************************************
+     */
+    public DemodulationIndex(TermOrdering ordering) {
+
+        this.ordering = ordering;
+    }
+
+    /** ***************************************************************
+     * @return true if t only has variables that occur in s.
+     */
+    private static boolean varsIn(Term t, Term s) {
+
+        return s.collectVars().containsAll(t.collectVars());
+    }
+
+    /** ***************************************************************
+     */
+    private void add(Clause c, Term l, Term r, boolean oriented) {
+
+        if (l.isVar())
+            return;
+        index.computeIfAbsent(l.getFunc(), k -> new ArrayList<>()).add(new Demodulator(c, l, r, oriented));
+    }
+
+    /** ***************************************************************
+     * Add the clause to the index if it is a positive unit equation.
+     * @return true if it was added.
+     */
+    public boolean insertClause(Clause c) {
+
+        if (c.length() != 1 || !c.getLiteral(0).isPositive() || !c.getLiteral(0).isEquational())
+            return false;
+        Term l = c.getLiteral(0).atom.subterms.get(0);
+        Term r = c.getLiteral(0).atom.subterms.get(1);
+        if (ordering.greater(l, r))
+            add(c, l, r, true);
+        else if (ordering.greater(r, l))
+            add(c, r, l, true);
+        else if (!l.equals(r)) {
+            if (varsIn(r, l))
+                add(c, l, r, false);
+            if (varsIn(l, r))
+                add(c, r, l, false);
+        }
+        else
+            return false;
+        size++;
+        return true;
+    }
+
+    /** ***************************************************************
+     * Remove the equations of the clause from the index.
+     */
+    public void removeClause(Clause c) {
+
+        boolean found = false;
+        for (ArrayList<Demodulator> ds : index.values())
+            found |= ds.removeIf(d -> d.clause == c);
+        if (found)
+            size--;
+    }
+
+    /** ***************************************************************
+     * @return the number of equations in the index.
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /** ***************************************************************
+     * @return t with its arguments rewritten to normal form, or t
+     * itself if none of them could be rewritten.  If t is the atom of
+     * a positive equation, the top of each side is only rewritten under
+     * the encompassment condition.
+     */
+    private Term rewriteArgs(Term t, boolean equation, ArrayList<Clause> used, Unifier sigma, ProofContext context) {
+
+        ArrayList<Term> args = null;
+        for (int i = 0; i < t.subterms.size(); i++) {
+            Term s = t.subterms.get(i);
+            Term n = rewrite(s, equation ? t.subterms.get(1 - i) : null, used, sigma, context);
+            if (n != s && args == null)
+                args = new ArrayList<>(t.subterms.subList(0, i));
+            if (args != null)
+                args.add(n);
+        }
+        if (args == null)
+            return t;
+        Term copy = new Term(t.t);
+        copy.subterms = args;
+        return copy;
+    }
+
+    /** ***************************************************************
+     * @return true if t is a variant of l, which it is an instance of.
+     */
+    private static boolean isVariant(Term l, Term t, Unifier sigma) {
+
+        int mark = sigma.mark();
+        try {
+            return sigma.match(t, l);
+        }
+        finally {
+            sigma.undo(mark);
+        }
+    }
+
+    /** ***************************************************************
+     * Rewrite t to normal form, innermost first, and add the clauses
+     * of the equations used to used.  If t is a side of a positive
+     * equation, other is the other side, and t is only rewritten at its
+     * top under the encompassment condition.
+     */
+    private Term rewrite(Term t, Term other, ArrayList<Clause> used, Unifier sigma, ProofContext context) {
+
+        if (t.isVar())
+            return t;
+        t = rewriteArgs(t, false, used, sigma, context);
+        ArrayList<Demodulator> candidates = index.get(t.getFunc());
+        if (candidates == null)
+            return t;
+        for (Demodulator d : candidates) {
+            context.checkDeadline();
+            int mark = sigma.mark();
+            Term result = null;
+            try {
+                if (sigma.match(d.lhs, t))
+                    result = sigma.instantiate(d.rhs);
+            }
+            finally {
+                sigma.undo(mark);
+            }
+            if (result != null && !d.oriented && !ordering.greater(t, result))
+                result = null;
+            if (result != null && other != null && isVariant(d.lhs, t, sigma) &&
+                    !ordering.greater(other, result))
+                result = null;
+            if (result != null) {
+                if (!used.contains(d.clause))
+                    used.add(d.clause);
+                return rewrite(result, null, used, sigma, context);
+            }
+        }
+        return t;
+    }
+
+    /** ***************************************************************
+     * Rewrite every literal of the clause to normal form, and add the
+     * clauses of the equations used to used.
+     * @return the literals, which are those of the clause if nothing
+     * could be rewritten.
+     */
+    private ArrayList<Literal> rewriteLiterals(Clause clause, ArrayList<Clause> used) {
+
+        Unifier sigma = Unifier.get();
+        ProofContext context = ProofContext.current();
+        ArrayList<Literal> lits = new ArrayList<>();
+        for (Literal l : clause.literals) {
+            // not the predicate
+            Term atom = rewriteArgs(l.atom, l.isPositive() && l.isEquational(), used, sigma, context);
+            if (atom == l.atom) {
+                lits.add(l);
+                continue;
+            }
+            Literal n = new Literal();
+            n.atom = atom;
+            n.negated = l.negated;
+            lits.add(n);
+        }
+        return lits;
+    }
+
+    /** ***************************************************************
+     * Rewrite every literal of the clause to normal form.
+     * @return the rewritten clause with its derivation from the clause
+     * and the equations, or null if nothing could be rewritten.
+     */
+    public Clause demodulate(Clause clause) {
+
+        if (size == 0)
+            return null;
+        ArrayList<Clause> used = new ArrayList<>();
+        ArrayList<Literal> lits = rewriteLiterals(clause, used);
+        if (used.size() == 0)
+            return null;
+        Clause res = new Clause();
+        res.addAll(lits);
+        res.removeDupLits();
+        return Simplification.record(res, "demodulation", "rw", clause, used);
+    }
+
+    /** ***************************************************************
+     * @return the clauses of cs, other than eq, that the positive unit
+     * equation eq rewrites, in the order of cs.  Nothing is recorded,
+     * demodulate() does the rewriting.
+     */
+    public ArrayList<Clause> rewritable(Clause eq, ClauseSet cs) {
+
+        ArrayList<Clause> result = new ArrayList<>();
+        DemodulationIndex single = new DemodulationIndex(ordering);
+        if (!single.insertClause(eq))
+            return result;
+        for (Clause c : cs.clauses) {
+            if (c == eq)
+                continue;
+            ArrayList<Clause> used = new ArrayList<>();
+            single.rewriteLiterals(c, used);
+            if (used.size() > 0)
+                result.add(c);
+        }
+        return result;
+    }
+}
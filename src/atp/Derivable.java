@@ -12,9 +12,6 @@ import java.util.Collections;
  */
 public class Derivable {
 
-    // Counter for generating new clause names.
-    public static int derivedIdCounter = 0;
-
     // Indicate if derivations should be printed as part of Derivable
     // objects. It's up to the concrete classes to support this.
     public static boolean printDerivation = false;
@@ -84,8 +81,9 @@ public class Derivable {
         if (!Term.emptyString(n))
             name = n;
         else {
-            name = "c" + Derivable.derivedIdCounter;
-            Derivable.derivedIdCounter++;
+            ProofContext context = ProofContext.current();
+            name = context.newName("c",Integer.toString(context.derivedIdCounter));
+            context.derivedIdCounter++;
         }
     }
 
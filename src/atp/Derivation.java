@@ -2,7 +2,8 @@ package atp;
 
 import java.util.*;
 
-/* A derivation object. A derivation is either trivial ("input"), a
+/* A derivation object. A derivation is either trivial ("input", or
+    "definition" for a formula introduced by DefinitionalCNF), a
     reference to an existing Derivable object ("reference"), or an
     inference with a list of premises.
  */
@@ -60,6 +61,8 @@ public class Derivation extends Derivable {
             return "input";
         else if (operator.equals("eq_axiom"))
             return "eq_axiom";
+        else if (operator.equals("definition"))
+            return "introduced(definition)";
         else if (operator.equals("reference")) {
             if (parents.size() == 1)
                 return parents.get(0).name;
@@ -82,6 +85,8 @@ public class Derivation extends Derivable {
             return new ArrayList<>();
         else if (operator.equals("eq_axiom"))
             return new ArrayList<>();
+        else if (operator.equals("definition"))
+            return new ArrayList<>();
         else if (operator.equals("reference")) {
             assert (parents.size() == 1);
             return parents;
@@ -0,0 +1,297 @@
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ *  An imperfect discrimination tree for finding resolution partners.
+ *  Each indexed atom is flattened into its preorder sequence of
+ *  symbols, with every variable replaced by the wildcard "*", and
+ *  that sequence is stored as a path in a tree. For example, the
+ *  atom p(f(X),a) is stored as the path p/2 f/1 * a.
+ *
+ *  Retrieval walks the tree and the query in parallel. A variable in
+ *  the query skips a whole stored subterm, and a stored wildcard skips
+ *  a whole query subterm. The result therefore contains every literal
+ *  that unifies with the query, plus a few that fail only because a
+ *  variable occurs twice (the tree doesn't track variable identity).
+ *  This is far fewer than the predicate-only ResolutionIndex returns.
+ *
+ *  The top-symbol maps of ResolutionIndex are still maintained, so
+ *  that we can count how many candidates the tree filtered out.
+ */
+public class DiscriminationTreeIndex extends ResolutionIndex {
+
+    public static final String WILDCARD = "*";
+
+    /** ***************************************************************
+     * A node in the tree. arity is the arity of the symbol on the
+     * edge leading to this node, which we need to skip over a stored
+     * subterm when the query has a variable.
+     */
+    public static class Node {
+
+        public int arity = 0;
+        public HashMap<String,Node> children = new HashMap<>();
+        public HashSet<KVPair> entries = null; // only at the end of a path
+
+        public Node(int a) { arity = a; }
+    }
+
+    /** ***************************************************************
+     * The part of the query that is still to be matched, as an
+     * immutable stack of terms, so that branches can share it.
+     */
+    private static class QueryStack {
+
+        Term term = null;
+        QueryStack next = null;
+
+        QueryStack(Term t, QueryStack n) { term = t; next = n; }
+    }
+
+    public Node posTree = new Node(0);
+    public Node negTree = new Node(0);
+
+    public long queries = 0;             // number of calls to getResolutionLiterals()
+    public long candidates = 0;          // total candidates returned by the tree
+    public long topSymbolCandidates = 0; // total the predicate-only index would have returned
+
+    /** ***************************************************************
+     */
+    public DiscriminationTreeIndex() {
+
+    }
+
+    /** ***************************************************************
+     */
+    public String toString() {
+
+        return "posTree: " + treeToString(posTree, "") + "\nnegTree: " + treeToString(negTree, "") + "\n";
+    }
+
+    /** ***************************************************************
+     */
+    private String treeToString(Node n, String path) {
+
+        StringBuffer sb = new StringBuffer();
+        if (n.entries != null)
+            sb.append("\n  " + path + ": " + n.entries);
+        for (String key : n.children.keySet())
+            sb.append(treeToString(n.children.get(key), path + " " + key));
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     * The edge label for the top symbol of a term.
+     */
+    public static String key(Term t) {
+
+        if (t.isVar())
+            return WILDCARD;
+        if (t.subterms.size() == 0)
+            return t.t;
+        return t.t + "/" + t.subterms.size();
+    }
+
+    /** ***************************************************************
+     * Append the preorder flattening of t to keys and arities.
+     */
+    private static void flatten(Term t, ArrayList<String> keys, ArrayList<Integer> arities) {
+
+        keys.add(key(t));
+        if (t.isVar()) {
+            arities.add(0);
+            return;
+        }
+        arities.add(t.subterms.size());
+        for (Term s : t.subterms)
+            flatten(s, keys, arities);
+    }
+
+    /** ***************************************************************
+     * Insert the payload at the end of the path for atom.
+     */
+    public static void insertTerm(Node root, Term atom, KVPair payload) {
+
+        ArrayList<String> keys = new ArrayList<>();
+        ArrayList<Integer> arities = new ArrayList<>();
+        flatten(atom, keys, arities);
+        Node n = root;
+        for (int i = 0; i < keys.size(); i++) {
+            Node child = n.children.get(keys.get(i));
+            if (child == null) {
+                child = new Node(arities.get(i));
+                n.children.put(keys.get(i), child);
+            }
+            n = child;
+        }
+        if (n.entries == null)
+            n.entries = new HashSet<>();
+        n.entries.add(payload);
+    }
+
+    /** ***************************************************************
+     * Remove the payload from the end of the path for atom, and
+     * prune nodes that no longer lead to any entry.
+     */
+    public static void removeTerm(Node root, Term atom, KVPair payload) {
+
+        ArrayList<String> keys = new ArrayList<>();
+        ArrayList<Integer> arities = new ArrayList<>();
+        flatten(atom, keys, arities);
+        ArrayList<Node> path = new ArrayList<>();
+        Node n = root;
+        path.add(n);
+        for (String k : keys) {
+            n = n.children.get(k);
+            if (n == null)
+                return;
+            path.add(n);
+        }
+        if (n.entries == null)
+            return;
+        n.entries.remove(payload);
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if ((node.entries != null && node.entries.size() > 0) || node.children.size() > 0)
+                break;
+            path.get(i-1).children.remove(keys.get(i-1));
+        }
+    }
+
+    /** ***************************************************************
+     * Collect the nodes reached from n by skipping count complete
+     * stored subterms.
+     */
+    private static void skip(Node n, int count, ArrayList<Node> result) {
+
+        if (count == 0) {
+            result.add(n);
+            return;
+        }
+        for (Node child : n.children.values())
+            skip(child, count - 1 + child.arity, result);
+    }
+
+    /** ***************************************************************
+     * Add to result all entries below n that are compatible with the
+     * query terms on the stack.
+     */
+    private static void retrieve(Node n, QueryStack query, HashSet<KVPair> result) {
+
+        if (query == null) {
+            if (n.entries != null)
+                result.addAll(n.entries);
+            return;
+        }
+        Term t = query.term;
+        if (t.isVar()) {
+            ArrayList<Node> nodes = new ArrayList<>();
+            skip(n, 1, nodes);
+            for (Node m : nodes)
+                retrieve(m, query.next, result);
+            return;
+        }
+        Node wild = n.children.get(WILDCARD);
+        if (wild != null)
+            retrieve(wild, query.next, result);
+        Node child = n.children.get(key(t));
+        if (child != null) {
+            QueryStack rest = query.next;
+            for (int i = t.subterms.size() - 1; i >= 0; i--)
+                rest = new QueryStack(t.subterms.get(i), rest);
+            retrieve(child, rest, result);
+        }
+    }
+
+    /** ***************************************************************
+     * Return all entries in the tree whose stored term may unify with
+     * the query term.
+     */
+    public static HashSet<KVPair> getUnifiable(Node root, Term query) {
+
+        HashSet<KVPair> result = new HashSet<>();
+        retrieve(root, new QueryStack(query, null), result);
+        return result;
+    }
+
+    /** ***************************************************************
+     * Insert all inference literals of clause into the tree of the
+     * matching polarity, as well as into the top symbol index.
+     */
+    @Override
+    public void insertClause(Clause clause) {
+
+        super.insertClause(clause);
+        for (int i = 0; i < clause.literals.size(); i++) {
+            Literal lit = clause.literals.get(i);
+            if (lit.isInferenceLit()) {
+                if (lit.isPositive())
+                    insertTerm(posTree, lit.atom, new KVPair(clause,i));
+                else
+                    insertTerm(negTree, lit.atom, new KVPair(clause,i));
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * Remove all inference literals of the clause from the index.
+     */
+    @Override
+    public void removeClause(Clause clause) {
+
+        super.removeClause(clause);
+        for (int i = 0; i < clause.literals.size(); i++) {
+            Literal lit = clause.literals.get(i);
+            if (lit.isInferenceLit()) {
+                if (lit.isPositive())
+                    removeTerm(posTree, lit.atom, new KVPair(clause,i));
+                else
+                    removeTerm(negTree, lit.atom, new KVPair(clause,i));
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * Return a set of resolution candidates for lit. Every candidate
+     * is a pair (clause, pos), where pos is the position of a literal
+     * with the opposite sign whose atom may unify with the atom of lit.
+     */
+    @Override
+    public HashSet<KVPair> getResolutionLiterals(Literal lit) {
+
+        HashSet<KVPair> top = null;
+        if (lit.isPositive())
+            top = negIdx.get(lit.atom.getFuncId());
+        else
+            top = posIdx.get(lit.atom.getFuncId());
+        if (top == null || top.size() == 0)
+            return new HashSet<>();
+        HashSet<KVPair> result = null;
+        if (lit.isPositive())
+            result = getUnifiable(negTree, lit.atom);
+        else
+            result = getUnifiable(posTree, lit.atom);
+        queries++;
+        candidates += result.size();
+        topSymbolCandidates += top.size();
+        return result;
+    }
+
+    /** ***************************************************************
+     * The number of candidates that the predicate-only index would
+     * have returned but the tree did not.
+     */
+    public long filtered() {
+
+        return topSymbolCandidates - candidates;
+    }
+
+    /** ***************************************************************
+     */
+    public String statistics() {
+
+        return "queries: " + queries + " candidates: " + candidates +
+                " top symbol candidates: " + topSymbolCandidates + " filtered: " + filtered();
+    }
+}
@@ -62,12 +62,10 @@ public class EqAxioms {
 	MA  02111-1307 USA 
 	*/
 
-	public static int axCount = 0;
-
 	/** ***************************************************************
 	 */
 	public static void resetCounter() {
-		axCount = 0;
+		ProofContext.current().eqAxiomCounter = 0;
 	}
 
     /** ***************************************************************
@@ -134,7 +132,7 @@ public class EqAxioms {
 	    String rterm = f + "(" + generateVarList("Y",arity) + ")";
 	    Literal concl = Literal.string2lit(lterm + "=" + rterm);
 	    Clause c = new Clause();
-	    c.name = "funcompat" + Integer.toString(axCount++);
+	    c.name = "funcompat" + Integer.toString(ProofContext.current().eqAxiomCounter++);
 	    c.literals.addAll(res);
 	    c.literals.add(concl);
 
@@ -155,7 +153,7 @@ public class EqAxioms {
 	    Literal neg = Literal.string2lit(lterm);
 	    Literal pos = Literal.string2lit(rterm);
 	    Clause c = new Clause();
-	    c.name = "predcompat" + Integer.toString(axCount++);
+	    c.name = "predcompat" + Integer.toString(ProofContext.current().eqAxiomCounter++);
 	    c.literals.addAll(res);
 	    c.literals.add(neg);
 	    c.literals.add(pos);
@@ -74,6 +74,21 @@ public class EvalStructure {
         new EvalStructure(evals,ratings);
     }
 
+    /** ***************************************************************
+     * Return a copy with its own evaluation functions and schedule, so
+     * that it can be used by a proof state running concurrently with
+     * the proof states that use this one.
+     */
+    public EvalStructure deepCopy() {
+
+        ArrayList<ClauseEvaluationFunction> funs = new ArrayList<ClauseEvaluationFunction>();
+        for (ClauseEvaluationFunction f : eval_funs)
+            funs.add(f.copy());
+        EvalStructure result = new EvalStructure(funs,new ArrayList<Integer>(eval_vec));
+        result.name = name;
+        return result;
+    }
+
     /** ***************************************************************
      */
     public String toString() {
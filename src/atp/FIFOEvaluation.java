@@ -36,6 +36,14 @@ public class FIFOEvaluation extends ClauseEvaluationFunction {
         return fifocounter;
     }
 
+    /** ***************************************************************
+     * The counter belongs to one proof state, so start a new one.
+     */
+    public ClauseEvaluationFunction copy() {
+
+        return new FIFOEvaluation();
+    }
+
     /** ***************************************************************
      */
     public String toString() {
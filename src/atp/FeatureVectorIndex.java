@@ -0,0 +1,218 @@
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ *  A feature vector index for subsumption, after Schulz, "Simple and
+ *  Efficient Clause Subsumption with Feature Vector Indexing".
+ *
+ *  Every clause is mapped to a vector of integer features that can
+ *  only grow under instantiation and under adding literals:
+ *
+ *    - the number of positive and of negative literals
+ *    - for each symbol group, the number of occurrences of its
+ *      symbols in positive and in negative literals
+ *    - for each symbol group, the largest depth (plus one) at which
+ *      one of its symbols occurs in a positive or a negative literal
+ *
+ *  Symbols are folded into a fixed number of groups by their hash
+ *  code, so the vector length doesn't depend on the signature. If C
+ *  subsumes D then every feature of C is at most the corresponding
+ *  feature of D, since subsumption maps the literals of C to distinct
+ *  literals of D.
+ *
+ *  The vectors are stored in a trie with one level per feature, and
+ *  sorted children at each level, so that a query only descends into
+ *  subtrees whose feature values are compatible.
+ */
+public class FeatureVectorIndex extends SubsumptionIndex {
+
+    public static int groups = 8;
+
+    /** ***************************************************************
+     * A trie node. The clauses are only stored in the leaves, whose
+     * depth is the length of the feature vector.
+     */
+    public static class Node {
+
+        public TreeMap<Integer,Node> children = new TreeMap<>();
+        public LinkedHashSet<Clause> clauses = null;
+    }
+
+    public Node root = new Node();
+    public int size = 0;
+
+    public long queries = 0;     // number of candidate queries
+    public long candidates = 0;  // total number of candidates returned
+
+    /** ***************************************************************
+     */
+    public FeatureVectorIndex() {
+
+    }
+
+    /** ***************************************************************
+     * The number of features in a vector.
+     */
+    public static int featureCount() {
+
+        return 2 + 4 * groups;
+    }
+
+    /** ***************************************************************
+     * Add the symbol occurrences of t, found at the given depth, to
+     * the features at offset (counts) and offset + groups (depths).
+     */
+    private static void termFeatures(Term t, int depth, int[] res, int offset) {
+
+        if (t.isVar())
+            return;
+        int g = Math.abs(t.t.hashCode() % groups);
+        res[offset + g]++;
+        if (res[offset + groups + g] < depth + 1)
+            res[offset + groups + g] = depth + 1;
+        for (Term s : t.subterms)
+            termFeatures(s, depth + 1, res, offset);
+    }
+
+    /** ***************************************************************
+     * Compute the feature vector of a clause.
+     */
+    public static int[] features(Clause clause) {
+
+        int[] res = new int[featureCount()];
+        for (Literal lit : clause.literals) {
+            if (lit.isPositive()) {
+                res[0]++;
+                termFeatures(lit.atom, 0, res, 2);
+            }
+            else {
+                res[1]++;
+                termFeatures(lit.atom, 0, res, 2 + 2 * groups);
+            }
+        }
+        return res;
+    }
+
+    /** ***************************************************************
+     * Insert a clause at the leaf for its feature vector.
+     */
+    @Override
+    public void insertClause(Clause clause) {
+
+        int[] fv = features(clause);
+        Node n = root;
+        for (int f : fv) {
+            Node child = n.children.get(f);
+            if (child == null) {
+                child = new Node();
+                n.children.put(f, child);
+            }
+            n = child;
+        }
+        if (n.clauses == null)
+            n.clauses = new LinkedHashSet<>();
+        if (n.clauses.add(clause))
+            size++;
+    }
+
+    /** ***************************************************************
+     * Remove a clause, and prune the branches that no longer lead
+     * to any clause.
+     */
+    @Override
+    public void removeClause(Clause clause) {
+
+        int[] fv = features(clause);
+        Node[] path = new Node[fv.length + 1];
+        Node n = root;
+        path[0] = n;
+        for (int i = 0; i < fv.length; i++) {
+            n = n.children.get(fv[i]);
+            if (n == null)
+                return;
+            path[i+1] = n;
+        }
+        if (n.clauses == null || !n.clauses.remove(clause))
+            return;
+        size--;
+        for (int i = fv.length; i > 0; i--) {
+            Node node = path[i];
+            if ((node.clauses != null && node.clauses.size() > 0) || node.children.size() > 0)
+                break;
+            path[i-1].children.remove(fv[i-1]);
+        }
+    }
+
+    /** ***************************************************************
+     * Return True if a clause is in the index.
+     */
+    @Override
+    public boolean isIndexed(Clause clause) {
+
+        int[] fv = features(clause);
+        Node n = root;
+        for (int f : fv) {
+            n = n.children.get(f);
+            if (n == null)
+                return false;
+        }
+        return n.clauses != null && n.clauses.contains(clause);
+    }
+
+    /** ***************************************************************
+     * Collect the clauses below n whose features from position i on
+     * are all at most (if smaller is true) or at least (otherwise)
+     * those of fv.
+     */
+    private static void collect(Node n, int[] fv, int i, boolean smaller, ArrayList<Clause> res) {
+
+        if (i == fv.length) {
+            if (n.clauses != null)
+                res.addAll(n.clauses);
+            return;
+        }
+        SortedMap<Integer,Node> range = null;
+        if (smaller)
+            range = n.children.headMap(fv[i], true);
+        else
+            range = n.children.tailMap(fv[i], true);
+        for (Node child : range.values())
+            collect(child, fv, i + 1, smaller, res);
+    }
+
+    /** ***************************************************************
+     * Return a list of all clauses that can potentially subsume the
+     * query.
+     */
+    @Override
+    public ArrayList<Clause> getSubsumingCandidates(Clause queryclause) {
+
+        ArrayList<Clause> res = new ArrayList<>();
+        collect(root, features(queryclause), 0, true, res);
+        queries++;
+        candidates += res.size();
+        return res;
+    }
+
+    /** ***************************************************************
+     * Return a list of all clauses that can potentially be subsumed
+     * by the query.
+     */
+    @Override
+    public ArrayList<Clause> getSubsumedCandidates(Clause queryclause) {
+
+        ArrayList<Clause> res = new ArrayList<>();
+        collect(root, features(queryclause), 0, false, res);
+        queries++;
+        candidates += res.size();
+        return res;
+    }
+
+    /** ***************************************************************
+     */
+    public String statistics() {
+
+        return "clauses: " + size + " queries: " + queries + " candidates: " + candidates;
+    }
+}
@@ -22,6 +22,7 @@ MA  02111-1307 USA
 import java.io.*;
 import java.text.*;
 import java.util.*;
+import java.util.function.Consumer;
 
 /** ***************************************************************
  * Datatype for the complete first-order formula, including 
@@ -29,8 +30,6 @@ import java.util.*;
  */
 public class Formula extends Derivable {
 
-    // Counter for generating new clause names.
-    public static int formulaIdCounter = 0;
     public BareFormula form = null;
     public String type = "plain";
     
@@ -47,6 +46,13 @@ public class Formula extends Derivable {
 
     public static boolean smallCNF = true;  // use the SmallCNF algorithm or R&N's Clausifier if false
 
+    // with smallCNF, name subformulas whose clause form would have more than
+    // definitionLimit clauses, see DefinitionalCNF
+    public static boolean definitionalCNF = false;
+    public static int definitionLimit = 24;
+
+    public static int clausifyThreads = 1;  // more than 1 to clausify on a pool, see ParallelClausifier
+
     public static boolean debug = false;
 
     /** ***************************************************************
@@ -99,8 +105,9 @@ public class Formula extends Derivable {
         if (!Term.emptyString(n))
             name = n;
         else {
-            name = "f" + Integer.toString(formulaIdCounter);
-            formulaIdCounter++;        
+            ProofContext context = ProofContext.current();
+            name = context.newName("f",Integer.toString(context.formulaIdCounter));
+            context.formulaIdCounter++;
         }
     }
 
@@ -177,6 +184,30 @@ public class Formula extends Derivable {
      */
     public static ClauseSet command2clauses(String id, Lexer lex, int timeout) throws ParseException, IOException {
 
+        return command2clauses(id,lex,timeout,null,null);
+    }
+
+    /** ***************************************************************
+     * Convert a formula into clauses, with the clausifier chosen by
+     * smallCNF.
+     */
+    public static ArrayList<Clause> clausify(Formula f) {
+
+        if (smallCNF)
+            return SmallCNFization.wFormulaClausify(f);
+        else
+            return Clausifier.clausify(f);
+    }
+
+    /** ***************************************************************
+     * As above, but if consumer is not null, the clauses of an included
+     * file go to the consumer, and are not in the result.  If pipe is
+     * not null, the clauses of a fof or cnf statement go to the pipe
+     * instead, and are not in the result.
+     */
+    private static ClauseSet command2clauses(String id, Lexer lex, int timeout, Consumer<Clause> consumer,
+                                             ParallelClausifier pipe) throws ParseException, IOException {
+
         //System.out.println("INFO in Formula.command2clauses(): id: " + id);
         ClauseSet cs = new ClauseSet();
         if (id.equals("include")) {
@@ -196,10 +227,18 @@ public class Formula extends Derivable {
                 System.out.println("# INFO in Formula.command2clauses(): include file: " + filename);
                 if (!f.exists())
                     throw new IOException("# Error in Formula.command2clauses(): no file " + filename);
-                Lexer lex2 = new Lexer(f);
-                lex2.filename = filename;
                 //System.out.println();
-                ClauseSet newcs = lexer2clauses(lex2,timeout);
+                ClauseSet newcs = null;
+                if (pipe != null)
+                    newcs = fileClauses(f,timeout,System.currentTimeMillis(),consumer,pipe);
+                else {
+                    Lexer lex2 = new Lexer(f);
+                    lex2.filename = filename;
+                    if (consumer == null)
+                        newcs = lexer2clauses(lex2,timeout);
+                    else
+                        newcs = lexer2clauses(lex2,timeout,consumer);
+                }
                 //System.out.println("# INFO in Formula.command2clauses(): completed reading file: " + filename);
                 lex.next();
                 if (lex.type != Lexer.ClosePar)
@@ -239,11 +278,15 @@ public class Formula extends Derivable {
                 return cs;
             }
             //System.out.println("# INFO in Formula.command2clauses(): f: " + f);
-            if (f.form != null) {
-                if (smallCNF)
-                    cs.addAll(SmallCNFization.wFormulaClausify(f));
+            if (pipe != null) {
+                if (f.form != null)
+                    pipe.add(f,ProofContext.current());
                 else
-                    cs.addAll(Clausifier.clausify(f));
+                    pipe.add(new ArrayList<>(),ProofContext.current());
+                return cs;
+            }
+            if (f.form != null) {
+                cs.addAll(clausify(f));
                 //System.out.println("# INFO in Formula.command2clauses(): result: " + cs);
                 return cs;
             }
@@ -254,7 +297,10 @@ public class Formula extends Derivable {
             if (clause.type.equals("negated_conjecture"))
                 cs.hasConjecture = true;
             //System.out.println("INFO in Formula.command2clauses(): cnf: " + clause);
-            cs.addClause(clause);
+            if (pipe != null)
+                pipe.add(new ArrayList<>(Collections.singletonList(clause)),ProofContext.current());
+            else
+                cs.addClause(clause);
             return cs; 
         }
         else if (lex.type == Lexer.EOFToken) {
@@ -263,7 +309,7 @@ public class Formula extends Derivable {
         }
         else
             throw new ParseException("# Error in Formula.command2clauses: bad id: " +
-                    id + " at line " + lex.input.getLineNumber() + " in file " + lex.filename,0);
+                    id + " at line " + lex.getLineNumber() + " in file " + lex.filename,0);
         return cs;
     }
     
@@ -272,17 +318,105 @@ public class Formula extends Derivable {
      * amount.  Typically, this is called with a timeout equal to the timeout
      * for finding a refutation, so it should be more than adequate barring
      * an unusual situation.
+     * The timeout, and the deadline of the current ProofContext, are also
+     * checked inside clausification, so a single formula can't overrun them.
      */
     public static ClauseSet lexer2clauses(Lexer lex, int timeout) {
-        
+
+        ArrayList<Clause> clauses = new ArrayList<>();
+        ClauseSet cs = lexer2clauses(lex,timeout,clauses::add);
+        cs.addAll(clauses);
+        return cs;
+    }
+
+    /** ***************************************************************
+     * As above, but hand each clause to the consumer as soon as it has
+     * been parsed and clausified, including the clauses of included
+     * files, instead of collecting them.  The consumer can index or
+     * select the clauses while the rest of the file is read.
+     * With clausifyThreads above 1 and smallCNF, the formulas are
+     * clausified on a pool of that many threads while this thread
+     * parses, see ParallelClausifier.  The clauses still reach the
+     * consumer in the order of the input, and are the same as without
+     * the pool.
+     * @return a ClauseSet without clauses, with the SZS status and the
+     * conjecture and FOF flags of the input.
+     */
+    public static ClauseSet lexer2clauses(Lexer lex, int timeout, Consumer<Clause> consumer) {
+
+        return lexer2clauses(lex,null,timeout,consumer);
+    }
+
+    /** ***************************************************************
+     * As above, but if lex is null, read the file fin, and the files it
+     * includes, from the ClauseCache if it is enabled and up to date.
+     * Files are cached through the pipe, so it is used for them even
+     * with one thread.
+     */
+    private static ClauseSet lexer2clauses(Lexer lex, File fin, int timeout, Consumer<Clause> consumer) {
+
         long t1 = System.currentTimeMillis();
+        ProofContext context = ProofContext.current();
+        long oldDeadline = context.deadline;
+        if (timeout > 0 && (oldDeadline == 0 || t1 + timeout * 1000L < oldDeadline))
+            context.deadline = t1 + timeout * 1000L;
+        ParallelClausifier pipe = null;
+        if ((clausifyThreads > 1 && smallCNF) || (lex == null && ClauseCache.enabled()))
+            pipe = new ParallelClausifier(Math.max(1,clausifyThreads),consumer);
+        try {
+            ClauseSet cs = null;
+            if (lex != null)
+                cs = lexer2clauses(lex,timeout,t1,consumer,pipe);
+            else {
+                try {
+                    cs = fileClauses(fin,timeout,t1,consumer,pipe);
+                }
+                catch (DeadlineException de) {  // from reading the cache
+                    cs = new ClauseSet();
+                    cs.SZSresult = "ResourceOut (RSO) reading timeout";
+                    return cs;
+                }
+            }
+            if (pipe != null && !cs.SZSresult.toLowerCase().contains("error") &&
+                    !cs.SZSresult.startsWith("ResourceOut")) {
+                try {
+                    pipe.finish();
+                }
+                catch (DeadlineException de) {
+                    cs.SZSresult = "ResourceOut (RSO) reading timeout";
+                }
+                catch (Exception p) {
+                    System.out.println();
+                    System.out.println("# Error in Formula.lexer2clauses()");
+                    System.out.println(p.getMessage());
+                    p.printStackTrace();
+                }
+            }
+            return cs;
+        }
+        finally {
+            if (pipe != null)
+                pipe.shutdown();
+            context.deadline = oldDeadline;
+        }
+    }
+
+    /** ***************************************************************
+     * Parse the statements of lex.  Without a pipe, each statement is
+     * clausified here and its clauses go to the consumer.  With one, a
+     * fof or cnf statement is parsed in a context of its own and handed
+     * to the pipe, which passes its clauses on to the consumer.
+     */
+    private static ClauseSet lexer2clauses(Lexer lex, int timeout, long t1, Consumer<Clause> consumer,
+                                           ParallelClausifier pipe) {
+
         ClauseSet cs = new ClauseSet();
         //System.out.println("# INFO in Formula.lexer2clauses(): reading file: " + lex.filename +
         //        " with read timeout: " + timeout);
         //System.out.print("#");
         while (lex.type != Lexer.EOFToken) {
             try {
-                //if (lex.input.getLineNumber() % 1000 == 0)
+                //if (lex.getLineNumber() % 1000 == 0)
                 //    System.out.print(".");
                 if (((System.currentTimeMillis() - t1) / 1000.0) > timeout) {
                     cs.SZSresult = "ResourceOut (RSO) reading timeout";
@@ -295,7 +429,19 @@ public class Formula extends Derivable {
                     if (!Term.emptyString(lex.SZS))
                         cs.SZSexpected = lex.SZS;
                 }
-                ClauseSet csnew = command2clauses(id,lex,timeout);
+                ClauseSet csnew = null;
+                if (pipe != null && (id.equals("fof") || id.equals("cnf"))) {
+                    ProofContext statement = pipe.newContext();
+                    ProofContext previous = ProofContext.enter(statement);
+                    try {
+                        csnew = command2clauses(id,lex,timeout,consumer,pipe);
+                    }
+                    finally {
+                        ProofContext.leave(previous);
+                    }
+                }
+                else
+                    csnew = command2clauses(id,lex,timeout,consumer,pipe);
                 if (debug) System.out.println("# Formula.lexer2clauses(): hasConjecture: " + csnew.hasConjecture);
                 if (csnew.SZSresult.toLowerCase().contains("error")) {
                     //System.out.println("# Error in Formula.lexer2clauses(): " + cs.SZSresult);
@@ -304,7 +450,14 @@ public class Formula extends Derivable {
                 }
                 cs.hasConjecture = cs.hasConjecture || csnew.hasConjecture;
                 cs.isFOF = cs.isFOF || csnew.isFOF;
-                cs.addAll(csnew);
+                for (Clause c : csnew.clauses)
+                    consumer.accept(c);
+                if (pipe != null)
+                    pipe.flush();
+            }
+            catch (DeadlineException de) {
+                cs.SZSresult = "ResourceOut (RSO) reading timeout";
+                return cs;
             }
             catch (Exception p) {
                 if (p != null && p.getMessage() != null && p.getMessage().contains("bad id")) {
@@ -322,6 +475,52 @@ public class Formula extends Derivable {
         return cs;
     }
 
+    /** ***************************************************************
+     * Parse the statements of the file f.  With a pipe and the
+     * ClauseCache enabled, the statements come from the cache if it
+     * holds the file, and are recorded for the cache otherwise.
+     * @return a ClauseSet without clauses, as lexer2clauses() returns.
+     */
+    private static ClauseSet fileClauses(File f, int timeout, long t1, Consumer<Clause> consumer,
+                                         ParallelClausifier pipe) {
+
+        if (pipe != null) {
+            pipe.addFile(f);
+            ClauseCache.Entry entry = ClauseCache.load(f);
+            if (entry != null) {
+                pipe.addFiles(entry.files);  // what f includes, for the files that include f
+                for (ClauseCache.Statement s : entry.statements) {
+                    pipe.add(s.clauses,s.context,s.input);
+                    pipe.flush();
+                }
+                return entry.header;
+            }
+        }
+        Lexer lex = new Lexer(f);
+        lex.filename = f.getPath();
+        if (pipe == null || !ClauseCache.enabled())
+            return lexer2clauses(lex,timeout,t1,consumer,pipe);
+        ClauseCache.Recorder recorder = new ClauseCache.Recorder(f);
+        pipe.startRecording(recorder);
+        try {
+            ClauseSet cs = lexer2clauses(lex,timeout,t1,consumer,pipe);
+            if (cs.SZSresult.toLowerCase().contains("error") || cs.SZSresult.startsWith("ResourceOut"))
+                return cs;
+            try {
+                pipe.finish();
+            }
+            catch (DeadlineException de) {
+                cs.SZSresult = "ResourceOut (RSO) reading timeout";
+                return cs;
+            }
+            recorder.store(cs);
+            return cs;
+        }
+        finally {
+            pipe.stopRecording(recorder);
+        }
+    }
+
     /** ***************************************************************
      * timeout if the total time to process the file exceeds a certain
      * amount.  Typically, this is called with a timeout equal to the timeout
@@ -337,7 +536,7 @@ public class Formula extends Derivable {
         System.out.print("#");  
         while (lex.type != Lexer.EOFToken) {
             try {
-                if (lex.input.getLineNumber() % 1000 == 0)
+                if (lex.getLineNumber() % 1000 == 0)
                     System.out.print(".");
                 if (((System.currentTimeMillis() - t1) / 1000.0) > timeout) {
                     System.out.println("# Error in Formula.lexer2formulas(): timeout");
@@ -373,9 +572,9 @@ public class Formula extends Derivable {
             File fin = new File(filename);
             fr = new FileReader(fin);
             if (fr != null && fin.length() > 0) {
-                Lexer lex = new Lexer(fin);
-                lex.filename = filename;
-                ClauseSet cs = lexer2clauses(lex);
+                ArrayList<Clause> clauses = new ArrayList<>();
+                ClauseSet cs = lexer2clauses(null,fin,10000,clauses::add);
+                cs.addAll(clauses);
                 if (debug) System.out.println("# Formula.file2clauses(): hasConjecture: " + cs.hasConjecture);
                 //System.out.println("# Formula.file2clauses(): SZSresult " + cs.SZSresult);
                 //System.out.println("# Formula.file2clauses(): SZSexpected " + cs.SZSexpected);
@@ -427,6 +626,20 @@ public class Formula extends Derivable {
         return null;
     }
     
+    /** ***************************************************************
+     * Stream the clauses of the file to the consumer, see
+     * lexer2clauses(Lexer,int,Consumer).
+     */
+    public static ClauseSet file2clauses(String filename, int timeout, Consumer<Clause> consumer) {
+
+        File fin = new File(filename);
+        if (!fin.exists() || fin.length() == 0) {
+            System.out.println("#Error in Formula.file2clauses(): File error reading " + filename);
+            return null;
+        }
+        return lexer2clauses(null,fin,timeout,consumer);
+    }
+
     /** ***************************************************************
      */
     public static ClauseSet file2clauses(String filename) {
@@ -34,6 +34,41 @@ public class HeuristicClauseSet extends ClauseSet {
     // public ArrayList<Clause> clauses = null; // defined in ClauseSet
     public EvalStructure eval_functions = null;
 
+    /** ***************************************************************
+     * One entry per inserted clause, shared by all the heuristic queues.
+     * The entry is marked dead when the clause is extracted and is
+     * then dropped lazily by each queue when it surfaces.  seq is the
+     * insertion order and breaks ties between equal evaluations, so
+     * that the oldest clause wins, just as in a linear scan of clauses.
+     */
+    private static class QueueEntry {
+        Clause clause = null;
+        int[] evals = null;
+        long seq = 0;
+        int pos = -1;        // position in clauses, -1 once extracted
+    }
+
+    /** ***************************************************************
+     * Order entries by the evaluation of one heuristic, then by age.
+     */
+    private static class EvalComparator implements Comparator<QueueEntry> {
+
+        int heuristic = 0;
+
+        EvalComparator(int h) { heuristic = h; }
+
+        public int compare(QueueEntry e1, QueueEntry e2) {
+            if (e1.evals[heuristic] != e2.evals[heuristic])
+                return e1.evals[heuristic] < e2.evals[heuristic] ? -1 : 1;
+            return Long.compare(e1.seq, e2.seq);
+        }
+    }
+
+    private ArrayList<PriorityQueue<QueueEntry>> queues = new ArrayList<>(); // one per entry in eval_funs
+    private ArrayDeque<QueueEntry> fifo = new ArrayDeque<>(); // insertion order, for extractFirst()
+    private ArrayList<QueueEntry> slots = new ArrayList<>();  // parallel to clauses
+    private long seqCounter = 0;
+
     /** ***************************************************************
      * Initialize the clause. 
      */    
@@ -41,6 +76,10 @@ public class HeuristicClauseSet extends ClauseSet {
 
         System.out.println("# HeuristicsClauseSet using eval functions: " + efunctions);
         eval_functions = efunctions;
+        if (eval_functions != null && eval_functions.eval_funs != null) {
+            for (int i = 0; i < eval_functions.eval_funs.size(); i++)
+                queues.add(new PriorityQueue<>(new EvalComparator(i)));
+        }
     }   
 
     /** ***************************************************************
@@ -58,38 +97,109 @@ public class HeuristicClauseSet extends ClauseSet {
 	        clause.addEval(evals);
             //System.out.println("HeuristicsClauseSet.addClause(): add evals: " + evals + " for clause " + clause);
 	        super.addClause(clause);
+            QueueEntry entry = new QueueEntry();
+            entry.clause = clause;
+            entry.evals = new int[evals.size()];
+            for (int i = 0; i < evals.size(); i++)
+                entry.evals[i] = evals.get(i);
+            entry.seq = seqCounter++;
+            entry.pos = clauses.size() - 1;
+            slots.add(entry);
+            fifo.add(entry);
+            purgeFifo();
+            for (PriorityQueue<QueueEntry> q : queues)
+                q.add(entry);
     	}
     }
-    
+
+    /** ***************************************************************
+     * Remove the entry from clauses in constant time by moving the
+     * last clause into its slot.  This means that clauses is a
+     * multi-set without a meaningful order, which is all that ClauseSet
+     * promises.  The entry stays in the queues until it surfaces there.
+     */
+    private Clause removeEntry(QueueEntry entry) {
+
+        int last = slots.size() - 1;
+        QueueEntry moved = slots.remove(last);
+        clauses.remove(last);
+        if (entry.pos != last) {
+            slots.set(entry.pos, moved);
+            clauses.set(entry.pos, moved.clause);
+            moved.pos = entry.pos;
+        }
+        entry.pos = -1;
+        return entry.clause;
+    }
+
+    /** ***************************************************************
+     * Drop extracted entries from the top of the queue and, if stale
+     * entries make up most of the queue, rebuild it from the live ones.
+     */
+    private void purge(PriorityQueue<QueueEntry> q) {
+
+        while (!q.isEmpty() && q.peek().pos < 0)
+            q.poll();
+        if (q.size() > 2 * slots.size() + 64) {
+            PriorityQueue<QueueEntry> live = new PriorityQueue<>(q.comparator());
+            live.addAll(slots);
+            q.clear();
+            q.addAll(live);
+        }
+    }
+
+    /** ***************************************************************
+     * Drop the extracted entries from fifo if they make up most of it,
+     * as purge() does for the queues, since with heuristic selection
+     * extractFirst() never drains it.  Insertion order is kept.
+     */
+    private void purgeFifo() {
+
+        if (fifo.size() > 2 * slots.size() + 64)
+            fifo.removeIf(e -> e.pos < 0);
+    }
+
     /** ***************************************************************
      * Extract and return the clause with the lowest weight according
-     * to the selected heuristic. If the set is empty, return None. 
+     * to the selected heuristic. If the set is empty, return None.
+     * Ties are broken in favor of the clause that was added first.
      */    
     public Clause extractBestByEval(int heuristic_index) {
 
-        //System.out.println("HeuristicClauseSet.extractBestByEval(): clauses: " + clauses);
-        if (clauses.size() > 0) {
-            int best = 0;
-            Clause c = clauses.get(0);
-            int besteval = c.evaluation.get(heuristic_index);
-            //System.out.println("INFO in HeuristicClauseSet.extractBestByEval(1): best eval: " + besteval);
-            for (int i = 1; i < clauses.size(); i++) {
-                c = clauses.get(i);
-                if (c.evaluation == null)
-                    System.out.println("Error in HeuristicClauseSet.extractBestByEval(): no eval for clause: " + c);
-                if (c.evaluation.get(heuristic_index) < besteval) {
-                    besteval = clauses.get(i).evaluation.get(heuristic_index);
-                    //System.out.println("INFO in HeuristicClauseSet.extractBestByEval(): best eval: " + besteval);
-                    best = i;
-                }
-            }
-            //System.out.println("INFO in HeuristicClauseSet.extractBestByEval(): best eval: " + besteval);
-            //System.out.println("INFO in HeuristicClauseSet.extractBestByEval(): using eval fn: " + eval_functions.eval_funs.get(heuristic_index));
-            //System.out.println("HeuristicClauseSet.extractBestByEval(): removing: " + clauses.get(best));
-            return clauses.remove(best);
-        }
-        else
+        if (clauses.size() == 0 || heuristic_index >= queues.size())
+            return null;
+        PriorityQueue<QueueEntry> q = queues.get(heuristic_index);
+        purge(q);
+        QueueEntry best = q.poll();
+        if (best == null)
+            return null;
+        //System.out.println("INFO in HeuristicClauseSet.extractBestByEval(): best eval: " + best.evals[heuristic_index]);
+        return removeEntry(best);
+    }
+
+    /** ***************************************************************
+     * Extract and return the oldest clause in the set.
+     */
+    @Override
+    public Clause extractFirst() {
+
+        while (!fifo.isEmpty() && fifo.peek().pos < 0)
+            fifo.poll();
+        if (fifo.isEmpty())
             return null;
+        return removeEntry(fifo.poll());
+    }
+
+    /** ***************************************************************
+     * Remove a clause from the clause set and return it.
+     */
+    @Override
+    public Clause extractClause(Clause clause) {
+
+        int index = clauses.indexOf(clause);
+        if (index >= 0)
+            removeEntry(slots.get(index));
+        return clause;
     }
     
     /** ***************************************************************
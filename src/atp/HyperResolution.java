@@ -0,0 +1,325 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+
+This module implements two resolution rules that resolve several
+literals of one clause, the nucleus, at once, each with a different
+clause, an electron.  The intermediate clauses of the equivalent
+sequence of binary resolutions are never built.
+
+Positive hyper-resolution:
+
+ ~a1|...|~an|C    b1|D1  ...  bn|Dn
+ -----------------------------------  where sigma is a simultaneous mgu
+ sigma(C|D1|...|Dn)                    of ai and bi, and the electrons
+                                       bi|Di are positive clauses
+
+Together with factoring, this is complete, and every conclusion is a
+positive clause.
+
+Unit-resulting (UR) resolution:
+
+ l1|...|ln|l    k1  ...  kn
+ --------------------------  where sigma is a simultaneous mgu of li
+ sigma(l)                     and ~ki, and the electrons ki are units
+
+A unit nucleus is resolved with a unit to the empty clause.  UR
+resolution is not complete, but it finds the proofs of Horn problems
+quickly.
+
+The electrons are found with the resolution index of the processed
+clauses.  Each electron is renamed apart with a copy of its resolved
+atom and of its other literals.
+*/
+
+package atp;
+
+import java.util.*;
+
+public class HyperResolution {
+
+    /** ***************************************************************
+     * The search for the electrons of one nucleus.  resolve[i] is true
+     * if literal i of the nucleus has to be resolved.  If mustUseGiven
+     * is set, only conclusions with the given clause as an electron are
+     * returned.
+     */
+    private static class Search {
+
+        Clause nucleus = null;
+        boolean[] resolve = null;
+        Clause given = null;
+        boolean givenIsElectron = false;
+        boolean mustUseGiven = false;
+        boolean hyper = true;  // positive electrons, else unit electrons
+        ClauseSet processed = null;
+        ClauseSet res = null;
+        Unifier sigma = Unifier.get();
+        ArrayList<Clause> electrons = new ArrayList<>();
+        ArrayList<String> suffixes = new ArrayList<>();  // of the renamed variables of each electron
+        ArrayList<Literal> rest = new ArrayList<>();  // renamed other literals of the electrons
+        int usedGiven = 0;
+
+        /** ***************************************************************
+         */
+        boolean isElectron(Clause c) {
+
+            if (hyper)
+                return c.getNegativeLits().size() == 0;
+            return c.length() == 1;
+        }
+
+        /** ***************************************************************
+         * Resolve the literals of the nucleus from pos on.
+         */
+        void search(int pos) {
+
+            ProofContext.current().checkDeadline();
+            if (pos == nucleus.length()) {
+                if (!mustUseGiven || usedGiven > 0)
+                    res.addClause(conclusion());
+                return;
+            }
+            if (!resolve[pos]) {
+                search(pos + 1);
+                return;
+            }
+            Literal lit = nucleus.getLiteral(pos);
+            for (KVPair kvp : processed.getResolutionLiterals(lit))
+                if (isElectron(kvp.c))
+                    tryElectron(pos, kvp.c, kvp.value);
+            if (givenIsElectron)
+                for (int j = 0; j < given.length(); j++)
+                    tryElectron(pos, given, j);
+        }
+
+        /** ***************************************************************
+         * Resolve literal pos of the nucleus with literal j of electron.
+         */
+        void tryElectron(int pos, Clause electron, int j) {
+
+            Literal lit = nucleus.getLiteral(pos);
+            Literal el = electron.getLiteral(j);
+            if (lit.isNegative() == el.isNegative() || !lit.atom.t.equals(el.atom.t))
+                return;
+            String suffix = "#" + pos;
+            int mark = sigma.mark();
+            try {
+                if (!sigma.unify(lit.atom, rename(el.atom, suffix)))
+                    return;
+                int restSize = rest.size();
+                for (int i = 0; i < electron.length(); i++) {
+                    if (i != j) {
+                        Literal l = new Literal();
+                        l.negated = electron.getLiteral(i).negated;
+                        l.atom = rename(electron.getLiteral(i).atom, suffix);
+                        rest.add(l);
+                    }
+                }
+                electrons.add(electron);
+                suffixes.add(suffix);
+                if (electron == given)
+                    usedGiven++;
+                search(pos + 1);
+                if (electron == given)
+                    usedGiven--;
+                electrons.remove(electrons.size() - 1);
+                suffixes.remove(suffixes.size() - 1);
+                while (rest.size() > restSize)
+                    rest.remove(rest.size() - 1);
+            }
+            finally {
+                sigma.undo(mark);
+            }
+        }
+
+        /** ***************************************************************
+         * @return the values in the conclusion of the variables of a
+         * premise, whose variables were renamed with suffix.
+         */
+        Substitutions values(Clause premise, String suffix) {
+
+            Substitutions result = new Substitutions();
+            for (Term var : premise.collectVars())
+                result.addSubst(var, sigma.instantiate(new Term(var.t + suffix)));
+            return result;
+        }
+
+        /** ***************************************************************
+         * @return the conclusion for the current bindings, with the
+         * values of the variables of the nucleus and of each electron,
+         * for answer extraction.
+         */
+        Clause conclusion() {
+
+            Clause res = new Clause();
+            Substitutions[] substs = new Substitutions[electrons.size() + 1];
+            sigma.startRenaming();
+            try {
+                for (int i = 0; i < nucleus.length(); i++)
+                    if (!resolve[i])
+                        res.literals.add(sigma.instantiate(nucleus.getLiteral(i)));
+                for (Literal l : rest)
+                    res.literals.add(sigma.instantiate(l));
+                substs[0] = values(nucleus, "");
+                for (int i = 0; i < electrons.size(); i++)
+                    substs[i + 1] = values(electrons.get(i), suffixes.get(i));
+            }
+            finally {
+                sigma.stopRenaming();
+            }
+            res.removeDupLits();
+            return record(res, hyper ? "hyper_resolution" : "ur_resolution", nucleus, electrons, substs);
+        }
+    }
+
+    /** ***************************************************************
+     * @return a copy of t with suffix appended to the name of every
+     * variable.  Ground subterms are shared.
+     */
+    private static Term rename(Term t, String suffix) {
+
+        if (t.isVar())
+            return new Term(t.t + suffix);
+        if (t.isGround())
+            return t;
+        Term result = new Term(t.t);
+        for (Term sub : t.subterms)
+            result.subterms.add(rename(sub, suffix));
+        return result;
+    }
+
+    /** ***************************************************************
+     * Name the conclusion and record its derivation from the nucleus
+     * and the electrons, which can't be subsumed away from now on.
+     * substs holds the values of the variables of the nucleus and then
+     * of each electron.  An electron used more than once is a single
+     * support, with the values of its first use.
+     */
+    private static Clause record(Clause res, String rationale, Clause nucleus, ArrayList<Clause> electrons,
+                                 Substitutions[] substs) {
+
+        res.createName();
+        res.rationale = rationale;
+        int depth = nucleus.depth;
+        ArrayList<Derivable> supports = new ArrayList<>();
+        ArrayList<Substitutions> supportSubst = new ArrayList<>();
+        supports.add(nucleus);
+        supportSubst.add(substs[0]);
+        res.support.add(nucleus.name);
+        nucleus.supportsClauses.add(res.name);
+        for (int i = 0; i < electrons.size(); i++) {
+            Clause e = electrons.get(i);
+            depth = Math.max(depth, e.depth);
+            if (supports.contains(e))
+                continue;
+            supports.add(e);
+            supportSubst.add(substs[i + 1]);
+            res.support.add(e.name);
+            e.supportsClauses.add(res.name);
+        }
+        for (Substitutions s : substs)
+            res.subst.addAll(s);
+        res.supportSubst = supportSubst.toArray(new Substitutions[0]);
+        res.depth = depth + 1;
+        res.setDerivation(Derivation.flatDerivation(rationale,supports,""));
+        return res;
+    }
+
+    /** ***************************************************************
+     * @return the nuclei in processed that have a literal complementary
+     * to a literal of the given clause, in the order found.
+     */
+    private static ArrayList<Clause> nuclei(Clause given, ClauseSet processed) {
+
+        ArrayList<Clause> result = new ArrayList<>();
+        Set<Clause> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Literal lit : given.literals)
+            for (KVPair kvp : processed.getResolutionLiterals(lit))
+                if (seen.add(kvp.c))
+                    result.add(kvp.c);
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    private static Search newSearch(Clause nucleus, Clause given, ClauseSet processed,
+                                    boolean hyper, ClauseSet res) {
+
+        Search s = new Search();
+        s.nucleus = nucleus;
+        s.given = given;
+        s.processed = processed;
+        s.hyper = hyper;
+        s.res = res;
+        s.givenIsElectron = nucleus != given && s.isElectron(given);
+        s.mustUseGiven = nucleus != given;
+        s.resolve = new boolean[nucleus.length()];
+        return s;
+    }
+
+    /** ***************************************************************
+     * Compute all positive hyper-resolvents with the given clause and
+     * clauses in processed: with the given clause as the nucleus if it
+     * has a negative literal, and else with it as one of the electrons.
+     */
+    public static ClauseSet computeHyperResolvents(Clause given, ClauseSet processed) {
+
+        ClauseSet res = new ClauseSet();
+        ArrayList<Clause> nuclei = new ArrayList<>();
+        if (given.getNegativeLits().size() > 0)
+            nuclei.add(given);
+        else
+            nuclei = nuclei(given, processed);
+        for (Clause nucleus : nuclei) {
+            Search s = newSearch(nucleus, given, processed, true, res);
+            for (int i = 0; i < nucleus.length(); i++)
+                s.resolve[i] = nucleus.getLiteral(i).isNegative();
+            s.search(0);
+        }
+        return res;
+    }
+
+    /** ***************************************************************
+     * Compute all UR-resolvents with the given clause and clauses in
+     * processed: with the given clause as the nucleus, and if it is a
+     * unit, also with it as one of the electrons.  Every literal of a
+     * nucleus but one is resolved, or the only literal of a unit.
+     */
+    public static ClauseSet computeURResolvents(Clause given, ClauseSet processed) {
+
+        ClauseSet res = new ClauseSet();
+        ArrayList<Clause> nuclei = new ArrayList<>();
+        nuclei.add(given);
+        if (given.length() == 1)
+            nuclei.addAll(nuclei(given, processed));
+        for (Clause nucleus : nuclei) {
+            Search s = newSearch(nucleus, given, processed, false, res);
+            if (nucleus.length() == 1) {
+                s.resolve[0] = true;
+                s.search(0);
+                continue;
+            }
+            for (int keep = 0; keep < nucleus.length(); keep++) {
+                Arrays.fill(s.resolve, true);
+                s.resolve[keep] = false;
+                s.search(0);
+            }
+        }
+        return res;
+    }
+}
@@ -25,18 +25,16 @@ import java.text.*;
 public class IndexedClauseSet extends ClauseSet {
 
     // This is a normal clause set, augmented by indices that speeds up
-    // the finding of resolution and subsumption partners.
+    // the finding of resolution and subsumption partners. Each set
+    // has its own indices, so that proofs can run side by side.
 
-    public static ResolutionIndex resIndex = new ResolutionIndex();
-    public static SubsumptionIndex subIndex = new SubsumptionIndex();
+    public ResolutionIndex resIndex = new DiscriminationTreeIndex();
+    public SubsumptionIndex subIndex = new FeatureVectorIndex();
 
     /**************************************************************
-     * Create the two indices and call the superclass initializer.
+     * The two indices are created with the set.
      */
     public IndexedClauseSet() {
-
-        resIndex = new ResolutionIndex();
-        subIndex = new SubsumptionIndex();
     }
 
     /*************************************************************
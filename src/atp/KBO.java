@@ -0,0 +1,86 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * The Knuth-Bendix ordering with weight 1 for every symbol and every
+ * variable.  s > t if no variable occurs more often in t than in s,
+ * and either
+ *
+ * - s is heavier than t, or
+ * - they weigh the same and the top symbol of s is greater, or
+ * - they have the same top symbol and the first argument in which
+ *   they differ is greater in s.
+ */
+public class KBO extends TermOrdering {
+
+    /** ***************************************************************
+     */
+    public KBO(Precedence precedence) {
+
+        super(precedence);
+    }
+
+    /** ***************************************************************
+     * Add the number of occurrences of each variable of t to counts,
+     * times sign.
+     * @return the weight of t
+     */
+    private static int weigh(Term t, HashMap<String,Integer> counts, int sign) {
+
+        if (t.isVar()) {
+            counts.merge(t.t, sign, Integer::sum);
+            return 1;
+        }
+        int w = 1;
+        for (Term s : t.subterms)
+            w += weigh(s, counts, sign);
+        return w;
+    }
+
+    /** ***************************************************************
+     * @return true if s > t.
+     */
+    public boolean greater(Term s, Term t) {
+
+        if (s.isVar())
+            return false;
+        HashMap<String,Integer> counts = new HashMap<>();
+        int ws = weigh(s, counts, 1);
+        int wt = weigh(t, counts, -1);
+        for (int n : counts.values())
+            if (n < 0)
+                return false;
+        if (ws != wt)
+            return ws > wt;
+        int c = compareSymbols(s, t);
+        if (c != 0)
+            return c > 0;
+        for (int i = 0; i < s.subterms.size(); i++) {
+            Term si = s.subterms.get(i);
+            Term ti = t.subterms.get(i);
+            if (!si.equals(ti))
+                return greater(si, ti);
+        }
+        return false;
+    }
+}
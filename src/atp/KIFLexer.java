@@ -40,7 +40,7 @@ public class KIFLexer {
 
     public int ttype = 0;
     public String sval = "";
-    public static boolean inBlockComment = false;
+    private boolean inBlockComment = false;
 
     public static final String NoToken        = "No Token";
     public static final String WhiteSpace     = "White Space";
@@ -80,17 +80,20 @@ public class KIFLexer {
     public static ArrayList<String> binaryRel = new ArrayList<String>();
     public static ArrayList<String> quant = new ArrayList<String>();
 
+    // The token tables are shared by all lexers, so they are built once.
+    static {
+        init();
+    }
+
     /** ***************************************************************
      */
     public KIFLexer() {
-        init();
     }
 
     /** ***************************************************************
      */
     public KIFLexer(String s) {
 
-        init();
         //source = s;
         input = new LineNumberReader(new StringReader(s));
     }
@@ -98,8 +101,7 @@ public class KIFLexer {
     /** ***************************************************************
      */
     public KIFLexer(File f) {
-        
-        init();
+
         //source = file2string(f);
         try {
             input = new LineNumberReader(new FileReader(f));
@@ -172,8 +174,6 @@ public class KIFLexer {
 
         binaryRel.add(Equiv); 
         binaryRel.add(Implies); 
-
-        inBlockComment = false;
     }
 
     /** ***************************************************************
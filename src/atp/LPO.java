@@ -0,0 +1,77 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+/** ***************************************************************
+ * The lexicographic path ordering.  s = f(s1..sn) > t if
+ *
+ * - some si is t or greater than t, or
+ * - t = g(t1..tm), f > g and s > tj for all j, or
+ * - t = f(t1..tn), s > tj for all j, and the first argument in which
+ *   s and t differ is greater in s.
+ *
+ * A variable is smaller than every other term it occurs in.
+ */
+public class LPO extends TermOrdering {
+
+    /** ***************************************************************
+     */
+    public LPO(Precedence precedence) {
+
+        super(precedence);
+    }
+
+    /** ***************************************************************
+     * @return true if s > tj for all the arguments tj of t.
+     */
+    private boolean greaterThanArgs(Term s, Term t) {
+
+        for (Term tj : t.subterms)
+            if (!greater(s, tj))
+                return false;
+        return true;
+    }
+
+    /** ***************************************************************
+     * @return true if s > t.
+     */
+    public boolean greater(Term s, Term t) {
+
+        if (s.isVar())
+            return false;
+        if (t.isVar())
+            return occurs(t, s);
+        for (Term si : s.subterms)
+            if (si.equals(t) || greater(si, t))
+                return true;
+        int c = compareSymbols(s, t);
+        if (c > 0)
+            return greaterThanArgs(s, t);
+        if (c < 0)
+            return false;
+        for (int i = 0; i < s.subterms.size(); i++) {
+            Term si = s.subterms.get(i);
+            Term ti = t.subterms.get(i);
+            if (!si.equals(ti))
+                return greater(si, ti) && greaterThanArgs(s, t);
+        }
+        return false;
+    }
+}
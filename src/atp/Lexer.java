@@ -7,7 +7,18 @@ This will convert a string into a sequence of
 tokens that can be inspected and processed in-order. It is a bit
 of an overkill for the simple application, but makes actual
 parsing later much easier and more robust than a quicker hack.
-        
+
+A file is read through a memory mapping, line by line straight into
+the character buffer of the scanner, so the whole file is never held
+as a String.  Block comments may span lines and are skipped.
+
+The tokens are recognized by a hand-written scanner that switches on
+the first character of the token and then reads the rest of it from a
+character buffer that holds the current line.  The token kinds are the
+values of the Kind enum; the String constants below are their names,
+which the parsers compare, so the type of a token is always one of
+these very String objects.
+
 Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
 
 This program is free software; you can redistribute it and/or modify
@@ -29,6 +40,10 @@ MA  02111-1307 USA
 package atp;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
 import java.util.regex.*;
 import java.text.*;
@@ -37,13 +52,16 @@ public class Lexer {
 
     public int ttype = 0;
     public String sval = "";
-    public static boolean inBlockComment = false;
+    private boolean inBlockComment = false;
+    private char[] buf = new char[256];  // the current line
+    private int len = 0;                 // the length of the line in buf
 
     public static final String NoToken        = "No Token";
     public static final String WhiteSpace     = "White Space";
     public static final String Newline        = "Newline";
     public static final String HashComment    = "HashComment";
     public static final String PerComment     = "PerComment";
+    public static final String BlockComment   = "BlockComment";
     public static final String IdentUpper     = "Identifier starting with capital letter";
     public static final String IdentLower     = "Identifier starting with lower case letter";
     public static final String DefFunctor     = "Defined symbol (starting with a $)";
@@ -72,52 +90,82 @@ public class Lexer {
     public static final String DQString       = "String in \"double quotes\"";
     public static final String EOFToken       = "*EOF*";
 
+    public enum Kind {
+        NoToken(Lexer.NoToken), WhiteSpace(Lexer.WhiteSpace), Newline(Lexer.Newline),
+        HashComment(Lexer.HashComment), PerComment(Lexer.PerComment), BlockComment(Lexer.BlockComment),
+        IdentUpper(Lexer.IdentUpper), IdentLower(Lexer.IdentLower), DefFunctor(Lexer.DefFunctor),
+        Number(Lexer.Number), FullStop(Lexer.FullStop), OpenPar(Lexer.OpenPar), ClosePar(Lexer.ClosePar),
+        OpenSquare(Lexer.OpenSquare), CloseSquare(Lexer.CloseSquare), Comma(Lexer.Comma), Colon(Lexer.Colon),
+        EqualSign(Lexer.EqualSign), NotEqualSign(Lexer.NotEqualSign), Nand(Lexer.Nand), Nor(Lexer.Nor),
+        Or(Lexer.Or), And(Lexer.And), Implies(Lexer.Implies), BImplies(Lexer.BImplies), Equiv(Lexer.Equiv),
+        Xor(Lexer.Xor), Universal(Lexer.Universal), Existential(Lexer.Existential), Negation(Lexer.Negation),
+        SQString(Lexer.SQString), DQString(Lexer.DQString), EOFToken(Lexer.EOFToken);
+
+        public final String type;  // the String constant of the token type
+
+        Kind(String type) { this.type = type; }
+    }
+
     public String filename = "";
     public String type = "";
+    public Kind kind = Kind.NoToken;  // of the last token read, type is kind.type
     public String literal = "";
-    public String line = null;
+    public String line = null;  // the current line, see currentLine()
     public String SZS = "";
     public int pos = 0;  // character position on the current line
     public LineNumberReader input = null;
+    private MappedByteBuffer mapped = null;  // the input file, if it is memory-mapped
+    private int lineNumber = 0;
     public ArrayDeque<String> tokenStack = new ArrayDeque<String>();
 
-    /** This array contains all of the compiled Pattern objects that
-     * will be used by methods in this file. */
-    public static LinkedHashMap<String,Pattern> tokenDefs = new LinkedHashMap<String,Pattern>();
-    
+    private static final Pattern statusPattern = Pattern.compile("\\%\\sStatus[\\s:]+([^\\n]*)");
+
     public static ArrayList<String> andOr = new ArrayList<String>();
     public static ArrayList<String> binaryRel = new ArrayList<String>();
     public static ArrayList<String> quant = new ArrayList<String>(); 
 
+    // The token tables are shared by all lexers, so they are built once.
+    static {
+        init();
+    }
+
     /** ***************************************************************
      */
     public Lexer() {
-        init();
     }
     
     /** ***************************************************************
      */
     public Lexer(String s) {
-        
-        init();
+
         //source = s;
         input = new LineNumberReader(new StringReader(s));
     }
   
     /** ***************************************************************
+     * Read the file through a read-only memory mapping, or through a
+     * reader if it is too large for a single mapping.  The mapping
+     * stays valid after the channel is closed.
      */
     public Lexer(File f) {
-        
-        init();
+
         //source = file2string(f);
-        try {
-            input = new LineNumberReader(new FileReader(f));
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < Integer.MAX_VALUE)
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            else
+                input = new LineNumberReader(new FileReader(f));
         }
-        catch (FileNotFoundException fnf) {
+        catch (NoSuchFileException | FileNotFoundException fnf) {
             System.out.println("Error in Lexer(): File not found: " + f);
             System.out.println(fnf.getMessage());
             fnf.printStackTrace();
         }
+        catch (IOException e) {
+            System.out.println("Error in Lexer(): can't read " + f);
+            System.out.println(e.getMessage());
+            e.printStackTrace();
+        }
     }
     
     /** ***************************************************************
@@ -152,7 +200,7 @@ public class Lexer {
      */
     private int linepos() {
 
-        return input.getLineNumber();
+        return lineNumber;
         //return source.substring(0,pos).split(" ").length + 1;
     }        
 
@@ -160,38 +208,6 @@ public class Lexer {
      */
     private static void init() {
         
-        tokenDefs.put(FullStop,    Pattern.compile("\\."));                   
-        tokenDefs.put(OpenPar,     Pattern.compile("\\("));                   
-        tokenDefs.put(ClosePar,    Pattern.compile("\\)"));                   
-        tokenDefs.put(OpenSquare,  Pattern.compile("\\["));                   
-        tokenDefs.put(CloseSquare, Pattern.compile("\\]"));                   
-        tokenDefs.put(Comma,       Pattern.compile(","));                 
-        tokenDefs.put(Colon,       Pattern.compile(":"));                  
-        tokenDefs.put(Nor,         Pattern.compile("~\\|"));               
-        tokenDefs.put(Nand,        Pattern.compile("~&"));                   
-        tokenDefs.put(Or,          Pattern.compile("\\|"));                   
-        tokenDefs.put(And,         Pattern.compile("&"));                   
-        tokenDefs.put(Implies,     Pattern.compile("=>"));              
-        tokenDefs.put(Equiv,       Pattern.compile("<=>"));                  
-        tokenDefs.put(BImplies,    Pattern.compile("<="));                  
-        tokenDefs.put(Xor,         Pattern.compile("<~>"));
-        tokenDefs.put(EqualSign,   Pattern.compile("="));                 
-        tokenDefs.put(NotEqualSign, Pattern.compile("!="));                  
-        tokenDefs.put(Negation,    Pattern.compile("~"));                   
-        tokenDefs.put(Universal,   Pattern.compile("!"));
-        tokenDefs.put(Existential, Pattern.compile("\\?"));
-        tokenDefs.put(Newline,     Pattern.compile("\\n"));
-        tokenDefs.put(WhiteSpace,  Pattern.compile("\\s+"));
-        tokenDefs.put(IdentLower,  Pattern.compile("[a-z][_a-z0-9_A-Z]*"));
-        tokenDefs.put(IdentUpper,  Pattern.compile("[_A-Z][_a-z0-9_A-Z]*"));
-        tokenDefs.put(DefFunctor,  Pattern.compile("\\$[_a-z0-9_A-Z]*"));
-        tokenDefs.put(Number,      Pattern.compile("-?[0-9]?[0-9\\.]+E?-?[0-9]*"));
-        tokenDefs.put(HashComment, Pattern.compile("#[^\\n]*"));
-        tokenDefs.put(PerComment,  Pattern.compile("\\%[^\\n]*"));
-        //tokenDefs.put(SQString,Pattern.compile("'[^']*'"));
-        tokenDefs.put(SQString,Pattern.compile("'(\\\\'|[^'])*'"));
-        tokenDefs.put(DQString,Pattern.compile("\"(\\\\\"|[^\"])*\""));
-
         andOr.add(And);
         andOr.add(Or);
         
@@ -204,8 +220,6 @@ public class Lexer {
         
         quant.add(Universal);
         quant.add(Existential);
-
-        inBlockComment = false;
     }
     
     /** ***************************************************************
@@ -378,9 +392,7 @@ public class Lexer {
     public void processComment(String line) {
 
         //System.out.println("INFO in processComment(): " + line);
-        Pattern value = Pattern.compile("\\%\\sStatus[\\s:]+([^\\n]*)");
-        //Pattern value = Pattern.compile("\\%\\sStatus");
-        Matcher m = value.matcher(line);
+        Matcher m = statusPattern.matcher(line);
         //System.out.println("INFO in processComment(): comment: " + line);
         if (m.lookingAt()) {
             //System.out.println("INFO in Lexer.processComment(): found match: " + m.group(1));
@@ -398,11 +410,11 @@ public class Lexer {
     public String next() throws ParseException {
 
         String res = nextUnfiltered();
-        while ((type.equals(WhiteSpace) || type.equals(HashComment) || 
-                type.equals(PerComment)) && !res.equals(EOFToken)) {
+        while ((type == WhiteSpace || type == HashComment || type == PerComment || type == BlockComment) &&
+                !res.equals(EOFToken)) {
         	//System.out.println(type + ":" + line);
-        	if (type.equals(HashComment) || type.equals(PerComment))
-        		processComment(line);
+        	if (type == HashComment || type == PerComment)
+        		processComment(currentLine());
             res = nextUnfiltered();
         }
         //System.out.println("INFO in next(): returning token: " + res);
@@ -416,73 +428,278 @@ public class Lexer {
 
         if (tokenStack.size() > 0)
             return tokenStack.pop();
-        else {
-            if (line == null || line.length() <= pos) {
-                try {
-                    do {
-                        line = input.readLine();
-                        if (inBlockComment) {
-                            do {
-                                line = input.readLine();
-                            } while (line != null && line.indexOf("*/") == -1);
-                            if (line != null && line.indexOf("*/") != -1) {
-                                if (line.length() == 2)
-                                    line = "";
-                                else
-                                    line = line.substring(line.indexOf("*/") + 2);
-                            }
-                            line = line.trim();
-                            inBlockComment = false;
-                        }
-                        else {
-                            if (line != null && line.indexOf("/*") != -1) {
-                                inBlockComment = true;
-                                //System.out.println("INFO in Lexer.nextUnfiltered(): in block comment: " + line);
-                                line = line.substring(0,line.indexOf("/*"));
-                                line = line.trim();
-                            }
-                        }
-                    } while (line != null && line.length() == 0);
-                    //System.out.println("INFO in Lexer.nextUnfiltered(): " + line);
-                    pos = 0;
-                }
-                catch (IOException ioe) {
-                    System.out.println("Error in Lexer.nextUnfiltered()");
-                    System.out.println(ioe.getMessage());
-                    ioe.printStackTrace();
-                    return EOFToken;
-                }
-                if (line == null) {
+        while (pos >= len) {
+            try {
+                if (!readLine()) {
                     //System.out.println("INFO in Lexer.nextUnfiltered(): returning eof");
+                    kind = Kind.EOFToken;
                     type = EOFToken;
                     return EOFToken;
                 }
             }
-            for (String key : tokenDefs.keySet()) {  // Go through all the token definitions and process the first one that matches
-                Pattern value = tokenDefs.get(key);
-                Matcher m = value.matcher(line.substring(pos));
-                //System.out.println("INFO in Lexer.nextUnfiltered(): checking: " + key + " against: " + line.substring(pos));
-                if (m.lookingAt()) {
-                    //System.out.println("INFO in Lexer.nextUnfiltered(): got token against source: " + line.substring(pos));
-                    literal = line.substring(pos + m.start(),pos + m.end());
-                    pos = pos + m.end();
-                    type = key;
-                    //System.out.println("INFO in Lexer.nextUnfiltered(): got token: " + literal + " type: " + type +
-                    //        " at pos: " + pos + " with regex: " + value);
-                    return m.group();
-                }
+            catch (IOException ioe) {
+                System.out.println("Error in Lexer.nextUnfiltered()");
+                System.out.println(ioe.getMessage());
+                ioe.printStackTrace();
+                return EOFToken;
+            }
+            pos = 0;
+            if (inBlockComment)
+                pos = blockCommentEnd(0);
+        }
+        int end = scan();
+        if (end > pos) {
+            literal = new String(buf, pos, end - pos);
+            pos = end;
+            type = kind.type;
+            //System.out.println("INFO in Lexer.nextUnfiltered(): got token: " + literal + " type: " + type +
+            //        " at pos: " + pos);
+            return literal;
+        }
+        throw new ParseException("Error in Lexer.nextUnfiltered(): no matches in token list for " +
+                currentLine() + "... at line " + lineNumber, pos);
+    }
+
+    /** ***************************************************************
+     * Read the next line of the input into buf, without its line
+     * terminator.  A memory-mapped file is read straight from the
+     * mapping, and the line is only decoded from UTF-8 if it has a byte
+     * that isn't ASCII.
+     * @return false at the end of the input.
+     */
+    private boolean readLine() throws IOException {
+
+        if (mapped == null) {
+            line = input.readLine();
+            if (line == null)
+                return false;
+            lineNumber = input.getLineNumber();
+            len = line.length();
+            if (len > buf.length)
+                buf = new char[Math.max(len, buf.length * 2)];
+            line.getChars(0, len, buf, 0);
+            return true;
+        }
+        if (!mapped.hasRemaining())
+            return false;
+        line = null;
+        len = 0;
+        int start = mapped.position();
+        int bytes = 0;
+        boolean ascii = true;
+        while (mapped.hasRemaining()) {
+            byte b = mapped.get();
+            if (b == '\n')
+                break;
+            if (b == '\r') {
+                if (mapped.hasRemaining() && mapped.get(mapped.position()) == '\n')
+                    mapped.get();
+                break;
+            }
+            if (b < 0)
+                ascii = false;
+            if (len == buf.length)
+                buf = Arrays.copyOf(buf, len * 2);
+            buf[len++] = (char) b;
+            bytes++;
+        }
+        if (!ascii) {
+            byte[] raw = new byte[bytes];
+            ByteBuffer dup = mapped.duplicate();
+            dup.position(start);
+            dup.get(raw);
+            line = new String(raw, StandardCharsets.UTF_8);
+            len = line.length();
+            line.getChars(0, len, buf, 0);
+        }
+        lineNumber++;
+        return true;
+    }
+
+    /** ***************************************************************
+     * @return the current line.  Lines of a memory-mapped file are only
+     * made into Strings when this is called.
+     */
+    public String currentLine() {
+
+        if (line == null)
+            line = new String(buf, 0, len);
+        return line;
+    }
+
+    /** ***************************************************************
+     * @return the number of the current line, from 1.
+     */
+    public int getLineNumber() {
+
+        return lineNumber;
+    }
+
+    /** ***************************************************************
+     * @return the position after the "*" + "/" that closes the block
+     * comment, looking from i on.  If the comment doesn't end on this
+     * line, return the end of the line and remember that the next line
+     * starts inside the comment.
+     */
+    private int blockCommentEnd(int i) {
+
+        for (; i + 1 < len; i++) {
+            if (buf[i] == '*' && buf[i + 1] == '/') {
+                inBlockComment = false;
+                return i + 2;
+            }
+        }
+        inBlockComment = true;
+        return len;
+    }
+
+    /** ***************************************************************
+     */
+    private static boolean isSpace(char c) {
+
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** ***************************************************************
+     */
+    private static boolean isIdentChar(char c) {
+
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /** ***************************************************************
+     */
+    private char at(int i) {
+
+        return i < len ? buf[i] : 0;
+    }
+
+    /** ***************************************************************
+     * @return the end of the identifier characters from i on.
+     */
+    private int identEnd(int i) {
+
+        while (i < len && isIdentChar(buf[i]))
+            i++;
+        return i;
+    }
+
+    /** ***************************************************************
+     * @return the end of the quoted string that starts at pos, in which
+     * a backslash escapes the quote, or pos if it isn't closed on this
+     * line.  If the last quote is escaped, that quote closes the
+     * string, as the earlier regular expression had it.
+     */
+    private int quotedEnd(char quote) {
+
+        int lastEscaped = -1;
+        int i = pos + 1;
+        while (i < len) {
+            char c = buf[i];
+            if (c == '\\' && i + 1 < len && buf[i + 1] == quote) {
+                lastEscaped = i + 1;
+                i = i + 2;
             }
-            if (pos + 4 > line.length())
-                if (pos - 4 < 0)
-                    throw new ParseException("Error in Lexer.nextUnfiltered(): no matches in token list for " + 
-                            line.substring(0,line.length()) + "... at line " + input.getLineNumber() + " full line " + line,pos);
-                else
-                    throw new ParseException("Error in Lexer.nextUnfiltered(): no matches in token list for " +
-                            line.substring(0,line.length()) + "... at line " + input.getLineNumber() + " full line " + line,pos);
+            else if (c == quote)
+                return i + 1;
             else
-                throw new ParseException("Error in Lexer.nextUnfiltered(): no matches in token list for " +
-                        line.substring(0,line.length()) + "... at line " + input.getLineNumber() + " full line " + line,pos);
+                i++;
+        }
+        return lastEscaped < 0 ? pos : lastEscaped + 1;
+    }
+
+    /** ***************************************************************
+     * Recognize the token at pos and set kind.
+     * @return the end of the token, or pos if no token matches.
+     */
+    private int scan() {
+
+        char c = buf[pos];
+        char c1 = at(pos + 1);
+        switch (c) {
+            case '.': kind = Kind.FullStop; return pos + 1;
+            case '(': kind = Kind.OpenPar; return pos + 1;
+            case ')': kind = Kind.ClosePar; return pos + 1;
+            case '[': kind = Kind.OpenSquare; return pos + 1;
+            case ']': kind = Kind.CloseSquare; return pos + 1;
+            case ',': kind = Kind.Comma; return pos + 1;
+            case ':': kind = Kind.Colon; return pos + 1;
+            case '|': kind = Kind.Or; return pos + 1;
+            case '&': kind = Kind.And; return pos + 1;
+            case '?': kind = Kind.Existential; return pos + 1;
+            case '\n': kind = Kind.Newline; return pos + 1;
+            case '~':
+                if (c1 == '|') { kind = Kind.Nor; return pos + 2; }
+                if (c1 == '&') { kind = Kind.Nand; return pos + 2; }
+                kind = Kind.Negation;
+                return pos + 1;
+            case '=':
+                if (c1 == '>') { kind = Kind.Implies; return pos + 2; }
+                kind = Kind.EqualSign;
+                return pos + 1;
+            case '!':
+                if (c1 == '=') { kind = Kind.NotEqualSign; return pos + 2; }
+                kind = Kind.Universal;
+                return pos + 1;
+            case '<':
+                if (c1 == '=' && at(pos + 2) == '>') { kind = Kind.Equiv; return pos + 3; }
+                if (c1 == '=') { kind = Kind.BImplies; return pos + 2; }
+                if (c1 == '~' && at(pos + 2) == '>') { kind = Kind.Xor; return pos + 3; }
+                return pos;
+            case '$':
+                kind = Kind.DefFunctor;
+                return identEnd(pos + 1);
+            case '#':
+                kind = Kind.HashComment;
+                return len;
+            case '%':
+                kind = Kind.PerComment;
+                return len;
+            case '\'':
+                kind = Kind.SQString;
+                return quotedEnd('\'');
+            case '"':
+                kind = Kind.DQString;
+                return quotedEnd('"');
+            case '/':
+                if (c1 != '*')
+                    return pos;
+                kind = Kind.BlockComment;
+                return blockCommentEnd(pos + 2);
+        }
+        if (isSpace(c)) {
+            int i = pos + 1;
+            while (i < len && isSpace(buf[i]))
+                i++;
+            kind = Kind.WhiteSpace;
+            return i;
+        }
+        if (c >= 'a' && c <= 'z') {
+            kind = Kind.IdentLower;
+            return identEnd(pos + 1);
+        }
+        if ((c >= 'A' && c <= 'Z') || c == '_') {
+            kind = Kind.IdentUpper;
+            return identEnd(pos + 1);
+        }
+        if ((c >= '0' && c <= '9') || c == '-' ) {
+            // -?[0-9.]+E?-?[0-9]*
+            int i = c == '-' ? pos + 1 : pos;
+            int start = i;
+            while (i < len && ((buf[i] >= '0' && buf[i] <= '9') || buf[i] == '.'))
+                i++;
+            if (i == start)
+                return pos;
+            if (at(i) == 'E')
+                i++;
+            if (at(i) == '-')
+                i++;
+            while (i < len && buf[i] >= '0' && buf[i] <= '9')
+                i++;
+            kind = Kind.Number;
+            return i;
         }
+        return pos;
     }
 
     /** ***************************************************************
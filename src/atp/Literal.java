@@ -576,7 +576,7 @@ public class Literal implements Comparable {
      */
     public PredAbstractionPair predicateAbstraction() {
 
-        return(new PredAbstractionPair(isPositive(),atom.getFunc()));
+        return(new PredAbstractionPair(isPositive(),atom.getFunc(),atom.getFuncId()));
     }
 
      /** ***************************************************************
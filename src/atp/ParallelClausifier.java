@@ -0,0 +1,403 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/** ***************************************************************
+ * Clausify the formulas of a problem on a pool of threads while the
+ * calling thread goes on parsing.  The clauses are handed to the
+ * consumer in the order of the input, and are the same, names and
+ * symbols included, as those of a sequential run.
+ *
+ * Each fof or cnf statement is parsed and clausified in its own
+ * ProofContext, with all counters starting at 0, so the new variables,
+ * skolem symbols and names of a formula don't depend on the formulas
+ * that are clausified at the same time.  When a statement is emitted,
+ * its generated names are shifted by the counters of the calling
+ * thread's context at that point, as if it had been clausified there,
+ * and the counters are advanced by what the statement used.
+ *
+ * The context of a statement is marked, so the names generated in it
+ * are VAR#n and skf#n (varCounter), skolem#NNNN (skolemCount), def#n
+ * for the definition predicates of DefinitionalCNF (definitionCounter),
+ * cnf#n for the clause names (axiomCounter), and f#n and c#n for the
+ * formulas and derivations created for the statement, see
+ * ProofContext.newName().  Only these are renamed, to the names of a
+ * sequential run, so input symbols such as skf0 are kept as they are.
+ *
+ * Only SmallCNFization is run this way.  Clausifier orders the
+ * arguments of a skolem term by the hashes of the variable names, so
+ * its clauses would change with the numbering.
+ *
+ * The statements of files that are being recorded for the ClauseCache
+ * are written to their recorders as they are emitted, before they are
+ * renamed, and the statements of a cached file are added back here.
+ */
+public class ParallelClausifier {
+
+    // statements that may wait for the ones before them, per thread
+    public static final int PENDING_PER_THREAD = 16;
+
+    private ExecutorService pool = null;
+    private Consumer<Clause> consumer = null;
+    private int maxPending = 0;
+    private ArrayDeque<Item> pending = new ArrayDeque<>();
+    private ArrayList<ClauseCache.Recorder> recorders = new ArrayList<>();  // of the files being read
+
+    /** ***************************************************************
+     * One statement: its context, the formula as it was parsed, and its
+     * clauses, which may still be computed.
+     */
+    private static class Item {
+
+        ProofContext context = null;
+        Formula input = null;
+        Future<ArrayList<Clause>> clauses = null;
+        ArrayList<ClauseCache.Recorder> recorders = null;
+    }
+
+    /** ***************************************************************
+     * The counters of the calling thread's context when an item is
+     * emitted.
+     */
+    private static class Shift {
+
+        int var, skolem, def, axiom, formula, derived;
+        HashMap<String,String> names = new HashMap<>();  // renamed Formulas, for Clause.support
+        IdentityHashMap<Object,Boolean> seen = new IdentityHashMap<>();
+    }
+
+    /** ***************************************************************
+     */
+    public ParallelClausifier(int threads, Consumer<Clause> consumer) {
+
+        pool = Executors.newFixedThreadPool(threads);
+        this.consumer = consumer;
+        maxPending = threads * PENDING_PER_THREAD;
+    }
+
+    /** ***************************************************************
+     * @return a new context for the next statement, to be made current
+     * while it is parsed, with the deadline of the calling thread.
+     */
+    public ProofContext newContext() {
+
+        ProofContext context = new ProofContext();
+        context.deadline = ProofContext.current().deadline;
+        context.marked = true;
+        return context;
+    }
+
+    /** ***************************************************************
+     * Clausify the formula, which was parsed in the given context, on
+     * the pool.
+     */
+    public void add(Formula f, ProofContext context) {
+
+        Item item = newItem(context,f);
+        item.clauses = pool.submit(() -> {
+            ProofContext previous = ProofContext.enter(context);
+            try {
+                return Formula.clausify(f);
+            }
+            finally {
+                ProofContext.leave(previous);
+            }
+        });
+        pending.add(item);
+    }
+
+    /** ***************************************************************
+     * Add clauses that need no clausification, such as those of a cnf
+     * statement parsed in the given context.
+     */
+    public void add(ArrayList<Clause> clauses, ProofContext context) {
+
+        add(clauses,context,null);
+    }
+
+    /** ***************************************************************
+     * As above, for clauses that were clausified from input, such as
+     * those of a statement from the ClauseCache.
+     */
+    public void add(ArrayList<Clause> clauses, ProofContext context, Formula input) {
+
+        Item item = newItem(context,input);
+        item.clauses = CompletableFuture.completedFuture(clauses);
+        pending.add(item);
+    }
+
+    /** ***************************************************************
+     * @return an item that is recorded by the current recorders.
+     */
+    private Item newItem(ProofContext context, Formula input) {
+
+        Item item = new Item();
+        item.context = context;
+        item.input = input;
+        item.recorders = new ArrayList<>(recorders);
+        return item;
+    }
+
+    /** ***************************************************************
+     * Record the statements added from now on until stopRecording(),
+     * those of included files too.
+     */
+    public void startRecording(ClauseCache.Recorder recorder) {
+
+        recorders.add(recorder);
+    }
+
+    /** ***************************************************************
+     */
+    public void stopRecording(ClauseCache.Recorder recorder) {
+
+        recorders.remove(recorder);
+    }
+
+    /** ***************************************************************
+     * Note that the files being recorded include the file f.
+     */
+    public void addFile(File f) {
+
+        for (ClauseCache.Recorder recorder : recorders)
+            recorder.addFile(f);
+    }
+
+    /** ***************************************************************
+     * Note that the files being recorded include the files of a cached
+     * entry, with their stamps.
+     */
+    public void addFiles(ArrayList<ClauseCache.Stamp> files) {
+
+        for (ClauseCache.Recorder recorder : recorders)
+            for (ClauseCache.Stamp s : files)
+                recorder.addStamp(s);
+    }
+
+    /** ***************************************************************
+     * Emit the statements at the head of the queue that are done, and
+     * wait for the oldest ones if too many are waiting.
+     */
+    public void flush() {
+
+        while (!pending.isEmpty() &&
+                (pending.peek().clauses.isDone() || pending.size() > maxPending))
+            emit(pending.poll());
+    }
+
+    /** ***************************************************************
+     * Wait for all statements and emit them.
+     */
+    public void finish() {
+
+        while (!pending.isEmpty())
+            emit(pending.poll());
+    }
+
+    /** ***************************************************************
+     * Stop the threads.  Statements that have not been emitted are
+     * dropped.
+     */
+    public void shutdown() {
+
+        for (Item item : pending)
+            item.clauses.cancel(true);
+        pending.clear();
+        pool.shutdownNow();
+    }
+
+    /** ***************************************************************
+     * Wait for the clauses of the item, rename them and hand them to
+     * the consumer.  An exception of the clausification is thrown again
+     * here, on the calling thread.
+     */
+    private void emit(Item item) {
+
+        ArrayList<Clause> clauses = null;
+        try {
+            clauses = item.clauses.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineException(true);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+        for (ClauseCache.Recorder recorder : item.recorders)
+            recorder.write(clauses,item.context,item.input);
+        ProofContext main = ProofContext.current();
+        ProofContext local = item.context;
+        Shift s = new Shift();
+        s.var = main.varCounter;
+        s.skolem = main.skolemCount;
+        s.def = main.definitionCounter;
+        s.axiom = main.axiomCounter;
+        s.formula = main.formulaIdCounter;
+        s.derived = main.derivedIdCounter;
+        if (item.input != null)
+            s.seen.put(item.input,Boolean.TRUE);
+        for (Clause c : clauses)
+            rename(c,s);  // the marked names, even with no shift
+        main.varCounter += local.varCounter;
+        main.skolemCount += local.skolemCount;
+        main.definitionCounter += local.definitionCounter;
+        main.axiomCounter += local.axiomCounter;
+        main.formulaIdCounter += local.formulaIdCounter;
+        main.derivedIdCounter += local.derivedIdCounter;
+        main.clauseIDcounter += local.clauseIDcounter;
+        main.eqAxiomCounter += local.eqAxiomCounter;
+        for (Clause c : clauses)
+            consumer.accept(c);
+    }
+
+    /** ***************************************************************
+     * @return the number n if s is prefix#n, a name generated in the
+     * marked context of a statement, or else -1.
+     */
+    private static int index(String s, String prefix) {
+
+        if (s == null || !s.startsWith(prefix) || s.length() < prefix.length() + 2 ||
+                s.charAt(prefix.length()) != '#')
+            return -1;
+        int n = 0;
+        for (int i = prefix.length() + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    /** ***************************************************************
+     * @return the symbol with its number shifted, if the clausifier
+     * generated it.
+     */
+    private static String renameSymbol(String sym, Shift s) {
+
+        int n = index(sym,"VAR");
+        if (n >= 0)
+            return "VAR" + Integer.toString(n + s.var);
+        n = index(sym,"skf");
+        if (n >= 0)
+            return "skf" + Integer.toString(n + s.var);
+        n = index(sym,"def");
+        if (n >= 0)
+            return "def" + Integer.toString(n + s.def);
+        n = index(sym,"skolem");
+        if (n >= 0)
+            return String.format("skolem%04d",n + s.skolem);
+        return sym;
+    }
+
+    /** ***************************************************************
+     * @return a renamed copy of the term.
+     */
+    private static Term rename(Term t, Shift s) {
+
+        Term result = new Term(renameSymbol(t.t,s));
+        for (Term sub : t.subterms)
+            result.subterms.add(rename(sub,s));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return a renamed copy of the literal.
+     */
+    private static Literal rename(Literal l, Shift s) {
+
+        if (l == null)
+            return null;
+        Literal result = new Literal(l);
+        result.atom = rename(l.atom,s);
+        return result;
+    }
+
+    /** ***************************************************************
+     * Rename the literals of the formula in place.  A formula reached
+     * twice is renamed once.
+     */
+    private static void rename(BareFormula f, Shift s) {
+
+        if (f == null || s.seen.put(f,Boolean.TRUE) != null)
+            return;
+        f.lit1 = rename(f.lit1,s);
+        f.lit2 = rename(f.lit2,s);
+        rename(f.child1,s);
+        rename(f.child2,s);
+    }
+
+    /** ***************************************************************
+     * Rename a formula or derivation created for the statement, and
+     * everything its derivation refers to, other than the input formula.
+     */
+    private static void rename(Derivable d, Shift s) {
+
+        if (d == null || s.seen.put(d,Boolean.TRUE) != null)
+            return;
+        if (d instanceof Formula) {
+            Formula f = (Formula) d;
+            int n = index(f.name,"f");
+            if (n >= 0) {
+                String name = "f" + Integer.toString(n + s.formula);
+                s.names.put(f.name,name);
+                f.name = name;
+            }
+            rename(f.form,s);
+        }
+        else if (!(d instanceof Clause)) {
+            int n = index(d.name,"c");
+            if (n >= 0)
+                d.name = "c" + Integer.toString(n + s.derived);
+        }
+        if (d instanceof Derivation) {
+            for (Derivable p : ((Derivation) d).parents)
+                rename(p,s);
+        }
+        rename(d.derivation,s);
+    }
+
+    /** ***************************************************************
+     * Rename the clause in place: its name, literals, derivation and
+     * support.
+     */
+    private static void rename(Clause c, Shift s) {
+
+        int n = index(c.name,"cnf");
+        if (n >= 0)
+            c.name = "cnf" + Integer.toString(n + s.axiom);
+        for (int i = 0; i < c.literals.size(); i++)
+            c.literals.set(i,rename(c.literals.get(i),s));
+        rename(c.derivation,s);
+        for (int i = 0; i < c.support.size(); i++) {
+            String name = s.names.get(c.support.get(i));
+            if (name != null)
+                c.support.set(i,name);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/** ***************************************************************
+ * Run several proof search strategies on the same problem at the same
+ * time, on a fixed number of threads.  The first strategy that settles
+ * the problem, with a proof or a saturation, wins.  The other
+ * strategies are cancelled and stop before their next given clause,
+ * and run() returns only after they have stopped.
+ *
+ * Each strategy gets its own ProofState, with its own copy of the
+ * clauses, heuristics, indices and ProofContext.
+ *
+ * When there are more strategies than threads, the time for the
+ * problem is split between them, so that the later strategies still
+ * get to run.  No strategy runs past the timeout of the problem.
+ */
+public class Portfolio {
+
+    public ClauseSet clauses = null;
+    public HashMap<String,String> opts = null;
+    public String filename = "";
+    public int threads = 1;
+
+    // how long run() waits for the cancelled strategies to stop
+    public static final int SHUTDOWN_SECONDS = 10;
+
+    private ArrayList<ProofState> started = new ArrayList<>();
+    private volatile boolean finished = false;
+
+    /** ***************************************************************
+     * One strategy: search parameters, plus one of the option variants
+     * of ProverFOF.setAllStateOptions(), or -1 to use the options from
+     * the command line.
+     */
+    private class Strategy implements Callable<ProofState> {
+
+        SearchParams params = null;
+        int variant = -1;
+        int budget = 0;      // seconds, 0 for no limit
+        long deadline = 0;   // in milliseconds, 0 for no limit
+
+        Strategy(SearchParams p, int v) { params = p; variant = v; }
+
+        public String toString() {
+
+            if (variant < 0)
+                return params.heuristics.name;
+            return params.heuristics.name + " variant: " + variant;
+        }
+
+        /** ***************************************************************
+         * Run the strategy, unless the problem has been settled before
+         * it starts.  Return null in that case.
+         */
+        public ProofState call() {
+
+            if (finished)
+                return null;
+            SearchParams sp = params.deepCopy();
+            ProofState state = new ProofState(clauses,sp);
+            if (variant < 0)
+                ProverFOF.setStateOptions(state,opts);
+            else
+                ProverFOF.setStateVariant(state,variant);
+            state.strategy = sp.heuristics.name + " litSelect: " + sp.literal_selection +
+                    " delTaut: " + state.delete_tautologies + " forSub: " + state.forward_subsumption +
+                    " backSub: " + state.backward_subsumption + " indexed: " + state.indexed;
+            synchronized (started) {
+                if (finished)
+                    return null;
+                started.add(state);
+            }
+            int seconds = budget;
+            if (deadline > 0) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) {
+                    state.filename = filename;
+                    state.evalFunctionName = sp.heuristics.name;
+                    state.SZSresult = "Timeout";
+                    return state;
+                }
+                int leftSecs = (int) ((left + 999) / 1000);
+                if (seconds == 0 || leftSecs < seconds)
+                    seconds = leftSecs;
+            }
+            return ProverFOF.computeStateResults(opts,state,clauses,filename,sp,seconds);
+        }
+    }
+
+    /** ***************************************************************
+     */
+    public Portfolio(ClauseSet cs, HashMap<String,String> opts, String filename) {
+
+        clauses = cs;
+        this.opts = opts;
+        this.filename = filename;
+    }
+
+    /** ***************************************************************
+     * @return true if the state has a result that makes the other
+     * strategies unnecessary.
+     */
+    public static boolean settled(ProofState state) {
+
+        if (state == null)
+            return false;
+        return state.res != null ||
+                state.SZSresult.equals("Satisfiable") ||
+                state.SZSresult.equals("CounterSatisfiable");
+    }
+
+    /** ***************************************************************
+     * Build the strategies for the given search parameters, with all
+     * the option variants if the allOpts option is set.
+     */
+    private ArrayList<Strategy> strategies(ArrayList<SearchParams> evals) {
+
+        ArrayList<Strategy> result = new ArrayList<>();
+        for (SearchParams eval : evals) {
+            if (opts.containsKey("allOpts")) {
+                for (int i = 0; i < 16; i++)
+                    result.add(new Strategy(eval,i));
+            }
+            else
+                result.add(new Strategy(eval,-1));
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * Stop all strategies that have started and keep the others from
+     * starting.
+     */
+    private void cancelAll() {
+
+        synchronized (started) {
+            finished = true;
+            for (ProofState state : started)
+                state.cancel();
+        }
+    }
+
+    /** ***************************************************************
+     * Wait for the cancelled strategies to stop, which they do at their
+     * next check of the deadline, so that the next problem can reset
+     * the SymbolTable while no proof is running.
+     */
+    private static void awaitStop(ExecutorService pool) {
+
+        try {
+            if (!pool.awaitTermination(SHUTDOWN_SECONDS,TimeUnit.SECONDS))
+                System.out.println("# Error in Portfolio.awaitStop(): strategies still running after " +
+                        SHUTDOWN_SECONDS + "s");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** ***************************************************************
+     * Run one strategy for each of the search parameters (or 16 for
+     * each, with the allOpts option) and return the state of the winner.
+     * If no strategy settles the problem, return the state of the first
+     * strategy, as the sequential search in ProverFOF.processTestFile()
+     * does.
+     */
+    public ProofState run(ArrayList<SearchParams> evals) {
+
+        ArrayList<Strategy> strats = strategies(evals);
+        if (strats.size() == 0)
+            return null;
+        int nthreads = Math.max(1,Math.min(threads,strats.size()));
+        int timeout = ProverFOF.getTimeout(opts);
+        long deadline = 0;
+        int budget = 0;
+        if (timeout > 0) {
+            deadline = System.currentTimeMillis() + timeout * 1000L;
+            budget = Math.max(1,(int) ((long) timeout * nthreads / strats.size()));
+        }
+        System.out.println("# Portfolio.run(): " + strats.size() + " strategies on " + nthreads +
+                " threads, " + (budget == 0 ? "no time limit" : budget + "s per strategy"));
+        ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+        ExecutorCompletionService<ProofState> ecs = new ExecutorCompletionService<>(pool);
+        HashMap<Future<ProofState>,Strategy> futures = new HashMap<>();
+        for (Strategy s : strats) {
+            s.budget = budget;
+            s.deadline = deadline;
+            futures.put(ecs.submit(s),s);
+        }
+        ProofState[] results = new ProofState[strats.size()];
+        ProofState winner = null;
+        try {
+            for (int i = 0; i < strats.size() && winner == null; i++) {
+                Future<ProofState> f = ecs.take();
+                Strategy s = futures.get(f);
+                try {
+                    ProofState state = f.get();
+                    results[strats.indexOf(s)] = state;
+                    if (settled(state))
+                        winner = state;
+                }
+                catch (ExecutionException e) {
+                    System.out.println("Error in Portfolio.run(): strategy " + s + ": " + e.getCause());
+                    e.getCause().printStackTrace();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            cancelAll();
+            for (Future<ProofState> f : futures.keySet())
+                f.cancel(false);
+            pool.shutdown();
+            awaitStop(pool);
+        }
+        if (winner != null) {
+            System.out.println("# Portfolio.run(): " + winner.SZSresult + " by strategy " + winner.strategy);
+            return winner;
+        }
+        for (ProofState state : results)
+            if (state != null)
+                return state;
+        return null;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * A total order on the function and predicate symbols of a problem,
+ * the precedence that the term orderings KBO and LPO are based on.
+ * Symbols are ranked from 0 up; a higher rank is a greater symbol.
+ * Symbols that were not ranked are smaller than all ranked symbols,
+ * and ordered by name among themselves.
+ */
+public class Precedence {
+
+    public enum Generators {ARITY, FREQUENCY}
+
+    public static HashMap<String,Generators> PrecedenceGenerators;
+    static {
+        PrecedenceGenerators = new HashMap<>();
+        PrecedenceGenerators.put("arity",Generators.ARITY);
+        PrecedenceGenerators.put("frequency",Generators.FREQUENCY);
+    }
+
+    private HashMap<String,Integer> ranks = new HashMap<>();
+
+    /** ***************************************************************
+     * Make f greater than all symbols added before.
+     */
+    public void add(String f) {
+
+        if (!ranks.containsKey(f))
+            ranks.put(f, ranks.size());
+    }
+
+    /** ***************************************************************
+     * @return the rank of f, or -1 if it was not ranked.
+     */
+    public int rank(String f) {
+
+        Integer r = ranks.get(f);
+        return r == null ? -1 : r;
+    }
+
+    /** ***************************************************************
+     * @return a negative number, zero or a positive number as f is
+     * smaller than, equal to or greater than g.
+     */
+    public int compare(String f, String g) {
+
+        int rf = rank(f);
+        int rg = rank(g);
+        if (rf != rg)
+            return Integer.compare(rf, rg);
+        if (rf >= 0)
+            return 0;
+        return f.compareTo(g);
+    }
+
+    /** ***************************************************************
+     */
+    public String toString() {
+
+        String[] symbols = new String[ranks.size()];
+        for (String f : ranks.keySet())
+            symbols[ranks.get(f)] = f;
+        return String.join(" < ", symbols);
+    }
+
+    /** ***************************************************************
+     * Rank the symbols in the given order, smallest first.
+     */
+    private static Precedence fromList(ArrayList<String> symbols) {
+
+        Precedence result = new Precedence();
+        for (String f : symbols)
+            result.add(f);
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return a precedence in which symbols of a higher arity are
+     * greater, and symbols of the same arity are ordered by name.
+     */
+    public static Precedence byArity(ClauseSet cs) {
+
+        Signature sig = cs.collectSig();
+        ArrayList<String> symbols = new ArrayList<>(sig.preds);
+        symbols.addAll(sig.funs);
+        symbols.sort(Comparator.comparingInt((String f) -> sig.getArity(f)).thenComparing(f -> f));
+        return fromList(symbols);
+    }
+
+    /** ***************************************************************
+     */
+    private static void countSymbols(Term t, HashMap<String,Integer> counts) {
+
+        if (t.isVar())
+            return;
+        counts.merge(t.getFunc(), 1, Integer::sum);
+        for (Term s : t.subterms)
+            countSymbols(s, counts);
+    }
+
+    /** ***************************************************************
+     * @return a precedence in which rarer symbols are greater, so that
+     * inferences on the literals with rare symbols come first.  Ties
+     * are broken by arity and then by name.
+     */
+    public static Precedence byFrequency(ClauseSet cs) {
+
+        Signature sig = cs.collectSig();
+        HashMap<String,Integer> counts = new HashMap<>();
+        for (Clause c : cs.clauses)
+            for (Literal l : c.literals)
+                countSymbols(l.atom, counts);
+        ArrayList<String> symbols = new ArrayList<>(sig.preds);
+        symbols.addAll(sig.funs);
+        symbols.sort(Comparator.comparingInt((String f) -> -counts.getOrDefault(f, 0))
+                .thenComparingInt(f -> sig.getArity(f)).thenComparing(f -> f));
+        return fromList(symbols);
+    }
+
+    /** ***************************************************************
+     * @return the precedence made by the given generator for the
+     * symbols of cs.
+     */
+    public static Precedence create(Generators g, ClauseSet cs) {
+
+        if (g == Generators.FREQUENCY)
+            return byFrequency(cs);
+        return byArity(cs);
+    }
+}
@@ -16,6 +16,7 @@ import java.util.TreeSet;
 public class PredAbstractionPair implements Comparable {
     public boolean negated = false;
     public String pred = "";
+    public int predId = -1;   // SymbolTable id of pred
 
     public PredAbstractionPair() {}
 
@@ -24,6 +25,16 @@ public class PredAbstractionPair implements Comparable {
     public PredAbstractionPair(boolean n, String p) {
         negated = n;
         pred = p;
+        predId = SymbolTable.intern(p);
+    }
+
+    /** ***************************************************************
+     * As above, for a caller that already knows the symbol id of p.
+     */
+    public PredAbstractionPair(boolean n, String p, int id) {
+        negated = n;
+        pred = p;
+        predId = id;
     }
 
     /** ***************************************************************
@@ -49,6 +60,8 @@ public class PredAbstractionPair implements Comparable {
         if (!o.getClass().getName().equals("atp.PredAbstractionPair"))
             throw new ClassCastException();
         PredAbstractionPair pap = (PredAbstractionPair) o;
+        if (predId >= 0 && pap.predId >= 0)
+            return predId == pap.predId && negated == pap.negated;
         if (pred.equals(pap.pred) && negated == pap.negated)
             return true;
         else
@@ -59,6 +72,8 @@ public class PredAbstractionPair implements Comparable {
      */
     @Override
     public int hashCode() {
+        if (predId >= 0)
+            return 2 * predId + (negated ? 0 : 1);
         return pred.hashCode() + (negated ? 0 : 1);
     }
 
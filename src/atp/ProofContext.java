@@ -0,0 +1,124 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+/** ***************************************************************
+ * The counters and flags that the parser, the clausifiers and the
+ * inference rules use to create new names, variables and symbols.
+ * They used to be static fields of those classes, so that two proofs
+ * in one JVM shared them.
+ *
+ * Each thread has a current context.  A ProofState owns a context and
+ * makes it current while it processes a clause, so proofs that run at
+ * the same time, or one after another on a pool thread, don't see each
+ * other's counters.  Code that parses or clausifies for a particular
+ * proof can do the same with enter() and leave().
+ *
+ * The context also carries the deadline and the cancellation flag of
+ * the work, which the inference loops check with checkDeadline().
+ *
+ * The indices of a proof belong to its processed IndexedClauseSet.
+ */
+public class ProofContext {
+
+    public int clauseIDcounter = 0;   // names of generated clauses, see Clause.createName()
+    public int derivedIdCounter = 0;  // default names of Derivables
+    public int formulaIdCounter = 0;  // default names of Formulas
+    public int varCounter = 0;        // new variables and skolem functions of the Clausifier
+    public int axiomCounter = 0;      // names of clauses from the Clausifier
+    public int skolemCount = 0;       // skolem symbols of SmallCNFization
+    public int definitionCounter = 0; // definition predicates of DefinitionalCNF
+    public int eqAxiomCounter = 0;    // names of the axioms from EqAxioms
+    public boolean changed = true;    // fixpoint flag for the Clausifier rewriting loops
+    public boolean marked = false;    // generated names are marked, see newName()
+
+    public long deadline = 0;                   // in System.currentTimeMillis() terms, 0 for none
+    public volatile boolean cancelled = false;  // set by another thread to stop the work
+    private int ticks = 0;                      // calls to checkDeadline() since the last clock read
+
+    // checkDeadline() reads the clock only once per this many calls
+    public static final int CHECK_INTERVAL = 64;
+
+    private static ThreadLocal<ProofContext> current = ThreadLocal.withInitial(ProofContext::new);
+
+    /** ***************************************************************
+     * @return the generated name made of prefix and number n.  In a
+     * marked context, such as that of a statement of ParallelClausifier,
+     * a '#' separates them.  No input symbol has one, so the names that
+     * were generated can be told apart and renumbered later.
+     */
+    public String newName(String prefix, String n) {
+
+        return marked ? prefix + "#" + n : prefix + n;
+    }
+
+    /** ***************************************************************
+     * @return the context of the calling thread.
+     */
+    public static ProofContext current() {
+
+        return current.get();
+    }
+
+    /** ***************************************************************
+     * Make context the current context of the calling thread.
+     * @return the previous context, to be restored with leave().
+     */
+    public static ProofContext enter(ProofContext context) {
+
+        ProofContext previous = current.get();
+        current.set(context);
+        return previous;
+    }
+
+    /** ***************************************************************
+     * Restore the context that was current before enter().
+     */
+    public static void leave(ProofContext previous) {
+
+        current.set(previous);
+    }
+
+    /** ***************************************************************
+     * @return true if the work has been cancelled or the deadline has
+     * passed.
+     */
+    public boolean expired() {
+
+        return cancelled || (deadline != 0 && System.currentTimeMillis() >= deadline);
+    }
+
+    /** ***************************************************************
+     * Throw a DeadlineException if the work has been cancelled or the
+     * deadline has passed.  This is cheap enough for inner loops: the
+     * clock is only read every CHECK_INTERVAL calls.  The count is not
+     * synchronized, since a lost update only delays the next read.
+     */
+    public void checkDeadline() {
+
+        if (cancelled)
+            throw new DeadlineException(true);
+        if (deadline != 0 && ++ticks >= CHECK_INTERVAL) {
+            ticks = 0;
+            if (System.currentTimeMillis() >= deadline)
+                throw new DeadlineException(false);
+        }
+    }
+}
@@ -58,6 +58,12 @@ public class ProofState {
        given clause, and discards all processed clauses that are
        subsumed. */
     public boolean backward_subsumption = false;
+    /* Eager simplification checks each new clause for tautologies and
+       forward subsumption before it goes into unprocessed, instead of
+       when it is selected.  The subsuming clauses are the processed
+       clauses and the unit clauses that have been added to unprocessed,
+       including those of the same batch of new clauses. */
+    public boolean eager_simplification = false;
     public HeuristicClauseSet unprocessed = null; // eval_functions.eval_funs .name
     public ClauseSet processed = null;
     public int initial_clause_count = 0;
@@ -67,6 +73,14 @@ public class ProofState {
     public int tautologies_deleted  = 0;
     public int forward_subsumed     = 0;
     public int backward_subsumed    = 0;
+    public int variants_deleted     = 0;
+    public int eagerly_deleted      = 0;
+    public int literals_cut         = 0;  // by subsumption resolution
+    public int condensed            = 0;
+    public int superposition_count  = 0;  // superpositions, equality resolvents and equality factors
+    public int demodulated          = 0;  // given clauses rewritten by unit equations
+    public int backward_demodulated = 0;  // processed clauses rewritten by a new unit equation
+    public int sos_axioms           = 0;  // axioms put into processed by the set of support strategy
     public long time                = 0;  // in milliseconds
     public Clause res               = null;
     public String SZSresult         = "";  // result as specified by SZS "ontology"
@@ -76,7 +90,18 @@ public class ProofState {
     public static boolean verbose          = false;
     public Clause conjecture = null;
     public boolean indexed = true;  // use an IndexedClauseSet
+    public boolean delete_variants = true;  // drop new clauses that are variants of earlier ones
+    public VariantIndex variants = new VariantIndex(); // all clauses that have been added to unprocessed
+    public IndexedClauseSet units = new IndexedClauseSet(); // unit clauses of eagerSimplify() still in unprocessed
+    public HashMap<String,Clause> replaced = new HashMap<>(); // given and processed clauses replaced by simpler ones, by name
+    public TermBank termBank = new TermBank(); // shared terms of processed clauses
+    public ProofContext context = new ProofContext(); // counters for new clause names and variables
     public SearchParams params = null;
+    public TermOrdering ordering = null; // of ordered resolution and superposition, made at the first given clause
+    public DemodulationIndex demodulators = null; // unit equations of processed, with superposition
+    public SuperpositionIndex superpositionIndex = null; // equation sides and subterms of processed, with superposition
+    private boolean sos_started = false; // the axioms have been moved for the set of support strategy
+    public String strategy          = "";  // description of the strategy when run in a Portfolio
     public static boolean debug = false;
 
     /** ***************************************************************
@@ -95,8 +120,10 @@ public class ProofState {
             processed = new IndexedClauseSet();
         else
             processed = new ClauseSet();
-        for (Clause c:clauses.clauses) 
+        for (Clause c:clauses.clauses) {
+            variants.add(c);
             unprocessed.addClause(c.deepCopy());
+        }
         initial_clause_count = unprocessed.length();
         proc_clause_count    = 0;
         factor_count         = 0;
@@ -104,6 +131,14 @@ public class ProofState {
         tautologies_deleted  = 0;
         forward_subsumed     = 0;
         backward_subsumed    = 0;
+        variants_deleted     = 0;
+        eagerly_deleted      = 0;
+        literals_cut         = 0;
+        condensed            = 0;
+        superposition_count  = 0;
+        demodulated          = 0;
+        backward_demodulated = 0;
+        sos_axioms           = 0;
         time                 = 0;
         SZSresult = clauses.SZSresult;
         SZSexpected = clauses.SZSexpected;
@@ -136,20 +171,78 @@ public class ProofState {
     /** ***************************************************************
      * Pick a clause from unprocessed and process it. If the empty
      * clause is found, return it. Otherwise return null.
+     * The new clauses and variables are counted in the context of
+     * this proof state.
      */  
     public Clause processClause() {
 
+        ProofContext previous = ProofContext.enter(context);
+        try {
+            return processClauseInContext();
+        }
+        finally {
+            ProofContext.leave(previous);
+        }
+    }
+
+    /** ***************************************************************
+     * Remove a clause that was taken out of processed from the indexes
+     * of the superposition calculus.
+     */
+    private void removeFromIndexes(Clause c) {
+
+        if (demodulators != null) {
+            demodulators.removeClause(c);
+            superpositionIndex.removeClause(c);
+        }
+    }
+
+    /** ***************************************************************
+     */  
+    private Clause processClauseInContext() {
+
         //System.out.println("# processClause(): unprocessed before extract: " + unprocessed);
         //System.out.println("# processClause(): processed: " + processed);
+        if ((params.ordering != null || params.superposition) && ordering == null) {
+            TermOrdering.Orderings o = params.ordering != null ? params.ordering : TermOrdering.Orderings.KBO;
+            ordering = TermOrdering.create(o, Precedence.create(params.precedence, unprocessed));
+        }
+        if (params.set_of_support && !sos_started)
+            startSetOfSupport();
+        if (params.superposition && demodulators == null) {
+            demodulators = new DemodulationIndex(ordering);
+            superpositionIndex = new SuperpositionIndex(ordering);
+            for (Clause c:processed.clauses) {
+                demodulators.insertClause(c);
+                superpositionIndex.insertClause(c);
+            }
+        }
         Clause given_clause = unprocessed.extractBest();
+        if (given_clause != null && given_clause.length() == 1)
+            units.extractClause(given_clause);  // no longer unprocessed, see eagerSimplify()
         if (verbose)
             System.out.println("# processClause(): given clause: " + given_clause);
         //System.out.println("# processClause(): unprocessed after extract: " + unprocessed);
-        given_clause = given_clause.freshVarCopy();
-        //System.out.println("# processClause(): given clause fresh vars: " + given_clause);
+        // The given clause is not copied with fresh variables: the
+        // inferences rename it apart from its partners, see Unifier.
+        termBank.share(given_clause);
+        if (demodulators != null) {
+            // Rewrite the given clause with the processed unit equations
+            Clause rewritten = demodulators.demodulate(given_clause);
+            if (rewritten != null) {
+                demodulated = demodulated + 1;
+                replaced.put(given_clause.name,given_clause);
+                given_clause = rewritten;
+                termBank.share(given_clause);
+            }
+        }
         if (given_clause.isEmpty())
             // We have found an explicit contradiction
             return given_clause;
+        if (params.superposition && Superposition.isEqTautology(given_clause)) {
+            tautologies_deleted = tautologies_deleted + 1;
+            return null;
+        }
         if (delete_tautologies && given_clause.isTautology()) {
             tautologies_deleted = tautologies_deleted + 1;
             //System.out.println("# processClause(): tautology");
@@ -167,6 +260,31 @@ public class ProofState {
             return null;
         }
 
+        if (params.subsumption_resolution) {
+            //  Cut the literals of the given clause whose negation,
+            //  together with the rest of the clause, is subsumed by a
+            //  processed clause. The shorter clause replaces it.
+            Clause cut = Simplification.subsumptionResolution(processed, given_clause);
+            if (cut != null) {
+                literals_cut = literals_cut + given_clause.length() - cut.length();
+                replaced.put(given_clause.name,given_clause);
+                given_clause = cut;
+                termBank.share(given_clause);
+                if (given_clause.isEmpty())
+                    return given_clause;
+            }
+        }
+
+        if (params.condensation) {
+            Clause cond = Simplification.condensation(given_clause);
+            if (cond != null) {
+                condensed = condensed + 1;
+                replaced.put(given_clause.name,given_clause);
+                given_clause = cond;
+                termBank.share(given_clause);
+            }
+        }
+
         if (backward_subsumption) {
             //  If the given clause subsumes any of the already
             //  processed clauses, it will "cover" for these less
@@ -177,18 +295,44 @@ public class ProofState {
             //  smaller clauses, which tend to be more general (thus the
             //  processed clauses are typically, if not universally, more
             //  general than the new given clause).
-            int tmp = Subsumption.backwardSubsumption(given_clause, processed);
+            ArrayList<Clause> removed = new ArrayList<>();
+            int tmp = Subsumption.backwardSubsumption(given_clause, processed, removed);
+            for (Clause c:removed)
+                removeFromIndexes(c);
             //if (tmp != 0) System.out.println("# processClause(): backward_subsumed");
             backward_subsumed = backward_subsumed + tmp;
         }
-        if (params.literal_selection != null)
+        boolean binary = params.inferences == ResControl.Inferences.BINARY;
+        if (binary && params.literal_selection != null)
             given_clause.selectInferenceLits(params.literal_selection);
+        if (binary && params.ordering != null &&
+                (params.literal_selection == null || given_clause.getNegativeLits().size() == 0))
+            // Without a selected literal, only the maximal literals are
+            // resolved upon, and only they are indexed in processed.
+            ordering.selectMaximalLits(given_clause);
         //System.out.println("# processClause(): given clause highlight: " + given_clause.printHighlight());
         ClauseSet newClauses = new ClauseSet();
-        ClauseSet factors = ResControl.computeAllFactors(given_clause);
+        ClauseSet factors = null;
+        if (params.threads > 1)
+            factors = ResControl.computeAllFactors(given_clause, params.threads);
+        else
+            factors = ResControl.computeAllFactors(given_clause);
         newClauses.addAll(factors);
-        ClauseSet resolvents = ResControl.computeAllResolvents(given_clause, processed);
+        ClauseSet resolvents = null;
+        if (params.inferences == ResControl.Inferences.HYPER)
+            resolvents = HyperResolution.computeHyperResolvents(given_clause, processed);
+        else if (params.inferences == ResControl.Inferences.UR)
+            resolvents = HyperResolution.computeURResolvents(given_clause, processed);
+        else if (params.threads > 1)
+            resolvents = ResControl.computeAllResolvents(given_clause, processed, params.threads);
+        else
+            resolvents = ResControl.computeAllResolvents(given_clause, processed);
         newClauses.addAll(resolvents);
+        if (params.superposition) {
+            ClauseSet superpositions = Superposition.computeAll(given_clause, superpositionIndex, ordering);
+            newClauses.addAll(superpositions);
+            superposition_count = superposition_count + superpositions.length();
+        }
 
         if (verbose && newClauses.clauses.size() > 0)
             System.out.println("# ProofState.processClause(): new clauses from factors and resolvants: " + newClauses);
@@ -197,8 +341,37 @@ public class ProofState {
         resolvent_count = resolvent_count + resolvents.length();
 
         processed.addClause(given_clause);
+        if (demodulators != null) {
+            superpositionIndex.insertClause(given_clause);
+            if (demodulators.insertClause(given_clause)) {
+                // Backward demodulation: the processed clauses that the
+                // new equation rewrites are replaced, and their rewritten
+                // forms go back to unprocessed.
+                for (Clause c:demodulators.rewritable(given_clause, processed)) {
+                    processed.extractClause(c);
+                    removeFromIndexes(c);
+                    replaced.put(c.name,c);
+                    newClauses.addClause(demodulators.demodulate(c));
+                    backward_demodulated = backward_demodulated + 1;
+                }
+            }
+        }
 
+        ArrayList<Clause> fresh = new ArrayList<>();
         for (Clause c:newClauses.clauses) {
+            // A variant of a clause that was added before is redundant:
+            // that clause is still in the proof state, or it was deleted
+            // as a tautology or by subsumption, which would delete this
+            // one too.
+            if (delete_variants && !variants.add(c)) {
+                variants_deleted = variants_deleted + 1;
+                continue;
+            }
+            fresh.add(c);
+        }
+        if (eager_simplification)
+            fresh = eagerSimplify(fresh);
+        for (Clause c:fresh) {
         	if (verbose)
         		System.out.println("# ProofState.processClause(): Adding clause to unprocessed: " + c);
             unprocessed.addClause(c);
@@ -206,34 +379,167 @@ public class ProofState {
         return null;
     }
     
+    /** ***************************************************************
+     * Start the set of support strategy: move the clauses that don't
+     * come from the conjecture from unprocessed to processed, as they
+     * are.  They are never given clauses, so no two of them are resolved
+     * with each other, and every new clause descends from the
+     * conjecture.  This is complete for resolution when the axioms are
+     * consistent, but not together with an ordering or with literal
+     * selection on the axioms, which are left unrestricted.  If there is
+     * no conjecture, all clauses stay in unprocessed.
+     */
+    private void startSetOfSupport() {
+
+        sos_started = true;
+        ArrayList<Clause> support = new ArrayList<>();
+        ArrayList<Clause> axioms = new ArrayList<>();
+        for (Clause c:unprocessed.clauses) {
+            if (c.isConjecture())
+                support.add(c);
+            else
+                axioms.add(c);
+        }
+        if (support.size() == 0) {
+            System.out.println("# ProofState.startSetOfSupport(): no conjecture, using all clauses");
+            return;
+        }
+        unprocessed = new HeuristicClauseSet(params.heuristics);
+        for (Clause c:support)
+            unprocessed.addClause(c);
+        for (Clause c:axioms) {
+            termBank.share(c);
+            processed.addClause(c);
+        }
+        sos_axioms = axioms.size();
+    }
+
+    /** ***************************************************************
+     * Remove the tautologies and the subsumed clauses from a batch of
+     * new clauses and return the others, in their original order.  The
+     * unit clauses of the batch are indexed first, so that they can
+     * subsume the rest of the batch.  A clause subsumed by a unit that
+     * is still unprocessed can be dropped, since that unit will be
+     * selected, or deleted by a clause that subsumes both.  A unit
+     * leaves units when it is selected, whether it is then processed or
+     * deleted; after that, processed or the clause that deleted it
+     * covers it.
+     */
+    private ArrayList<Clause> eagerSimplify(ArrayList<Clause> batch) {
+
+        ArrayList<Clause> result = new ArrayList<>();
+        Set<Clause> newUnits = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Clause c:batch) {
+            if (c.length() == 1 && !Subsumption.forwardSubsumption(processed, c) &&
+                    !Subsumption.forwardSubsumption(units, c)) {
+                units.addClause(c);
+                newUnits.add(c);
+            }
+        }
+        for (Clause c:batch) {
+            context.checkDeadline();
+            if (c.isTautology()) {
+                eagerly_deleted = eagerly_deleted + 1;
+                continue;
+            }
+            if (c.length() == 1) {
+                // the units of the batch were checked above
+                if (newUnits.contains(c))
+                    result.add(c);
+                else
+                    eagerly_deleted = eagerly_deleted + 1;
+                continue;
+            }
+            if (Subsumption.forwardSubsumption(processed, c) ||
+                    Subsumption.forwardSubsumption(units, c)) {
+                eagerly_deleted = eagerly_deleted + 1;
+                continue;
+            }
+            result.add(c);
+        }
+        return result;
+    }
+
     /** ***************************************************************
      * Main proof procedure. If the clause set is found unsatisfiable, 
      * return the empty clause as a witness. Otherwise return null.
      * Allow timeout to terminate the search.
-     * The timeout needs to be made more sophisticated, with a system
-     * interrupt, since just processing one clause could take infinite
-     * time, and therefore a timeout in this method would never occur.
+     * The timeout is the deadline of the context of this proof state,
+     * which the inference loops check while they process a clause, so
+     * a single expensive given clause can't overrun it.
      * Note that processing on StarExec should have a timeout of 0, to
      * allow that system to have control of the timeout.
+     * The search also stops, without a result, when another thread
+     * calls cancel().
      */  
     public Clause saturate(int seconds) {
 
         long t1 = System.currentTimeMillis();
-        while (unprocessed.length() > 0) {
-            Clause res = processClause();
-            //System.out.println("# ProofState.saturate(): processed clause: " + res);
-            if (res != null) {
-                time = System.currentTimeMillis() - t1;
-                return res;
+        context.deadline = seconds == 0 ? 0 : t1 + seconds * 1000L;
+        try {
+            while (unprocessed.length() > 0) {
+                if (isCancelled())
+                    throw new DeadlineException(true);
+                Clause res = processClause();
+                //System.out.println("# ProofState.saturate(): processed clause: " + res);
+                if (res != null) {
+                    time = System.currentTimeMillis() - t1;
+                    return res;
+                }
+                if (context.expired())
+                    throw new DeadlineException(isCancelled());
             }
-            if (seconds != 0 && ((System.currentTimeMillis() - t1) / 1000.0) > seconds) {
+        }
+        catch (DeadlineException e) {
+            if (e.cancelled)
+                SZSresult = "GaveUp";
+            else
                 SZSresult = "Timeout (TMO)";
-                time = System.currentTimeMillis() - t1;
-                return null;
-            }
+            time = System.currentTimeMillis() - t1;
+            return null;
+        }
+        finally {
+            context.deadline = 0;
         }
         return null;
     }
+
+    /** ***************************************************************
+     * Ask saturate() to stop as soon as possible.  This can be called
+     * from another thread.
+     */  
+    public void cancel() {
+
+        context.cancelled = true;
+    }
+
+    /** ***************************************************************
+     */  
+    public boolean isCancelled() {
+
+        return context.cancelled;
+    }
+
+    /** ***************************************************************
+     * @return false if the search can saturate without a proof of an
+     * unsatisfiable problem, so that saturation shows nothing.  UR
+     * resolution is incomplete, see HyperResolution.  The set of
+     * support strategy is only complete with unrestricted binary
+     * resolution: the axioms it moves to processed are never resolved,
+     * rewritten or superposed with each other, which an ordering,
+     * literal selection or superposition would need.
+     */
+    public boolean isComplete() {
+
+        if (params == null)
+            return true;
+        if (params.inferences == ResControl.Inferences.UR)
+            return false;
+        boolean restricted = params.superposition || params.ordering != null ||
+                (params.literal_selection != null && params.literal_selection != LitSelection.LitSelectors.NONE) ||
+                params.inferences != ResControl.Inferences.BINARY;
+        return !(sos_axioms > 0 && restricted);
+    }
     
     /** ***************************************************************
      */  
@@ -251,6 +557,8 @@ public class ProofState {
         sb.append("# Filename           : " + filename + "\n");
         sb.append("# Indexed            : " + indexed + "\n");
         sb.append("# Eval function name : " + evalFunctionName + "\n");
+        if (!Term.emptyString(strategy))
+            sb.append("# Strategy           : " + strategy + "\n");
         sb.append("# Initial clauses    : " + initial_clause_count + "\n");
         sb.append("# Processed clauses  : " + proc_clause_count + "\n");
         sb.append("# Factors computed   : " + factor_count + "\n");
@@ -258,6 +566,24 @@ public class ProofState {
         sb.append("# Tautologies deleted: " + tautologies_deleted + "\n");
         sb.append("# Forward subsumed   : " + forward_subsumed + "\n");
         sb.append("# Backward subsumed  : " + backward_subsumed + "\n");
+        sb.append("# Variants deleted   : " + variants_deleted + "\n");
+        if (eager_simplification)
+            sb.append("# Eagerly deleted    : " + eagerly_deleted + "\n");
+        if (params != null && params.subsumption_resolution)
+            sb.append("# Literals cut       : " + literals_cut + "\n");
+        if (params != null && params.condensation)
+            sb.append("# Clauses condensed  : " + condensed + "\n");
+        if (params != null && params.superposition) {
+            sb.append("# Superpositions     : " + superposition_count + "\n");
+            sb.append("# Demodulated        : " + demodulated + "\n");
+            sb.append("# Backward demod.    : " + backward_demodulated + "\n");
+        }
+        if (params != null && params.set_of_support)
+            sb.append("# Set of support ax. : " + sos_axioms + "\n");
+        if (processed instanceof IndexedClauseSet &&
+                ((IndexedClauseSet) processed).resIndex instanceof DiscriminationTreeIndex)
+            sb.append("# Res. cands filtered: " +
+                    ((DiscriminationTreeIndex) ((IndexedClauseSet) processed).resIndex).filtered() + "\n");
         sb.append("# SZS status " + SZSresult + " for " + opts.get("filename") + "\n");
         sb.append("# SZS Expected       : " + SZSexpected + "\n");
         sb.append("# time               : " + time + "ms\n");
@@ -561,19 +887,26 @@ public class ProofState {
     }
  
     /** ***************************************************************
+     * Follow the terms vars, in the variables of clause id, down to
+     * the clauses derived from it.  Resolvents record where the
+     * variables of each of their parents went in supportSubst, since
+     * the parents may have variables with the same names.  Other
+     * clauses only have their subst.
      */  
     public ArrayList<Term> extractAnswerRecurse(TreeMap<String,Clause> proof, String id, Collection<Term> vars) {
         
         //System.out.println("INFO in ProofState.extractAnswerRecurse(): checking: " + id);
         ArrayList<Term> newvars = new ArrayList<Term>();
         newvars.addAll(vars);
-        Clause c = proof.get(id);
-        newvars = c.subst.applyList(newvars);
         for (String key : proof.keySet()) {
             Clause val = proof.get(key);
             for (int i = 0; i < val.support.size(); i++) {
-                if (val.support.get(i).equals(id))
-                    newvars = extractAnswerRecurse(proof,val.name,newvars);
+                if (val.support.get(i).equals(id)) {
+                    Substitutions s = val.subst;
+                    if (val.supportSubst != null && i < val.supportSubst.length)
+                        s = val.supportSubst[i];
+                    newvars = extractAnswerRecurse(proof,val.name,s.applyList(newvars));
+                }
             }
         }       
         return newvars; 
@@ -639,6 +972,7 @@ public class ProofState {
             //System.out.println("generateProofGraph(): " + c.toStringJustify());
             clauseMap.put(c.name, c);
         }
+        clauseMap.putAll(replaced);
         System.out.println();
         clauseMap.putAll(searchProof(clauseMap,res));    // get just the clauses in the proof    
         graph.putAll(createGraph(clauseMap));            // turn into a graph with pointers and backpointers
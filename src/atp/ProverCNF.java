@@ -52,7 +52,19 @@ public class ProverCNF {
             "\n" +
             " -H <heuristic>\n" +
             "--given-clause-heuristic=<heuristic>\n" +
-            "  Use the specified heuristic for given-clause selection.";
+            "  Use the specified heuristic for given-clause selection.\n" +
+            "\n" +
+            " -o <ordering>\n" +
+            "--ordering=<ordering>\n" +
+            "  Use ordered resolution with the term ordering kbo or lpo.\n" +
+            "\n" +
+            " -p <generator>\n" +
+            "--precedence=<generator>\n" +
+            "  Generate the symbol precedence of the ordering by arity or frequency.\n" +
+            "\n" +
+            " -i <rule>\n" +
+            "--inferences=<rule>\n" +
+            "  Use binary resolution, positive hyper-resolution or UR-resolution: binary, hyper or ur.";
 
     /** ***************************************************************
      *  Process the options given
@@ -92,6 +104,30 @@ public class ProverCNF {
                     return null;
                 }
             }
+            else if (opt.equals("-o") || opt.equals("--ordering")) {
+                i++;
+                if (i >= opts.size() || !TermOrdering.TermOrderings.containsKey(opts.get(i))) {
+                    System.out.println("processOptions(): Unknown term ordering " + (i < opts.size() ? opts.get(i) : ""));
+                    return null;
+                }
+                params.ordering = TermOrdering.TermOrderings.get(opts.get(i));
+            }
+            else if (opt.equals("-p") || opt.equals("--precedence")) {
+                i++;
+                if (i >= opts.size() || !Precedence.PrecedenceGenerators.containsKey(opts.get(i))) {
+                    System.out.println("processOptions(): Unknown precedence generator " + (i < opts.size() ? opts.get(i) : ""));
+                    return null;
+                }
+                params.precedence = Precedence.PrecedenceGenerators.get(opts.get(i));
+            }
+            else if (opt.equals("-i") || opt.equals("--inferences")) {
+                i++;
+                if (i >= opts.size() || !ResControl.InferenceRules.containsKey(opts.get(i))) {
+                    System.out.println("processOptions(): Unknown inference rule " + (i < opts.size() ? opts.get(i) : ""));
+                    return null;
+                }
+                params.inferences = ResControl.InferenceRules.get(opts.get(i));
+            }
             else if (opt.startsWith("-")){
                 System.out.println("processOptions(): Unknown option: " + opt);
                 return null;
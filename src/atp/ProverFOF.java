@@ -48,6 +48,25 @@ public class ProverFOF {
         "--timeout\n" +
         "Must be followed by an integer, which is a timeout in seconds. A '0' value indicates no timeout limit.\n" +
         "\n" +
+        "--threads\n" +
+        "Must be followed by an integer, the number of threads used to compute resolvents. Results don't depend on it.\n" +
+        "\n" +
+        "--definitional-cnf\n" +
+        "Must be followed by an integer. Replace subformulas by new definition predicates when clausifying\n" +
+        "them would give more than that many clauses.\n" +
+        "\n" +
+        "--clausify-threads\n" +
+        "Must be followed by an integer, the number of threads used to clausify FOF input while it is parsed.\n" +
+        "Results don't depend on it.\n" +
+        "\n" +
+        "--cache\n" +
+        "Must be followed by a directory. Keep the clauses of each input file there, and read them back\n" +
+        "instead of parsing the file again while the file, its includes and the clausifier options are unchanged.\n" +
+        "\n" +
+        "--portfolio\n" +
+        "Must be followed by an integer, the number of threads used to run the strategies (see --allStrat and\n" +
+        "--allOpts) at the same time. The first strategy that settles the problem stops the others.\n" +
+        "\n" +
         " -t\n" +
         "--delete-tautologies\n" +
         "Discard the given clause if it is a tautology.\n" +
@@ -61,6 +80,18 @@ public class ProverFOF {
         " -b\n" +
         "--backward-subsumption\n" +
         "Discard processed clauses if they are subsumed by the given clause.\n" +
+        "--ordering\n" +
+        "Must be followed by kbo or lpo. Resolve only upon the maximal literals of clauses without selected literals.\n" +
+        "--precedence\n" +
+        "Must be followed by arity or frequency, the way the symbol precedence of the ordering is generated.\n" +
+        "--inferences\n" +
+        "Must be followed by binary, hyper or ur: binary resolution, positive hyper-resolution or UR-resolution.\n" +
+        "--subsumption-resolution\n" +
+        "Cut literals of the given clause by subsumption resolution with processed clauses.\n" +
+        "--condensation\n" +
+        "Replace the given clause by its condensation.\n" +
+        "--eager-simplification\n" +
+        "Discard new clauses that are tautologies, or subsumed by a processed or a unit clause, before they are queued.\n" +
         " -i\n" +
         "File include path directive.\n" +
         " --result\n" +
@@ -75,6 +106,10 @@ public class ProverFOF {
         "Run all clause selection strategies.\n" +
         " --eqax\n" +
         "Generate equality axioms.\n" +
+        " --superposition\n" +
+        "Reason with equality by superposition and demodulation instead of equality axioms.\n" +
+        " --sos\n" +
+        "Set of support: start with the axioms processed, and only select the conjecture and its descendants.\n" +
         " --sine\n" +
         "Run SInE axiom selection.\n" +
         " --proof\n" +
@@ -129,14 +164,39 @@ public class ProverFOF {
                     result.put("allStrat", "true");
                 else if (arg.equals("--sine"))
                     result.put("sine", "true");
+                else if (arg.equals("--sos"))
+                    result.put("sos", "true");
                 else if (arg.equals("--eqax"))
                     result.put("eqax", "true");
+                else if (arg.equals("--superposition"))
+                    result.put("superposition", "true");
                 else if (arg.equals("--delete-tautologies"))
                     result.put("delete-tautologies","true");
                 else if (arg.equals("--forward-subsumption"))
                     result.put("forward-subsumption","true");
                 else if (arg.equals("--backward_subsumption"))
                     result.put("backward_subsumption","true");
+                else if (arg.equals("--ordering")) {
+                    if (i + 1 >= args.length || !TermOrdering.TermOrderings.containsKey(args[i+1]))
+                        return null;
+                    result.put("ordering",args[i+1]);
+                }
+                else if (arg.equals("--precedence")) {
+                    if (i + 1 >= args.length || !Precedence.PrecedenceGenerators.containsKey(args[i+1]))
+                        return null;
+                    result.put("precedence",args[i+1]);
+                }
+                else if (arg.equals("--inferences")) {
+                    if (i + 1 >= args.length || !ResControl.InferenceRules.containsKey(args[i+1]))
+                        return null;
+                    result.put("inferences",args[i+1]);
+                }
+                else if (arg.equals("--subsumption-resolution"))
+                    result.put("subsumption-resolution","true");
+                else if (arg.equals("--condensation"))
+                    result.put("condensation","true");
+                else if (arg.equals("--eager-simplification"))
+                    result.put("eager-simplification","true");
                 else if (arg.equals("--timeout")) {
                     try {
                          int val = Integer.parseInt(args[i+1]);
@@ -146,6 +206,47 @@ public class ProverFOF {
                     }
                     result.put("timeout",args[i+1]);
                 }
+                else if (arg.equals("--threads")) {
+                    try {
+                         int val = Integer.parseInt(args[i+1]);
+                    }
+                    catch (NumberFormatException n) {
+                        return null;
+                    }
+                    result.put("threads",args[i+1]);
+                }
+                else if (arg.equals("--definitional-cnf")) {
+                    try {
+                         int val = Integer.parseInt(args[i+1]);
+                    }
+                    catch (NumberFormatException n) {
+                        return null;
+                    }
+                    result.put("definitional-cnf",args[i+1]);
+                }
+                else if (arg.equals("--clausify-threads")) {
+                    try {
+                         int val = Integer.parseInt(args[i+1]);
+                    }
+                    catch (NumberFormatException n) {
+                        return null;
+                    }
+                    result.put("clausify-threads",args[i+1]);
+                }
+                else if (arg.equals("--cache")) {
+                    if (i + 1 >= args.length)
+                        return null;
+                    result.put("cache",args[++i]);  // not the filename
+                }
+                else if (arg.equals("--portfolio")) {
+                    try {
+                         int val = Integer.parseInt(args[i+1]);
+                    }
+                    catch (NumberFormatException n) {
+                        return null;
+                    }
+                    result.put("portfolio",args[i+1]);
+                }
                 else
                     System.out.println("Error in processOptions(): unrecognized option: " + arg);
             }
@@ -205,6 +306,24 @@ public class ProverFOF {
             state.forward_subsumption = true;
         if (opts.containsKey("backward_subsumption"))
             state.backward_subsumption = true;
+        if (opts.containsKey("eager-simplification"))
+            state.eager_simplification = true;
+        if (opts.containsKey("ordering") && state.params != null)
+            state.params.ordering = TermOrdering.TermOrderings.get(opts.get("ordering"));
+        if (opts.containsKey("precedence") && state.params != null)
+            state.params.precedence = Precedence.PrecedenceGenerators.get(opts.get("precedence"));
+        if (opts.containsKey("superposition") && state.params != null)
+            state.params.superposition = true;
+        if (opts.containsKey("inferences") && state.params != null)
+            state.params.inferences = ResControl.InferenceRules.get(opts.get("inferences"));
+        if (opts.containsKey("sos") && state.params != null)
+            state.params.set_of_support = true;
+        if (opts.containsKey("subsumption-resolution") && state.params != null)
+            state.params.subsumption_resolution = true;
+        if (opts.containsKey("condensation") && state.params != null)
+            state.params.condensation = true;
+        if (opts.containsKey("threads") && state.params != null)
+            state.params.threads = Integer.parseInt(opts.get("threads"));
     }
 
     /** ***************************************************************
@@ -234,27 +353,36 @@ public class ProverFOF {
         ArrayList<ProofState> result = new ArrayList<ProofState>();
         for (int i = 0; i < 16; i++) {
             ProofState state = new ProofState(clauses,params);
-            if ((i & 1) == 0)
-                state.delete_tautologies = false;
-            else
-                state.delete_tautologies = true;
-            if ((i & 2) == 0)
-                state.forward_subsumption = false;
-            else
-                state.forward_subsumption = true;
-            if ((i & 4) == 0)
-                state.backward_subsumption = false;
-            else
-                state.backward_subsumption = true;
-            if ((i & 8) == 0)
-                state.indexed = false;
-            else
-                state.indexed = true;
+            setStateVariant(state,i);
             result.add(state);
         }
         return result;
     }
 
+    /** ***************************************************************
+     * Set the options of one of the 16 variants of setAllStateOptions(),
+     * given by the bits of variant.  Results are side effects on state.
+     */
+    public static void setStateVariant(ProofState state, int variant) {
+
+        if ((variant & 1) == 0)
+            state.delete_tautologies = false;
+        else
+            state.delete_tautologies = true;
+        if ((variant & 2) == 0)
+            state.forward_subsumption = false;
+        else
+            state.forward_subsumption = true;
+        if ((variant & 4) == 0)
+            state.backward_subsumption = false;
+        else
+            state.backward_subsumption = true;
+        if ((variant & 8) == 0)
+            state.indexed = false;
+        else
+            state.indexed = true;
+    }
+
     /** ***************************************************************
      */
     public static int getTimeout(HashMap<String,String> opts) {
@@ -387,7 +515,17 @@ public class ProverFOF {
     public static ProofState computeStateResults(HashMap<String,String> opts, ProofState state,
                                                  ClauseSet cs, String filename, SearchParams eval) {
 
-        int timeout = getTimeout(opts);
+        return computeStateResults(opts,state,cs,filename,eval,getTimeout(opts));
+    }
+
+    /** ***************************************************************
+     * @param timeout is the time in seconds for this proof state, which
+     *                can be less than the time for the whole problem.
+     */
+    public static ProofState computeStateResults(HashMap<String,String> opts, ProofState state,
+                                                 ClauseSet cs, String filename, SearchParams eval,
+                                                 int timeout) {
+
         state.filename = filename;
         state.conjecture = cs.getConjecture();
         state.evalFunctionName = eval.heuristics.name;
@@ -415,6 +553,8 @@ public class ProverFOF {
         else {
             if (cs.SZSresult.startsWith("Timeout") || state.SZSresult.startsWith("Timeout"))
                 state.SZSresult = "Timeout";
+            else if (state.isCancelled() || !state.isComplete())
+                state.SZSresult = "GaveUp";  // saturation shows nothing without a complete search
             else if (cs.isFOF && cs.hasConjecture)
                 state.SZSresult = "CounterSatisfiable";
             else
@@ -569,6 +709,7 @@ public class ProverFOF {
         System.out.println("# ProverFOF.processTestFile(): opts: " + opts);
         System.out.println("# ProverFOF.processTestFile(): evals: " + evals);
         int timeout = getTimeout(opts);
+        SymbolTable.reset();  // forget the symbols of earlier problems
         //System.out.println("# ProverFOF.processTestFile(): read file");
         ClauseSet cs = Formula.file2clauses(filename,timeout);
         System.out.println("# hasConjecture: " + cs.hasConjecture + " isFOF: " + cs.isFOF);
@@ -577,16 +718,20 @@ public class ProverFOF {
         //    System.out.println("# ProverFOF.processTestFile(): SZSresult: " + cs.SZSresult);
         //    System.out.println("# ProverFOF.processTestFile(): SZSexpected: " + cs.SZSexpected);
         //}
-        if (cs.SZSresult.toLowerCase().contains("error")) {
+        if (cs.SZSresult.toLowerCase().contains("error") || cs.SZSresult.startsWith("ResourceOut")) {
             //System.out.println("# ProverFOF.processTestFile(): read file error");
             ProofState state = new ProofState(cs,evals.get(0));
             state.filename = filename;
             state.conjecture = cs.getConjecture();
             state.SZSexpected = cs.SZSexpected;
             state.SZSresult = cs.SZSresult;
+            if (cs.SZSresult.startsWith("ResourceOut"))  // reading and clausifying used up the time
+                state.SZSresult = "Timeout";
             return state;
         }
-        if (opts.containsKey("eqax") && cs.containsEquality()) {
+        if (opts.containsKey("eqax") && opts.containsKey("superposition"))
+            System.out.println("# ProverFOF: --superposition given, not adding equality axioms");
+        else if (opts.containsKey("eqax") && cs.containsEquality()) {
             System.out.println("# ProverFOF() problem is equational");
             cs = cs.addEqAxioms();
         }
@@ -603,6 +748,11 @@ public class ProverFOF {
         }
         if (opts.containsKey("verbose"))         	
             System.out.println("# Clauses:\n" + cs);        
+        if (cs != null && opts.containsKey("portfolio")) {
+            Portfolio portfolio = new Portfolio(cs,opts,filename);
+            portfolio.threads = Integer.parseInt(opts.get("portfolio"));
+            return portfolio.run(evals);
+        }
         if (cs != null) {
             for (SearchParams eval : evals) {
                 if (opts.containsKey("allOpts")) {
@@ -645,6 +795,14 @@ public class ProverFOF {
                 return;
             }
                 
+            if (opts.containsKey("definitional-cnf")) {
+                Formula.definitionalCNF = true;
+                Formula.definitionLimit = Integer.parseInt(opts.get("definitional-cnf"));
+            }
+            if (opts.containsKey("clausify-threads"))
+                Formula.clausifyThreads = Integer.parseInt(opts.get("clausify-threads"));
+            if (opts.containsKey("cache"))
+                ClauseCache.directory = opts.get("cache");
             if (opts.containsKey("allStrat") || opts.containsKey("allOpts"))
                 evals = setAllEvalOptions();            
             else {
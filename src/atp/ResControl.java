@@ -24,8 +24,116 @@ package atp;
 import java.io.*;
 import java.util.*;
 import java.text.*;
+import java.util.concurrent.*;
 
 public class ResControl {
+
+    // Below this many resolution candidates (or literal pairs to factor)
+    // for a given clause, the parallel mode just computes them sequentially.
+    public static int parallelThreshold = 64;
+
+    // one pool per number of threads, shared by all proofs that use it
+    private static ConcurrentHashMap<Integer,ForkJoinPool> pools = new ConcurrentHashMap<>();
+
+    // The generating resolution inferences of the given clause: binary
+    // resolution, or the rules of HyperResolution.
+    public enum Inferences {BINARY, HYPER, UR}
+
+    public static HashMap<String,Inferences> InferenceRules;
+    static {
+        InferenceRules = new HashMap<>();
+        InferenceRules.put("binary",Inferences.BINARY);
+        InferenceRules.put("hyper",Inferences.HYPER);
+        InferenceRules.put("ur",Inferences.UR);
+    }
+
+    /** ***************************************************************
+     * One attempt at resolution: the literal of the given clause and
+     * the candidate partner literal from the clause set.  Without a
+     * partner, an attempt to factor the given clause on lit and lit2.
+     */
+    private static class ResolutionTask {
+
+        int lit = 0;
+        KVPair partner = null;
+        int lit2 = 0;
+
+        ResolutionTask(int l, KVPair p) { lit = l; partner = p; }
+        ResolutionTask(int l, int l2) { lit = l; lit2 = l2; }
+    }
+
+    /** ***************************************************************
+     * Compute the resolvents or factors for the tasks from start to end
+     * (exclusive) and store them at the same positions in results,
+     * splitting the range in halves until it is small enough.
+     */
+    private static class ResolventAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        Clause clause = null;
+        ArrayList<ResolutionTask> tasks = null;
+        Clause[] results = null;
+        int start = 0;
+        int end = 0;
+        ProofContext context = null;  // of the proof, for its deadline
+
+        ResolventAction(Clause c, ArrayList<ResolutionTask> t, Clause[] r, int s, int e, ProofContext pc) {
+            clause = c; tasks = t; results = r; start = s; end = e; context = pc;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (end - start <= 16) {
+                ProofContext previous = ProofContext.enter(context);
+                try {
+                    for (int i = start; i < end; i++) {
+                        context.checkDeadline();
+                        ResolutionTask task = tasks.get(i);
+                        if (task.partner == null)
+                            results[i] = Resolution.factorClause(clause, task.lit, task.lit2);
+                        else
+                            results[i] = Resolution.resolvent(clause, task.lit, task.partner.c, task.partner.value);
+                    }
+                }
+                finally {
+                    ProofContext.leave(previous);
+                }
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new ResolventAction(clause, tasks, results, start, mid, context),
+                      new ResolventAction(clause, tasks, results, mid, end, context));
+        }
+    }
+
+    /** ***************************************************************
+     * Return the pool with the given number of threads.  Pools are
+     * created on first use and kept for the life of the JVM, since
+     * another proof may still be running tasks in one.  Their threads
+     * are daemon threads, and end when they have been idle for a while.
+     */
+    private static ForkJoinPool getPool(int threads) {
+
+        return pools.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    /** ***************************************************************
+     * Run the tasks, on the pool if there are enough of them.
+     * @return the results, at the positions of their tasks.
+     */
+    private static Clause[] run(Clause clause, ArrayList<ResolutionTask> tasks, int threads) {
+
+        Clause[] results = new Clause[tasks.size()];
+        ResolventAction action = new ResolventAction(clause, tasks, results, 0, tasks.size(),
+                ProofContext.current());
+        if (threads <= 1 || tasks.size() < parallelThreshold)
+            action.compute();
+        else
+            getPool(threads).invoke(action);
+        return results;
+    }
  
     /** ***************************************************************
      Compute all binary resolvents between a given clause and all
@@ -52,11 +160,13 @@ public class ResControl {
         //System.out.println("computeAllResolvents(): clause: " + clause);
         //System.out.println("computeAllResolvents(): clauseset: " + clauseset);
         ClauseSet res = new ClauseSet();
+        ProofContext context = ProofContext.current();
         for (int lit = 0; lit < clause.length(); lit++) {
             if (clause.getLiteral(lit).isInferenceLit()) {
                 HashSet<KVPair> reslits = clauseset.getResolutionLiterals(clause.getLiteral(lit));
                 //System.out.println("computeAllResolvents(): reslits: " + reslits);
                 for (KVPair kvp : reslits) {
+                    context.checkDeadline();
                     Clause resolvent = Resolution.resolution(clause, lit, kvp.c, kvp.value);
                     if (resolvent != null) {
                         //System.out.println("computeAllResolvents(): add resolvent: " + resolvent);
@@ -69,6 +179,33 @@ public class ResControl {
         return res;
     }
 
+    /** ***************************************************************
+     * As above, but compute the resolvents with the given number of
+     * threads. The candidate pairs are collected in the same order as
+     * in the sequential version, the (expensive) unification and
+     * instantiation is done in parallel, and then the resolvents are
+     * named and added in the original order. The result, including the
+     * clause names, is therefore the same as with one thread.
+     */
+    public static ClauseSet computeAllResolvents(Clause clause, ClauseSet clauseset, int threads) {
+
+        ArrayList<ResolutionTask> tasks = new ArrayList<>();
+        for (int lit = 0; lit < clause.length(); lit++) {
+            if (clause.getLiteral(lit).isInferenceLit()) {
+                HashSet<KVPair> reslits = clauseset.getResolutionLiterals(clause.getLiteral(lit));
+                for (KVPair kvp : reslits)
+                    tasks.add(new ResolutionTask(lit, kvp));
+            }
+        }
+        Clause[] results = run(clause, tasks, threads);
+        ClauseSet res = new ClauseSet();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null)
+                res.addClause(Resolution.recordResolvent(results[i], clause, tasks.get(i).partner.c));
+        }
+        return res;
+    }
+
     /** ***************************************************************
      * Compute all (direct) factors of clause. This operation is O(n^2)
      * if n is the number of literals. However, factoring is nearly never
@@ -78,8 +215,10 @@ public class ResControl {
     public static ClauseSet computeAllFactors(Clause clause) {
 
         ClauseSet res = new ClauseSet();
+        ProofContext context = ProofContext.current();
         for (int i = 0; i < clause.length(); i++) {
             for (int j = i + 1; j < clause.length(); j++) {
+                context.checkDeadline();
                 if (clause.getLiteral(i).isInferenceLit() || clause.getLiteral(j).isInferenceLit()) {
                     Clause fact = Resolution.factor(clause, i, j);
                     //System.out.println("INFO in ResControl.computeAllFactors(): adding factor: " + fact);
@@ -91,4 +230,28 @@ public class ResControl {
         }
         return res;
     }
+
+    /** ***************************************************************
+     * As above, but compute the factors with the given number of
+     * threads, in the way computeAllResolvents(Clause,ClauseSet,int)
+     * computes resolvents.  Most clauses have too few literal pairs to
+     * reach parallelThreshold, and are factored on the calling thread.
+     */
+    public static ClauseSet computeAllFactors(Clause clause, int threads) {
+
+        ArrayList<ResolutionTask> tasks = new ArrayList<>();
+        for (int i = 0; i < clause.length(); i++) {
+            for (int j = i + 1; j < clause.length(); j++) {
+                if (clause.getLiteral(i).isInferenceLit() || clause.getLiteral(j).isInferenceLit())
+                    tasks.add(new ResolutionTask(i, j));
+            }
+        }
+        Clause[] results = run(clause, tasks, threads);
+        ClauseSet res = new ClauseSet();
+        for (Clause fact : results) {
+            if (fact != null)
+                res.addClause(Resolution.recordFactor(fact, clause));
+        }
+        return res;
+    }
 }
@@ -66,6 +66,19 @@ public class Resolution {
      */
     public static Clause resolution(Clause clause1, int lit1, Clause clause2, int lit2) {
 
+        Clause res = resolvent(clause1, lit1, clause2, lit2);
+        if (res == null)
+            return null;
+        return recordResolvent(res, clause1, clause2);
+    }
+
+    /** ***************************************************************
+     * Compute the resolvent as resolution() does, but without naming
+     * it or recording its derivation. This only reads the parent
+     * clauses, so it is safe to call from several threads at once.
+     */
+    public static Clause resolvent(Clause clause1, int lit1, Clause clause2, int lit2) {
+
         //System.out.println("INFO in Resolution.resolution(): resolving (clause1, lit1, clause2, lit2): " +
         //        clause1 + " " + lit1 + " " + clause2 + " " + lit2);
         Literal l1 = clause1.getLiteral(lit1);
@@ -79,11 +92,31 @@ public class Resolution {
             return null;
         //System.out.println("INFO in Resolution.resolution():l1 is negative: " + l1.isNegative());
         //System.out.println("INFO in Resolution.resolution():l2 is negative: " + l2.isNegative());
-        Substitutions sigma = null;
-       	sigma = Unification.mgu(l1.atom, l2.atom);
-        //System.out.println("INFO in Resolution.resolution(): sigma " + sigma);
-        if (sigma == null)
-            return null;
+        // clause1 is unified in bank 0 and clause2 in bank 1 of the
+        // Unifier, which renames them apart without copying them.
+        Unifier sigma = Unifier.get();
+        int mark = sigma.mark();
+        try {
+            if (!sigma.unify(l1.atom, 0, l2.atom, 1))
+                return null;
+            //System.out.println("INFO in Resolution.resolution(): sigma " + sigma.toSubstitutions(mark));
+            sigma.startRenaming();
+            return resolvent(clause1, l1, clause2, l2, sigma, mark);
+        }
+        finally {
+            sigma.stopRenaming();
+            sigma.undo(mark);
+        }
+    }
+
+    /** ***************************************************************
+     * Build the resolvent of clause1 and clause2 with the bindings of
+     * sigma, which unify l1 and l2. Each literal is instantiated once,
+     * and the variables of the resolvent get new names.
+     */
+    private static Clause resolvent(Clause clause1, Literal l1, Clause clause2, Literal l2,
+                                    Unifier sigma, int mark) {
+
         ArrayList<Literal> lits1 = new ArrayList<Literal>();
        
         //System.out.println("INFO in Resolution.resolution(): clause1 size " + clause1.literals.size());
@@ -96,7 +129,7 @@ public class Resolution {
             Literal l = clause1.literals.get(i); 
             //System.out.println("INFO in Resolution.resolution(): literal " + l);
             if (!l.equals(l1))
-                lits1.add(l.instantiate(sigma));
+                lits1.add(sigma.instantiate(l, 0));
             //System.out.println("INFO in Resolution.resolution(): literals " + lits1);
         }
         
@@ -111,17 +144,32 @@ public class Resolution {
             Literal l = clause2.literals.get(i); 
             //System.out.println("INFO in Resolution.resolution(): literal " + l);
             if (!l.equals(l2))
-                lits2.add(l.instantiate(sigma));
+                lits2.add(sigma.instantiate(l, 1));
             //System.out.println("INFO in Resolution.resolution(): literals " + lits1);
         }
         //System.out.println("INFO in Resolution.resolution(): uncombined literals " + lits1 + " " + lits2);
         lits1.addAll(lits2);
         //System.out.println("INFO in Resolution.resolution(): combined literals " + lits1);
         Clause res = new Clause();
-        res.createName();
         res.addAll(lits1);
         res.removeDupLits();
         res.rationale = "resolution";
+        res.depth = Math.max(clause1.depth,clause2.depth) + 1; 
+        res.subst.addAll(sigma.toSubstitutions(mark));
+        res.supportSubst = new Substitutions[] {sigma.toSubstitutions(mark, 0), sigma.toSubstitutions(mark, 1)};
+        //System.out.println("INFO in Resolution.resolution(): result " + res.toStringJustify());
+        return res;
+    }
+
+    /** ***************************************************************
+     * Give a resolvent computed by resolvent() its name, and record
+     * its derivation from clause1 and clause2. This changes the
+     * parent clauses and uses the global clause counter, so unlike
+     * resolvent() it must not be called concurrently.
+     */
+    public static Clause recordResolvent(Clause res, Clause clause1, Clause clause2) {
+
+        res.createName();
         res.support.add(clause1.name);
         res.support.add(clause2.name);
         clause1.supportsClauses.add(res.name);  // Keep track of clauses used to supported others
@@ -131,10 +179,6 @@ public class Resolution {
         supports.add(clause1);
         supports.add(clause2);
         res.setDerivation(Derivation.flatDerivation("resolution",supports,""));
-
-        res.depth = Math.max(clause1.depth,clause2.depth) + 1; 
-        res.subst.addAll(sigma);
-        //System.out.println("INFO in Resolution.resolution(): result " + res.toStringJustify());
         return res;
     }
 
@@ -144,29 +188,57 @@ public class Resolution {
      */
     public static Clause factor(Clause clause, int lit1, int lit2) {
 
+        Clause res = factorClause(clause, lit1, lit2);
+        if (res == null)
+            return null;
+        return recordFactor(res, clause);
+    }
+
+    /** ***************************************************************
+     * Compute the factor as factor() does, but without naming it or
+     * recording its derivation, so that, like resolvent(), it is safe to
+     * call from several threads at once.
+     */
+    public static Clause factorClause(Clause clause, int lit1, int lit2) {
+
         //System.out.println("INFO in Resolution.factor(): " + clause + " " + lit1 + " " + lit2);
         //System.out.println("INFO in Resolution.factor(): " + clause.getLiteral(lit1) + " " + clause.getLiteral(lit2));
         Literal l1 = clause.getLiteral(lit1);
         Literal l2 = clause.getLiteral(lit2);
         if (l1.isNegative() != l2.isNegative())
             return null;
-        Substitutions sigma = null;
-       	sigma = Unification.mgu(l1.atom, l2.atom);
-        if (sigma == null)
-            return null;
+        Unifier sigma = Unifier.get();
+        int mark = sigma.mark();
         ArrayList<Literal> lits = new ArrayList<Literal>();
-        for (int i = 0; i < clause.literals.size(); i++) {
-            if (i != lit2) {
-                Literal l = clause.literals.get(i);
-                //if (!l.equals(l2))
-                lits.add(l.instantiate(sigma));
+        try {
+            if (!sigma.unify(l1.atom, l2.atom))
+                return null;
+            for (int i = 0; i < clause.literals.size(); i++) {
+                if (i != lit2) {
+                    Literal l = clause.literals.get(i);
+                    //if (!l.equals(l2))
+                    lits.add(sigma.instantiate(l));
+                }
             }
         }
+        finally {
+            sigma.undo(mark);
+        }
         Clause res = new Clause();
-        res.createName();
         res.addAll(lits);
         res.removeDupLits();
         res.rationale = "factoring";
+        return res;
+    }
+
+    /** ***************************************************************
+     * Give a factor computed by factorClause() its name, and record its
+     * derivation from clause.  Not to be called concurrently, see
+     * recordResolvent().
+     */
+    public static Clause recordFactor(Clause res, Clause clause) {
+
+        res.createName();
         res.support.add(clause.name);
 
         ArrayList<Derivable> supports = new ArrayList<>();
@@ -12,10 +12,10 @@ import java.util.*;
  */
 public class ResolutionIndex extends Index {
 
-    // the key is the relation symbol
+    // the key is the SymbolTable id of the relation symbol
     // the value is the set of
-    public HashMap<String,HashSet<KVPair>> posIdx = new HashMap();
-    public HashMap<String,HashSet<KVPair>> negIdx = new HashMap();
+    public HashMap<Integer,HashSet<KVPair>> posIdx = new HashMap();
+    public HashMap<Integer,HashSet<KVPair>> negIdx = new HashMap();
 
     /** ***************************************************************
      * We use separate Maps for mapping predicate symbols to
@@ -39,8 +39,8 @@ public class ResolutionIndex extends Index {
      * where pos is the position of the indexed literal in the clause
      * (counting from 0).
      */
-    public void insertData(HashMap<String,HashSet<KVPair>> idx,
-                           String topsymbol, KVPair payload) {
+    public void insertData(HashMap<Integer,HashSet<KVPair>> idx,
+                           int topsymbol, KVPair payload) {
 
         if (!idx.containsKey(topsymbol))
             idx.put(topsymbol, new HashSet<>());
@@ -52,8 +52,8 @@ public class ResolutionIndex extends Index {
      * Remove a payload indexed at topsymbol from the provided
      * index
      */
-    public void removeData(HashMap<String,HashSet<KVPair>> idx,
-                           String topsymbol, KVPair payload) {
+    public void removeData(HashMap<Integer,HashSet<KVPair>> idx,
+                           int topsymbol, KVPair payload) {
 
         //System.out.println("removeData(): removing " + payload + " with " + topsymbol + " from " + idx);
         if (idx.containsKey(topsymbol)) {
@@ -76,9 +76,9 @@ public class ResolutionIndex extends Index {
             Literal lit = clause.literals.get(i);
             if (lit.isInferenceLit()) {
                 if (lit.isPositive())
-                    insertData(posIdx, lit.atom.getFunc(), new KVPair(clause,i));
+                    insertData(posIdx, lit.atom.getFuncId(), new KVPair(clause,i));
                 else
-                    insertData(negIdx, lit.atom.getFunc(), new KVPair(clause,i));
+                    insertData(negIdx, lit.atom.getFuncId(), new KVPair(clause,i));
             }
         }
     }
@@ -94,9 +94,9 @@ public class ResolutionIndex extends Index {
             //System.out.println("removeClause(): lit: " + lit + " topsymbol: " + lit.atom.getFunc());
             if (lit.isInferenceLit()) {
                 if (lit.isPositive())
-                    removeData(posIdx, lit.atom.getFunc(), new KVPair(clause,i));
+                    removeData(posIdx, lit.atom.getFuncId(), new KVPair(clause,i));
                 else
-                    removeData(negIdx, lit.atom.getFunc(), new KVPair(clause,i));
+                    removeData(negIdx, lit.atom.getFuncId(), new KVPair(clause,i));
             }
         }
     }
@@ -110,13 +110,14 @@ public class ResolutionIndex extends Index {
     public HashSet<KVPair> getResolutionLiterals(Literal lit) {
 
         //System.out.println("ResolutionIndex.getResolutionLiterals(): lit: " + lit);
-        HashMap<String, HashSet<KVPair>> idx = null;
+        HashMap<Integer, HashSet<KVPair>> idx = null;
         if (lit.isPositive())
             idx = negIdx;
         else
             idx = posIdx;
-        if (idx.containsKey(lit.atom.getFunc())) {
-            HashSet<KVPair> result = new HashSet<KVPair>(idx.get(lit.atom.getFunc()));
+        HashSet<KVPair> entries = idx.get(lit.atom.getFuncId());
+        if (entries != null) {
+            HashSet<KVPair> result = new HashSet<KVPair>(entries);
             //System.out.println("ResolutionIndex.getResolutionLiterals(): result: " + result);
             return result;
         }
@@ -31,30 +31,46 @@ public class SINE {
     /* These formulas will be always selected. The typically tiny 
      * number of formulas which contain no symbols are put here. */
     private HashSet<Clause> mandatoryFormulas;
+
+    /* The SymbolTable ids of the symbols of each formula, with
+     * repetitions, computed once when the formulas are loaded. */
+    private HashMap<Clause, int[]> formSymbols;
     
-    // Number of times each symbol appears in all formulas.
-    private HashMap<String, Integer> degrees;
+    // Number of times each symbol appears in all formulas, by symbol id.
+    private int[] degrees;
     
-    /* A map between symbols and all the formulas in which the
-     * symbol appears as the lowest-degree symbol. */
-    private HashMap<String, ArrayList<Clause>> symbol2form;
+    /* The formulas in which a symbol appears as the lowest-degree
+     * symbol, by symbol id. */
+    private ArrayList<ArrayList<Clause>> symbol2form;
     
     /* A parameter that sets how uncommon a symbol must be to place
      * an axiom in the filtered set.  Use a very high number for
      * an "untriggered" behavior, 1 for a "trigger".  1.5 appears
      * optimal for SUMO. */
     public float tolerance = 1.5f;
+
+    /* True if symbol2form and mandatoryFormulas are up to date with
+     * the formulas. */
+    private boolean indexed = false;
     
     /** *************************************************************
+     * An empty selector, to be filled with addClause(), for example
+     * by Formula.file2clauses() while it reads the knowledge base.
      */
-    public SINE(ClauseSet cs) {
+    public SINE() {
 
         formulas = new HashSet<Clause>();
         mandatoryFormulas = new HashSet<Clause>();
-        degrees = new HashMap<String, Integer>();
-        symbol2form = new HashMap<String, ArrayList<Clause>>();
-    
-        String error = null;
+        formSymbols = new HashMap<Clause, int[]>();
+        degrees = new int[0];
+        symbol2form = new ArrayList<ArrayList<Clause>>();
+    }
+
+    /** *************************************************************
+     */
+    public SINE(ClauseSet cs) {
+
+        this();
         //System.out.println("# INFO in SInE(): initializing"); 
         loadFormulas(cs);                            
     }
@@ -67,72 +83,93 @@ public class SINE {
     private void loadFormulas(ClauseSet formulaSource) {
 
         //System.out.println("# INFO in SINE.loadFormulas(): ");
-        Iterator<Clause> it = formulaSource.clauses.iterator();
-        
-        // First we go through all formulas, and compute degree of each symbol,
-        // which is the number of times it appears in all formulas.
-        while (it.hasNext()) {
-            Clause f = (Clause) it.next();            
-            formulas.add(f);            
-            for (String sym : getSymbols(f)) {
-                Integer prev = degrees.get(sym);
-                if (prev != null) 
-                    degrees.put(sym, prev+1);
-                else 
-                    degrees.put(sym, 1);                
-            }
-        }        
-        //System.out.println("# INFO in SINE.loadFormulas(): degrees: " + degrees);
-        
-        // Now we associate each formula with its lowest-degree symbols.
+        for (Clause f : formulaSource.clauses)
+            addClause(f);
+        buildIndex();
+    }
+
+    /** *************************************************************
+     * Add a formula and count the symbols in it: the degree of a
+     * symbol is the number of times it appears in all formulas.
+     */
+    public void addClause(Clause f) {
+
+        formulas.add(f);
+        int[] syms = getSymbols(f);
+        formSymbols.put(f, syms);
+        for (int sym : syms) {
+            if (sym >= degrees.length)
+                degrees = Arrays.copyOf(degrees, Math.max(sym + 1, degrees.length * 2));
+            degrees[sym]++;
+        }
+        indexed = false;
+    }
+
+    /** *************************************************************
+     * Associate each formula with its lowest-degree symbols, once the
+     * degrees are known.
+     */
+    private void buildIndex() {
+
+        //System.out.println("# INFO in SINE.buildIndex(): degrees: " + degrees);
+        mandatoryFormulas.clear();
+        symbol2form.clear();
         for (Clause form : formulas) {
-            ArrayList<String> symbols = getSymbols(form);
-            if (symbols.size() == 0) {
+            int[] symbols = formSymbols.get(form);
+            if (symbols.length == 0) {
                 mandatoryFormulas.add(form);
                 continue;
             }
-            //ArrayList<String> minDegSyms = new ArrayList<String>();      
             int minDeg=5000000;
-            for (String sym : symbols) {
-                int deg = degrees.get(sym);
+            for (int sym : symbols) {
+                int deg = degrees[sym];
                 if (deg < minDeg) 
                     minDeg = deg;
-                    /*
-                    minDegSyms.clear();
-                    minDegSyms.add(sym);
-                } 
-                else if (deg == minDeg) 
-                    minDegSyms.add(sym); */                    
             }
 
-            //for (String sym : minDegSyms) {
-            for (String sym : symbols) {
-                float deg = (float) degrees.get(sym);
+            for (int sym : symbols) {
+                float deg = (float) degrees[sym];
                 if (deg <= minDeg * tolerance) {
+                    while (symbol2form.size() <= sym)
+                        symbol2form.add(null);
                     ArrayList<Clause> reqForms = symbol2form.get(sym);
                     if (reqForms == null) {
                         reqForms = new ArrayList<Clause>();
-                        reqForms.add(form);
-                        symbol2form.put(sym, reqForms);
+                        symbol2form.set(sym, reqForms);
                     } 
-                    else 
-                        reqForms.add(form);    
+                    reqForms.add(form);    
                 }
             }
         }
-        //System.out.println("# INFO in SINE.loadFormulas(): symbol2form: " + symbol2form);
-        //System.out.println("# INFO in SINE.loadFormulas(): mandatoryFormulas: " + mandatoryFormulas);
+        indexed = true;
+        //System.out.println("# INFO in SINE.buildIndex(): symbol2form: " + symbol2form);
+        //System.out.println("# INFO in SINE.buildIndex(): mandatoryFormulas: " + mandatoryFormulas);
     }
       
     /** *************************************************************
-     * Returns all symbols occurring in given formula.
+     * Returns the ids of all symbols occurring in given formula.
      * 
      * @param form Formula to get symbols from.
      * @return Symbols occurring in given formula.
      */
-    private ArrayList<String> getSymbols(Clause form) {
+    private int[] getSymbols(Clause form) {
 
-        return form.getConstantStrings();
+        ArrayList<String> strings = form.getConstantStrings();
+        int[] result = new int[strings.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = SymbolTable.intern(strings.get(i));
+        return result;
+    }
+
+    /** *************************************************************
+     * Returns the formulas in which the symbol is one of the lowest
+     * degree symbols, or null if there are none.
+     */
+    private ArrayList<Clause> getSymbolFormulas(int sym) {
+
+        if (sym >= symbol2form.size())
+            return null;
+        return symbol2form.get(sym);
     }
     
     /** *************************************************************
@@ -143,14 +180,12 @@ public class SINE {
      * @param symbols Symbols whose required formulas will be found.
      * @return Formulas required by symbols.
      */
-    private HashSet<Clause> get1RequiredFormulas(HashSet<String> symbols) {
+    private HashSet<Clause> get1RequiredFormulas(BitSet symbols) {
 
         //System.out.println("INFO in SINE.get1RequiredFormulas(): symbols: " + symbols);
         HashSet<Clause> reqForms = new HashSet<Clause>();
-        for (String sym : symbols) {
-            //System.out.println("Checking: " + sym);
-            ArrayList<Clause> symReqForms = symbol2form.get(sym);
-            //System.out.println("Found: " + symReqForms);
+        for (int sym = symbols.nextSetBit(0); sym >= 0; sym = symbols.nextSetBit(sym + 1)) {
+            ArrayList<Clause> symReqForms = getSymbolFormulas(sym);
             if (symReqForms == null)
                 continue;
             for (Clause form : symReqForms) 
@@ -161,38 +196,48 @@ public class SINE {
     }
 
     /** *************************************************************
-     * Get all the symbols in the formulas given in reqForms.
+     * Add the ids of all the symbols in the given formulas to result.
      */
-    private ArrayList<String> getAllSymbols(HashSet<Clause> reqForms) {
+    private void addAllSymbols(Collection<Clause> reqForms, BitSet result) {
         
         //System.out.println("# INFO in SInE.getAllSymbols(): ");
-        ArrayList<String> result = new ArrayList<String>();
-        Iterator<Clause> it = reqForms.iterator();
-        while (it.hasNext()) {
-            Clause c = it.next();
-            result.addAll(c.getConstantStrings());
+        for (Clause c : reqForms) {
+            int[] syms = formSymbols.get(c);
+            if (syms == null)
+                syms = getSymbols(c);
+            for (int sym : syms)
+                result.set(sym);
         }
-        return result;
     }
     
     /** *************************************************************
      * Returns all symbols transitively required by given symbols
      * (in the sense of requirements map, which keeps pointers only to
-     * the lowest degree symbols in each formula).
+     * the lowest degree symbols in each formula). Each symbol is only
+     * expanded once, when it is first added.
      * 
-     * @param symbols Collection of symbols to be closed under requirements relation.
-     * @return Closure of given collection of symbols under requirements relation.
+     * @param symbols Set of symbols to be closed under requirements relation.
+     * @return Closure of given set of symbols under requirements relation.
      */
-    private HashSet<String> getRequiredSymbols(Collection<String> symbols) {
+    private BitSet getRequiredSymbols(BitSet symbols) {
 
         //System.out.println("# INFO in SInE.getRequiredSymbols(): ");
-        HashSet<String> reqSyms = new HashSet<String>(symbols);            
-        int prevSize;
-        do {
-            prevSize = reqSyms.size();                    
-            HashSet<Clause> reqForms = get1RequiredFormulas(reqSyms);                    
-            reqSyms.addAll(getAllSymbols(reqForms));
-        } while (reqSyms.size() > prevSize);        // repeat until no more symbols are being added
+        BitSet reqSyms = (BitSet) symbols.clone();
+        ArrayDeque<Integer> todo = new ArrayDeque<Integer>();
+        for (int sym = reqSyms.nextSetBit(0); sym >= 0; sym = reqSyms.nextSetBit(sym + 1))
+            todo.add(sym);
+        BitSet newSyms = new BitSet();
+        while (!todo.isEmpty()) {
+            ArrayList<Clause> forms = getSymbolFormulas(todo.poll());
+            if (forms == null)
+                continue;
+            newSyms.clear();
+            addAllSymbols(forms, newSyms);
+            newSyms.andNot(reqSyms);
+            for (int sym = newSyms.nextSetBit(0); sym >= 0; sym = newSyms.nextSetBit(sym + 1))
+                todo.add(sym);
+            reqSyms.or(newSyms);
+        }
         return reqSyms;
     }
     
@@ -204,10 +249,10 @@ public class SINE {
      * @param symbols Symbols whose required formulas will be found.
      * @return Formulas transitively required by symbols.
      */
-    private HashSet<Clause> getRequiredFormulas(Collection<String> symbols) {
+    private HashSet<Clause> getRequiredFormulas(BitSet symbols) {
 
         //System.out.println("# INFO in SInE.getRequiredFormulas(): ");
-        HashSet<String> reqSyms = getRequiredSymbols(symbols);
+        BitSet reqSyms = getRequiredSymbols(symbols);
         //System.out.println("INFO in SINE.getRequiredFormulas(): required symbols: " + reqSyms);
         return get1RequiredFormulas(reqSyms);
     }
@@ -221,9 +266,12 @@ public class SINE {
     private HashSet<Clause> performSelection(Clause form) {
 
         //System.out.println("# INFO in SInE.performSelection(): ");
-        HashSet<String> symbols = new HashSet<String>();
-        symbols.addAll(form.getConstantStrings());
-        symbols.addAll(getAllSymbols(mandatoryFormulas));            
+        if (!indexed)
+            buildIndex();
+        BitSet symbols = new BitSet();
+        for (int sym : getSymbols(form))
+            symbols.set(sym);
+        addAllSymbols(mandatoryFormulas, symbols);
         HashSet<Clause> res = getRequiredFormulas(symbols);            
         res.addAll(mandatoryFormulas);        
         return res;
@@ -259,9 +307,12 @@ public class SINE {
     private HashSet<Clause> performSelection(HashSet<String> syms) {
 
         //System.out.println("# INFO in SInE.performSelection(): ");
-        HashSet<String> symbols = new HashSet<String>();
-        symbols.addAll(syms);
-        symbols.addAll(getAllSymbols(mandatoryFormulas));            
+        if (!indexed)
+            buildIndex();
+        BitSet symbols = new BitSet();
+        for (String sym : syms)
+            symbols.set(SymbolTable.intern(sym));
+        addAllSymbols(mandatoryFormulas, symbols);
         HashSet<Clause> res = getRequiredFormulas(symbols);            
         res.addAll(mandatoryFormulas);        
         return res;
@@ -306,7 +357,8 @@ public class SINE {
         ClauseSet querySet = Formula.string2clauses(queryStr);
         System.out.println("# Selecting from " + kbFileName);
 
-        SINE sine = new SINE(Formula.file2clauses(kbFileName,30));
+        SINE sine = new SINE();
+        Formula.file2clauses(kbFileName,30,sine::addClause);
         ClauseSet selectedFormulas = sine.filter(querySet.extractFirst());
         System.out.println(selectedFormulas);
     }
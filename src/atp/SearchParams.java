@@ -10,8 +10,16 @@ public class SearchParams {
     public boolean delete_tautologies;
     public boolean forward_subsumption;
     public boolean backward_subsumption;
+    public boolean subsumption_resolution = false;
+    public boolean condensation = false;
+    public boolean superposition = false;  // equality by superposition and demodulation, instead of EqAxioms
+    public boolean set_of_support = false;  // only clauses from the conjecture are given clauses
+    public ResControl.Inferences inferences = ResControl.Inferences.BINARY;
     public boolean indexing;
     public LitSelection.LitSelectors literal_selection;
+    public TermOrdering.Orderings ordering = null;  // restrict resolution to maximal literals, if not null
+    public Precedence.Generators precedence = Precedence.Generators.ARITY;
+    public int threads = 1;  // threads used to compute the resolvents of a given clause
 
     public String filename; // convenient to have this here to store all command line options
 
@@ -37,12 +45,43 @@ public class SearchParams {
         //    subsumed.
         backward_subsumption = true;
 
+        // Subsumption resolution cuts literals of the given clause with
+        //    the help of processed clauses, and condensation removes
+        //    literals that a factor of the given clause makes redundant.
+        subsumption_resolution = false;
+        condensation = false;
+
+        // Superposition reasons with equality directly, with the term
+        //    ordering (KBO if none is given), instead of with the
+        //    axioms of EqAxioms.
+        superposition = false;
+
+        // With a set of support, the axioms go straight into the
+        //    processed clauses and only the conjecture and its
+        //    descendants are selected.
+        set_of_support = false;
+
+        // Hyper-resolution and UR-resolution replace binary resolution,
+        //    and then there is no literal selection or ordering.
+        inferences = ResControl.Inferences.BINARY;
+
         // Either None, or a function that selects a subset of negative
         //    literals from a set of negative literals (both represented as
         //            lists, not Python sets) as the inference literal.
         literal_selection    = LitSelection.LitSelectors.LARGEST;
 
+        // Either None, or the term ordering of ordered resolution, in
+        //    which only the maximal literals of a clause without
+        //    selected literals are resolved upon. The precedence of the
+        //    ordering is generated from the symbols of the problem.
+        ordering = null;
+        precedence = Precedence.Generators.ARITY;
+
         indexing = true;
+
+        // The number of threads used to compute the resolvents of each
+        //    given clause. The result doesn't depend on it.
+        threads = 1;
     }
 
     /** ***************************************************************
@@ -62,10 +101,36 @@ public class SearchParams {
         this.literal_selection = literal_selection;
     }
 
+    /** ***************************************************************
+     * Return a copy with its own heuristics, for a proof search that
+     * runs concurrently with others using these parameters.
+     */
+    public SearchParams deepCopy() {
+
+        SearchParams result = new SearchParams(heuristics == null ? null : heuristics.deepCopy(),
+                delete_tautologies, forward_subsumption, backward_subsumption,
+                indexing, literal_selection);
+        result.ordering = ordering;
+        result.precedence = precedence;
+        result.subsumption_resolution = subsumption_resolution;
+        result.condensation = condensation;
+        result.superposition = superposition;
+        result.set_of_support = set_of_support;
+        result.inferences = inferences;
+        result.threads = threads;
+        result.filename = filename;
+        return result;
+    }
+
     /** ***************************************************************
      */
     public String toString() {
         return "Heuristics: " + heuristics.toString() + " litSelect: " + literal_selection + " indexing: " + indexing +
-                " delTaut: " + delete_tautologies + " forSub: " + forward_subsumption + " backSub: " + backward_subsumption;
+                " delTaut: " + delete_tautologies + " forSub: " + forward_subsumption + " backSub: " + backward_subsumption +
+                (ordering != null ? " ordering: " + ordering + " precedence: " + precedence : "") +
+                (subsumption_resolution ? " subRes: true" : "") + (condensation ? " condense: true" : "") +
+                (superposition ? " superposition: true" : "") + (set_of_support ? " sos: true" : "") +
+                (inferences != ResControl.Inferences.BINARY ? " inferences: " + inferences : "") +
+                (threads > 1 ? " threads: " + threads : "");
     }
 }
@@ -26,7 +26,12 @@ public class Signature {
 */
 	public ArrayList<String> funs  = new ArrayList<String>();
 	public ArrayList<String> preds  = new ArrayList<String>();
-	public HashMap<String,Integer> arity  = new HashMap<String,Integer>();
+
+	// membership and arity by SymbolTable id, so that lookups don't
+	// have to search the lists above
+	private BitSet funIds = new BitSet();
+	private BitSet predIds = new BitSet();
+	private int[] arities = new int[64];
 
     /** ***************************************************************
      * Return a printable representation of the signature.
@@ -39,18 +44,47 @@ public class Signature {
 	    res.append("Functions:\n");
 	    res.append(funs.toString() + "\n");
 		res.append("Arities:\n");
-		res.append(arity.toString() + "\n");
+		res.append(aritiesToString() + "\n");
 	    return res.toString();
 	}
 
+    /** ***************************************************************
+     */
+	private String aritiesToString() {
+
+		StringBuffer res = new StringBuffer();
+		res.append("{");
+		ArrayList<String> all = new ArrayList<>(preds);
+		all.addAll(funs);
+		for (int i = 0; i < all.size(); i++) {
+			if (i > 0)
+				res.append(", ");
+			res.append(all.get(i) + "=" + getArity(all.get(i)));
+		}
+		res.append("}");
+		return res.toString();
+	}
+
+    /** ***************************************************************
+     */
+	private void setArity(int id, int a) {
+
+		if (id >= arities.length)
+			arities = Arrays.copyOf(arities, Math.max(id + 1, arities.length * 2));
+		arities[id] = a;
+	}
+
     /** ***************************************************************
      * Add a new function
      */
 	public void addFun(String f, int a) {
 		
-		if (!funs.contains(f)) {
+		int id = SymbolTable.intern(f);
+		if (!funIds.get(id)) {
 			funs.add(f);
-			arity.put(f,new Integer(a));
+			funIds.set(id);
+			setArity(id, a);
+			SymbolTable.setKind(id, SymbolTable.FUNCTION, a);
 		}
 	}
     /** ***************************************************************
@@ -58,9 +92,12 @@ public class Signature {
      */
 	public void addPred(String p, int a) {
 		
-		if (!preds.contains(p)) {
+		int id = SymbolTable.intern(p);
+		if (!predIds.get(id)) {
 			preds.add(p);
-			arity.put(p,new Integer(a));
+			predIds.set(id);
+			setArity(id, a);
+			SymbolTable.setKind(id, SymbolTable.PREDICATE, a);
 		}
 	}
 
@@ -68,14 +105,18 @@ public class Signature {
      * Return True if p is a known predicate symbol.
      */
 	public boolean isPred(String p) {
-	    return preds.contains(p);
+
+		int id = SymbolTable.lookup(p);
+	    return id >= 0 && predIds.get(id);
 	}
 
     /** ***************************************************************
      * Return True if f is a known function symbol.
      */
 	public boolean isFun(String f) {
-	    return funs.contains(f);
+
+		int id = SymbolTable.lookup(f);
+	    return id >= 0 && funIds.get(id);
 	}
 	
     /** ***************************************************************
@@ -83,15 +124,16 @@ public class Signature {
      */
 	public boolean isConstant(String f) {
 
-	    return isFun(f) && arity.get(f).intValue() == 0;
+	    return isFun(f) && getArity(f) == 0;
 	}
 
     /** ***************************************************************
      */
 	public int getArity(String f) {
 
-		if (arity.containsKey(f))
-			return arity.get(f).intValue();
+		int id = SymbolTable.lookup(f);
+		if (id >= 0 && (funIds.get(id) || predIds.get(id)))
+			return arities[id];
 		else
 			return 0;
 	}
@@ -102,8 +144,13 @@ public class Signature {
 
 		if (sig == null)
 			return;
-		this.arity.putAll(sig.arity);
 		this.funs.addAll(sig.funs);
 		this.preds.addAll(sig.preds);
+		this.funIds.or(sig.funIds);
+		this.predIds.or(sig.predIds);
+		for (int id = sig.funIds.nextSetBit(0); id >= 0; id = sig.funIds.nextSetBit(id + 1))
+			setArity(id, sig.arities[id]);
+		for (int id = sig.predIds.nextSetBit(0); id >= 0; id = sig.predIds.nextSetBit(id + 1))
+			setArity(id, sig.arities[id]);
 	}
 }
@@ -45,7 +45,8 @@ public class SimpleProofState {
      */
     public SimpleProofState(ClauseSet clauses) {
 
-        unprocessed.addAll(clauses);
+        for (Clause c : clauses.clauses)
+            unprocessed.addClause(c.deepCopy());
     }
             
     /** ***************************************************************
@@ -55,7 +56,6 @@ public class SimpleProofState {
     public Clause processClause() {
 
         Clause given_clause = unprocessed.extractFirst();
-        given_clause = given_clause.freshVarCopy();
         if (verbose)
             System.out.println("#" + given_clause.toStringJustify());
         if (given_clause.isEmpty())    // We have found an explicit contradiction
@@ -0,0 +1,188 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+
+This module implements two simplification rules that make a clause
+shorter without losing completeness.
+
+Subsumption resolution (contextual literal cutting):
+
+ C|L    D|M
+============ if sigma(D)=C and sigma(M)=~L for some substitution sigma
+  C    D|M
+
+The resolvent of C|L and D|M on L is C, which subsumes C|L. Note that
+D|M subsumes C|~L exactly when the rule applies, or when D|M subsumes
+C alone, in which case C follows from D|M by itself.
+
+Condensation:
+
+    C
+ ======= if sigma(C) subsumes C, where sigma = mgu(a,b) for literals
+ sigma(C)  a and b of C with the same sign
+
+sigma(C) is a factor of C with the duplicate literals removed, and is
+equivalent to C.
+*/
+package atp;
+
+import java.util.*;
+
+public class Simplification {
+
+    /** ***************************************************************
+     * @return a copy of clause in which literal i has the opposite
+     * sign.  The atoms are shared with clause.
+     */
+    private static Clause flip(Clause clause, int i) {
+
+        Clause result = new Clause();
+        for (int j = 0; j < clause.literals.size(); j++) {
+            Literal l = clause.literals.get(j);
+            Literal n = new Literal();
+            n.atom = l.atom;
+            n.negated = (i == j) ? !l.negated : l.negated;
+            result.literals.add(n);
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return a clause in cs that can cut literal i of clause, or null.
+     */
+    private static Clause cutter(ClauseSet cs, Clause clause, int i) {
+
+        Clause flipped = flip(clause, i);
+        for (Clause c : cs.getSubsumingCandidates(flipped)) {
+            ProofContext.current().checkDeadline();
+            if (Subsumption.subsumes(c, flipped))
+                return c;
+        }
+        return null;
+    }
+
+    /** ***************************************************************
+     * Record the derivation of a simplified clause from its premises.
+     * The premises other than the first support it, so they can't be
+     * removed by backward subsumption.
+     */
+    static Clause record(Clause res, String rationale, String operator,
+                        Clause clause, ArrayList<Clause> partners) {
+
+        res.createName();
+        res.rationale = rationale;
+        res.depth = clause.depth;
+        res.support.add(clause.name);
+        ArrayList<Derivable> supports = new ArrayList<>();
+        supports.add(clause);
+        for (Clause p : partners) {
+            res.support.add(p.name);
+            p.supportsClauses.add(res.name);
+            supports.add(p);
+        }
+        res.setDerivation(Derivation.flatDerivation(operator,supports,""));
+        return res;
+    }
+
+    /** ***************************************************************
+     * Remove every literal of clause that some clause of cs cuts by
+     * subsumption resolution.  The candidates come from the subsumption
+     * index of cs.
+     * @return the shortened clause, or null if no literal can be cut.
+     */
+    public static Clause subsumptionResolution(ClauseSet cs, Clause clause) {
+
+        ArrayList<Literal> lits = new ArrayList<>(clause.literals);
+        ArrayList<Clause> partners = new ArrayList<>();
+        Clause current = clause;
+        int i = 0;
+        while (i < lits.size()) {
+            Clause partner = cutter(cs, current, i);
+            if (partner == null) {
+                i++;
+                continue;
+            }
+            partners.add(partner);
+            lits.remove(i);
+            current = new Clause(lits);
+        }
+        if (partners.size() == 0)
+            return null;
+        Clause res = new Clause();
+        res.addAll(lits);
+        return record(res, "subsumption_resolution", "subsumption_resolution", clause, partners);
+    }
+
+    /** ***************************************************************
+     * @return the condensation of clause with literals i and j unified,
+     * or null if there is none.
+     */
+    private static Clause condense(Clause clause, int i, int j) {
+
+        Literal l1 = clause.literals.get(i);
+        Literal l2 = clause.literals.get(j);
+        if (l1.isNegative() != l2.isNegative() || !l1.atom.t.equals(l2.atom.t))
+            return null;
+        Unifier sigma = Unifier.get();
+        int mark = sigma.mark();
+        Clause res = new Clause();
+        try {
+            if (!sigma.unify(l1.atom, l2.atom))
+                return null;
+            for (Literal l : clause.literals)
+                res.literals.add(sigma.instantiate(l));
+            res.subst = sigma.toSubstitutions(mark);
+        }
+        finally {
+            sigma.undo(mark);
+        }
+        res.removeDupLits();
+        if (res.length() < clause.length() && Subsumption.subsumes(res, clause))
+            return res;
+        return null;
+    }
+
+    /** ***************************************************************
+     * Replace clause by its condensation, as often as possible.
+     * @return the condensed clause, or null if clause is condensed.
+     */
+    public static Clause condensation(Clause clause) {
+
+        Clause current = clause;
+        Substitutions subst = new Substitutions();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < current.literals.size() && !changed; i++) {
+                for (int j = i + 1; j < current.literals.size() && !changed; j++) {
+                    ProofContext.current().checkDeadline();
+                    Clause c = condense(current, i, j);
+                    if (c != null) {
+                        for (Term var : c.subst.subst.keySet())
+                            subst.composeBinding(var, c.subst.subst.get(var));
+                        current = c;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        if (current == clause)
+            return null;
+        current.subst = subst;
+        return record(current, "condensation", "condense", clause, new ArrayList<>());
+    }
+}
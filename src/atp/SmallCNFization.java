@@ -63,7 +63,6 @@ import java.util.*;
 
 public class SmallCNFization extends Clausifier {
 
-    private static int skolemCount = 0;
     public static boolean debug = false;
 
     /** ***************************************************************
@@ -74,8 +73,9 @@ public class SmallCNFization extends Clausifier {
      * "skolemXXXX" are in the input.
      */
     public static void countersReset() {
-        skolemCount = 0;
-        Clausifier.varCounter = 0;
+        ProofContext context = ProofContext.current();
+        context.skolemCount = 0;
+        context.varCounter = 0;
     }
 
     /** ***************************************************************
@@ -87,8 +87,9 @@ public class SmallCNFization extends Clausifier {
      */
     public static String newSkolemSymbol() {
 
-        skolemCount += 1;
-        return String.format("skolem%04d",skolemCount);
+        ProofContext context = ProofContext.current();
+        context.skolemCount += 1;
+        return context.newName("skolem",String.format("%04d",context.skolemCount));
     }
 
     /** ***************************************************************
@@ -829,6 +830,7 @@ public class SmallCNFization extends Clausifier {
     public static BareFormula formulaDistributeDisjunctions(BareFormula f) {
 
         //System.out.println("SmallCNFization.formulaDistributeDisjunctions(): f: " + f.toStructuredString());
+        ProofContext.current().checkDeadline();  // distribution can blow up exponentially
         BareFormula arg1 = f.child1;
         BareFormula arg2 = f.child2;
         if (f.isQuantified()) {
@@ -887,8 +889,10 @@ public class SmallCNFization extends Clausifier {
         BareFormula matrix = f.form.getMatrix();
         ArrayList<Clause> res = new ArrayList<Clause>();
         ArrayList<BareFormula> conjuncts = matrix.conj2List();
+        ProofContext context = ProofContext.current();
         //System.out.println("SmallCNFization.formulaCNFSplit(): conjuncts: " + conjuncts);
         for (BareFormula c : conjuncts) {
+            context.checkDeadline();
             //System.out.println("SmallCNFization.formulaCNFSplit(): c: " + c);
             ArrayList<BareFormula> list = c.disj2List();
             ArrayList<Literal> litlist = new ArrayList<Literal>();
@@ -1055,16 +1059,33 @@ public class SmallCNFization extends Clausifier {
     }
     
     /** ***************************************************************
-     * Convert a formula into Clause Normal Form.
+     * Convert a formula into Clause Normal Form.  With
+     * Formula.definitionalCNF, subformulas that would make the clause
+     * form larger than Formula.definitionLimit clauses are first
+     * replaced by definitions, see DefinitionalCNF.
      */
     public static ArrayList<Clause> wFormulaClausify(Formula wf) {
 
+        if (!Formula.definitionalCNF)
+            return wFormulaClausifyDirect(wf);
+        ArrayList<Clause> clauses = new ArrayList<>();
+        for (Formula f : DefinitionalCNF.wFormulaDefinitions(wf,Formula.definitionLimit))
+            clauses.addAll(wFormulaClausifyDirect(f));
+        return clauses;
+    }
+
+    /** ***************************************************************
+     * Convert a formula into Clause Normal Form without definitions.
+     */
+    private static ArrayList<Clause> wFormulaClausifyDirect(Formula wf) {
+
         //System.out.println("wFormulaClausify(): input: " + wf);
         Formula newf = wFormulaCNF(wf);
         ArrayList<Clause> clauses = formulaCNFSplit(newf);
         for (Clause c : clauses) {
             c.rationale = "split_conjunct";
-            c.name = "cnf" + Integer.toString(Clausifier.axiomCounter++);
+            ProofContext context = ProofContext.current();
+            c.name = context.newName("cnf",Integer.toString(context.axiomCounter++));
             c.support.add(wf.name);
 
             ArrayList<Derivable> supports = new ArrayList<>();
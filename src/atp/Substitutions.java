@@ -42,7 +42,6 @@ import java.util.*;
 public class Substitutions {
 
     public HashMap<Term,Term> subst = new HashMap<Term,Term>();
-    private static int freshVarCounter = 0;
     
     /** ***************************************************************
      */    
@@ -241,34 +240,4 @@ public class Substitutions {
             subst.put(var,term);   
     	//System.out.println("INFO in Substitutions.composeBinding(): subst: " + subst);
     }
-    
-    /** ***************************************************************
-     * Return a fresh variable. Note that this is not guaranteed to be
-     * different from input variables. However, it is guaranteed that
-     * freshVar() will never return the same variable more than once.
-     */    
-    public static Term freshVar() {
-
-        Substitutions.freshVarCounter = Substitutions.freshVarCounter + 1;
-        return Term.string2Term("X" + Integer.toString(Substitutions.freshVarCounter));
-    }
-    
-    /** ***************************************************************
-     * Create a substitution that maps all variables in var to fresh
-     * variables. Note that there is no guarantee that the fresh
-     * variables have never been used. However, there is a a guarantee
-     * that the fresh variables have never been produced by a unique
-     * substitution.
-     */    
-    public static Substitutions freshVarSubst(Collection<Term> vars) {
-
-        Substitutions s = new Substitutions();
-        for (Term var : vars) {
-            Term newVar = freshVar();
-            s.subst.put(var,newVar);
-        }
-        return s;
-    }
-    
-
 }
@@ -39,43 +39,182 @@ import java.util.*;
 import java.text.*;
 
 public class Subsumption {
-    
+
     /** ***************************************************************
-     * Try to extend subst so that subst(subsumer) is a multi-subset of
-     * subsumed. Recursively call this routine, checking the first literal
-     * of subsumer for a match with subsumed, then calling again with 
-     * the first literal removed.
-     */ 
-    private static boolean subsumeLitLists(Clause subsumer, 
-            Clause subsumed, BacktrackSubstitution subst) {
+     * The scratch space of subsumes(), kept between calls so that a
+     * subsumption test allocates nothing.  There is one per thread.
+     * Literals are referred to by their index in their clause.
+     */
+    private static class Matcher {
+
+        Clause subsumer = null;
+        Clause subsumed = null;
+        Unifier unifier = null;
+        ProofContext context = null;
+        int[] order = new int[16];          // subsumer literals, most constrained first
+        int[] candidates = new int[16];     // by subsumer literal, the subsumed literals it may match
+        int[] patternSize = new int[16];    // by subsumer literal, its number of symbols
+        int[] targetSize = new int[16];     // by subsumed literal, its number of symbols
+        long[] used = new long[1];          // bitmask of the subsumed literals already matched
+
+        /** ***************************************************************
+         */
+        void ensureCapacity(int n, int m) {
+
+            if (n > order.length) {
+                int size = Math.max(n, order.length * 2);
+                order = new int[size];
+                candidates = new int[size];
+                patternSize = new int[size];
+            }
+            if (m > targetSize.length)
+                targetSize = new int[Math.max(m, targetSize.length * 2)];
+            if ((m + 63) / 64 > used.length)
+                used = new long[(m + 63) / 64];
+        }
+    }
+
+    private static ThreadLocal<Matcher> matchers = ThreadLocal.withInitial(Matcher::new);
+
+    /** ***************************************************************
+     * @return the number of function symbol occurrences in t.  Matching
+     * only replaces variables, so it can't make this smaller.
+     */
+    private static int symbolCount(Term t) {
+
+        if (t.isVar())
+            return 0;
+        int result = 1;
+        for (int i = 0; i < t.subterms.size(); i++)
+            result = result + symbolCount(t.subterms.get(i));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return true if subsumer literal i could match subsumed literal j:
+     * same sign, same predicate, and no more symbols.
+     */
+    private static boolean compatible(Matcher m, int i, int j) {
+
+        Literal l1 = m.subsumer.literals.get(i);
+        Literal l2 = m.subsumed.literals.get(j);
+        return l1.negated == l2.negated && m.patternSize[i] <= m.targetSize[j] &&
+                l1.atom.t.equals(l2.atom.t);
+    }
+
+    /** ***************************************************************
+     * Try to extend the bindings so that the subsumer literals from
+     * position k in the order match distinct subsumed literals that
+     * are not used yet.  Each subsumed literal is used at most once,
+     * so that duplicate literals are counted as the multi-set requires.
+     */
+    private static boolean subsumeLitLists(Matcher m, int k) {
 
-        if (subsumer == null || subsumer.literals.size() < 1)
+        int n = m.subsumer.literals.size();
+        if (k == n)
             return true;
-        for (Literal lit : subsumed.literals) {
-            int btstate = subst.getState();
-            if (subsumer.literals.get(0).match(lit, subst)) {
-                Clause rest = new Clause();
-                for (Literal l : subsumed.literals)
-                    if (!l.equals(lit))
-                        rest.literals.add(l);
-                if (subsumeLitLists(subsumer.deepCopy(1), rest, subst))
+        int i = m.order[k];
+        Term atom = m.subsumer.literals.get(i).atom;
+        int mark = m.unifier.mark();
+        for (int j = 0; j < m.subsumed.literals.size(); j++) {
+            long bit = 1L << (j & 63);
+            if ((m.used[j >> 6] & bit) != 0 || !compatible(m, i, j))
+                continue;
+            m.context.checkDeadline();
+            if (m.unifier.match(atom, m.subsumed.literals.get(j).atom)) {
+                m.used[j >> 6] |= bit;
+                if (subsumeLitLists(m, k + 1))
                     return true;
+                m.used[j >> 6] &= ~bit;
+                m.unifier.undo(mark);
             }
-            subst.backtrackToState(btstate);
         }
         return false;
     }
-    
+
+    /** ***************************************************************
+     * Check the cheap necessary conditions for subsumption: no more
+     * literals of each sign and no more symbols in the subsumer than in
+     * the subsumed clause, and a possible partner for every subsumer
+     * literal.  Then order the subsumer literals by their number of
+     * possible partners, so that the most constrained are matched first.
+     */
+    private static boolean prefilter(Matcher m) {
+
+        Clause subsumer = m.subsumer;
+        Clause subsumed = m.subsumed;
+        int n = subsumer.literals.size();
+        int size = subsumed.literals.size();
+        int pos1 = 0, pos2 = 0, syms1 = 0, syms2 = 0;
+        for (int i = 0; i < n; i++) {
+            Literal l = subsumer.literals.get(i);
+            if (!l.negated)
+                pos1++;
+            m.patternSize[i] = symbolCount(l.atom);
+            syms1 = syms1 + m.patternSize[i];
+        }
+        for (int j = 0; j < size; j++) {
+            Literal l = subsumed.literals.get(j);
+            if (!l.negated)
+                pos2++;
+            m.targetSize[j] = symbolCount(l.atom);
+            syms2 = syms2 + m.targetSize[j];
+        }
+        if (pos1 > pos2 || n - pos1 > size - pos2 || syms1 > syms2)
+            return false;
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int j = 0; j < size; j++)
+                if (compatible(m, i, j))
+                    count++;
+            if (count == 0)
+                return false;
+            m.candidates[i] = count;
+            // insertion sort: fewest candidates first, then the largest
+            int k = i;
+            while (k > 0 && (m.candidates[m.order[k - 1]] > count ||
+                    (m.candidates[m.order[k - 1]] == count && m.patternSize[m.order[k - 1]] < m.patternSize[i]))) {
+                m.order[k] = m.order[k - 1];
+                k--;
+            }
+            m.order[k] = i;
+        }
+        return true;
+    }
+
     /** ***************************************************************
      * Return True if subsumer subsumes subsumed, False otherwise.
+     * The test works on literal indices, a bitmask of used literals and
+     * the Unifier of the thread, so it allocates nothing.
      */ 
     public static boolean subsumes(Clause subsumer, Clause subsumed) {
 
         //System.out.println("subsumes(): subsumer " + subsumer + " subsumed " + subsumed);
-        if (subsumer.literals.size() > subsumed.literals.size())
+        int n = subsumer.literals.size();
+        int size = subsumed.literals.size();
+        if (n > size)
             return false;
-        BacktrackSubstitution subst = new BacktrackSubstitution();
-        return subsumeLitLists(subsumer, subsumed, subst);
+        if (n == 0)
+            return true;
+        Matcher m = matchers.get();
+        m.ensureCapacity(n, size);
+        m.subsumer = subsumer;
+        m.subsumed = subsumed;
+        m.unifier = Unifier.get();
+        m.context = ProofContext.current();
+        int mark = m.unifier.mark();
+        try {
+            if (!prefilter(m))
+                return false;
+            return subsumeLitLists(m, 0);
+        }
+        finally {
+            m.unifier.undo(mark);
+            for (int w = 0; w < (size + 63) / 64; w++)
+                m.used[w] = 0;
+            m.subsumer = null;
+            m.subsumed = null;
+        }
     }
 
     /** ***************************************************************
@@ -99,6 +238,15 @@ public class Subsumption {
      */ 
     public static int backwardSubsumption(Clause clause, ClauseSet cs) {
 
+        return backwardSubsumption(clause, cs, new ArrayList<Clause>());
+    }
+
+    /** ***************************************************************
+     * As backwardSubsumption(clause,cs), and add the clauses removed
+     * from cs to removed.
+     */
+    public static int backwardSubsumption(Clause clause, ClauseSet cs, ArrayList<Clause> removed) {
+
         ArrayList<Clause> subsumed_set = new ArrayList<Clause>();
         ArrayList<Clause> candidates = cs.getSubsumedCandidates(clause);
         for (Clause c : candidates) {
@@ -109,8 +257,10 @@ public class Subsumption {
         }
         int res = subsumed_set.size();
         for (Clause c : subsumed_set) {
-            if (c.supportsClauses.size() == 0) // make sure that clauses that support others are not removed.
+            if (c.supportsClauses.size() == 0) { // make sure that clauses that support others are not removed.
             	cs.extractClause(c);
+                removed.add(c);
+            }
         }
         return res;
     }
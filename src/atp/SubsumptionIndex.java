@@ -60,10 +60,28 @@ public class SubsumptionIndex extends Index {
         else {  // array and map are kept in sync so this means that array has this entry
             entry = new HashSet<>();
             predAbstrMap.put(pa, entry);
-            predAbstrArr.add(pa);
+            predAbstrArr.add(insertionPoint(pa.size()), pa);
         }
         entry.add(clause);
-        predAbstrArr.sort(new LengthComparator());
+    }
+
+    /** ***************************************************************
+     * Return the position after the last abstraction in predAbstrArr
+     * that is not longer than len, so that inserting there keeps the
+     * array sorted by length, in the same order a stable sort would.
+     */
+    private int insertionPoint(int len) {
+
+        int lo = 0;
+        int hi = predAbstrArr.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (predAbstrArr.get(mid).size() <= len)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
     }
 
     /** ***************************************************************
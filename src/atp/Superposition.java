@@ -0,0 +1,359 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+
+This module implements the generating inferences of the superposition
+calculus, which handles equality without the equality axioms of
+EqAxioms.  An equation is a literal with the predicate "=".
+
+Superposition:
+
+  C|l=r    D|L[u]
+ ----------------   where sigma = mgu(l,u), u is not a variable and
+ sigma(C|D|L[r])    sigma(r) is not greater than or equal to sigma(l)
+
+l=r may be used in both directions.  L is any literal, positive or
+negative, and L[r] is L with the occurrence of u replaced by r.
+
+Equality resolution:
+
+  C|~s=t
+ --------   where sigma = mgu(s,t)
+ sigma(C)
+
+Equality factoring:
+
+ C|s=t|s'=t'
+ ---------------------   where sigma = mgu(s,s')
+ sigma(C|~t=t'|s'=t')
+
+Only the inference literals of the clauses take part, so the literal
+selection and the ordered resolution of ProofState restrict these
+inferences as they do resolution.  ProofState finds the partners of
+the given clause among the processed clauses with a SuperpositionIndex.
+*/
+
+package atp;
+
+import java.util.*;
+
+public class Superposition {
+
+    /** ***************************************************************
+     * @return true if the clause has a literal s=s, and so is a
+     * tautology.
+     */
+    public static boolean isEqTautology(Clause clause) {
+
+        for (Literal l : clause.literals)
+            if (l.isPositive() && l.isEquational() &&
+                    l.atom.subterms.get(0).equals(l.atom.subterms.get(1)))
+                return true;
+        return false;
+    }
+
+    /** ***************************************************************
+     * @return a copy of t with the subterm at path, from index depth
+     * on, replaced by r.
+     */
+    private static Term replace(Term t, ArrayList<Integer> path, int depth, Term r) {
+
+        if (depth == path.size())
+            return r;
+        Term result = new Term(t.t);
+        result.subterms = new ArrayList<>(t.subterms);
+        int i = path.get(depth);
+        result.subterms.set(i, replace(t.subterms.get(i), path, depth + 1, r));
+        return result;
+    }
+
+    /** ***************************************************************
+     * Give the new clause its name and derivation, as
+     * Resolution.recordResolvent() does.
+     */
+    private static Clause record(Clause res, String rule, Clause clause1, Clause clause2) {
+
+        res.createName();
+        res.rationale = rule;
+        res.support.add(clause1.name);
+        ArrayList<Derivable> supports = new ArrayList<>();
+        supports.add(clause1);
+        clause1.supportsClauses.add(res.name);
+        if (clause2 != null) {
+            res.support.add(clause2.name);
+            supports.add(clause2);
+            clause2.supportsClauses.add(res.name);
+        }
+        res.setDerivation(Derivation.flatDerivation(rule,supports,""));
+        return res;
+    }
+
+    /** ***************************************************************
+     * Superpose the side l of the equation l=r, literal fi of from,
+     * into the subterm u at path in the atom of literal ii of into.
+     * from is in bank 0 and into in bank 1 of the Unifier, so they may
+     * be the same clause.
+     */
+    private static Clause superpose(Clause from, int fi, Term l, Term r,
+                                    Clause into, int ii, ArrayList<Integer> path, Term u,
+                                    TermOrdering ordering) {
+
+        Unifier sigma = Unifier.get();
+        int mark = sigma.mark();
+        try {
+            if (!sigma.unify(l, 0, u, 1))
+                return null;
+            sigma.startRenaming();
+            Term ls = sigma.instantiate(l, 0);
+            Term rs = sigma.instantiate(r, 0);
+            if (rs.equals(ls) || ordering.greater(rs, ls))
+                return null;
+            Clause res = new Clause();
+            for (int i = 0; i < from.literals.size(); i++)
+                if (i != fi)
+                    res.literals.add(sigma.instantiate(from.literals.get(i), 0));
+            for (int i = 0; i < into.literals.size(); i++) {
+                Literal lit = into.literals.get(i);
+                Literal n = sigma.instantiate(lit, 1);
+                if (i == ii)
+                    n.atom = replace(n.atom, path, 0, rs);
+                res.literals.add(n);
+            }
+            res.removeDupLits();
+            res.depth = Math.max(from.depth, into.depth) + 1;
+            res.subst.addAll(sigma.toSubstitutions(mark));
+            res.supportSubst = new Substitutions[] {sigma.toSubstitutions(mark, 0), sigma.toSubstitutions(mark, 1)};
+            return record(res, "superposition", from, into);
+        }
+        finally {
+            sigma.stopRenaming();
+            sigma.undo(mark);
+        }
+    }
+
+    /** ***************************************************************
+     * Superpose l=r into every non-variable subterm of t, which is at
+     * path in the atom of literal ii of into.
+     */
+    private static void superposeInto(Clause from, int fi, Term l, Term r,
+                                      Clause into, int ii, Term t, ArrayList<Integer> path,
+                                      TermOrdering ordering, ClauseSet res, ProofContext context) {
+
+        if (t.isVar())
+            return;
+        if (path.size() > 0) {
+            context.checkDeadline();
+            Clause c = superpose(from, fi, l, r, into, ii, path, t, ordering);
+            if (c != null)
+                res.addClause(c);
+        }
+        for (int i = 0; i < t.subterms.size(); i++) {
+            path.add(i);
+            superposeInto(from, fi, l, r, into, ii, t.subterms.get(i), path, ordering, res, context);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /** ***************************************************************
+     * Add all superpositions from the equations of from into the
+     * literals of into to res.
+     */
+    public static void superpositions(Clause from, Clause into, TermOrdering ordering, ClauseSet res) {
+
+        ProofContext context = ProofContext.current();
+        for (int fi = 0; fi < from.literals.size(); fi++) {
+            Literal eq = from.literals.get(fi);
+            if (!eq.isInferenceLit() || !eq.isPositive() || !eq.isEquational())
+                continue;
+            for (int side = 0; side < 2; side++) {
+                Term l = eq.atom.subterms.get(side);
+                Term r = eq.atom.subterms.get(1 - side);
+                if (l.isVar() || ordering.greater(r, l))
+                    continue;
+                for (int ii = 0; ii < into.literals.size(); ii++) {
+                    if (!into.literals.get(ii).isInferenceLit())
+                        continue;
+                    superposeInto(from, fi, l, r, into, ii, into.literals.get(ii).atom,
+                            new ArrayList<>(), ordering, res, context);
+                }
+            }
+        }
+    }
+
+    /** ***************************************************************
+     * @return the equality resolvents of the clause.
+     */
+    public static ClauseSet equalityResolution(Clause clause) {
+
+        ClauseSet res = new ClauseSet();
+        Unifier sigma = Unifier.get();
+        for (int i = 0; i < clause.literals.size(); i++) {
+            Literal lit = clause.literals.get(i);
+            if (!lit.isInferenceLit() || !lit.isNegative() || !lit.isEquational())
+                continue;
+            int mark = sigma.mark();
+            Clause c = new Clause();
+            try {
+                if (!sigma.unify(lit.atom.subterms.get(0), lit.atom.subterms.get(1)))
+                    continue;
+                for (int j = 0; j < clause.literals.size(); j++)
+                    if (j != i)
+                        c.literals.add(sigma.instantiate(clause.literals.get(j)));
+                c.subst.addAll(sigma.toSubstitutions(mark));
+            }
+            finally {
+                sigma.undo(mark);
+            }
+            c.removeDupLits();
+            c.depth = clause.depth + 1;
+            res.addClause(record(c, "equality_resolution", clause, null));
+        }
+        return res;
+    }
+
+    /** ***************************************************************
+     * @return the equality factors of the clause.
+     */
+    public static ClauseSet equalityFactoring(Clause clause) {
+
+        ClauseSet res = new ClauseSet();
+        Unifier sigma = Unifier.get();
+        int n = clause.literals.size();
+        for (int i = 0; i < n; i++) {
+            Literal li = clause.literals.get(i);
+            if (!li.isInferenceLit() || !li.isPositive() || !li.isEquational())
+                continue;
+            for (int j = 0; j < n; j++) {
+                Literal lj = clause.literals.get(j);
+                if (j == i || !lj.isPositive() || !lj.isEquational())
+                    continue;
+                for (int si = 0; si < 2; si++) {
+                    for (int sj = 0; sj < 2; sj++) {
+                        Term s = li.atom.subterms.get(si);
+                        Term t = li.atom.subterms.get(1 - si);
+                        Term s2 = lj.atom.subterms.get(sj);
+                        Term t2 = lj.atom.subterms.get(1 - sj);
+                        int mark = sigma.mark();
+                        Clause c = new Clause();
+                        try {
+                            if (!sigma.unify(s, s2))
+                                continue;
+                            for (int k = 0; k < n; k++)
+                                if (k != i)
+                                    c.literals.add(sigma.instantiate(clause.literals.get(k)));
+                            Literal neq = new Literal();
+                            neq.atom = new Term("=", sigma.instantiate(t), sigma.instantiate(t2));
+                            neq.negated = true;
+                            c.literals.add(neq);
+                            c.subst.addAll(sigma.toSubstitutions(mark));
+                        }
+                        finally {
+                            sigma.undo(mark);
+                        }
+                        c.removeDupLits();
+                        c.depth = clause.depth + 1;
+                        res.addClause(record(c, "equality_factoring", clause, null));
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    /** ***************************************************************
+     * Compute all superposition inferences between the given clause and
+     * itself or the processed clauses, and its equality resolvents and
+     * factors.  This is the version without an index, which tries every
+     * subterm of every processed clause.
+     */
+    public static ClauseSet computeAll(Clause given, ClauseSet processed, TermOrdering ordering) {
+
+        ClauseSet res = new ClauseSet();
+        for (Clause c : processed.clauses) {
+            superpositions(given, c, ordering, res);
+            superpositions(c, given, ordering, res);
+        }
+        superpositions(given, given, ordering, res);
+        res.addAll(equalityResolution(given));
+        res.addAll(equalityFactoring(given));
+        return res;
+    }
+
+    /** ***************************************************************
+     * Compute the same inferences as computeAll(given,processed,ordering),
+     * in the same order, for the processed clauses in the index.  Only
+     * the partners that the index returns are tried: the subterms that
+     * may unify with a side of an equation of the given clause, and the
+     * sides of equations that may unify with a subterm of the given
+     * clause.
+     */
+    public static ClauseSet computeAll(Clause given, SuperpositionIndex index, TermOrdering ordering) {
+
+        ProofContext context = ProofContext.current();
+        // for each partner, by serial: the pairs (2 * literal + side, position)
+        // from the given clause into it, and from it into the given clause
+        TreeMap<Integer,Clause> partners = new TreeMap<>();
+        HashMap<Clause,TreeSet<Long>> into = new HashMap<>();
+        HashMap<Clause,TreeSet<Long>> from = new HashMap<>();
+        for (int fi = 0; fi < given.literals.size(); fi++) {
+            for (int side = 0; side < 2; side++) {
+                if (!SuperpositionIndex.usableSide(given.literals.get(fi), side, ordering))
+                    continue;
+                Term l = given.literals.get(fi).atom.subterms.get(side);
+                for (KVPair kvp : index.getSubterms(l)) {
+                    partners.put(index.serial(kvp.c), kvp.c);
+                    into.computeIfAbsent(kvp.c, k -> new TreeSet<>()).add(((long) (2 * fi + side) << 32) | kvp.value);
+                }
+            }
+        }
+        ArrayList<SuperpositionIndex.Position> givenPositions = SuperpositionIndex.positions(given);
+        for (int k = 0; k < givenPositions.size(); k++) {
+            for (KVPair kvp : index.getSides(givenPositions.get(k).term)) {
+                partners.put(index.serial(kvp.c), kvp.c);
+                from.computeIfAbsent(kvp.c, c -> new TreeSet<>()).add(((long) kvp.value << 32) | k);
+            }
+        }
+        ClauseSet res = new ClauseSet();
+        for (Clause c : partners.values()) {
+            ArrayList<SuperpositionIndex.Position> positions = SuperpositionIndex.positions(c);
+            for (long pair : into.getOrDefault(c, new TreeSet<>()))
+                superposeAt(given, (int) (pair >> 32), c, positions.get((int) pair), ordering, res, context);
+            for (long pair : from.getOrDefault(c, new TreeSet<>()))
+                superposeAt(c, (int) (pair >> 32), given, givenPositions.get((int) pair), ordering, res, context);
+        }
+        superpositions(given, given, ordering, res);
+        res.addAll(equalityResolution(given));
+        res.addAll(equalityFactoring(given));
+        return res;
+    }
+
+    /** ***************************************************************
+     * Superpose side (eq % 2) of literal (eq / 2) of from into the
+     * position p of into.
+     */
+    private static void superposeAt(Clause from, int eq, Clause into, SuperpositionIndex.Position p,
+                                    TermOrdering ordering, ClauseSet res, ProofContext context) {
+
+        context.checkDeadline();
+        Literal lit = from.literals.get(eq / 2);
+        Term l = lit.atom.subterms.get(eq % 2);
+        Term r = lit.atom.subterms.get(1 - eq % 2);
+        Clause c = superpose(from, eq / 2, l, r, into, p.lit, p.path, p.term, ordering);
+        if (c != null)
+            res.addClause(c);
+    }
+}
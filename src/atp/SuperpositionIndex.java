@@ -0,0 +1,198 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * An index of the processed clauses for superposition with the given
+ * clause, with two discrimination trees (see DiscriminationTreeIndex):
+ *
+ * - sides holds the sides of the positive inference equations that
+ *   may rewrite: not variables and not smaller than the other side.
+ *   The payload is (clause, 2 * literal + side).
+ * - subterms holds the subterms below the predicate of the inference
+ *   literals that are not variables, into which an equation may be
+ *   superposed.  The payload is (clause, k) for the k-th position of
+ *   positions(clause).
+ *
+ * Superposition.computeAll() looks up the equation sides of the given
+ * clause in subterms, and its subterms in sides, so it only tries the
+ * clauses and positions that may unify.
+ *
+ * Each clause gets a serial number when it is inserted, so that the
+ * partners of the given clause can be visited in the order in which
+ * they became processed.
+ */
+public class SuperpositionIndex {
+
+    /** ***************************************************************
+     * A subterm of a clause: the literal, the argument path from the
+     * atom, and the subterm itself.
+     */
+    public static class Position {
+
+        public int lit = 0;
+        public ArrayList<Integer> path = null;
+        public Term term = null;
+
+        Position(int l, ArrayList<Integer> p, Term t) { lit = l; path = p; term = t; }
+    }
+
+    public TermOrdering ordering = null;
+    public DiscriminationTreeIndex.Node sides = new DiscriminationTreeIndex.Node(0);
+    public DiscriminationTreeIndex.Node subterms = new DiscriminationTreeIndex.Node(0);
+    private IdentityHashMap<Clause,Integer> serials = new IdentityHashMap<>();
+    private int nextSerial = 0;
+
+    /** ***************************************************************
+     */
+    public SuperpositionIndex(TermOrdering ordering) {
+
+        this.ordering = ordering;
+    }
+
+    /** ***************************************************************
+     * @return true if side of literal lit can be superposed from: lit
+     * is a positive inference equation, and the side is not a variable
+     * and not smaller than the other side.
+     */
+    public static boolean usableSide(Literal lit, int side, TermOrdering ordering) {
+
+        if (!lit.isInferenceLit() || !lit.isPositive() || !lit.isEquational())
+            return false;
+        Term l = lit.atom.subterms.get(side);
+        Term r = lit.atom.subterms.get(1 - side);
+        return !l.isVar() && !ordering.greater(r, l);
+    }
+
+    /** ***************************************************************
+     * @return the subterms of the inference literals of the clause that
+     * an equation can be superposed into, literal by literal, each atom
+     * in preorder.
+     */
+    public static ArrayList<Position> positions(Clause c) {
+
+        ArrayList<Position> result = new ArrayList<>();
+        for (int i = 0; i < c.literals.size(); i++) {
+            Literal lit = c.literals.get(i);
+            if (lit.isInferenceLit())
+                positions(i, lit.atom, new ArrayList<>(), result);
+        }
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    private static void positions(int lit, Term t, ArrayList<Integer> path, ArrayList<Position> result) {
+
+        if (t.isVar())
+            return;
+        if (path.size() > 0)
+            result.add(new Position(lit, new ArrayList<>(path), t));
+        for (int i = 0; i < t.subterms.size(); i++) {
+            path.add(i);
+            positions(lit, t.subterms.get(i), path, result);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /** ***************************************************************
+     * Add or remove the entries of the clause.
+     */
+    private void update(Clause c, boolean insert) {
+
+        for (int i = 0; i < c.literals.size(); i++) {
+            for (int side = 0; side < 2; side++) {
+                if (!usableSide(c.literals.get(i), side, ordering))
+                    continue;
+                Term l = c.literals.get(i).atom.subterms.get(side);
+                if (insert)
+                    DiscriminationTreeIndex.insertTerm(sides, l, new KVPair(c, 2 * i + side));
+                else
+                    DiscriminationTreeIndex.removeTerm(sides, l, new KVPair(c, 2 * i + side));
+            }
+        }
+        ArrayList<Position> ps = positions(c);
+        for (int k = 0; k < ps.size(); k++) {
+            if (insert)
+                DiscriminationTreeIndex.insertTerm(subterms, ps.get(k).term, new KVPair(c, k));
+            else
+                DiscriminationTreeIndex.removeTerm(subterms, ps.get(k).term, new KVPair(c, k));
+        }
+    }
+
+    /** ***************************************************************
+     * Add the clause to the index.  Its inference literals must not
+     * change while it is in the index.
+     */
+    public void insertClause(Clause c) {
+
+        if (serials.containsKey(c))
+            return;
+        serials.put(c, nextSerial++);
+        update(c, true);
+    }
+
+    /** ***************************************************************
+     * Remove the clause from the index.
+     */
+    public void removeClause(Clause c) {
+
+        if (serials.remove(c) == null)
+            return;
+        update(c, false);
+    }
+
+    /** ***************************************************************
+     * @return the serial number of a clause in the index, or -1.
+     */
+    public int serial(Clause c) {
+
+        Integer n = serials.get(c);
+        return n == null ? -1 : n;
+    }
+
+    /** ***************************************************************
+     * @return the number of clauses in the index.
+     */
+    public int size() {
+
+        return serials.size();
+    }
+
+    /** ***************************************************************
+     * @return the equation sides that may unify with u, as pairs
+     * (clause, 2 * literal + side).
+     */
+    public HashSet<KVPair> getSides(Term u) {
+
+        return DiscriminationTreeIndex.getUnifiable(sides, u);
+    }
+
+    /** ***************************************************************
+     * @return the subterms that may unify with l, as pairs (clause, k)
+     * for the k-th element of positions(clause).
+     */
+    public HashSet<KVPair> getSubterms(Term l) {
+
+        return DiscriminationTreeIndex.getUnifiable(subterms, l);
+    }
+}
@@ -0,0 +1,162 @@
+package atp;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** ***************************************************************
+ *  A global table of the symbols (variables, function symbols and
+ *  predicate symbols) that occur in terms, numbered densely from 0
+ *  in the order they are first seen. The kind and arity of each
+ *  symbol are kept in primitive arrays indexed by that number, so
+ *  that indexes and signatures can use int keys instead of hashing
+ *  and comparing Strings.
+ *
+ *  Looking up a symbol takes no lock, so proofs running in parallel
+ *  don't wait on each other. Only adding a symbol or setting its kind
+ *  locks the table. The arrays are replaced, never shrunk in place,
+ *  so a reader always sees arrays that hold every id it was given.
+ *
+ *  Ids stay valid until reset(), which empties the table between
+ *  problems so that it doesn't keep every symbol the JVM has seen.
+ *  Each reset starts a new generation; Term uses it to drop the ids it
+ *  has cached.
+ */
+public class SymbolTable {
+
+    public static final byte UNKNOWN = 0;
+    public static final byte VARIABLE = 1;
+    public static final byte FUNCTION = 2;
+    public static final byte PREDICATE = 3;
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private static volatile ConcurrentHashMap<String,Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[INITIAL_SIZE];
+    private static volatile byte[] kinds = new byte[INITIAL_SIZE];
+    private static volatile int[] arities = new int[INITIAL_SIZE];
+    private static int size = 0;                   // only changed with the lock held
+    private static volatile int generation = 0;
+
+    /** ***************************************************************
+     * Return the id of the symbol, adding it to the table if it is new.
+     * A symbol starting with an upper case letter is a variable, other
+     * symbols are of unknown kind until setKind() is called.
+     */
+    public static int intern(String s) {
+
+        Integer id = ids.get(s);
+        if (id != null)
+            return id;
+        return add(s);
+    }
+
+    /** ***************************************************************
+     * Add a symbol that the lookup in intern() didn't find, unless
+     * another thread has added it since.  The arrays are grown before
+     * the id is published in ids.
+     */
+    private static synchronized int add(String s) {
+
+        Integer id = ids.get(s);
+        if (id != null)
+            return id;
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            kinds = Arrays.copyOf(kinds, size * 2);
+            arities = Arrays.copyOf(arities, size * 2);
+        }
+        int n = size++;
+        String name = s.intern();
+        names[n] = name;
+        arities[n] = -1;
+        if (s.length() > 0 && Character.isUpperCase(s.charAt(0))) {
+            kinds[n] = VARIABLE;
+            arities[n] = 0;
+        }
+        ids.put(name, n);
+        return n;
+    }
+
+    /** ***************************************************************
+     * Return the id of the symbol, or -1 if it is not in the table.
+     */
+    public static int lookup(String s) {
+
+        Integer id = ids.get(s);
+        if (id == null)
+            return -1;
+        return id;
+    }
+
+    /** ***************************************************************
+     * Record the kind and arity of a symbol.
+     */
+    public static synchronized void setKind(int id, byte kind, int arity) {
+
+        kinds[id] = kind;
+        arities[id] = arity;
+    }
+
+    /** ***************************************************************
+     * Return the (interned) name of a symbol.
+     */
+    public static String name(int id) {
+
+        return names[id];
+    }
+
+    /** ***************************************************************
+     */
+    public static byte kind(int id) {
+
+        return kinds[id];
+    }
+
+    /** ***************************************************************
+     * Return the arity of a symbol, or -1 if it is not known.
+     */
+    public static int arity(int id) {
+
+        return arities[id];
+    }
+
+    /** ***************************************************************
+     */
+    public static boolean isVar(int id) {
+
+        return kinds[id] == VARIABLE;
+    }
+
+    /** ***************************************************************
+     * Return the number of symbols in the table.
+     */
+    public static synchronized int size() {
+
+        return size;
+    }
+
+    /** ***************************************************************
+     * Return the number of times the table has been reset.
+     */
+    public static int generation() {
+
+        return generation;
+    }
+
+    /** ***************************************************************
+     * Remove all symbols.  Ids handed out before are no longer valid,
+     * so this must only be called when no proof is running and nothing
+     * that holds ids, such as an index, a Signature or a clause with a
+     * predicate abstraction, is used again.  Terms notice the reset and
+     * look their ids up again.
+     */
+    public static synchronized void reset() {
+
+        names = new String[INITIAL_SIZE];
+        kinds = new byte[INITIAL_SIZE];
+        arities = new int[INITIAL_SIZE];
+        size = 0;
+        ids = new ConcurrentHashMap<>();
+        generation++;
+    }
+}
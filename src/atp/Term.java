@@ -37,6 +37,19 @@ public class Term implements Comparable {
 public String t = "";  // lowercase is a constant, uppercase is a variable
 public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not composite
 
+public int symbol = -1;                   // symbol id in the SymbolTable, cached by getFuncId()
+private String symbolName = null;         // the t that symbol is the id of
+private int symbolGeneration = -1;        // the SymbolTable.generation() of symbol
+
+// The following are only set for terms shared in a TermBank, see freeze()
+public boolean shared = false;
+private TermBank bank = null;
+private int hash = 0;
+private int funCount = 0;                 // number of function symbol occurrences
+private int varCount = 0;                 // number of variable occurrences
+private boolean ground = true;
+private LinkedHashSet<Term> vars = null;
+
 	/** ***************************************************************
 	 */
 	public Term() {
@@ -53,6 +66,7 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
      */
     public Term(Term newTerm) {
         this.t = newTerm.t;
+        copySymbol(newTerm);
         if (newTerm.subterms != null && newTerm.subterms.size() > 0) {
             for (Term subT : newTerm.subterms)
                 subterms.add(new Term(subT));
@@ -193,7 +207,7 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
                 !lex.type.equals(Lexer.DefFunctor) && !lex.type.equals(Lexer.SQString) &&
                 !lex.type.equals(Lexer.DQString) && !lex.type.equals(Lexer.Number))
                 throw new ParseException("Error in Term.parse(): Expected a word. Found " + 
-                        lex.literal + " type: " + lex.type, lex.input.getLineNumber());
+                        lex.literal + " type: " + lex.type, lex.getLineNumber());
             if (lex.type.equals(Lexer.IdentUpper)) {
                 t = lex.literal;
                 return this;
@@ -207,7 +221,7 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
                         parseTermList(lex); 
                         if (!lex.literal.equals(")"))
                             throw new ParseException("Error in Term.parse(): Close paren expected. Found " + 
-                                    lex.literal + " " + lex.type,lex.input.getLineNumber()); 
+                                    lex.literal + " " + lex.type,lex.getLineNumber()); 
                         //System.out.println("INFO in Term.parse(): got close paren: " + lex.literal);
                         return this;
                     }
@@ -225,7 +239,7 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
                             return this;
                         else
                             throw new ParseException("Error in Term.parse(): Identifier " + lex.literal + " with type " + lex.type + 
-                                    " doesn't start with upper or lower case letter.",lex.input.getLineNumber()); 
+                                    " doesn't start with upper or lower case letter.",lex.getLineNumber()); 
                 }                  
             }                
         }
@@ -375,6 +389,8 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
      */
     public boolean isGround() { 
         
+        if (shared)
+            return ground;
         if (!Term.emptyString(t) && Character.isUpperCase(t.charAt(0)))
             return false;
         for (int i = 0; i < subterms.size(); i++)
@@ -387,6 +403,8 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
      */
     public LinkedHashSet<Term> collectVars() {
 
+        if (shared)
+            return new LinkedHashSet<Term>(vars);
         LinkedHashSet<Term> result = new LinkedHashSet<Term>();
         if (isVar())
             result.add(this);
@@ -440,6 +458,35 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
                
         return t;
     }
+
+    /** ***************************************************************
+     * Return the SymbolTable id of the top symbol. The id is looked up
+     * once and cached with the name it belongs to, so a term whose t is
+     * changed, or a term from before SymbolTable.reset(), looks it up
+     * again.  Terms read by several threads may race on the cache, but
+     * every thread finds the same id for the same name.
+     */
+    public int getFuncId() {
+
+        int generation = SymbolTable.generation();
+        if (symbol >= 0 && symbolName == t && symbolGeneration == generation)
+            return symbol;
+        int id = SymbolTable.intern(t);
+        symbol = id;
+        symbolName = t;
+        symbolGeneration = generation;
+        return id;
+    }
+
+    /** ***************************************************************
+     * Take over the cached symbol id of a term with the same t.
+     */
+    private void copySymbol(Term other) {
+
+        symbol = other.symbol;
+        symbolName = other.symbolName;
+        symbolGeneration = other.symbolGeneration;
+    }
     
     /** ***************************************************************
      */
@@ -475,6 +522,8 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
      */
     public int weight(int fweight, int vweight) {
         
+        if (shared)
+            return funCount * fweight + varCount * vweight;
         int total = 0;
         if (Character.isUpperCase(t.charAt(0)))
             total = vweight;
@@ -531,7 +580,11 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
        // 	System.out.println("Term.equals() passed object not of type Term");
        // 	return false;
        // }
+        if (this == other_obj)
+            return true;
         Term t2 = (Term) other_obj;
+        if (shared && t2.bank == bank)   // shared terms are unique in their bank
+            return false;
         //System.out.println("INFO in Term.equals(): term:" + this + " other: " + other_obj);
         if (!t2.t.equals(t))
             return false;
@@ -559,19 +612,43 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
     }
 
     /** ***************************************************************
+     * Combine the hash of the symbol with those of the subterms in
+     * order, so that f(a,b), f(b,a) and g(a,b) hash differently.
      */
     @Override public int hashCode() {
     
-        int total = 0;
- //       if (negated) 
- //           total = 1;
-        if (subterms.size() < 1)
-            return total + t.hashCode() * 2;
-        else {
-            for (int i = 0; i < subterms.size(); i++)
-                total = total + subterms.get(i).hashCode();
-            return total;
+        if (shared)
+            return hash;
+        int total = t.hashCode();
+        for (int i = 0; i < subterms.size(); i++)
+            total = 31 * total + subterms.get(i).hashCode();
+        return total;
+    }
+
+    /** ***************************************************************
+     * Compute and cache the hash code, weight, groundness and variables
+     * of a term whose subterms are already shared, and mark it as
+     * shared. Only to be called by TermBank.
+     */
+    protected void freeze(TermBank b) {
+
+        hash = hashCode();
+        vars = new LinkedHashSet<Term>();
+        if (isVar()) {
+            varCount = 1;
+            ground = false;
+            vars.add(this);
+        }
+        else
+            funCount = 1;
+        for (Term s : subterms) {
+            funCount = funCount + s.funCount;
+            varCount = varCount + s.varCount;
+            ground = ground && s.ground;
+            vars.addAll(s.vars);
         }
+        bank = b;
+        shared = true;
     }
     
     /** ***************************************************************
@@ -580,6 +657,7 @@ public ArrayList<Term> subterms = new ArrayList<Term>();    // empty if not comp
         
         Term result = new Term();
         result.t = t;
+        result.copySymbol(this);
         for (int i = 0; i < subterms.size(); i++)
             result.subterms.add(subterms.get(i).deepCopy());
         return result;
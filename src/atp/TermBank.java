@@ -0,0 +1,80 @@
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ *  A term bank, in which structurally equal terms are represented by
+ *  one shared Term object. Terms are built and modified freely with
+ *  the usual Term methods, and only become shared when they are put
+ *  into the bank with share(). Shared terms must not be modified
+ *  afterwards, since other clauses may point to them.
+ *
+ *  Shared terms cache their hash code, weight, groundness and
+ *  variables, and two shared terms are equal if and only if they are
+ *  the same object. Their symbols are interned in the SymbolTable.
+ */
+public class TermBank {
+
+    public HashMap<Term,Term> terms = new HashMap<>();
+
+    public long lookups = 0;   // number of calls to share() on unshared terms
+    public long hits = 0;      // number of those that found an existing term
+
+    /** ***************************************************************
+     */
+    public TermBank() {
+
+    }
+
+    /** ***************************************************************
+     * Return the number of distinct terms in the bank.
+     */
+    public int size() {
+
+        return terms.size();
+    }
+
+    /** ***************************************************************
+     * Return the shared version of t. The subterms are shared first,
+     * so that the lookup of t itself only compares subterms by
+     * reference.
+     */
+    public Term share(Term t) {
+
+        if (t.shared)
+            return t;
+        lookups++;
+        Term key = new Term();
+        key.t = t.t;
+        for (Term s : t.subterms)
+            key.subterms.add(share(s));
+        Term existing = terms.get(key);
+        if (existing != null) {
+            hits++;
+            return existing;
+        }
+        key.t = SymbolTable.name(SymbolTable.intern(key.t));
+        key.getFuncId();  // cache the id with the interned name
+        key.freeze(this);
+        terms.put(key, key);
+        return key;
+    }
+
+    /** ***************************************************************
+     * Replace the atoms of all literals in the clause by their shared
+     * versions. The clause itself is modified.
+     */
+    public Clause share(Clause c) {
+
+        for (Literal l : c.literals)
+            l.atom = share(l.atom);
+        return c;
+    }
+
+    /** ***************************************************************
+     */
+    public String statistics() {
+
+        return "terms: " + terms.size() + " lookups: " + lookups + " hits: " + hits;
+    }
+}
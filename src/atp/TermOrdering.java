@@ -0,0 +1,134 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * A simplification ordering on terms, extended to literals: a literal
+ * is compared by its atom first, and a negative literal is greater
+ * than the positive literal with the same atom.  Orderings are used
+ * to restrict resolution to the maximal literals of a clause.
+ */
+public abstract class TermOrdering {
+
+    public enum Orderings {KBO, LPO}
+
+    public static HashMap<String,Orderings> TermOrderings;
+    static {
+        TermOrderings = new HashMap<>();
+        TermOrderings.put("kbo",Orderings.KBO);
+        TermOrderings.put("lpo",Orderings.LPO);
+    }
+
+    public enum Comparison {GREATER, LESS, EQUAL, INCOMPARABLE}
+
+    public Precedence precedence = null;
+
+    /** ***************************************************************
+     */
+    public TermOrdering(Precedence precedence) {
+
+        this.precedence = precedence;
+    }
+
+    /** ***************************************************************
+     * @return true if s is strictly greater than t.
+     */
+    public abstract boolean greater(Term s, Term t);
+
+    /** ***************************************************************
+     * @return the comparison of f(...) and g(...) by their top symbols,
+     * taking the arity into account for symbols of the same name.
+     */
+    protected int compareSymbols(Term s, Term t) {
+
+        int c = precedence.compare(s.getFunc(), t.getFunc());
+        if (c != 0)
+            return c;
+        return Integer.compare(s.subterms.size(), t.subterms.size());
+    }
+
+    /** ***************************************************************
+     * @return true if var occurs in t.
+     */
+    protected static boolean occurs(Term var, Term t) {
+
+        if (t.isVar())
+            return t.equals(var);
+        for (Term s : t.subterms)
+            if (occurs(var, s))
+                return true;
+        return false;
+    }
+
+    /** ***************************************************************
+     */
+    public Comparison compare(Term s, Term t) {
+
+        if (s.equals(t))
+            return Comparison.EQUAL;
+        if (greater(s, t))
+            return Comparison.GREATER;
+        if (greater(t, s))
+            return Comparison.LESS;
+        return Comparison.INCOMPARABLE;
+    }
+
+    /** ***************************************************************
+     */
+    public Comparison compare(Literal a, Literal b) {
+
+        Comparison c = compare(a.atom, b.atom);
+        if (c != Comparison.EQUAL || a.isNegative() == b.isNegative())
+            return c;
+        return a.isNegative() ? Comparison.GREATER : Comparison.LESS;
+    }
+
+    /** ***************************************************************
+     * Make the maximal literals of the clause its inference literals:
+     * those that are not smaller than another literal of the clause.
+     * Since the ordering is stable under substitutions, a literal that
+     * is smaller here stays smaller in every instance of the clause.
+     */
+    public void selectMaximalLits(Clause clause) {
+
+        int n = clause.literals.size();
+        boolean[] maximal = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            maximal[i] = true;
+            for (int j = 0; j < n && maximal[i]; j++)
+                if (i != j && compare(clause.literals.get(j), clause.literals.get(i)) == Comparison.GREATER)
+                    maximal[i] = false;
+        }
+        for (int i = 0; i < n; i++)
+            clause.literals.get(i).setInferenceLit(maximal[i]);
+    }
+
+    /** ***************************************************************
+     * @return a new ordering of the given kind.
+     */
+    public static TermOrdering create(Orderings o, Precedence precedence) {
+
+        if (o == Orderings.LPO)
+            return new LPO(precedence);
+        return new KBO(precedence);
+    }
+}
@@ -0,0 +1,490 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * A unifier that records variable bindings in an array indexed by
+ * the SymbolTable id of the variable, instead of rewriting the terms
+ * that remain to be unified.  Bindings are triangular: a variable may
+ * be bound to a term with other bound variables, and deref() and
+ * instantiate() follow the chain.  Every binding is pushed on a trail,
+ * so that a failed unification, or a caller that is done with the
+ * result, can undo the bindings back to a mark().
+ *
+ * Each term is unified in one of BANKS variable banks, and X in bank 0
+ * is a different variable from X in bank 1.  This renames the premises
+ * of an inference apart without copying them: the given clause is
+ * unified in bank 0 and its partner in bank 1.  While renaming is on,
+ * instantiate() gives the unbound variables of the conclusion new names
+ * X0, X1, ... so that the conclusion is in a single bank again.
+ *
+ * The binding array grows with the symbol table, so a Unifier is meant
+ * to be reused.  get() returns one per thread.  Callers take a mark()
+ * first and undo() to it when they are done, so that a caller further
+ * up the stack keeps its own bindings.
+ */
+public class Unifier {
+
+    public static final int BANKS = 2;
+
+    private Term[] bindings = new Term[512];      // by index(), null if unbound
+    private int[] bindingBanks = new int[512];    // the bank of the bound term
+    private Term[] trail = new Term[64];          // the bound variables, in order
+    private int[] trailBanks = new int[64];
+    private int trailSize = 0;
+    private Term[] stack = new Term[64];          // pairs of terms still to unify
+    private int[] stackBanks = new int[64];
+    private int stackSize = 0;
+    private int derefBank = 0;                    // the bank of the last result of deref()
+
+    private boolean renaming = false;             // see startRenaming()
+    private int stamp = 0;                        // renameStamp[i] == stamp if i has a new name
+    private int[] renameStamp = new int[512];     // by index()
+    private int[] renameNumber = new int[512];    // by index(), the number of the new name
+    private Term[] renamedVars = new Term[16];    // the renamed variables, in order
+    private int[] renamedBanks = new int[16];
+    private Term[] renamedTerms = new Term[16];   // and their new names
+    private int renamedCount = 0;
+
+    private static String[] varNames = new String[64];
+
+    private static ThreadLocal<Unifier> unifiers = ThreadLocal.withInitial(Unifier::new);
+
+    static {
+        for (int i = 0; i < varNames.length; i++)
+            varNames[i] = "X" + i;
+    }
+
+    /** ***************************************************************
+     * @return the Unifier of the calling thread.
+     */
+    public static Unifier get() {
+
+        return unifiers.get();
+    }
+
+    /** ***************************************************************
+     * @return the position of a variable of a bank in the arrays.
+     */
+    private static int index(Term var, int bank) {
+
+        return var.getFuncId() * BANKS + bank;
+    }
+
+    /** ***************************************************************
+     * @return the binding at the index, or null if it is unbound.
+     */
+    private Term binding(int idx) {
+
+        return idx < bindings.length ? bindings[idx] : null;
+    }
+
+    /** ***************************************************************
+     */
+    private void bind(Term var, int bank, Term value, int valueBank) {
+
+        int idx = index(var, bank);
+        if (idx >= bindings.length) {
+            int size = Math.max(idx + 1, bindings.length * 2);
+            bindings = Arrays.copyOf(bindings, size);
+            bindingBanks = Arrays.copyOf(bindingBanks, size);
+        }
+        bindings[idx] = value;
+        bindingBanks[idx] = valueBank;
+        if (trailSize == trail.length) {
+            trail = Arrays.copyOf(trail, trailSize * 2);
+            trailBanks = Arrays.copyOf(trailBanks, trailSize * 2);
+        }
+        trail[trailSize] = var;
+        trailBanks[trailSize++] = bank;
+    }
+
+    /** ***************************************************************
+     * Follow the bindings of a variable until an unbound variable or
+     * a non-variable term.  The bank of the result is left in derefBank.
+     */
+    private Term deref(Term t, int bank) {
+
+        while (t.isVar()) {
+            int idx = index(t, bank);
+            Term b = binding(idx);
+            if (b == null)
+                break;
+            bank = bindingBanks[idx];
+            t = b;
+        }
+        derefBank = bank;
+        return t;
+    }
+
+    /** ***************************************************************
+     * @return true if var is bound in bank 0.
+     */
+    public boolean isBound(Term var) {
+
+        return isBound(var, 0);
+    }
+
+    /** ***************************************************************
+     * @return true if var is bound in the bank.
+     */
+    public boolean isBound(Term var, int bank) {
+
+        return binding(index(var, bank)) != null;
+    }
+
+    /** ***************************************************************
+     * @return a mark to undo() the bindings made after this call.
+     */
+    public int mark() {
+
+        return trailSize;
+    }
+
+    /** ***************************************************************
+     * Undo all bindings made since the mark.
+     */
+    public void undo(int mark) {
+
+        while (trailSize > mark) {
+            Term var = trail[--trailSize];
+            trail[trailSize] = null;
+            bindings[index(var, trailBanks[trailSize])] = null;
+        }
+    }
+
+    /** ***************************************************************
+     * Undo all bindings and stop renaming.
+     */
+    public void reset() {
+
+        undo(0);
+        stackSize = 0;
+        stopRenaming();
+    }
+
+    /** ***************************************************************
+     * From now on, have instantiate() give the unbound variables of all
+     * banks the new names X0, X1, ... in the order in which it meets
+     * them, so that the terms it returns can't share a variable by
+     * accident.
+     */
+    public void startRenaming() {
+
+        renaming = true;
+        stamp++;
+        renamedCount = 0;
+    }
+
+    /** ***************************************************************
+     * Have instantiate() leave the unbound variables alone again.
+     */
+    public void stopRenaming() {
+
+        renaming = false;
+        for (int i = 0; i < renamedCount; i++) {
+            renamedVars[i] = null;
+            renamedTerms[i] = null;
+        }
+        renamedCount = 0;
+    }
+
+    /** ***************************************************************
+     * @return the new name of an unbound variable.
+     */
+    private Term rename(Term var, int bank, int idx) {
+
+        if (idx >= renameStamp.length) {
+            int size = Math.max(idx + 1, renameStamp.length * 2);
+            renameStamp = Arrays.copyOf(renameStamp, size);
+            renameNumber = Arrays.copyOf(renameNumber, size);
+        }
+        if (renameStamp[idx] != stamp) {
+            if (renamedCount == renamedVars.length) {
+                renamedVars = Arrays.copyOf(renamedVars, renamedCount * 2);
+                renamedBanks = Arrays.copyOf(renamedBanks, renamedCount * 2);
+                renamedTerms = Arrays.copyOf(renamedTerms, renamedCount * 2);
+            }
+            renameStamp[idx] = stamp;
+            renameNumber[idx] = renamedCount;
+            renamedVars[renamedCount] = var;
+            renamedBanks[renamedCount] = bank;
+            String name = renamedCount < varNames.length ? varNames[renamedCount] : "X" + renamedCount;
+            renamedTerms[renamedCount++] = new Term(name);
+        }
+        return renamedTerms[renameNumber[idx]];
+    }
+
+    /** ***************************************************************
+     * Determine if the unbound variable var of bank vbank occurs in t
+     * under the current bindings.
+     */
+    private boolean occurs(Term var, int vbank, Term t, int bank) {
+
+        t = deref(t, bank);
+        bank = derefBank;
+        if (t.isVar())
+            return bank == vbank && t.t.equals(var.t);
+        for (int i = 0; i < t.subterms.size(); i++)
+            if (occurs(var, vbank, t.subterms.get(i), bank))
+                return true;
+        return false;
+    }
+
+    /** ***************************************************************
+     */
+    private void push(Term s, int sBank, Term t, int tBank) {
+
+        if (stackSize + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+            stackBanks = Arrays.copyOf(stackBanks, stack.length);
+        }
+        stackBanks[stackSize] = sBank;
+        stack[stackSize++] = s;
+        stackBanks[stackSize] = tBank;
+        stack[stackSize++] = t;
+    }
+
+    /** ***************************************************************
+     * Extend the current bindings to a most general unifier of s and t,
+     * both in bank 0.
+     * @return true if s and t are unifiable.
+     */
+    public boolean unify(Term s, Term t) {
+
+        return unify(s, 0, t, 0);
+    }
+
+    /** ***************************************************************
+     * Extend the current bindings to a most general unifier of s in
+     * sBank and t in tBank.  On failure, the bindings are left as they
+     * were before the call.
+     * @return true if s and t are unifiable.
+     */
+    public boolean unify(Term s, int sBank, Term t, int tBank) {
+
+        ProofContext context = ProofContext.current();
+        int mark = trailSize;
+        int base = stackSize;
+        push(s, sBank, t, tBank);
+        try {
+            return unifyStack(context, mark, base);
+        }
+        catch (DeadlineException e) {
+            fail(mark, base);
+            throw e;
+        }
+    }
+
+    /** ***************************************************************
+     * Solve the pairs on the stack above base.
+     */
+    private boolean unifyStack(ProofContext context, int mark, int base) {
+
+        while (stackSize > base) {
+            context.checkDeadline();
+            Term t2 = deref(stack[--stackSize], stackBanks[stackSize]);
+            int b2 = derefBank;
+            Term t1 = deref(stack[--stackSize], stackBanks[stackSize]);
+            int b1 = derefBank;
+            stack[stackSize] = null;
+            stack[stackSize + 1] = null;
+            if (t1 == t2 && (b1 == b2 || t1.isGround()))
+                continue;
+            if (t1.isVar()) {
+                if (t2.isVar() && b1 == b2 && t1.t.equals(t2.t))
+                    continue;
+                if (occurs(t1, b1, t2, b2)) {
+                    fail(mark, base);
+                    return false;
+                }
+                bind(t1, b1, t2, b2);
+            }
+            else if (t2.isVar()) {
+                if (occurs(t2, b2, t1, b1)) {
+                    fail(mark, base);
+                    return false;
+                }
+                bind(t2, b2, t1, b1);
+            }
+            else {
+                // For f(s1, ..., sn) = g(t1, ..., tn), first f and g have to
+                // be equal, and then si=ti has to be solved for all i.
+                int n = t1.subterms.size();
+                if (n != t2.subterms.size() || !t1.t.equals(t2.t)) {
+                    fail(mark, base);
+                    return false;
+                }
+                for (int i = n - 1; i >= 0; i--)
+                    push(t1.subterms.get(i), b1, t2.subterms.get(i), b2);
+            }
+        }
+        return true;
+    }
+
+    /** ***************************************************************
+     */
+    private void fail(int mark, int base) {
+
+        while (stackSize > base)
+            stack[--stackSize] = null;
+        undo(mark);
+    }
+
+    /** ***************************************************************
+     * Extend the current bindings to a match of pattern onto target:
+     * bind the variables of pattern, in bank 0, so that instantiating
+     * pattern gives target.  The variables of target are taken as
+     * constants, so they may have the same names as those of pattern.
+     * On failure, the bindings are left as they were before the call.
+     * @return true if pattern matches target.
+     */
+    public boolean match(Term pattern, Term target) {
+
+        int mark = trailSize;
+        if (matchTerm(pattern, target))
+            return true;
+        undo(mark);
+        return false;
+    }
+
+    /** ***************************************************************
+     */
+    private boolean matchTerm(Term pattern, Term target) {
+
+        if (pattern.isVar()) {
+            Term b = binding(index(pattern, 0));
+            if (b == null) {
+                bind(pattern, 0, target, 1);
+                return true;
+            }
+            return b == target || b.equals(target);
+        }
+        int n = pattern.subterms.size();
+        if (target.isVar() || n != target.subterms.size() || !pattern.t.equals(target.t))
+            return false;
+        for (int i = 0; i < n; i++)
+            if (!matchTerm(pattern.subterms.get(i), target.subterms.get(i)))
+                return false;
+        return true;
+    }
+
+    /** ***************************************************************
+     * Apply the bindings to a term in bank 0.
+     */
+    public Term instantiate(Term t) {
+
+        return instantiate(t, 0);
+    }
+
+    /** ***************************************************************
+     * Apply the bindings to a term in the bank.  Subterms without
+     * variables that are bound or renamed are not copied, so the result
+     * may share them with t.  Without renaming, unbound variables are
+     * returned as they are, whatever their bank.
+     */
+    public Term instantiate(Term t, int bank) {
+
+        if (t.isVar()) {
+            int idx = index(t, bank);
+            Term b = binding(idx);
+            if (b != null)
+                return instantiate(b, bindingBanks[idx]);
+            return renaming ? rename(t, bank, idx) : t;
+        }
+        ArrayList<Term> args = null;
+        for (int i = 0; i < t.subterms.size(); i++) {
+            Term s = t.subterms.get(i);
+            Term n = instantiate(s, bank);
+            if (n != s && args == null)
+                args = new ArrayList<Term>(t.subterms.subList(0, i));
+            if (args != null)
+                args.add(n);
+        }
+        if (args == null)
+            return t;
+        Term result = new Term(t.t);
+        result.subterms = args;
+        return result;
+    }
+
+    /** ***************************************************************
+     * Apply the bindings to a literal in bank 0.
+     */
+    public Literal instantiate(Literal l) {
+
+        return instantiate(l, 0);
+    }
+
+    /** ***************************************************************
+     * Apply the bindings to a literal in the bank.  The result is a new
+     * literal, as with Literal.instantiate(), but it may share subterms
+     * with l.
+     */
+    public Literal instantiate(Literal l, int bank) {
+
+        Literal result = new Literal();
+        result.atom = instantiate(l.atom, bank);
+        result.negated = l.negated;
+        result.inferenceLit = true;
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the current bindings as a fully expanded substitution.
+     */
+    public Substitutions toSubstitutions() {
+
+        return toSubstitutions(0);
+    }
+
+    /** ***************************************************************
+     * @return the bindings made since the mark as a fully expanded
+     * substitution.  Variables of different banks with the same name
+     * are not told apart.
+     */
+    public Substitutions toSubstitutions(int mark) {
+
+        Substitutions result = new Substitutions();
+        for (int i = mark; i < trailSize; i++)
+            result.addSubst(trail[i], instantiate(trail[i], trailBanks[i]));
+        return result;
+    }
+
+    /** ***************************************************************
+     * @return the values of the variables of one bank: the bindings made
+     * since the mark, fully expanded, and the new names of the renamed
+     * variables.  This says where each variable of a premise went in the
+     * conclusion, which is what answer extraction follows.
+     */
+    public Substitutions toSubstitutions(int mark, int bank) {
+
+        Substitutions result = new Substitutions();
+        for (int i = mark; i < trailSize; i++)
+            if (trailBanks[i] == bank)
+                result.addSubst(trail[i], instantiate(trail[i], bank));
+        for (int i = 0; i < renamedCount; i++)
+            if (renamedBanks[i] == bank)
+                result.addSubst(renamedVars[i], renamedTerms[i]);
+        return result;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import java.util.*;
+
+/** ***************************************************************
+ * A hash set of clauses up to variable renaming and the order of
+ * their literals.  Each clause is stored as a canonical string: the
+ * literals sorted by their text with all variables written as "_", and
+ * then printed with the variables numbered by their first occurrence.
+ * Two clauses with the same key are variants of each other.  Literals
+ * that only differ in their variables, as in p(X,Y)|p(Y,X), keep their
+ * order, so a few variants of such clauses get different keys and are
+ * not recognized.
+ */
+public class VariantIndex {
+
+    private HashSet<String> keys = new HashSet<>();
+
+    /** ***************************************************************
+     * Append t to sb, with "_" for every variable if vars is null, or
+     * else with the variables numbered in the order of vars, which
+     * collects them as they are met.
+     */
+    private static void appendTerm(StringBuilder sb, Term t, ArrayList<String> vars) {
+
+        if (t.isVar()) {
+            if (vars == null) {
+                sb.append('_');
+                return;
+            }
+            int n = vars.indexOf(t.t);
+            if (n < 0) {
+                n = vars.size();
+                vars.add(t.t);
+            }
+            sb.append('X').append(n);
+            return;
+        }
+        sb.append(t.t);
+        if (t.subterms.size() > 0) {
+            sb.append('(');
+            for (int i = 0; i < t.subterms.size(); i++) {
+                if (i > 0)
+                    sb.append(',');
+                appendTerm(sb, t.subterms.get(i), vars);
+            }
+            sb.append(')');
+        }
+    }
+
+    /** ***************************************************************
+     * @return the canonical form of the clause.
+     */
+    public static String key(Clause c) {
+
+        int n = c.literals.size();
+        String[] skeletons = new String[n];
+        Integer[] order = new Integer[n];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            Literal l = c.literals.get(i);
+            sb.setLength(0);
+            if (l.isNegative())
+                sb.append('~');
+            appendTerm(sb, l.atom, null);
+            skeletons[i] = sb.toString();
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> skeletons[i1].compareTo(skeletons[i2]));  // stable
+        sb.setLength(0);
+        ArrayList<String> vars = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Literal l = c.literals.get(order[i]);
+            if (i > 0)
+                sb.append('|');
+            if (l.isNegative())
+                sb.append('~');
+            appendTerm(sb, l.atom, vars);
+        }
+        return sb.toString();
+    }
+
+    /** ***************************************************************
+     * Add the clause to the index.
+     * @return true if no variant of the clause was in the index.
+     */
+    public boolean add(Clause c) {
+
+        return keys.add(key(c));
+    }
+
+    /** ***************************************************************
+     * @return true if a variant of the clause is in the index.
+     */
+    public boolean contains(Clause c) {
+
+        return keys.contains(key(c));
+    }
+
+    /** ***************************************************************
+     * Remove the variants of the clause from the index.
+     */
+    public void remove(Clause c) {
+
+        keys.remove(key(c));
+    }
+
+    /** ***************************************************************
+     */
+    public int size() {
+
+        return keys.size();
+    }
+}
@@ -0,0 +1,299 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class ClauseCacheTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    public static String axioms = "fof(ax1, axiom, ![X]:?[Y]:(p(X) => q(X,Y))).\n" +
+            "cnf(ax2, axiom, p(a)|r(X)).\n" +
+            "fof(ax3, axiom, ![X]:(r(X) | ?[Z]:(s(Z) & t(X,Z)))).\n" +
+            "fof(ax4, axiom, (p(a) <=> (q(a,b) & ~r(c)))).\n";
+
+    public static String problem = "% Status   : Theorem\n" +
+            "fof(ax5, axiom, ?[U]:![V]:?[W]:(s(U) | (t(V,W) & p(W)))).\n" +
+            "include('ax.ax').\n" +
+            "cnf(ax6, axiom, ~s(X)|p(X)).\n" +
+            "fof(goal, conjecture, ?[X]:?[Y]:(q(X,Y) & ~r(Y))).\n";
+
+    private Path dir = null;
+    private File problemFile = null;
+    private File axiomFile = null;
+    private String oldInclude = null;
+
+    /** ***************************************************************
+     */
+    @Before
+    public void setUp() throws IOException {
+
+        dir = Files.createTempDirectory("ClauseCacheTest");
+        axiomFile = dir.resolve("ax.ax").toFile();
+        problemFile = dir.resolve("prob.p").toFile();
+        Files.write(axiomFile.toPath(),axioms.getBytes("UTF-8"));
+        Files.write(problemFile.toPath(),problem.getBytes("UTF-8"));
+        oldInclude = Formula.includePath;
+        Formula.includePath = dir.toString();
+    }
+
+    /** ***************************************************************
+     */
+    @After
+    public void tearDown() throws IOException {
+
+        ClauseCache.directory = null;
+        Formula.includePath = oldInclude;
+        Files.walk(dir).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+
+    /** ***************************************************************
+     * @return the clauses of the problem, with their derivations, read
+     * in a new context with the given cache directory and number of
+     * threads, followed by the counters of the context.
+     */
+    private ArrayList<String> read(String cache, int threads) {
+
+        return read(problemFile,cache,threads);
+    }
+
+    /** ***************************************************************
+     * As above, for the problem in the given file.
+     */
+    private ArrayList<String> read(File problem, String cache, int threads) {
+
+        ProofContext previous = ProofContext.enter(new ProofContext());
+        int oldThreads = Formula.clausifyThreads;
+        boolean oldPrint = Derivable.printDerivation;
+        Formula.clausifyThreads = threads;
+        ClauseCache.directory = cache;
+        Derivable.enableDerivationOutput();
+        try {
+            ArrayList<String> result = new ArrayList<>();
+            ClauseSet cs = Formula.file2clauses(problem.getPath(),10);
+            assertTrue(cs.hasConjecture);
+            assertTrue(cs.isFOF);
+            assertEquals("Theorem",cs.SZSexpected);
+            for (Clause c : cs.clauses)
+                result.add(c.toString() + " " + c.support);
+            ProofContext context = ProofContext.current();
+            result.add("counters: " + context.varCounter + " " + context.axiomCounter + " " +
+                    context.skolemCount + " " + context.definitionCounter + " " +
+                    context.formulaIdCounter + " " + context.derivedIdCounter);
+            return result;
+        }
+        finally {
+            Derivable.printDerivation = oldPrint;
+            Formula.clausifyThreads = oldThreads;
+            ClauseCache.directory = null;
+            ProofContext.leave(previous);
+        }
+    }
+
+    /** ***************************************************************
+     * @return the number of entries in the cache directory.
+     */
+    private int entries() {
+
+        File[] files = dir.resolve("cache").toFile().listFiles((d, name) -> name.endsWith(".ccache"));
+        return files == null ? 0 : files.length;
+    }
+
+    /** ***************************************************************
+     * Test that the clauses read from the cache are those of the file,
+     * names and derivations included, also when the cached statements
+     * follow others, with one thread and with several.
+     */
+    @Test
+    public void testCache() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testCache()");
+        String cache = dir.resolve("cache").toString();
+        ArrayList<String> expected = read(null,1);
+        System.out.println("expected: " + expected);
+        assertEquals(0,entries());
+        assertEquals(expected,read(cache,1));  // stores the problem and the axioms
+        assertEquals(2,entries());
+        assertEquals(expected,read(cache,1));
+        assertEquals(expected,read(cache,3));
+        assertEquals(2,entries());
+        assertTrue(ClauseCache.load(axiomFile) == null);  // not enabled
+        ClauseCache.directory = cache;
+        ClauseCache.Entry entry = ClauseCache.load(axiomFile);
+        assertNotNull(entry);
+        assertEquals(4,entry.statements.size());
+        assertFalse(entry.header.hasConjecture);
+    }
+
+    /** ***************************************************************
+     * Test that a changed include file is read again.
+     */
+    @Test
+    public void testInvalidation() throws IOException {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testInvalidation()");
+        String cache = dir.resolve("cache").toString();
+        ArrayList<String> before = read(cache,1);
+        assertEquals(before,read(cache,1));
+        Files.write(axiomFile.toPath(),(axioms + "fof(ax7, axiom, ![X]:(t(X,X) | ?[Y]:s(Y))).\n").getBytes("UTF-8"));
+        ArrayList<String> expected = read(null,1);
+        assertNotEquals(before,expected);
+        assertEquals(expected,read(cache,1));
+        assertEquals(expected,read(cache,2));
+        assertEquals(2,entries());  // the stale entries were replaced
+    }
+
+    /** ***************************************************************
+     * Test that a file with a new modification time is only read again
+     * if its content has changed too.
+     */
+    @Test
+    public void testModified() throws IOException {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testModified()");
+        String cache = dir.resolve("cache").toString();
+        ArrayList<String> before = read(cache,1);
+        long modified = axiomFile.lastModified();
+        assertTrue(axiomFile.setLastModified(modified - 10000));  // touched, the same content
+        ClauseCache.directory = cache;
+        assertNotNull(ClauseCache.load(problemFile));
+        assertEquals(before,read(cache,1));
+
+        // the same size, another content and modification time
+        Files.write(axiomFile.toPath(),axioms.replace("p(a)|r(X)","p(b)|r(X)").getBytes("UTF-8"));
+        assertTrue(axiomFile.setLastModified(modified + 10000));
+        ClauseCache.directory = cache;
+        assertNull(ClauseCache.load(problemFile));
+        ArrayList<String> expected = read(null,1);
+        assertNotEquals(before,expected);
+        assertEquals(expected,read(cache,1));
+    }
+
+    /** ***************************************************************
+     * Test that reading an entry stops when the work is cancelled.
+     */
+    @Test
+    public void testDeadline() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testDeadline()");
+        String cache = dir.resolve("cache").toString();
+        read(cache,1);
+        ClauseCache.directory = cache;
+        ProofContext context = new ProofContext();
+        context.cancelled = true;
+        ProofContext previous = ProofContext.enter(context);
+        try {
+            ClauseCache.load(problemFile);
+            fail("expected a DeadlineException");
+        }
+        catch (DeadlineException de) {
+            // expected
+        }
+        finally {
+            ProofContext.leave(previous);
+        }
+    }
+
+    /** ***************************************************************
+     * Test that input symbols that look like generated ones are kept,
+     * when the file is cached and when it is read from the cache.
+     */
+    @Test
+    public void testInputSymbols() throws IOException {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testInputSymbols()");
+        Files.write(axiomFile.toPath(),"fof(a1, axiom, ![X]:(p(X) | r(X))).\n".getBytes("UTF-8"));
+        Files.write(problemFile.toPath(),("% Status   : Theorem\n" +
+                "include('ax.ax').\n" +
+                "fof(a2, axiom, ![X]:q(X,skf0)).\n" +
+                "fof(g, conjecture, ?[Y]:q(Y,skf0)).\n").getBytes("UTF-8"));
+        String cache = dir.resolve("cache").toString();
+        ArrayList<String> expected = read(null,1);
+        System.out.println("expected: " + expected);
+        assertTrue(expected.toString().contains("q(VAR1,skf0)"));
+        assertEquals(expected,read(cache,1));  // stores
+        assertEquals(2,entries());
+        assertEquals(expected,read(cache,1));  // loads
+    }
+
+    /** ***************************************************************
+     * Test that an entry covers the files that an included file
+     * includes in turn, also when the included file came from the
+     * cache.
+     */
+    @Test
+    public void testNestedInclude() throws IOException {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testNestedInclude()");
+        File inner = dir.resolve("c.ax").toFile();
+        Files.write(inner.toPath(),"cnf(c1, axiom, p(a)).\n".getBytes("UTF-8"));
+        Files.write(axiomFile.toPath(),"include('c.ax').\n".getBytes("UTF-8"));
+        File second = dir.resolve("prob2.p").toFile();
+        Files.write(second.toPath(),problem.getBytes("UTF-8"));
+        String cache = dir.resolve("cache").toString();
+        read(cache,1);  // caches prob.p, ax.ax and c.ax
+        read(second,cache,1);  // ax.ax comes from the cache
+        assertEquals(4,entries());
+        Files.write(inner.toPath(),"cnf(c1, axiom, q(b)).\n".getBytes("UTF-8"));
+        ArrayList<String> expected = read(second,null,1);
+        assertTrue(expected.toString().contains("q(b)"));
+        assertEquals(expected,read(second,cache,1));
+        assertEquals(expected,read(second,cache,1));
+    }
+
+    /** ***************************************************************
+     * Test that the clausifier options are part of the key.
+     */
+    @Test
+    public void testSettings() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ClauseCacheTest.testSettings()");
+        String cache = dir.resolve("cache").toString();
+        read(cache,1);
+        boolean oldDef = Formula.definitionalCNF;
+        int oldLimit = Formula.definitionLimit;
+        Formula.definitionalCNF = true;
+        Formula.definitionLimit = 1;
+        try {
+            ArrayList<String> expected = read(null,1);
+            System.out.println("expected: " + expected);
+            assertTrue(expected.toString().contains("def0"));
+            assertEquals(expected,read(cache,1));
+            assertEquals(4,entries());
+            assertEquals(expected,read(cache,1));
+        }
+        finally {
+            Formula.definitionalCNF = oldDef;
+            Formula.definitionLimit = oldLimit;
+        }
+    }
+}
@@ -163,7 +163,7 @@ public class ClauseTest {
 
         System.out.println("------------------------");
         System.out.println("INFO in ClauseTest.testWeights(): ");
-        Clause cf = c1.freshVarCopy();
+        Clause cf = c1.normalizeVarCopy();
         assertEquals(cf.weight(2,1), c1.weight(2,1));
         assertEquals(cf.weight(1,1), c1.weight(1,1));
     }
@@ -253,8 +253,8 @@ public class ClauseTest {
         else
             System.out.println("success: all marked for inference in " + c2);
         assertTrue(c2.allMarkedForInference());
-        c2.freshVarCopy();
-        System.out.println("after fresh var copy");
+        c2.normalizeVarCopy();
+        System.out.println("after normalized var copy");
         if (!c2.allMarkedForInference())
             System.out.println("testInfLits: Error " + c2 + " is all positive literals and not all marked for inference");
         else
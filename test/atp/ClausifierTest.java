@@ -232,7 +232,7 @@ public class ClausifierTest {
     @Test
     public void testSkolemization() {
 
-        Clausifier.varCounter = 0;
+        ProofContext.current().varCounter = 0;
         BareFormula.level = 0;
         System.out.println();
         System.out.println("================== testSkolemization ======================");
@@ -296,7 +296,7 @@ public class ClausifierTest {
 
         KIF.init();
         BareFormula.level = 0;
-        Clausifier.varCounter = 0;
+        ProofContext.current().varCounter = 0;
         System.out.println();
         System.out.println("================== testClausification ======================");
         System.out.println("input: " + s);
@@ -388,7 +388,7 @@ public class ClausifierTest {
     @Test
     public void testClausification() {
 
-        Clausifier.varCounter = 0;
+        ProofContext.current().varCounter = 0;
         testClausificationSteps("(![Fluent]:(![Time]:(((holdsAt(Fluent, Time)&(~releasedAt(Fluent, plus(Time, n1))))&" +
                 "(~(?[Event]:(happens(Event, Time)&terminates(Event, Fluent, Time)))))=>holdsAt(Fluent, plus(Time, n1)))))).");
     }
@@ -398,7 +398,7 @@ public class ClausifierTest {
     @Test
     public void testClausificationSimple() {
 
-        Clausifier.varCounter = 0;
+        ProofContext.current().varCounter = 0;
         BareFormula.level = 0; // reset counter that traps too many levels
         System.out.println();
         System.out.println("================== testClausificationSimple ======================");
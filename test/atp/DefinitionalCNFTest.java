@@ -0,0 +1,129 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class DefinitionalCNFTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    public static String chainForm = "(p1 <=> (p2 <=> (p3 <=> (p4 <=> (p5 <=> (p6 <=> (p7 <=> p8)))))))";
+    public static String chain = "fof(chain, axiom, " + chainForm + ").\n";
+    public static String spec1 = "fof(chain, axiom, ![X]:(p1(X) <=> (p2(X) <=> (p3(X) <=> (p4(X) <=> p5(X)))))).\n" +
+            "fof(facts, axiom, (p2(a) & p3(a) & p4(a) & p5(a))).\n" +
+            "fof(goal, conjecture, p1(a)).\n";
+
+    /** ***************************************************************
+     */
+    @BeforeClass
+    public static void setup() {
+
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+    }
+
+    /** ***************************************************************
+     * @return the clauses of spec, with or without definitions.
+     */
+    private static ClauseSet clausify(String spec, boolean definitional, int limit) {
+
+        boolean oldDef = Formula.definitionalCNF;
+        int oldLimit = Formula.definitionLimit;
+        boolean oldSmall = Formula.smallCNF;
+        Formula.definitionalCNF = definitional;
+        Formula.definitionLimit = limit;
+        Formula.smallCNF = true;
+        try {
+            return Formula.string2clauses(spec,10);
+        }
+        finally {
+            Formula.definitionalCNF = oldDef;
+            Formula.definitionLimit = oldLimit;
+            Formula.smallCNF = oldSmall;
+        }
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testClauseCount() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DefinitionalCNFTest.testClauseCount()");
+        BareFormula f = BareFormula.string2form("(a<=>b)");
+        assertEquals(2,DefinitionalCNF.clauseCount(f,true));
+        assertEquals(2,DefinitionalCNF.clauseCount(f,false));
+        f = BareFormula.string2form("((a|b)&(c|d))");
+        assertEquals(2,DefinitionalCNF.clauseCount(f,true));
+        assertEquals(4,DefinitionalCNF.clauseCount(f,false));
+        f = BareFormula.string2form("((a&b)|(c&d))");
+        assertEquals(4,DefinitionalCNF.clauseCount(f,true));
+        f = BareFormula.string2form("(~(a&b) => ![X]:(c(X)&d))");
+        assertEquals(4,DefinitionalCNF.clauseCount(f,true));
+        f = BareFormula.string2form(chainForm);
+        assertEquals(128,DefinitionalCNF.clauseCount(f,true));
+    }
+
+    /** ***************************************************************
+     * Test that a chain of equivalences, which has 2^7 clauses, gets
+     * far fewer with definitions, none of them larger than the limit
+     * allows.
+     */
+    @Test
+    public void testEquivalenceChain() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DefinitionalCNFTest.testEquivalenceChain()");
+        ClauseSet plain = clausify(chain,false,8);
+        ClauseSet defs = clausify(chain,true,8);
+        System.out.println("plain: " + plain.length());
+        System.out.println("definitional: " + defs);
+        assertEquals(128,plain.length());
+        assertTrue(defs.length() < 40);
+        boolean named = false;
+        for (Clause c : defs.clauses) {
+            assertTrue(c.length() <= 4);
+            named = named || c.toString().contains("def");
+        }
+        assertTrue(named);
+        assertEquals(plain.length(),clausify(chain,true,128).length());
+    }
+
+    /** ***************************************************************
+     * Test that the definitions keep the problem provable.
+     */
+    @Test
+    public void testProof() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DefinitionalCNFTest.testProof()");
+        ClauseSet cs = clausify(spec1,true,2);
+        System.out.println("clauses: " + cs);
+        assertTrue(cs.toString().contains("def"));
+        SearchParams params = new SearchParams();
+        params.delete_tautologies = true;
+        ProofState state = new ProofState(cs,params);
+        Clause res = state.saturate(10000);
+        assertNotNull(res);
+        assertTrue(res.isEmpty());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class DemodulationIndexTest {
+
+    /** ***************************************************************
+     */
+    private static DemodulationIndex index() {
+
+        Precedence p = new Precedence();
+        for (String f : new String[] {"a", "b", "c", "f", "g", "h", "p"})
+            p.add(f);
+        return new DemodulationIndex(new KBO(p));
+    }
+
+    /** ***************************************************************
+     * Test that only positive unit equations are indexed.
+     */
+    @Test
+    public void testInsert() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DemodulationIndexTest.testInsert()");
+        DemodulationIndex idx = index();
+        assertTrue(idx.insertClause(Clause.string2Clause("cnf(c,axiom,f(X)=a).")));
+        assertFalse(idx.insertClause(Clause.string2Clause("cnf(c,axiom,~f(X)=a).")));
+        assertFalse(idx.insertClause(Clause.string2Clause("cnf(c,axiom,f(X)=a|p(X)).")));
+        assertFalse(idx.insertClause(Clause.string2Clause("cnf(c,axiom,p(a)).")));
+        assertFalse(idx.insertClause(Clause.string2Clause("cnf(c,axiom,X=X).")));
+        assertEquals(1, idx.size());
+        Clause c = Clause.string2Clause("cnf(c,axiom,g(X)=b).");
+        idx.insertClause(c);
+        assertEquals(2, idx.size());
+        idx.removeClause(c);
+        assertEquals(1, idx.size());
+    }
+
+    /** ***************************************************************
+     * Test rewriting to normal form, with oriented and unoriented
+     * equations.
+     */
+    @Test
+    public void testDemodulate() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DemodulationIndexTest.testDemodulate()");
+        DemodulationIndex idx = index();
+        idx.insertClause(Clause.string2Clause("cnf(c,axiom,f(X)=g(X))."));  // g(X) > f(X)
+        idx.insertClause(Clause.string2Clause("cnf(c,axiom,f(a)=b)."));
+        Clause res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,p(g(a))|~p(h(g(Y))))."));
+        System.out.println("result: " + res);
+        assertEquals("p(b)|~p(h(f(Y)))", Literal.literalList2String(res.literals));
+        assertEquals("demodulation", res.rationale);
+        assertEquals(3, res.support.size());
+        assertNull(idx.demodulate(Clause.string2Clause("cnf(c,axiom,p(h(a))).")));
+
+        // commutativity only rewrites to smaller instances
+        idx = index();
+        idx.insertClause(Clause.string2Clause("cnf(c,axiom,h(X,Y)=h(Y,X))."));
+        res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,p(h(a,b)))."));
+        System.out.println("result: " + res);
+        assertNull(res);
+        res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,p(h(b,a)))."));
+        System.out.println("result: " + res);
+        assertEquals("p(h(a,b))", Literal.literalList2String(res.literals));
+    }
+
+    /** ***************************************************************
+     * Test that a positive equation is not rewritten at the top of a
+     * side by a variant of that side, unless that makes it smaller.
+     */
+    @Test
+    public void testEncompassment() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DemodulationIndexTest.testEncompassment()");
+        DemodulationIndex idx = index();
+        idx.insertClause(Clause.string2Clause("cnf(c,axiom,f(X)=c)."));
+        assertNull(idx.demodulate(Clause.string2Clause("cnf(c,axiom,f(Y)=b).")));  // c is not smaller than b
+        Clause res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,f(Y)=g(b))."));  // c < g(b)
+        System.out.println("result: " + res);
+        assertEquals("c=g(b)", Literal.literalList2String(res.literals));
+        res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,f(b)=a)."));  // a strict instance
+        System.out.println("result: " + res);
+        assertEquals("c=a", Literal.literalList2String(res.literals));
+        res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,~f(Y)=b)."));  // not a positive equation
+        assertEquals("~c=b", Literal.literalList2String(res.literals));
+        res = idx.demodulate(Clause.string2Clause("cnf(c,axiom,g(f(Y))=b)."));  // not at the top
+        assertEquals("g(c)=b", Literal.literalList2String(res.literals));
+    }
+
+    /** ***************************************************************
+     * Test finding the clauses that a new equation rewrites.
+     */
+    @Test
+    public void testRewritable() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in DemodulationIndexTest.testRewritable()");
+        DemodulationIndex idx = index();
+        ClauseSet cs = new ClauseSet();
+        Clause eq = Clause.string2Clause("cnf(c,axiom,f(X)=c).");
+        for (String s : new String[] {"cnf(c,axiom,p(f(b))).", "cnf(c,axiom,p(g(X))).",
+                                      "cnf(c,axiom,~p(h(f(c)))|p(X)).", "cnf(c,axiom,f(Y)=b)."})
+            cs.addClause(Clause.string2Clause(s));
+        cs.addClause(eq);
+        ArrayList<Clause> res = idx.rewritable(eq, cs);
+        System.out.println("result: " + res);
+        assertEquals(2, res.size());
+        assertSame(cs.get(0), res.get(0));
+        assertSame(cs.get(2), res.get(1));
+        assertTrue(eq.supportsClauses.isEmpty());
+        assertEquals(0, idx.rewritable(Clause.string2Clause("cnf(c,axiom,p(a))."), cs).size());
+    }
+}
@@ -22,6 +22,8 @@ package atp;
 
 import org.junit.*;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.*;
 import static org.junit.Assert.*;
 
@@ -462,4 +464,49 @@ public class FormulaTest {
             System.out.println("fail");
         assertEquals(expected,cs.toString().trim());
     }
+
+    /** ***************************************************************
+     * Test that the clauses of a file, and of the files it includes,
+     * are streamed to a consumer in the order in which they are
+     * collected otherwise.
+     */
+    @Test
+    public void testStreaming() throws Exception {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in FormulaTest.testStreaming()");
+        File dir = Files.createTempDirectory("formulatest").toFile();
+        File ax = new File(dir, "ax.p");
+        File problem = new File(dir, "problem.p");
+        Files.write(ax.toPath(), ("cnf(ax1,axiom,p(a)|q(X)).\n" +
+                "/* a block comment\n over two lines */ fof(ax2,axiom,![X]:(q(X)=>r(X))).\n").getBytes());
+        Files.write(problem.toPath(), ("% Status   : Theorem\r\n" +
+                "include('ax.p').\r\n" +
+                "fof(goal,conjecture,?[X]:r(X)).\r\n").getBytes());
+        String oldPath = Formula.includePath;
+        Formula.includePath = dir.getPath();
+        try {
+            Clausifier.counterReset();
+            ClauseSet collected = Formula.file2clauses(problem.getPath(), 10);
+            Clausifier.counterReset();
+            ArrayList<Clause> streamed = new ArrayList<>();
+            ClauseSet header = Formula.file2clauses(problem.getPath(), 10, streamed::add);
+            System.out.println("collected: " + collected);
+            System.out.println("streamed: " + streamed);
+            assertEquals(0, header.length());
+            assertTrue(header.hasConjecture);
+            assertEquals(collected.SZSexpected, header.SZSexpected);
+            assertTrue(header.SZSexpected.contains("Theorem"));
+            assertEquals(collected.length(), streamed.size());
+            assertEquals(3, streamed.size());
+            for (int i = 0; i < streamed.size(); i++)
+                assertEquals(collected.get(i).toString(), streamed.get(i).toString());
+        }
+        finally {
+            Formula.includePath = oldPath;
+            ax.delete();
+            problem.delete();
+            dir.delete();
+        }
+    }
 }
@@ -123,6 +123,74 @@ public class HeuristicClauseSetTest {
         System.out.println();
     }
 
+    /** ***************************************************************
+     * Test that the heuristic queues pick clauses in the same order as
+     * a linear scan for the smallest evaluation, with ties going to
+     * the oldest clause.
+     */
+    @Test
+    public void testQueueOrder() {
+
+        System.out.println("---------------------");
+        System.out.println("testQueueOrder");
+        String input = "cnf(c1,axiom,p(f(X),a))." +
+                "cnf(c2,axiom,q(a))." +
+                "cnf(c3,axiom,p(X,Y)|q(b))." +
+                "cnf(c4,axiom,r(b))." +
+                "cnf(c5,axiom,~p(a,a)|r(f(f(a))))." +
+                "cnf(c6,axiom,q(c)).";
+        ClauseSet input1 = new ClauseSet();
+        input1.parse(new Lexer(input));
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+        HeuristicClauseSet cs = new HeuristicClauseSet(ClauseEvaluationFunction.PickGiven5);
+        for (Clause c : input1.clauses)
+            cs.addClause(c);
+        ArrayList<String> order = new ArrayList<>();
+        Clause c = cs.extractBestByEval(0);
+        while (c != null) {
+            order.add(c.name);
+            c = cs.extractBestByEval(0);
+        }
+        System.out.println("symbol count order: " + order);
+        assertEquals("[c2, c4, c6, c1, c3, c5]", order.toString());
+        assertEquals(0, cs.length());
+
+        cs = new HeuristicClauseSet(ClauseEvaluationFunction.PickGiven5);
+        for (Clause cl : input1.clauses)
+            cs.addClause(cl);
+        assertEquals("c2", cs.extractBestByEval(0).name);
+        assertEquals("c1", cs.extractBestByEval(1).name);
+        assertEquals("c3", cs.extractFirst().name);
+        assertEquals("c4", cs.extractBestByEval(1).name);
+        cs.extractClause(cs.get(0));
+        assertEquals(1, cs.length());
+        System.out.println();
+    }
+
+    /** ***************************************************************
+     * Test that extractFirst() still returns the oldest clause after
+     * many clauses have been added and extracted by evaluation, so
+     * that the insertion-order queue has been compacted.
+     */
+    @Test
+    public void testFirstAfterCompaction() {
+
+        System.out.println("---------------------");
+        System.out.println("testFirstAfterCompaction");
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+        HeuristicClauseSet cs = new HeuristicClauseSet(ClauseEvaluationFunction.PickGiven5);
+        cs.addClause(Clause.string2Clause("cnf(old,axiom,p(f(f(f(a)))))."));
+        for (int i = 0; i < 500; i++) {
+            cs.addClause(Clause.string2Clause("cnf(c" + i + ",axiom,q(a))."));
+            assertEquals("c" + i, cs.extractBestByEval(0).name);
+        }
+        cs.addClause(Clause.string2Clause("cnf(new,axiom,r(f(f(f(a)))))."));
+        assertEquals("old", cs.extractFirst().name);
+        assertEquals("new", cs.extractFirst().name);
+        assertEquals(null, cs.extractFirst());
+        System.out.println();
+    }
+
     /** ***************************************************************
      * Test the the resolution position function works.
      */
@@ -0,0 +1,218 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+
+package atp;
+
+import org.junit.*;
+
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class HyperResolutionTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    @BeforeClass
+    public static void setup() {
+
+        Derivable.disableDerivationOutput();
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+    }
+
+    /** ***************************************************************
+     */
+    private static IndexedClauseSet processed(String... clauses) {
+
+        IndexedClauseSet result = new IndexedClauseSet();
+        for (String s : clauses)
+            result.addClause(Clause.string2Clause(s));
+        return result;
+    }
+
+    /** ***************************************************************
+     */
+    private static ArrayList<String> strings(ClauseSet cs) {
+
+        ArrayList<String> result = new ArrayList<>();
+        for (Clause c : cs.clauses)
+            result.add(Literal.literalList2String(c.literals));
+        return result;
+    }
+
+    /** ***************************************************************
+     * Test that all negative literals of a nucleus are resolved with
+     * positive electrons at once, whether the given clause is the
+     * nucleus or an electron.
+     */
+    @Test
+    public void testHyperResolution() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in HyperResolutionTest.testHyperResolution()");
+        ClauseSet res = HyperResolution.computeHyperResolvents(
+                Clause.string2Clause("cnf(c,axiom,~p(X)|~q(X,Y)|s(Y))."),
+                processed("cnf(c,axiom,p(a)).", "cnf(c,axiom,q(X,b)|r(X)).",
+                          "cnf(c,axiom,q(c,c)).", "cnf(c,axiom,~s(a))."));
+        System.out.println("result: " + res);
+        assertEquals(Arrays.asList("s(b)|r(a)"), strings(res));
+        assertEquals(3, res.get(0).support.size());
+
+        // ~r(b) is a nucleus too
+        res = HyperResolution.computeHyperResolvents(Clause.string2Clause("cnf(c,axiom,q(X,b)|r(X))."),
+                processed("cnf(c,axiom,p(a)).", "cnf(c,axiom,~p(X)|~q(X,Y)|s(Y)).", "cnf(c,axiom,~r(b))."));
+        System.out.println("result: " + res);
+        ArrayList<String> actual = strings(res);
+        assertTrue(actual.contains("s(b)|r(a)"));
+        assertTrue(actual.contains("q(b,b)"));
+        assertEquals(2, actual.size());
+
+        // a given electron that fits no nucleus with the other electrons
+        res = HyperResolution.computeHyperResolvents(Clause.string2Clause("cnf(c,axiom,q(d,b))."),
+                processed("cnf(c,axiom,p(a)).", "cnf(c,axiom,~p(X)|~q(X,Y)|s(Y))."));
+        assertEquals(0, res.length());
+    }
+
+    /** ***************************************************************
+     * Test that unit electrons resolve all literals of a nucleus but
+     * one, and that two units resolve to the empty clause.
+     */
+    @Test
+    public void testURResolution() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in HyperResolutionTest.testURResolution()");
+        ClauseSet res = HyperResolution.computeURResolvents(
+                Clause.string2Clause("cnf(c,axiom,~p(X)|~q(X)|r(X))."),
+                processed("cnf(c,axiom,p(a)).", "cnf(c,axiom,q(a)).", "cnf(c,axiom,~r(b)).",
+                          "cnf(c,axiom,p(b)).", "cnf(c,axiom,q(c)|r(c))."));
+        System.out.println("result: " + res);
+        ArrayList<String> actual = strings(res);
+        assertTrue(actual.contains("r(a)"));
+        assertTrue(actual.contains("~q(b)"));
+        assertEquals(2, actual.size());
+
+        res = HyperResolution.computeURResolvents(Clause.string2Clause("cnf(c,axiom,q(a))."),
+                processed("cnf(c,axiom,p(a)).", "cnf(c,axiom,~p(X)|~q(X)|r(X)).", "cnf(c,axiom,~q(a))."));
+        System.out.println("result: " + res);
+        actual = strings(res);
+        assertTrue(actual.contains("r(a)"));
+        boolean empty = false;
+        for (Clause c : res.clauses)
+            empty = empty || c.isEmpty();
+        assertTrue(empty);
+    }
+
+    /** ***************************************************************
+     * Test that the proof of a Horn problem needs fewer generated
+     * clauses with hyper-resolution and UR-resolution than with binary
+     * resolution.
+     */
+    @Test
+    public void testHornProof() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in HyperResolutionTest.testHornProof()");
+        String spec = "cnf(i1, axiom, p(a)).\n" +
+                "cnf(i2, axiom, q(a)).\n" +
+                "cnf(i3, axiom, ~p(X)|~q(X)|r(X)).\n" +
+                "cnf(i4, axiom, ~p(X)|~r(X)|s(X)).\n" +
+                "cnf(i5, axiom, ~p(X)|~q(X)|~r(X)|~s(X)|t(X)).\n" +
+                "cnf(i6, axiom, ~q(X)|~s(X)|~t(X)|u(X)).\n" +
+                "cnf(i7, negated_conjecture, ~u(a)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        assertTrue(problem.get(4).isHorn());
+        HashMap<ResControl.Inferences,Integer> generated = new HashMap<>();
+        for (ResControl.Inferences inf : ResControl.Inferences.values()) {
+            SearchParams params = new SearchParams();
+            params.inferences = inf;
+            ProofState state = new ProofState(problem,params);
+            Clause res = state.saturate(1000);
+            System.out.println(inf + ": " + state.generateStatisticsString(new HashMap<>()));
+            assertNotNull(res);
+            assertTrue(res.isEmpty());
+            generated.put(inf,state.resolvent_count + state.factor_count);
+        }
+        assertTrue(generated.get(ResControl.Inferences.HYPER) < generated.get(ResControl.Inferences.BINARY));
+        assertTrue(generated.get(ResControl.Inferences.UR) < generated.get(ResControl.Inferences.BINARY));
+    }
+
+    /** ***************************************************************
+     * Test that UR resolution, which is incomplete, gives up when it
+     * saturates, where the complete modes find the contradiction.
+     */
+    @Test
+    public void testURIncomplete() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in HyperResolutionTest.testURIncomplete()");
+        String spec = "cnf(i1, axiom, p|q).\n" +
+                "cnf(i2, axiom, ~p|q).\n" +
+                "cnf(i3, axiom, p|~q).\n" +
+                "cnf(i4, axiom, ~p|~q).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        for (ResControl.Inferences inf : ResControl.Inferences.values()) {
+            SearchParams params = new SearchParams();
+            params.inferences = inf;
+            ProofState state = new ProofState(problem,params);
+            ProverFOF.computeStateResults(new HashMap<>(),state,problem,"test",params,10);
+            System.out.println(inf + ": " + state.SZSresult);
+            if (inf == ResControl.Inferences.UR) {
+                assertFalse(state.isComplete());
+                assertEquals("GaveUp",state.SZSresult);
+            }
+            else
+                assertEquals("Unsatisfiable",state.SZSresult);
+        }
+    }
+
+    /** ***************************************************************
+     * Test that an answer is extracted through a proof by hyper- or
+     * UR-resolution, which needs the values of the variables of the
+     * nucleus and of the electrons.
+     */
+    @Test
+    public void testAnswer() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in HyperResolutionTest.testAnswer()");
+        String spec = "cnf(i1, axiom, p(a)).\n" +
+                "cnf(i2, axiom, q(a,b)).\n" +
+                "cnf(i3, axiom, ~p(X)|~q(X,Y)|r(X,Y)).\n" +
+                "cnf(i4, axiom, s(c)).\n" +
+                "cnf(i5, negated_conjecture, ~r(X,Y)|~s(Z)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        for (ResControl.Inferences inf : ResControl.Inferences.values()) {
+            SearchParams params = new SearchParams();
+            params.inferences = inf;
+            ProofState state = new ProofState(problem,params);
+            Clause res = state.saturate(1000);
+            assertNotNull(res);
+            TreeMap<String,Clause> proof = state.generateProofTree(res);
+            System.out.println(inf + ": " + state.proof2String(proof));
+            String answer = state.extractAnswer(proof, problem.get(4));
+            System.out.println(inf + ": " + answer);
+            assertNotNull(answer);
+            assertTrue(answer.contains("# SZS answers Tuple [a,b,c]"));
+        }
+    }
+}
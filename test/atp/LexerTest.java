@@ -21,9 +21,10 @@ This is a Java rewrite of PyRes - https://github.com/eprover/PyRes
 package atp;
 
 import org.junit.*;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
 
@@ -233,34 +234,98 @@ public class LexerTest {
         System.out.println("-------------------------------------------------");
         System.out.println("INFO in Lexer.testEscapes(): ");
         String ex1 = "'A proposition' | 'A predicate'(a) | p('A constant') | p('A function'(a)) ";
-        String ex2 = "p('A \'quoted \\ escape\'')";
-        Lexer lex = null;
+        String ex2 = "p('A \\'quoted\\' escape', \"a \\\"double\\\" quote\")";
         try {
-            lex = new Lexer(ex1);
-            Pattern value = Lexer.tokenDefs.get(Lexer.SQString);
-            Matcher m = value.matcher(ex1);
-            System.out.println("INFO in Lexer.nextUnfiltered(): checking: " + ex1);
-            if (m.lookingAt()) {
-                //System.out.println("INFO in Lexer.nextUnfiltered(): got token against source: " + line.substring(pos));
-                String literal = m.group();
-                System.out.println("INFO in Lexer.nextUnfiltered(): got token: " + literal + " with regex: " + value);
-            }
-            else
-                System.out.println("no match");
+            Lexer lex = new Lexer(ex1);
+            assertEquals("'A proposition'", lex.acceptTok(Lexer.SQString));
+            assertEquals(Lexer.Kind.SQString, lex.kind);
+            lex.acceptTok(Lexer.Or);
+            assertEquals("'A predicate'", lex.acceptTok(Lexer.SQString));
+
+            lex = new Lexer(ex2);
+            lex.acceptTok(Lexer.IdentLower);
+            lex.acceptTok(Lexer.OpenPar);
+            String literal = lex.acceptTok(Lexer.SQString);
+            System.out.println("INFO in Lexer.testEscapes(): got token: " + literal);
+            assertEquals("'A \\'quoted\\' escape'", literal);
+            lex.acceptTok(Lexer.Comma);
+            assertEquals("\"a \\\"double\\\" quote\"", lex.acceptTok(Lexer.DQString));
+            lex.acceptTok(Lexer.ClosePar);
+        }
+        catch (Exception e) {
+            System.out.println(e.getMessage());
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    /** ***************************************************************
+     * Test that the operators, numbers and defined symbols get the
+     * right token types, with the longest operator at each position.
+     */
+    @Test
+    public void testKinds() {
 
-            m = value.matcher(ex2);
-            System.out.println("INFO in Lexer.nextUnfiltered(): checking: " + ex2);
-            if (m.lookingAt()) {
-                //System.out.println("INFO in Lexer.nextUnfiltered(): got token against source: " + line.substring(pos));
-                String literal = m.group();
-                System.out.println("INFO in Lexer.nextUnfiltered(): got token: " + literal + " with regex: " + value);
+        System.out.println("-------------------------------------------------");
+        System.out.println("INFO in Lexer.testKinds(): ");
+        String ex = "<=> <= <~> => = != ~| ~& ~ | & ! ? $true -1.5E-3 42 _X # comment";
+        Lexer.Kind[] expected = {Lexer.Kind.Equiv, Lexer.Kind.BImplies, Lexer.Kind.Xor, Lexer.Kind.Implies,
+                Lexer.Kind.EqualSign, Lexer.Kind.NotEqualSign, Lexer.Kind.Nor, Lexer.Kind.Nand,
+                Lexer.Kind.Negation, Lexer.Kind.Or, Lexer.Kind.And, Lexer.Kind.Universal,
+                Lexer.Kind.Existential, Lexer.Kind.DefFunctor, Lexer.Kind.Number, Lexer.Kind.Number,
+                Lexer.Kind.IdentUpper, Lexer.Kind.EOFToken};
+        try {
+            Lexer lex = new Lexer(ex);
+            for (Lexer.Kind k : expected) {
+                String tok = lex.next();
+                System.out.println("INFO in Lexer.testKinds(): " + tok + " : " + lex.kind);
+                assertEquals(k, lex.kind);
+                assertSame(k.type, lex.type);
             }
-            else
-                System.out.println("no match");
+            lex = new Lexer("-1.5E-3");
+            assertEquals("-1.5E-3", lex.acceptTok(Lexer.Number));
         }
         catch (Exception e) {
             System.out.println(e.getMessage());
             e.printStackTrace();
+            fail();
+        }
+    }
+
+    /** ***************************************************************
+     * Test that a memory-mapped file gives the same tokens as the same
+     * text in a String, with line numbers, and that block comments may
+     * span lines and end in the middle of one.
+     */
+    @Test
+    public void testFile() throws Exception {
+
+        System.out.println("-------------------------------------------------");
+        System.out.println("INFO in Lexer.testFile(): ");
+        String text = "cnf(a, axiom, p('\u00e9')). /* comment\r\n" +
+                "still comment */ cnf(b, axiom,\r\n" +
+                "\r\n" +
+                "  q /* short */ ).\n";
+        File f = File.createTempFile("lexertest", ".p");
+        try {
+            Files.write(f.toPath(), text.getBytes(StandardCharsets.UTF_8));
+            Lexer fromFile = new Lexer(f);
+            Lexer fromString = new Lexer(text);
+            assertEquals(fromString.lex(), fromFile.lex());
+            fromFile = new Lexer(f);
+            ArrayList<String> toks = new ArrayList<>();
+            while (!fromFile.testTok(Lexer.EOFToken)) {
+                toks.add(fromFile.next());
+                if (fromFile.literal.equals("q"))
+                    assertEquals(4, fromFile.getLineNumber());
+            }
+            System.out.println("INFO in Lexer.testFile(): " + toks);
+            assertEquals("'\u00e9'", toks.get(8));
+            assertEquals(Arrays.asList("cnf", "(", "b", ",", "axiom", ",", "q", ")", "."),
+                    toks.subList(12, toks.size()));
+        }
+        finally {
+            f.delete();
         }
     }
-}
\ No newline at end of file
+}
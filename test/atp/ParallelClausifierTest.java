@@ -0,0 +1,134 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class ParallelClausifierTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    public static String spec1 = "fof(ax1, axiom, ![X]:?[Y]:(p(X) => q(X,Y))).\n" +
+            "cnf(ax2, axiom, p(a)|r(X)).\n" +
+            "fof(ax3, axiom, ![X]:(r(X) | ?[Z]:(s(Z) & t(X,Z)))).\n" +
+            "fof(ax4, axiom, (p(a) <=> (q(a,b) & ~r(c)))).\n" +
+            "fof(ax5, axiom, ?[U]:![V]:?[W]:(s(U) | (t(V,W) & p(W)))).\n" +
+            "cnf(ax6, axiom, ~s(X)|p(X)).\n" +
+            "fof(goal, conjecture, ?[X]:?[Y]:(q(X,Y) & ~r(Y))).\n";
+
+    // input symbols of the forms that the clausifier generates
+    public static String spec2 = "fof(a1, axiom, ![X]:(p(X) | r(X))).\n" +
+            "fof(a2, axiom, ![X]:q(X,skf0)).\n" +
+            "fof(a3, axiom, ![X]:?[Y]:(q(Y,skolem0001) | s(X,def0))).\n" +
+            "fof(g, conjecture, ?[Y]:q(Y,skf0)).\n";
+
+    /** ***************************************************************
+     * @return the clauses of spec, with their derivations, clausified
+     * in a new context with the given number of threads, followed by
+     * the counters of the context.
+     */
+    private static ArrayList<String> clausify(String spec, int threads) {
+
+        ProofContext previous = ProofContext.enter(new ProofContext());
+        int oldThreads = Formula.clausifyThreads;
+        boolean oldPrint = Derivable.printDerivation;
+        Formula.clausifyThreads = threads;
+        Derivable.enableDerivationOutput();
+        try {
+            ArrayList<String> result = new ArrayList<>();
+            ClauseSet cs = Formula.string2clauses(spec,10);
+            assertTrue(cs.hasConjecture);
+            for (Clause c : cs.clauses)
+                result.add(c.toString() + " " + c.support);
+            ProofContext context = ProofContext.current();
+            result.add("counters: " + context.varCounter + " " + context.axiomCounter + " " +
+                    context.skolemCount + " " + context.formulaIdCounter + " " + context.derivedIdCounter);
+            return result;
+        }
+        finally {
+            Derivable.printDerivation = oldPrint;
+            Formula.clausifyThreads = oldThreads;
+            ProofContext.leave(previous);
+        }
+    }
+
+    /** ***************************************************************
+     * Test that clausifying on a pool gives the clauses of a sequential
+     * run, in the same order and with the same names and symbols.
+     */
+    private static ArrayList<String> compare(String spec, boolean smallCNF) {
+
+        boolean oldSmall = Formula.smallCNF;
+        Formula.smallCNF = smallCNF;
+        try {
+            ArrayList<String> sequential = clausify(spec,1);
+            System.out.println("sequential: " + sequential);
+            for (int threads = 2; threads <= 4; threads++) {
+                ArrayList<String> parallel = clausify(spec,threads);
+                System.out.println("parallel (" + threads + "): " + parallel);
+                assertEquals(sequential,parallel);
+            }
+            return sequential;
+        }
+        finally {
+            Formula.smallCNF = oldSmall;
+        }
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testSmallCNF() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ParallelClausifierTest.testSmallCNF()");
+        compare(spec1,true);
+    }
+
+    /** ***************************************************************
+     * Clausifier is always run sequentially, so the option doesn't
+     * change its clauses either.
+     */
+    @Test
+    public void testClausifier() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ParallelClausifierTest.testClausifier()");
+        compare(spec1,false);
+    }
+
+    /** ***************************************************************
+     * Test that input symbols that look like generated ones are not
+     * renamed.
+     */
+    @Test
+    public void testInputSymbols() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ParallelClausifierTest.testInputSymbols()");
+        String clauses = compare(spec2,true).toString();
+        assertTrue(clauses.contains("q(VAR1,skf0)"));
+        assertTrue(clauses.contains("skolem0001"));
+        assertTrue(clauses.contains("def0"));
+        assertFalse(clauses.contains("#"));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class PortfolioTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    public static String spec1 = "cnf(axiom, a_is_true, a).\n" +
+            "cnf(negated_conjecture, is_a_true, ~a).\n";
+    public static String spec3 = "cnf(p_or_q, axiom, p(X)|q(a)).\n" +
+            "cnf(taut, axiom, p(X)|~p(X)).\n" +
+            "cnf(not_p, axiom, ~p(a)).";
+    public static String spec4 = "cnf(p1, axiom, p(X)|q(X)).\n" +
+            "cnf(p2, axiom, ~p(f(X))|r(X)).\n" +
+            "cnf(p3, axiom, ~q(f(a))).\n" +
+            "cnf(p4, axiom, ~r(a)).";
+
+    /** ***************************************************************
+     */
+    @BeforeClass
+    public static void setup() {
+
+        Derivable.disableDerivationOutput();
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+    }
+
+    /** ***************************************************************
+     * Run all strategies and option variants on the problem and check
+     * the SZS status of the winner.
+     */
+    public static ProofState runPortfolio(String spec, String expected) {
+
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        HashMap<String,String> opts = ProverFOF.processOptions("--allOpts --timeout 10".split(" "));
+        Portfolio portfolio = new Portfolio(problem,opts,"test");
+        portfolio.threads = 4;
+        ProofState state = portfolio.run(ProverFOF.setAllEvalOptions());
+        System.out.println("PortfolioTest.runPortfolio(): result: " + state.SZSresult + " expected: " + expected);
+        System.out.println(state.generateStatisticsString(opts));
+        if (state.SZSresult.equals(expected))
+            System.out.println("Success");
+        else
+            System.out.println("fail");
+        assertEquals(expected,state.SZSresult);
+        assertFalse(Term.emptyString(state.strategy));
+        assertNoStrategyRunning();
+        return state;
+    }
+
+    /** ***************************************************************
+     * Check that no thread is still searching, so that the next problem
+     * may reset the SymbolTable.
+     */
+    private static void assertNoStrategyRunning() {
+
+        for (Map.Entry<Thread,StackTraceElement[]> e : Thread.getAllStackTraces().entrySet()) {
+            if (e.getKey() == Thread.currentThread())
+                continue;
+            for (StackTraceElement frame : e.getValue())
+                assertFalse("still running: " + e.getKey(),
+                        frame.getClassName().equals("atp.ProofState") && frame.getMethodName().equals("saturate"));
+        }
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testProof() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in PortfolioTest.testProof()");
+        ProofState state = runPortfolio(spec1,"Unsatisfiable");
+        assertTrue(state.res != null && state.res.isEmpty());
+        state = runPortfolio(spec4,"Unsatisfiable");
+        assertTrue(state.res != null && state.res.isEmpty());
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testSaturation() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in PortfolioTest.testSaturation()");
+        ProofState state = runPortfolio(spec3,"Satisfiable");
+        assertNull(state.res);
+    }
+
+    /** ***************************************************************
+     * A cancelled proof state stops without a result.
+     */
+    @Test
+    public void testCancel() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in PortfolioTest.testCancel()");
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec1));
+        ProofState state = new ProofState(problem,new SearchParams());
+        state.cancel();
+        HashMap<String,String> opts = new HashMap<>();
+        ProverFOF.computeStateResults(opts,state,problem,"test",state.params,10);
+        System.out.println("PortfolioTest.testCancel(): result: " + state.SZSresult);
+        assertNull(state.res);
+        assertEquals("GaveUp",state.SZSresult);
+        assertFalse(Portfolio.settled(state));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class PrecedenceTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    private static ClauseSet problem() {
+
+        ClauseSet cs = new ClauseSet();
+        cs.parse(new Lexer("cnf(c1,axiom,p(f(a),b)|q(a)).\n" +
+                "cnf(c2,axiom,~p(X,a)|q(g(X,a))).\n"));
+        return cs;
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testByArity() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in PrecedenceTest.testByArity()");
+        Precedence p = Precedence.byArity(problem());
+        System.out.println("result: " + p);
+        assertEquals("a < b < f < q < g < p", p.toString());
+        assertTrue(p.compare("g", "f") > 0);
+        assertEquals(0, p.compare("a", "a"));
+        assertTrue(p.compare("unknown", "a") < 0);
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testByFrequency() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in PrecedenceTest.testByFrequency()");
+        Precedence p = Precedence.byFrequency(problem());
+        System.out.println("result: " + p);
+        assertEquals("a", p.toString().split(" < ")[0]);
+        assertTrue(p.compare("g", "a") > 0);
+        assertTrue(p.compare("g", "f") > 0);  // same count, higher arity
+    }
+}
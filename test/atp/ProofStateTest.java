@@ -156,4 +156,162 @@ public class ProofStateTest {
             e.printStackTrace();
         }
     }
+
+    /** ***************************************************************
+     * Test that a saturation that doesn't terminate stops at its
+     * timeout, and that the deadline is checked inside the inference
+     * loops.
+     */
+    @Test
+    public void testTimeout() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ProofStateTest.testTimeout()");
+        String spec = "cnf(p_a, axiom, p(a)).\n" +
+                "cnf(p_f, axiom, ~p(X)|p(f(X))|p(g(X))).\n" +
+                "cnf(not_q, axiom, ~q(a)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        ProofState state = new ProofState(problem,params);
+        Clause res = state.saturate(1);
+        System.out.println("ProofStateTest.testTimeout(): " + state.SZSresult + " after " + state.time + "ms");
+        assertNull(res);
+        assertEquals("Timeout (TMO)",state.SZSresult);
+        assertTrue(state.time < 2000);
+
+        ProofContext context = new ProofContext();
+        context.deadline = System.currentTimeMillis() - 1;
+        boolean thrown = false;
+        try {
+            for (int i = 0; i < ProofContext.CHECK_INTERVAL; i++)
+                context.checkDeadline();
+        }
+        catch (DeadlineException e) {
+            thrown = !e.cancelled;
+        }
+        assertTrue(thrown);
+        context.cancelled = true;
+        try {
+            context.checkDeadline();
+            fail("cancelled context didn't throw");
+        }
+        catch (DeadlineException e) {
+            assertTrue(e.cancelled);
+        }
+    }
+
+    /** ***************************************************************
+     * Test that eager simplification keeps subsumed new clauses out of
+     * unprocessed without changing the result of the saturation.
+     */
+    @Test
+    public void testEagerSimplification() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ProofStateTest.testEagerSimplification()");
+        String spec = "cnf(q_a, axiom, q(a)).\n" +
+                "cnf(p_or_q, axiom, p(X)|q(X)).\n" +
+                "cnf(p_r, axiom, ~p(X)|q(X)|r(X)).\n" +
+                "cnf(r_q, axiom, ~r(X)|q(a)|s(X)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        ProofState lazy = new ProofState(problem,params);
+        Clause lazyRes = lazy.saturate(10);
+        ProofState eager = new ProofState(problem,params);
+        eager.eager_simplification = true;
+        Clause eagerRes = eager.saturate(10);
+        System.out.println(lazy.generateStatisticsString(new HashMap<>()));
+        System.out.println(eager.generateStatisticsString(new HashMap<>()));
+        assertNull(lazyRes);
+        assertNull(eagerRes);
+        assertTrue(eager.eagerly_deleted > 0);
+        assertTrue(eager.proc_clause_count < lazy.proc_clause_count);
+    }
+
+    /** ***************************************************************
+     * Test that the units of eager simplification are dropped once they
+     * are selected, so that a saturated state keeps none of them.
+     */
+    @Test
+    public void testEagerUnits() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ProofStateTest.testEagerUnits()");
+        String spec = "cnf(p_a, axiom, p(a)).\n" +
+                "cnf(p_q, axiom, ~p(X)|q(X)).\n" +
+                "cnf(q_r, axiom, ~q(X)|r(X)).\n" +
+                "cnf(r_b, axiom, ~r(b)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        ProofState eager = new ProofState(problem,params);
+        eager.eager_simplification = true;
+        assertNull(eager.saturate(10));
+        assertEquals(0, eager.unprocessed.clauses.size());
+        assertEquals(0, eager.units.clauses.size());
+    }
+
+    /** ***************************************************************
+     * With a set of support only the negated conjecture and its
+     * descendants are given clauses, so the axioms about e, f, g and h,
+     * which are useless for the proof, are never resolved with each other.
+     */
+    @Test
+    public void testSetOfSupport() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ProofStateTest.testSetOfSupport()");
+        String spec = "cnf(a_b, axiom, ~a(X)|b(X)).\n" +
+                "cnf(b_c, axiom, ~b(X)|c(X)).\n" +
+                "cnf(a_k, axiom, a(k)).\n" +
+                "cnf(e_f, axiom, e(X)|f(X)).\n" +
+                "cnf(e_g, axiom, ~e(X)|g(X)).\n" +
+                "cnf(f_h, axiom, ~f(X)|h(X)).\n" +
+                "cnf(g_h, axiom, ~g(X)|h(X)|e(X)).\n" +
+                "cnf(goal, negated_conjecture, ~c(k)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        assertEquals(1,problem.getConjectures().size());
+        ProofState all = new ProofState(problem,params);
+        Clause allRes = all.saturate(1000);
+        SearchParams sosParams = params.deepCopy();
+        sosParams.set_of_support = true;
+        ProofState sos = new ProofState(problem,sosParams);
+        Clause sosRes = sos.saturate(1000);
+        System.out.println(all.generateStatisticsString(new HashMap<>()));
+        System.out.println(sos.generateStatisticsString(new HashMap<>()));
+        assertNotNull(allRes);
+        assertNotNull(sosRes);
+        assertTrue(sosRes.isEmpty());
+        assertEquals(7,sos.sos_axioms);
+        assertTrue(sos.proc_clause_count < all.proc_clause_count);
+    }
+
+    /** ***************************************************************
+     * Test that saturating with the set of support strategy and
+     * superposition, which is incomplete, gives up rather than report
+     * the problem satisfiable.
+     */
+    @Test
+    public void testSetOfSupportIncomplete() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in ProofStateTest.testSetOfSupportIncomplete()");
+        String spec = "cnf(f_a, axiom, f(a)=b).\n" +
+                "cnf(p_f, axiom, p(f(a))).\n" +
+                "cnf(goal, negated_conjecture, ~p(b)).";
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer(spec));
+        SearchParams sp = new SearchParams();
+        sp.superposition = true;
+        ProofState state = new ProofState(problem,sp);
+        ProverFOF.computeStateResults(new HashMap<>(),state,problem,"test",sp,10);
+        assertTrue(state.isComplete());
+        assertEquals("Unsatisfiable",state.SZSresult);
+        sp = sp.deepCopy();
+        sp.set_of_support = true;
+        state = new ProofState(problem,sp);
+        ProverFOF.computeStateResults(new HashMap<>(),state,problem,"test",sp,10);
+        assertFalse(state.isComplete());
+        assertEquals("GaveUp",state.SZSresult);
+    }
 }
@@ -22,6 +22,7 @@ package atp;
 
 import org.junit.*;
 import java.util.*;
+import java.util.concurrent.*;
 import static org.junit.Assert.*;
 
 public class ResControlTest {
@@ -174,4 +175,98 @@ public class ResControlTest {
             System.out.println("fail");
         assertEquals(expected,result);
     }
+
+    /** ***************************************************************
+     * Test that the parallel computation of resolvents gives the same
+     * clauses, with the same names and in the same order, as the
+     * sequential one.
+     */
+    @Test
+    public void testParallelResolution() {
+
+        System.out.println("---------------------");
+        System.out.println("ResControl.testParallelResolution()");
+        String givenClauseStr = "cnf(given,negated_conjecture,~p(X,f(Y))|~q(X)|r(Y)).";
+        Clause givenClause = Clause.parse(new Lexer(givenClauseStr));
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < 40; i++) {
+            sb.append("cnf(p" + i + ",axiom,p(a" + i + ",f(b" + (i % 7) + "))|s(a" + i + ")).\n");
+            sb.append("cnf(q" + i + ",axiom,q(a" + (i % 5) + ")|~r(b" + i + ")).\n");
+        }
+        ClauseSet processed = new ClauseSet();
+        processed.parse(new Lexer(sb.toString()));
+
+        int oldThreshold = ResControl.parallelThreshold;
+        ResControl.parallelThreshold = 0;
+        Clause.resetCounter();
+        ClauseSet serial = ResControl.computeAllResolvents(givenClause, processed);
+        Clause.resetCounter();
+        ClauseSet parallel = ResControl.computeAllResolvents(givenClause, processed, 4);
+        ResControl.parallelThreshold = oldThreshold;
+        System.out.println("Result: " + parallel.clauses.size() + " resolvents");
+        assertEquals(120, serial.clauses.size());
+        assertEquals(serial.toString(), parallel.toString());
+    }
+
+    /** ***************************************************************
+     * Test that the parallel computation of factors gives the factors
+     * of the sequential one.
+     */
+    @Test
+    public void testParallelFactoring() {
+
+        System.out.println("---------------------");
+        System.out.println("ResControl.testParallelFactoring()");
+        int oldThreshold = ResControl.parallelThreshold;
+        ResControl.parallelThreshold = 0;
+        try {
+            Clause.resetCounter();
+            ClauseSet serial = ResControl.computeAllFactors(fclause);
+            Clause.resetCounter();
+            ClauseSet parallel = ResControl.computeAllFactors(fclause, 4);
+            System.out.println("Result: " + parallel);
+            assertEquals(4, serial.clauses.size());
+            assertEquals(serial.toString(), parallel.toString());
+        }
+        finally {
+            ResControl.parallelThreshold = oldThreshold;
+        }
+    }
+
+    /** ***************************************************************
+     * Test that proofs with different numbers of threads can compute
+     * resolvents at the same time, each on its own pool.
+     */
+    @Test
+    public void testConcurrentPools() throws Exception {
+
+        System.out.println("---------------------");
+        System.out.println("ResControl.testConcurrentPools()");
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < 40; i++)
+            sb.append("cnf(p" + i + ",axiom,p(a" + i + ",f(b" + (i % 7) + "))|s(a" + i + ")).\n");
+        String clauses = sb.toString();
+        int oldThreshold = ResControl.parallelThreshold;
+        ResControl.parallelThreshold = 0;
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            ArrayList<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                int threads = 2 + i % 3;
+                results.add(callers.submit(() -> {
+                    ProofContext.enter(new ProofContext());
+                    ClauseSet processed = new ClauseSet();  // recording a resolvent changes its parents
+                    processed.parse(new Lexer(clauses));
+                    Clause givenClause = Clause.parse(new Lexer("cnf(given,negated_conjecture,~p(X,f(Y))|r(Y))."));
+                    return ResControl.computeAllResolvents(givenClause, processed, threads).clauses.size();
+                }));
+            }
+            for (Future<Integer> f : results)
+                assertEquals(40, (int) f.get());
+        }
+        finally {
+            callers.shutdown();
+            ResControl.parallelThreshold = oldThreshold;
+        }
+    }
 }
@@ -78,35 +78,35 @@ public class ResolutionIndexTest {
 
         System.out.println("posIdx: " + index.posIdx);
         assertEquals(index.posIdx.size(), 1);
-        assertEquals(index.posIdx.get("p").size(), 3);
+        assertEquals(index.posIdx.get(SymbolTable.intern("p")).size(), 3);
         System.out.println("negIdx: " + index.negIdx);
         assertEquals(index.negIdx.size(), 1);
-        assertEquals(index.negIdx.get("p").size(), 1);
+        assertEquals(index.negIdx.get(SymbolTable.intern("p")).size(), 1);
 
         index.insertClause(c3);
         System.out.println("Insert " + c3);
         System.out.println("posIdx: " + index.posIdx);
         assertEquals(index.posIdx.size(), 2);
-        assertEquals(index.posIdx.get("p").size(), 3);
-        assertEquals(index.posIdx.get("q").size(), 1);
+        assertEquals(index.posIdx.get(SymbolTable.intern("p")).size(), 3);
+        assertEquals(index.posIdx.get(SymbolTable.intern("q")).size(), 1);
 
         System.out.println("negIdx: " + index.negIdx);
         assertEquals(index.negIdx.size(), 2);
-        assertEquals(index.negIdx.get("p").size(), 1);
-        assertEquals(index.negIdx.get("q").size(), 1);
+        assertEquals(index.negIdx.get(SymbolTable.intern("p")).size(), 1);
+        assertEquals(index.negIdx.get(SymbolTable.intern("q")).size(), 1);
 
         index.removeClause(c3);
         System.out.println("Removed " + c3);
         System.out.println("posIdx: " + index.posIdx);
         System.out.println("negIdx: " + index.negIdx);
         assertEquals(index.posIdx.size(), 2);
-        assertEquals(index.posIdx.get("p").size(), 3);
-        assertEquals(index.posIdx.get("q").size(), 0);
+        assertEquals(index.posIdx.get(SymbolTable.intern("p")).size(), 3);
+        assertEquals(index.posIdx.get(SymbolTable.intern("q")).size(), 0);
 
         System.out.println("negIdx: " + index.negIdx);
         assertEquals(index.negIdx.size(), 2);
-        assertEquals(index.negIdx.get("p").size(), 1);
-        assertEquals(index.negIdx.get("q").size(), 0);
+        assertEquals(index.negIdx.get(SymbolTable.intern("p")).size(), 1);
+        assertEquals(index.negIdx.get(SymbolTable.intern("q")).size(), 0);
     }
 
     /** ***************************************************************
@@ -153,4 +153,54 @@ public class ResolutionIndexTest {
 
 
     }
+    /** ***************************************************************
+     * Test that the discrimination tree returns exactly the literals
+     * from the top symbol index that can actually be resolved with.
+     */
+    @Test
+    public void testDiscriminationTreeRetrieval() {
+
+        System.out.println("-------------------------------");
+        System.out.println("testDiscriminationTreeRetrieval()");
+
+        DiscriminationTreeIndex index = new DiscriminationTreeIndex();
+        index.insertClause(c1);
+        index.insertClause(c2);
+        index.insertClause(c3);
+        index.insertClause(c4);
+        index.insertClause(c5);
+        index.insertClause(c7);
+        System.out.println("index: " + index);
+
+        // ~p(a,X) unifies with every positive p literal except p(f(Y),a)
+        Literal lit = c6.getLiteral(0);
+        HashSet<KVPair> cands = index.getResolutionLiterals(lit);
+        System.out.println("literal: " + lit);
+        System.out.println("resolution literals: " + cands);
+        assertEquals(7, cands.size());
+        for (KVPair kvp : cands)
+            assertNotNull(Unification.mgu(kvp.c.getLiteral(kvp.value).atom, lit.atom));
+
+        // ~q(f(a),a) unifies with q(Z,X) and q(f(a),a)
+        lit = Literal.string2lit("~q(f(a),a)");
+        cands = index.getResolutionLiterals(lit);
+        System.out.println("resolution literals: " + cands);
+        assertEquals(2, cands.size());
+        assertTrue(cands.contains(new KVPair(c3,0)));
+        assertTrue(cands.contains(new KVPair(c7,0)));
+
+        // q(X,Y) matches the two negative q literals with any arguments
+        lit = Literal.string2lit("q(X,Y)");
+        cands = index.getResolutionLiterals(lit);
+        System.out.println("resolution literals: " + cands);
+        assertEquals(3, cands.size());
+
+        index.removeClause(c3);
+        cands = index.getResolutionLiterals(Literal.string2lit("~q(f(a),a)"));
+        assertEquals(1, cands.size());
+        cands = index.getResolutionLiterals(Literal.string2lit("~q(b,a)"));
+        assertEquals(0, cands.size());
+        System.out.println("statistics: " + index.statistics());
+        assertEquals(2, index.filtered());
+    }
 }
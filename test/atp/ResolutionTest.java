@@ -155,4 +155,27 @@ public class ResolutionTest {
         assert f5 != null;
         System.out.println("Resolution.testFactoring(): Expected result: cnf(c2,plain,p(X)|~q|p(a)|p(Y)). Factor:" + f5);
     }
+
+    /** ***************************************************************
+     * Premises with the same variable names are renamed apart, and the
+     * resolvent records where the variables of each premise went.
+     */
+    @Test
+    public void testRenamingApart() {
+
+        System.out.println("Resolution.testRenamingApart()");
+        Lexer lex = new Lexer("cnf(a,axiom,p(X)|q(X)).\ncnf(b,axiom,~p(f(X))|r(X,Y)).");
+        Clause a = Clause.parse(lex);
+        Clause b = Clause.parse(lex);
+        Clause res = Resolution.resolution(a, 0, b, 0);
+        assertNotNull(res);
+        System.out.println("Resolution.testRenamingApart(): result: " + res);
+        assertEquals("q(f(X0))|r(X0,X1)", Literal.literalList2String(res.literals));
+        assertEquals(Term.string2Term("f(X0)"), res.supportSubst[0].value(Term.string2Term("X")));
+        assertEquals(Term.string2Term("X0"), res.supportSubst[1].value(Term.string2Term("X")));
+        assertEquals(Term.string2Term("X1"), res.supportSubst[1].value(Term.string2Term("Y")));
+        // the premises are unchanged
+        assertEquals("p(X)|q(X)", Literal.literalList2String(a.literals));
+        assertEquals("~p(f(X))|r(X,Y)", Literal.literalList2String(b.literals));
+    }
 }
@@ -71,4 +71,83 @@ public class SignatureTest {
 
 
     }
+
+    /** ***************************************************************
+     * Test that symbols are recorded in the SymbolTable and that
+     * composed signatures keep their arities.
+     */
+    @Test
+    public  void testSymbolTable() {
+
+        System.out.println("-----------------------------------------");
+        System.out.println("Signature.testSymbolTable():");
+        Signature sig = new Signature();
+        sig.addFun("mult",2);
+        sig.addPred("weird", 4);
+        Signature sig2 = new Signature();
+        sig2.addFun("inv",1);
+        sig.compose(sig2);
+        System.out.println(sig);
+
+        int id = SymbolTable.intern("weird");
+        assertEquals(id, SymbolTable.lookup("weird"));
+        assertEquals(SymbolTable.PREDICATE, SymbolTable.kind(id));
+        assertEquals(4, SymbolTable.arity(id));
+        assertEquals(SymbolTable.FUNCTION, SymbolTable.kind(SymbolTable.intern("mult")));
+        assertTrue(SymbolTable.isVar(SymbolTable.intern("X")));
+        assertEquals(-1, SymbolTable.lookup("neverSeenBefore"));
+        assertTrue(SymbolTable.name(id) == "weird".intern());
+
+        assertTrue(sig.isFun("inv"));
+        assertEquals(1, sig.getArity("inv"));
+        assertEquals(2, sig.getArity("mult"));
+        assertEquals("[mult, inv]", sig.funs.toString());
+    }
+
+    /** ***************************************************************
+     * Terms cache their symbol ids until their name changes or the
+     * table is reset, and threads interning at once get the same ids.
+     */
+    @Test
+    public void testSymbolTableReset() throws InterruptedException {
+
+        System.out.println("-----------------------------------------");
+        System.out.println("Signature.testSymbolTableReset():");
+        Term t = Term.string2Term("f(X,a)");
+        int id = t.getFuncId();
+        assertEquals(SymbolTable.intern("f"), id);
+        t.t = "g";
+        assertEquals(SymbolTable.intern("g"), t.getFuncId());
+        t.t = "f";
+        assertEquals(id, t.getFuncId());
+
+        int generation = SymbolTable.generation();
+        SymbolTable.reset();
+        assertEquals(generation + 1, SymbolTable.generation());
+        assertEquals(0, SymbolTable.size());
+        assertEquals(-1, SymbolTable.lookup("f"));
+        assertEquals(0, SymbolTable.intern("someOtherSymbol"));
+        assertEquals(1, t.getFuncId());
+        assertEquals("f", SymbolTable.name(t.getFuncId()));
+        assertTrue(SymbolTable.isVar(t.subterms.get(0).getFuncId()));
+
+        int[][] found = new int[4][500];
+        Thread[] threads = new Thread[found.length];
+        for (int i = 0; i < threads.length; i++) {
+            int[] ids = found[i];
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < ids.length; j++)
+                    ids[j] = SymbolTable.intern("sym" + j);
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        for (int j = 0; j < 500; j++) {
+            for (int[] ids : found)
+                assertEquals(found[0][j], ids[j]);
+            assertEquals("sym" + j, SymbolTable.name(found[0][j]));
+        }
+        assertEquals(503, SymbolTable.size());
+    }
 }
@@ -0,0 +1,120 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class SimplificationTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    private static ClauseSet clauses(String... specs) {
+
+        ClauseSet cs = new IndexedClauseSet();
+        for (String s : specs)
+            cs.addClause(Clause.string2Clause(s));
+        return cs;
+    }
+
+    /** ***************************************************************
+     * Test that literals are cut only by clauses that match the rest
+     * of the clause.
+     */
+    @Test
+    public void testSubsumptionResolution() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SimplificationTest.testSubsumptionResolution()");
+        ClauseSet cs = clauses("cnf(c,axiom,~p(X)|q(X)).", "cnf(c,axiom,r(Y)).");
+        Clause c = Clause.string2Clause("cnf(c,axiom,p(a)|q(a)|s(b)).");
+        Clause res = Simplification.subsumptionResolution(cs, c);
+        System.out.println("result: " + res);
+        assertEquals("q(a)|s(b)", Literal.literalList2String(res.literals));
+        assertEquals("subsumption_resolution", res.rationale);
+        assertEquals(2, res.support.size());
+
+        res = Simplification.subsumptionResolution(cs, Clause.string2Clause("cnf(c,axiom,p(a)|q(b))."));
+        assertNull(res);
+
+        res = Simplification.subsumptionResolution(cs, Clause.string2Clause("cnf(c,axiom,p(a)|q(a)|~r(c))."));
+        System.out.println("result: " + res);
+        assertEquals("q(a)", Literal.literalList2String(res.literals));
+
+        res = Simplification.subsumptionResolution(clauses("cnf(c,axiom,p(X))."),
+                Clause.string2Clause("cnf(c,axiom,~p(a))."));
+        assertTrue(res.isEmpty());
+    }
+
+    /** ***************************************************************
+     * Test that a clause is replaced by a factor only if the factor
+     * subsumes it.
+     */
+    @Test
+    public void testCondensation() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SimplificationTest.testCondensation()");
+        Clause res = Simplification.condensation(Clause.string2Clause("cnf(c,axiom,p(X)|p(a)|q(Y))."));
+        System.out.println("result: " + res);
+        assertEquals("p(a)|q(Y)", Literal.literalList2String(res.literals));
+        assertEquals("condensation", res.rationale);
+        assertEquals("a", res.subst.value(new Term("X")).toString());
+
+        assertNull(Simplification.condensation(Clause.string2Clause("cnf(c,axiom,p(X)|p(a)|q(X)).")));
+        assertNull(Simplification.condensation(Clause.string2Clause("cnf(c,axiom,p(X)|~p(a)).")));
+
+        res = Simplification.condensation(Clause.string2Clause("cnf(c,axiom,p(X)|p(Y)|q(X)|p(Z))."));
+        System.out.println("result: " + res);
+        assertEquals("p(Z)|q(Z)", Literal.literalList2String(res.literals));
+    }
+
+    /** ***************************************************************
+     * Test that a proof with both simplifications is still found and
+     * printed.
+     */
+    @Test
+    public void testProofState() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SimplificationTest.testProofState()");
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer("cnf(i1,axiom,p(X)|q(X)|r(X)).\n" +
+                "cnf(i2,axiom,~t(b)|~q(a)).\n" +
+                "cnf(i3,axiom,t(Y)|t(b)).\n" +
+                "cnf(i4,axiom,~r(Z)).\n" +
+                "cnf(i5,negated_conjecture,~p(a)).\n"));
+        SearchParams sp = new SearchParams();
+        sp.subsumption_resolution = true;
+        sp.condensation = true;
+        ProofState state = new ProofState(problem,sp);
+        Clause res = state.saturate(10);
+        System.out.println(state.generateStatisticsString(new HashMap<>()));
+        assertNotNull(res);
+        assertTrue(state.literals_cut > 0);
+        assertTrue(state.condensed > 0);
+        String proof = state.proof2String(state.generateProofTree(res));
+        System.out.println(proof);
+        assertFalse(proof.contains("Error"));
+    }
+}
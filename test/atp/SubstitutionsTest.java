@@ -115,30 +115,4 @@ public class SubstitutionsTest {
         System.out.println("should be true: " + s2.apply(t1).equals(t5));
         assertEquals(t5,s2.apply(t1));
     }
-
-    /** ***************************************************************
-     */
-    @Test
-    public void testFreshVarSubst() {
-
-        System.out.println("---------------------");
-        System.out.println("INFO in testSubstApply()");
-        Term var1 = Substitutions.freshVar();
-        Term var2 = Substitutions.freshVar();
-        if (!var1.equals(var2))
-            System.out.println("Correct, " + var1 + " != " + var2);
-        else
-            System.out.println("Failure, " + var1 + " == " + var2);
-        assertNotEquals(var1,var2);
-        LinkedHashSet<Term> vars = t1.collectVars();
-        Substitutions sigma = Substitutions.freshVarSubst(vars);
-        LinkedHashSet<Term> vars2 = sigma.apply(t1).collectVars();
-        boolean shared = vars.removeAll(vars2);   // if false, intersection is empty set
-        if (!shared)
-            System.out.println("Correct, " + var1 + " & " + var2 + " don't share variables.");
-        else
-            System.out.println("Failure, " + var1 + " & " + var2 + " do share variables.");
-        assertFalse(shared);
-    }
-
 }
@@ -133,4 +133,42 @@ public class SubsumptionIndexTest {
         assertEquals(cands.size(), 1);
     }
 
+    /** ***************************************************************
+     */
+    @Test
+    public void testFeatureVectorIndex() {
+
+        ArrayList<Clause> all = new ArrayList<>(Arrays.asList(c1, c2, c3, c4, c5, c6, c7, c8, c9));
+        FeatureVectorIndex index = new FeatureVectorIndex();
+        for (Clause c : all)
+            index.insertClause(c);
+        for (Clause c : all)
+            assertTrue(index.isIndexed(c));
+
+        // every clause that really subsumes (or is subsumed) must be a candidate
+        for (Clause q : all) {
+            ArrayList<Clause> subsuming = index.getSubsumingCandidates(q);
+            ArrayList<Clause> subsumed = index.getSubsumedCandidates(q);
+            System.out.println("query: " + q);
+            System.out.println("subsuming candidates: " + subsuming);
+            System.out.println("subsumed candidates: " + subsumed);
+            for (Clause c : all) {
+                if (Subsumption.subsumes(c, q))
+                    assertTrue(subsuming.contains(c));
+                if (Subsumption.subsumes(q, c))
+                    assertTrue(subsumed.contains(c));
+            }
+        }
+        assertEquals(2, index.getSubsumingCandidates(c1).size());
+        assertEquals(5, index.getSubsumedCandidates(c9).size());
+        assertEquals(1, index.getSubsumedCandidates(c8).size());
+
+        index.removeClause(c9);
+        index.removeClause(c1);
+        assertFalse(index.isIndexed(c9));
+        assertFalse(index.isIndexed(c1));
+        assertTrue(index.isIndexed(c4));
+        assertEquals(0, index.getSubsumingCandidates(c1).size());
+        assertEquals(7, index.size);
+    }
 }
@@ -91,4 +91,59 @@ public class SubsumptionTest {
         System.out.println(c5 + " does not subsume " + c4 + " = " + !Subsumption.subsumes(c5,c4));
         assertTrue(!Subsumption.subsumes(c5,c4));
     }
+
+    /** ***************************************************************
+     * Subsumption of multi-sets: each literal of the subsumed clause
+     * can only be used once.
+     */
+    @Test
+    public void testMultiSet() {
+
+        System.out.println("INFO in Subsumption.testMultiSet()");
+        Lexer lex = new Lexer("cnf(d1,axiom,p(a)|p(a)).\n" +
+                "cnf(d2,axiom,p(X)|p(Y)).\n" +
+                "cnf(d3,axiom,p(a)|q(b)).\n" +
+                "cnf(d4,axiom,p(X)|p(X)).\n" +
+                "cnf(d5,axiom,p(a)|p(b)).\n");
+        Clause d1 = Clause.parse(lex);
+        Clause d2 = Clause.parse(lex);
+        Clause d3 = Clause.parse(lex);
+        Clause d4 = Clause.parse(lex);
+        Clause d5 = Clause.parse(lex);
+        assertTrue(Subsumption.subsumes(d1,d1));
+        assertTrue(Subsumption.subsumes(d2,d1));
+        assertTrue(Subsumption.subsumes(d2,d5));
+        assertFalse(Subsumption.subsumes(d2,d3));
+        assertFalse(Subsumption.subsumes(d2,c2));
+        assertTrue(Subsumption.subsumes(d4,d1));
+        assertFalse(Subsumption.subsumes(d4,d5));
+    }
+
+    /** ***************************************************************
+     * Signs, shared variable names and the order of the literals.
+     */
+    @Test
+    public void testMatching() {
+
+        System.out.println("INFO in Subsumption.testMatching()");
+        Lexer lex = new Lexer("cnf(e1,axiom,~p(X)|q(X)).\n" +
+                "cnf(e2,axiom,q(a)|~p(a)|r).\n" +
+                "cnf(e3,axiom,q(a)|~p(b)).\n" +
+                "cnf(e4,axiom,p(X,Y)).\n" +
+                "cnf(e5,axiom,p(Y,X)).\n" +
+                "cnf(e6,axiom,p(X)|q(X)).\n");
+        Clause e1 = Clause.parse(lex);
+        Clause e2 = Clause.parse(lex);
+        Clause e3 = Clause.parse(lex);
+        Clause e4 = Clause.parse(lex);
+        Clause e5 = Clause.parse(lex);
+        Clause e6 = Clause.parse(lex);
+        assertTrue(Subsumption.subsumes(e1,e2));
+        assertFalse(Subsumption.subsumes(e1,e3));
+        assertTrue(Subsumption.subsumes(e4,e5));
+        assertTrue(Subsumption.subsumes(e5,e4));
+        assertFalse(Subsumption.subsumes(e6,e2));
+        // no bindings are left behind
+        assertEquals(0, Unifier.get().mark());
+    }
 }
@@ -0,0 +1,187 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class SuperpositionTest {
+
+    /** ***************************************************************
+     */
+    private static TermOrdering ordering() {
+
+        Precedence p = new Precedence();
+        for (String f : new String[] {"a", "b", "c", "f", "g", "p"})
+            p.add(f);
+        return new KBO(p);
+    }
+
+    /** ***************************************************************
+     */
+    private static ArrayList<String> strings(ClauseSet cs) {
+
+        ArrayList<String> result = new ArrayList<>();
+        for (Clause c : cs.clauses)
+            result.add(Literal.literalList2String(c.literals));
+        return result;
+    }
+
+    /** ***************************************************************
+     * Test that an equation rewrites the subterms of another clause,
+     * in the direction that the ordering allows.
+     */
+    @Test
+    public void testSuperposition() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SuperpositionTest.testSuperposition()");
+        ClauseSet res = new ClauseSet();
+        Superposition.superpositions(Clause.string2Clause("cnf(c,axiom,f(X)=a)."),
+                Clause.string2Clause("cnf(c,axiom,p(f(b))|q(g(f(Y))))."), ordering(), res);
+        System.out.println("result: " + res);
+        ArrayList<String> actual = strings(res);
+        assertTrue(actual.contains("p(a)|q(g(f(X0)))"));
+        assertTrue(actual.contains("p(f(b))|q(g(a))"));
+        assertEquals(2, actual.size());
+
+        // a=f(X) is not used from left to right
+        res = new ClauseSet();
+        Superposition.superpositions(Clause.string2Clause("cnf(c,axiom,a=f(X))."),
+                Clause.string2Clause("cnf(c,axiom,p(a))."), ordering(), res);
+        assertEquals(0, res.length());
+
+        // into a negative equation, and renamed apart from it
+        res = new ClauseSet();
+        Superposition.superpositions(Clause.string2Clause("cnf(c,axiom,f(X)=X)."),
+                Clause.string2Clause("cnf(c,axiom,~f(g(X))=b)."), ordering(), res);
+        System.out.println("result: " + res);
+        assertEquals("~g(X0)=b", strings(res).get(0));
+        assertEquals("superposition", res.get(0).rationale);
+        assertEquals(2, res.get(0).support.size());
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testEqualityResolution() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SuperpositionTest.testEqualityResolution()");
+        ClauseSet res = Superposition.equalityResolution(
+                Clause.string2Clause("cnf(c,axiom,~f(X)=f(a)|p(X))."));
+        System.out.println("result: " + res);
+        assertEquals("p(a)", strings(res).get(0));
+        Clause c = Clause.string2Clause("cnf(c,axiom,~f(X)=g(a)|p(X)).");
+        assertEquals(0, Superposition.equalityResolution(c).length());
+        assertTrue(Superposition.isEqTautology(Clause.string2Clause("cnf(c,axiom,p(X)|f(X)=f(X)).")));
+        assertFalse(Superposition.isEqTautology(Clause.string2Clause("cnf(c,axiom,p(X)|~f(X)=f(X)).")));
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testEqualityFactoring() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SuperpositionTest.testEqualityFactoring()");
+        ClauseSet res = Superposition.equalityFactoring(Clause.string2Clause("cnf(c,axiom,f(X)=a|f(b)=c)."));
+        System.out.println("result: " + res);
+        assertTrue(strings(res).contains("f(b)=c|~a=c"));
+    }
+
+    /** ***************************************************************
+     * Test proofs without equality axioms.
+     */
+    @Test
+    public void testProofState() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SuperpositionTest.testProofState()");
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+        String[] problems = {
+                "cnf(i1,axiom,a=b).\n" +
+                "cnf(i2,axiom,b=c).\n" +
+                "cnf(i3,negated_conjecture,~a=c).\n",
+                "cnf(i1,axiom,p(f(a))).\n" +
+                "cnf(i2,axiom,f(X)=g(X)).\n" +
+                "cnf(i3,negated_conjecture,~p(g(a))).\n",
+                "cnf(i1,axiom,f(e,X)=X).\n" +
+                "cnf(i2,axiom,f(i(X),X)=e).\n" +
+                "cnf(i3,axiom,f(f(X,Y),Z)=f(X,f(Y,Z))).\n" +
+                "cnf(i4,negated_conjecture,~f(i(a),f(a,b))=b).\n"};
+        for (String spec : problems) {
+            ClauseSet problem = new ClauseSet();
+            problem.parse(new Lexer(spec));
+            SearchParams sp = new SearchParams();
+            sp.superposition = true;
+            ProofState state = new ProofState(problem,sp);
+            Clause res = state.saturate(10);
+            System.out.println(state.generateStatisticsString(new HashMap<>()));
+            assertNotNull(res);
+            String proof = state.proof2String(state.generateProofTree(res));
+            System.out.println(proof);
+            assertFalse(proof.contains("Error"));
+        }
+    }
+
+    /** ***************************************************************
+     * Test that computeAll() finds the same inferences, in the same
+     * order, with the index as without it, and that a clause removed
+     * from the index is no longer a partner.
+     */
+    @Test
+    public void testIndexed() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in SuperpositionTest.testIndexed()");
+        TermOrdering ord = ordering();
+        ClauseSet processed = new ClauseSet();
+        SuperpositionIndex index = new SuperpositionIndex(ord);
+        for (String s : new String[] {"cnf(c,axiom,f(X)=a).", "cnf(c,axiom,p(f(b))|q(g(f(Y)))).",
+                                      "cnf(c,axiom,g(X,b)=f(X)|p(X)).", "cnf(c,axiom,~p(g(a,Y))).",
+                                      "cnf(c,axiom,a=b).", "cnf(c,axiom,~q(X)|f(g(X,Y))=c).",
+                                      "cnf(c,axiom,p(X))."}) {
+            Clause c = Clause.string2Clause(s);
+            processed.addClause(c);
+            index.insertClause(c);
+        }
+        assertEquals(7, index.size());
+        for (String s : new String[] {"cnf(c,axiom,f(a)=g(b,c)).", "cnf(c,axiom,p(g(f(X),b))|~a=f(c)).",
+                                      "cnf(c,axiom,q(f(f(a)))).", "cnf(c,axiom,X=a|f(X)=b)."}) {
+            Clause given = Clause.string2Clause(s);
+            ArrayList<String> expected = strings(Superposition.computeAll(given, processed, ord));
+            ArrayList<String> actual = strings(Superposition.computeAll(given, index, ord));
+            System.out.println("given: " + given + " result: " + actual);
+            assertEquals(expected, actual);
+        }
+        Clause given = Clause.string2Clause("cnf(c,axiom,q(f(f(a)))).");
+        int before = Superposition.computeAll(given, index, ord).length();
+        Clause c = processed.get(0);  // f(X)=a
+        processed.extractClause(c);
+        index.removeClause(c);
+        assertEquals(6, index.size());
+        assertEquals(-1, index.serial(c));
+        ArrayList<String> expected = strings(Superposition.computeAll(given, processed, ord));
+        assertEquals(expected, strings(Superposition.computeAll(given, index, ord)));
+        assertTrue(expected.size() < before);
+    }
+}
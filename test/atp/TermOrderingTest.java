@@ -0,0 +1,152 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class TermOrderingTest {
+
+    /** ***************************************************************
+     * ************ UNIT TESTS *****************
+     */
+    private static Term term(String s) {
+
+        return Term.string2Term(s);
+    }
+
+    /** ***************************************************************
+     * a < b < f < g, so that the arity precedence agrees with the name
+     * order of the symbols.
+     */
+    private static Precedence precedence() {
+
+        Precedence p = new Precedence();
+        p.add("a");
+        p.add("b");
+        p.add("f");
+        p.add("g");
+        return p;
+    }
+
+    /** ***************************************************************
+     * Test the Knuth-Bendix ordering.
+     */
+    @Test
+    public void testKBO() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in TermOrderingTest.testKBO()");
+        TermOrdering kbo = new KBO(precedence());
+        assertTrue(kbo.greater(term("f(X)"), term("X")));
+        assertTrue(kbo.greater(term("f(a,b)"), term("g(a)")));    // heavier
+        assertTrue(kbo.greater(term("g(a)"), term("f(a)")));      // precedence
+        assertTrue(kbo.greater(term("f(b,a)"), term("f(a,b)")));  // arguments
+        assertFalse(kbo.greater(term("f(X,a)"), term("g(Y)")));   // Y doesn't occur on the left
+        assertFalse(kbo.greater(term("X"), term("a")));
+        assertEquals(TermOrdering.Comparison.INCOMPARABLE, kbo.compare(term("f(X)"), term("f(Y)")));
+        assertEquals(TermOrdering.Comparison.EQUAL, kbo.compare(term("f(X)"), term("f(X)")));
+        assertEquals(TermOrdering.Comparison.LESS, kbo.compare(term("a"), term("g(a)")));
+    }
+
+    /** ***************************************************************
+     * Test the lexicographic path ordering.
+     */
+    @Test
+    public void testLPO() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in TermOrderingTest.testLPO()");
+        TermOrdering lpo = new LPO(precedence());
+        assertTrue(lpo.greater(term("f(X)"), term("X")));
+        assertTrue(lpo.greater(term("g(a)"), term("f(a,a)")));     // precedence, unlike KBO
+        assertTrue(lpo.greater(term("f(f(a,a),a)"), term("f(a,f(a,a))")));
+        assertFalse(lpo.greater(term("f(a,f(a,a))"), term("f(f(a,a),a)")));
+        assertFalse(lpo.greater(term("f(b,a)"), term("f(a,g(b))")));  // g(b) is greater than f(b,a)
+        assertTrue(lpo.greater(term("g(f(X,Y))"), term("f(g(X),Y)")));
+        assertFalse(lpo.greater(term("f(X)"), term("g(Y)")));
+        assertEquals(TermOrdering.Comparison.INCOMPARABLE, lpo.compare(term("f(X)"), term("g(Y)")));
+    }
+
+    /** ***************************************************************
+     * Test that only the maximal literals of a clause are marked for
+     * inferences, and that the negative literal is the larger one of
+     * two literals with the same atom.
+     */
+    @Test
+    public void testSelectMaximalLits() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in TermOrderingTest.testSelectMaximalLits()");
+        Precedence p = new Precedence();
+        p.add("a");
+        p.add("f");
+        p.add("p");
+        p.add("q");
+        TermOrdering kbo = new KBO(p);
+        Clause c = Clause.string2Clause("cnf(c,axiom,p(a)|q(f(X))|~p(X)|p(Y)).");
+        kbo.selectMaximalLits(c);
+        System.out.println("result: " + c.printHighlight());
+        assertFalse(c.getLiteral(0).isInferenceLit());
+        assertTrue(c.getLiteral(1).isInferenceLit());
+        assertFalse(c.getLiteral(2).isInferenceLit());
+        assertTrue(c.getLiteral(3).isInferenceLit());  // incomparable with q(f(X))
+
+        Literal pos = c.getLiteral(0);
+        Literal neg = Clause.string2Clause("cnf(d,axiom,~p(a)).").getLiteral(0);
+        assertEquals(TermOrdering.Comparison.GREATER, kbo.compare(neg, pos));
+    }
+
+    /** ***************************************************************
+     * Test that ordered resolution still finds proofs and does not
+     * compute more resolvents.
+     */
+    @Test
+    public void testOrderedResolution() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in TermOrderingTest.testOrderedResolution()");
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+        String spec = "cnf(c1,axiom,p(X)|q(X)|r(f(X))).\n" +
+                "cnf(c2,axiom,~r(f(a))|q(a)).\n" +
+                "cnf(c3,axiom,~q(Y)|s(Y)).\n" +
+                "cnf(c4,axiom,~p(Z)|s(Z)).\n" +
+                "cnf(c5,negated_conjecture,~s(a)).\n";
+        for (TermOrdering.Orderings o : TermOrdering.Orderings.values()) {
+            ClauseSet problem = new ClauseSet();
+            problem.parse(new Lexer(spec));
+            SearchParams sp = new SearchParams();
+            sp.literal_selection = null;
+            ProofState plain = new ProofState(problem,sp);
+            assertNotNull(plain.saturate(10));
+
+            sp = new SearchParams();
+            sp.literal_selection = null;
+            sp.ordering = o;
+            ProofState ordered = new ProofState(problem,sp);
+            Clause res = ordered.saturate(10);
+            System.out.println(ordered.generateStatisticsString(new HashMap<>()));
+            assertNotNull(res);
+            assertNotNull(ordered.ordering);
+            assertTrue(ordered.resolvent_count <= plain.resolvent_count);
+        }
+    }
+}
@@ -706,4 +706,40 @@ public class TermTest {
         assertEquals("f",t5.subterm(new ArrayList<>(Arrays.asList(2,0))).toString());
         assertEquals(null,t5.subterm(new ArrayList<>(Arrays.asList(5,0))));
     }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testTermBank() {
+
+        System.out.println("---------------------");
+        System.out.println("TermTest.testTermBank()");
+        TermBank bank = new TermBank();
+        Term s3 = bank.share(Term.string2Term(example3));
+        Term s4 = bank.share(Term.string2Term(example4));
+        Term s5 = bank.share(Term.string2Term(example5));
+        Term s8 = bank.share(Term.string2Term(example8));
+        System.out.println(bank.statistics());
+        assertTrue(s4 == s5);
+        assertTrue(s4.shared);
+        assertEquals(s4, t4);
+        assertEquals(t4, s4);
+        assertEquals(t4.hashCode(), s4.hashCode());
+        assertFalse(s3.equals(s8));
+        assertTrue(s8.subterms.get(0) == s8.subterms.get(1));
+        assertEquals(s3.weight(2, 1), t3.weight(2, 1));
+        assertEquals(s4.weight(2, 1), t4.weight(2, 1));
+        assertTrue(s3.isGround());
+        assertFalse(s4.isGround());
+        assertEquals(t4.collectVars(), s4.collectVars());
+        // the symbol g is only stored once
+        assertTrue(s3.t == s4.t);
+        assertEquals(s3.symbol, s4.symbol);
+        assertEquals(SymbolTable.intern("g"), s4.symbol);
+        assertTrue(SymbolTable.isVar(s4.subterms.get(0).symbol));
+
+        // the hash code depends on the symbol and the order of arguments
+        assertFalse(Term.string2Term("f(a,b)").hashCode() == Term.string2Term("g(b,a)").hashCode());
+        assertFalse(Term.string2Term("f(a,b)").hashCode() == Term.string2Term("f(b,a)").hashCode());
+    }
 }
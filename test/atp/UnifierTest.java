@@ -0,0 +1,177 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class UnifierTest {
+
+    /** ***************************************************************
+     * Unify s and t with a new Unifier and return the common instance,
+     * or null if they don't unify.
+     */
+    private static String unify(String s, String t) {
+
+        Unifier u = new Unifier();
+        Term st = Term.string2Term(s);
+        Term tt = Term.string2Term(t);
+        if (!u.unify(st, tt))
+            return null;
+        Term si = u.instantiate(st);
+        assertEquals(si, u.instantiate(tt));
+        return si.toString();
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testUnify() {
+
+        System.out.println("-----------------------------------");
+        System.out.println("INFO in UnifierTest.testUnify()");
+        assertEquals("a", unify("X", "a"));
+        assertNull(unify("X", "f(X)"));
+        assertEquals("f(b,a)", unify("f(X,a)", "f(b,Y)"));
+        assertEquals("f(g(a),g(a))", unify("f(X,g(a))", "f(X,X)"));
+        assertNull(unify("g(X)", "g(f(g(X),b))"));
+        assertNull(unify("p(X,X,X)", "p(Y,Y,e,a)"));
+        assertEquals("p(e,e,e)", unify("p(X,X,X)", "p(Y,Y,e)"));
+        assertNull(unify("f(f(g(X),a),X)", "f(Y,g(Y))"));
+        assertEquals("p(f(a),g(a),f(a,f(a)))", unify("p(X,g(a), f(a, f(a)))", "p(f(a), g(Y), f(Y, Z))"));
+        // bindings through a chain of variables
+        assertEquals("f(a,a,a)", unify("f(X,Y,Z)", "f(Y,Z,a)"));
+        assertNull(unify("f(X,Y,Z)", "f(Y,Z,g(X))"));
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testUndo() {
+
+        System.out.println("-----------------------------------");
+        System.out.println("INFO in UnifierTest.testUndo()");
+        Unifier u = new Unifier();
+        Term x = Term.string2Term("X");
+        Term y = Term.string2Term("Y");
+        assertTrue(u.unify(x, Term.string2Term("f(Y)")));
+        int mark = u.mark();
+        // a failed unification leaves the earlier bindings alone
+        assertFalse(u.unify(Term.string2Term("g(Y,Y)"), Term.string2Term("g(a,b)")));
+        assertEquals(mark, u.mark());
+        assertFalse(u.isBound(y));
+        assertTrue(u.unify(y, Term.string2Term("a")));
+        assertEquals("f(a)", u.instantiate(x).toString());
+        Substitutions all = u.toSubstitutions(0);
+        assertEquals(Term.string2Term("f(a)"), all.value(x));
+        assertEquals(Term.string2Term("a"), all.value(y));
+        assertEquals(1, u.toSubstitutions(mark).subst.size());
+        u.undo(mark);
+        assertFalse(u.isBound(y));
+        assertEquals("f(Y)", u.instantiate(x).toString());
+        u.reset();
+        assertFalse(u.isBound(x));
+    }
+
+    /** ***************************************************************
+     * Unchanged subterms are shared, not copied.
+     */
+    @Test
+    public void testInstantiate() {
+
+        System.out.println("-----------------------------------");
+        System.out.println("INFO in UnifierTest.testInstantiate()");
+        Unifier u = new Unifier();
+        Term t = Term.string2Term("f(g(a,b),X)");
+        assertSame(t, u.instantiate(t));
+        assertTrue(u.unify(Term.string2Term("X"), Term.string2Term("c")));
+        Term i = u.instantiate(t);
+        assertEquals("f(g(a,b),c)", i.toString());
+        assertSame(t.subterms.get(0), i.subterms.get(0));
+        assertEquals("f(g(a,b),X)", t.toString());
+    }
+
+    /** ***************************************************************
+     * mgu() gives a fully expanded substitution, and leaves no
+     * bindings behind in the Unifier of the thread.
+     */
+    @Test
+    public void testMGU() {
+
+        System.out.println("-----------------------------------");
+        System.out.println("INFO in UnifierTest.testMGU()");
+        Term s = Term.string2Term("f(X,Y)");
+        Term t = Term.string2Term("f(Y,g(a))");
+        Substitutions sigma = Unification.mgu(s, t);
+        assertNotNull(sigma);
+        assertEquals(Term.string2Term("g(a)"), sigma.value(Term.string2Term("X")));
+        assertEquals(Term.string2Term("g(a)"), sigma.value(Term.string2Term("Y")));
+        assertFalse(Unifier.get().isBound(Term.string2Term("X")));
+        assertEquals(0, Unifier.get().mark());
+        assertNull(Unification.mgu(s, Term.string2Term("f(a,b,c)")));
+        assertEquals(0, Unifier.get().mark());
+    }
+
+    /** ***************************************************************
+     * The same variable in two banks is two variables.
+     */
+    @Test
+    public void testBanks() {
+
+        System.out.println("-----------------------------------");
+        System.out.println("INFO in UnifierTest.testBanks()");
+        Unifier u = new Unifier();
+        Term s = Term.string2Term("p(X,a)");
+        Term t = Term.string2Term("p(b,X)");
+        assertFalse(u.unify(s, t));
+        assertTrue(u.unify(s, 0, t, 1));
+        assertEquals("p(b,a)", u.instantiate(s, 0).toString());
+        assertEquals("p(b,a)", u.instantiate(t, 1).toString());
+        u.reset();
+        // occurs check across banks
+        assertTrue(u.unify(Term.string2Term("X"), 0, Term.string2Term("f(X)"), 1));
+        assertEquals("f(X)", u.instantiate(Term.string2Term("X"), 0).toString());
+        u.reset();
+        assertTrue(u.unify(Term.string2Term("f(X,Y)"), 0, Term.string2Term("f(Y,X)"), 1));
+        u.startRenaming();
+        assertEquals("g(X0,X1,X1,X0)", u.instantiate(Term.string2Term("g(X,Y,Y,X)"), 0).toString());
+        assertEquals("g(X1,X0)", u.instantiate(Term.string2Term("g(X,Y)"), 1).toString());
+        assertEquals(Term.string2Term("X1"), u.toSubstitutions(0, 1).value(Term.string2Term("X")));
+        u.reset();
+    }
+
+    /** ***************************************************************
+     * Matching binds only the variables of the pattern.
+     */
+    @Test
+    public void testMatch() {
+
+        System.out.println("-----------------------------------");
+        System.out.println("INFO in UnifierTest.testMatch()");
+        Unifier u = new Unifier();
+        assertTrue(u.match(Term.string2Term("f(X,Y,X)"), Term.string2Term("f(g(Y),a,g(Y))")));
+        assertEquals("f(g(Y),a,g(Y))", u.instantiate(Term.string2Term("f(X,Y,X)")).toString());
+        u.reset();
+        assertFalse(u.match(Term.string2Term("f(X,X)"), Term.string2Term("f(a,b)")));
+        assertEquals(0, u.mark());
+        assertFalse(u.match(Term.string2Term("f(a)"), Term.string2Term("f(X)")));
+        assertTrue(u.match(Term.string2Term("f(X,Y)"), Term.string2Term("f(Y,X)")));
+        u.reset();
+    }
+}
@@ -7,19 +7,26 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
         BacktrackSubstitutionTest.class,
         BareFormulaTest.class,
+        ClauseCacheTest.class,
         ClauseEvaluationFunctionTest.class,
         ClauseSetTest.class,
         ClauseTest.class,
         ClausifierTest.class,
+        DefinitionalCNFTest.class,
+        DemodulationIndexTest.class,
         DerivationTest.class,
         EqAxiomsTest.class,
         FormulaTest.class,
         HeuristicClauseSetTest.class,
+        HyperResolutionTest.class,
         IndexedClauseSetTest.class,
         KIFTest.class,
         LexerTest.class,
         LiteralTest.class,
         LitSelectionTest.class,
+        ParallelClausifierTest.class,
+        PortfolioTest.class,
+        PrecedenceTest.class,
         PredicateAbstractionTest.class,
         ProofStateTest.class,
         ProverCNFTest.class,
@@ -31,12 +38,17 @@ import org.junit.runners.Suite;
         SearchParamsTest.class,
         SignatureTest.class,
         SimpleProofStateTest.class,
+        SimplificationTest.class,
         SmallCNFizationTest.class,
         SubstitutionsTest.class,
         SubsumptionTest.class,
         SubsumptionIndexTest.class,
+        SuperpositionTest.class,
+        TermOrderingTest.class,
         TermTest.class,
         UnificationTest.class,
+        UnifierTest.class,
+        VariantIndexTest.class,
 })
 
 public class UnitTestAll {
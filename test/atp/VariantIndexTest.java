@@ -0,0 +1,89 @@
+/*
+Copyright 2010-2011 Adam Pease, apease@articulatesoftware.com
+
+This program is free software; you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 2 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program ; if not, write to the Free Software
+Foundation, Inc., 59 Temple Place, Suite 330, Boston,
+MA  02111-1307 USA
+*/
+package atp;
+
+import org.junit.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class VariantIndexTest {
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testKey() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in VariantIndexTest.testKey()");
+        assertEquals("p(X0,a)|~q(X1,X0)",
+                VariantIndex.key(Clause.string2Clause("cnf(c,axiom,~q(Y,Z)|p(Z,a)).")));
+        assertEquals(VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X)|q(X,Y)).")),
+                VariantIndex.key(Clause.string2Clause("cnf(c,axiom,q(B,A)|p(B)).")));
+        assertNotEquals(VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X)|q(X,Y)).")),
+                VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X)|q(Y,X)).")));
+        assertNotEquals(VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X,X)).")),
+                VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X,Y)).")));
+        assertNotEquals(VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X)).")),
+                VariantIndex.key(Clause.string2Clause("cnf(c,axiom,~p(X)).")));
+        assertNotEquals(VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X)|p(X)).")),
+                VariantIndex.key(Clause.string2Clause("cnf(c,axiom,p(X)).")));
+    }
+
+    /** ***************************************************************
+     */
+    @Test
+    public void testIndex() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in VariantIndexTest.testIndex()");
+        VariantIndex index = new VariantIndex();
+        assertTrue(index.add(Clause.string2Clause("cnf(c,axiom,p(X,f(Y))|~q(Y)).")));
+        assertFalse(index.add(Clause.string2Clause("cnf(c,axiom,~q(A)|p(B,f(A))).")));
+        assertTrue(index.contains(Clause.string2Clause("cnf(c,axiom,p(Z,f(X))|~q(X)).")));
+        assertFalse(index.contains(Clause.string2Clause("cnf(c,axiom,p(X,f(X))|~q(X)).")));
+        assertEquals(1, index.size());
+        index.remove(Clause.string2Clause("cnf(c,axiom,p(U,f(V))|~q(V))."));
+        assertEquals(0, index.size());
+    }
+
+    /** ***************************************************************
+     * The proof state adds no variants of earlier clauses to unprocessed.
+     */
+    @Test
+    public void testProofState() {
+
+        System.out.println("---------------------");
+        System.out.println("INFO in VariantIndexTest.testProofState()");
+        ClauseEvaluationFunction.setupEvaluationFunctions();
+        ClauseSet problem = new ClauseSet();
+        problem.parse(new Lexer("cnf(c1,axiom,p(X)|q(X)).\n" +
+                "cnf(c2,axiom,~p(a)|r(Y)).\n" +
+                "cnf(c3,axiom,~q(a)|r(Z)).\n" +
+                "cnf(c4,axiom,~q(b)).\n"));
+        ProofState state = new ProofState(problem,new SearchParams());
+        state.saturate(10);
+        System.out.println(state.generateStatisticsString(new HashMap<>()));
+        assertTrue(state.variants_deleted > 0);
+        HashSet<String> keys = new HashSet<>();
+        for (Clause c : state.unprocessed.clauses)
+            assertTrue(keys.add(VariantIndex.key(c)));
+        for (Clause c : state.processed.clauses)
+            assertTrue(keys.add(VariantIndex.key(c)));
+    }
+}